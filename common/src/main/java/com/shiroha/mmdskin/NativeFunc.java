@@ -37,14 +37,41 @@ public class NativeFunc {
 
     public native long LoadModelPMD(String filename, String dir, long layerCount);
 
+    /**
+     * 设置解析模型磁盘缓存目录
+     * 命中缓存时 LoadModelPMX / LoadModelVRM 跳过解析，直接从缓存重建模型
+     * @param dir 缓存目录绝对路径，空字符串关闭缓存
+     */
+    public native void SetModelCacheDir(String dir);
+
     public native long LoadModelVRM(String filename, String dir, long layerCount);
 
     public native boolean IsVrmModel(long model);
 
+    /**
+     * 获取模型共享资产编号
+     * 同一模型文件的多个实例共享几何、材质与 Morph 定义，编号相同；渲染层据此共享静态 GL 缓冲区
+     * @param model 模型句柄
+     * @return 资产编号，无效句柄返回 0
+     */
+    public native long GetModelAssetId(long model);
+
     public native void DeleteModel(long model);
 
     public native void UpdateModel(long model, float deltaTime);
 
+    /**
+     * 更新模型并将蒙皮后的位置/法线直接写入持久映射 GL 缓冲区（零拷贝流式上传）
+     * 地址必须来自 glMapBufferRange(GL_MAP_PERSISTENT_BIT)，且对应区域的 fence 已发出信号
+     * @param model 模型句柄
+     * @param deltaTime 时间增量（秒）
+     * @param posAddr 位置写入地址（至少 vertexCapacity * 12 字节）
+     * @param norAddr 法线写入地址（至少 vertexCapacity * 12 字节）
+     * @param vertexCapacity 目标区域可容纳的顶点数
+     * @return true=已写入映射缓冲区；false=已回退到内部缓冲区（需走 GetPoss/GetNormals 拷贝路径）
+     */
+    public native boolean UpdateModelToMappedBuffer(long model, float deltaTime, long posAddr, long norAddr, int vertexCapacity);
+
     public native long GetVertexCount(long model);
 
     public native long GetPoss(long model);
@@ -147,6 +174,26 @@ public class NativeFunc {
 
     public native boolean TextureHasAlpha(long tex);
 
+    /**
+     * 加载纹理并压缩为带完整 Mip 链的 BC1（不透明）/ BC3（带透明通道）
+     * 结果按文件内容缓存在模型缓存目录中，数据通过 GetTextureData 获取，各层级按顺序紧密排列
+     * @param filename 纹理文件路径
+     * @return 纹理句柄，失败返回 0
+     */
+    public native long LoadTextureCompressed(String filename);
+
+    /**
+     * 获取纹理格式
+     * @return 0=未压缩 RGB/RGBA, 1=BC1, 3=BC3
+     */
+    public native int GetTextureFormat(long tex);
+
+    /** 获取纹理 Mip 层级数（未压缩纹理为 1） */
+    public native int GetTextureMipCount(long tex);
+
+    /** 获取指定 Mip 层级的数据字节数 */
+    public native int GetTextureMipSize(long tex, int level);
+
     public native long LoadAnimation(long model, String filename);
 
     public native void DeleteAnimation(long anim);
@@ -302,6 +349,22 @@ public class NativeFunc {
      */
     public native boolean IsPhysicsEnabled(long model);
     
+    /**
+     * 设置动画 LOD 降级（远处/小屏幕模型）
+     * 降级期间跳过物理、冻结 Morph 与自动眨眼；恢复时自动重置物理
+     * @param model 模型句柄
+     * @param reduced 是否降级
+     */
+    public native void SetUpdateLodReduced(long model, boolean reduced);
+    
+    /**
+     * 只推进动画时钟（未绘制的模型重新可见时一次性快进）
+     * 不评估姿态、不蒙皮、不步进物理；跳过时间过长时下次更新前自动重置物理
+     * @param model 模型句柄
+     * @param deltaTime 跳过的时间（秒）
+     */
+    public native void AdvanceAnimationClock(long model, float deltaTime);
+    
     /**
      * 获取物理系统是否已初始化
      * @param model 模型句柄
@@ -389,6 +452,15 @@ public class NativeFunc {
      */
     public native int CopySkinningMatricesToBuffer(long model, java.nio.ByteBuffer buffer);
     
+    /**
+     * 复制 LOD 跳帧插值后的蒙皮矩阵到 ByteBuffer（上一次与本次更新的矩阵线性插值）
+     * @param model 模型句柄
+     * @param buffer 目标缓冲区（需要足够大小：骨骼数 * 64 字节）
+     * @param alpha 插值系数，0 为上一次更新、1 为本次更新
+     * @return 复制的骨骼数量
+     */
+    public native int CopyLodBlendedSkinningMatricesToBuffer(long model, java.nio.ByteBuffer buffer, float alpha);
+    
     /**
      * 获取顶点骨骼索引数据指针（ivec4 格式）
      * @param model 模型句柄
@@ -490,7 +562,7 @@ public class NativeFunc {
     public native int GetVertexMorphCount(long model);
     
     /**
-     * 获取 GPU Morph 偏移数据指针（密集格式：morph_count * vertex_count * 3）
+     * 获取 GPU Morph 偏移数据指针（按顶点的 CSR 稀疏格式，同 CopyGpuMorphOffsetsToBuffer）
      * @param model 模型句柄
      * @return 数据指针
      */
@@ -518,6 +590,7 @@ public class NativeFunc {
     
     /**
      * 复制 GPU Morph 偏移数据到 ByteBuffer
+     * 按顶点的 CSR 稀疏格式：vertexCount + 1 个 uint 行起始下标，之后每条目 4 个 uint（Morph 索引 + 偏移 xyz 浮点位）
      * @param model 模型句柄
      * @param buffer 目标缓冲区
      * @return 复制的字节数
@@ -525,10 +598,10 @@ public class NativeFunc {
     public native long CopyGpuMorphOffsetsToBuffer(long model, java.nio.ByteBuffer buffer);
     
     /**
-     * 复制 GPU Morph 权重数据到 ByteBuffer
+     * 复制 GPU Morph 权重数据到 ByteBuffer（接近 0 的权重已置 0）
      * @param model 模型句柄
      * @param buffer 目标缓冲区
-     * @return 复制的 Morph 数量
+     * @return 当前非零权重的 Morph 数量（为 0 时可跳过 Morph 计算）
      */
     public native int CopyGpuMorphWeightsToBuffer(long model, java.nio.ByteBuffer buffer);
     
@@ -679,6 +752,17 @@ public class NativeFunc {
      */
     public native int BatchGetSubMeshData(long model, java.nio.ByteBuffer buffer);
     
+    /**
+     * 获取子网格绘制掩码（每子网格 1 字节：1 绘制 / 0 跳过）
+     * 材质可见且经材质 Morph 后 alpha 不低于阈值时绘制；掩码未变化时不写入缓冲区。
+     * 
+     * @param model        模型句柄
+     * @param buffer       输出缓冲区（DirectByteBuffer，需预分配 subMeshCount 字节）
+     * @param knownVersion 调用方已持有的掩码版本号（首次传 -1）
+     * @return 当前掩码版本号，与 knownVersion 不同表示缓冲区已写入新掩码
+     */
+    public native int GetSubMeshDrawMask(long model, java.nio.ByteBuffer buffer, int knownVersion);
+    
     // ========== 物理配置相关 ==========
     
     /**
@@ -693,6 +777,9 @@ public class NativeFunc {
      * @param maxAngularVelocity 最大角速度（防止物理爆炸）
      * @param jointsEnabled 是否启用关节
      * @param debugLog 是否输出调试日志
+     * @param frameBudgetMs 每帧物理耗时预算（毫秒，所有模型合计，0 = 不限制）
+     * @param tierDistance 物理降级基准距离（方块，0 = 不按距离降级）
+     * @param sharedWorld 所有模型共用一个物理世界（对之后加载的模型生效）
      */
     public native void SetPhysicsConfig(
         boolean enabled,
@@ -704,9 +791,48 @@ public class NativeFunc {
         float maxAngularVelocity,
         boolean jointsEnabled,
         boolean kinematicFilter,
-        boolean debugLog
+        boolean debugLog,
+        float frameBudgetMs,
+        float tierDistance,
+        boolean sharedWorld
     );
     
+    /**
+     * 设置模型到相机的距离，用于选择物理质量等级（全速/减少子步/半频/冻结）
+     * @param model 模型句柄
+     * @param distance 距离（方块），负数表示固定全速（本地玩家、GUI 预览）
+     */
+    public native void SetPhysicsCameraDistance(long model, float distance);
+    
+    /**
+     * 获取模型当前物理质量等级
+     * @param model 模型句柄
+     * @return 0=全速, 1=减少子步, 2=半频插值, 3=冻结
+     */
+    public native int GetPhysicsTier(long model);
+    
+    /**
+     * 获取模型最近一次物理更新耗时
+     * @param model 模型句柄
+     * @return 耗时（微秒）
+     */
+    public native int GetPhysicsStepMicros(long model);
+    
+    /**
+     * 帧开始：结算上一帧物理耗时并按预算调整全局物理等级
+     */
+    public native void BeginPhysicsFrame();
+    
+    /**
+     * 获取上一帧所有模型物理耗时之和（微秒）
+     */
+    public native long GetPhysicsFrameMicros();
+    
+    /**
+     * 获取当前物理预算压力（所有非固定模型整体降级的级数，0-3）
+     */
+    public native int GetPhysicsBudgetPressure();
+    
     // ========== 第一人称模式相关 ==========
     
     /**
@@ -758,6 +884,23 @@ public class NativeFunc {
      */
     public native int CopyBonePositionsToBuffer(long model, java.nio.ByteBuffer buffer);
     
+    /**
+     * 复制所有骨骼的动画输入姿势到 ByteBuffer（骨骼同步发送端）
+     * 每个骨骼 7 个 float（平移 x, y, z + 旋转四元数 x, y, z, w），共 boneCount * 28 字节
+     * @param model 模型句柄
+     * @param buffer 目标缓冲区（需要 boneCount * 28 字节）
+     * @return 复制的骨骼数量
+     */
+    public native int CopyBonePoseToBuffer(long model, java.nio.ByteBuffer buffer);
+    
+    /**
+     * 设置网络同步的骨骼姿势（骨骼同步接收端），替代本地动画输入，IK 与物理仍在本地计算
+     * @param model 模型句柄
+     * @param buffer 姿势数据，布局同 CopyBonePoseToBuffer
+     * @param boneCount 骨骼数量，<= 0 时清除同步姿势并恢复本地动画
+     */
+    public native void SetNetworkBonePose(long model, java.nio.ByteBuffer buffer, int boneCount);
+    
     /**
      * 复制实时 UV 数据到 ByteBuffer（经过 UV Morph 变形后的坐标）
      * 每个顶点 2 个 float (u, v)，共 vertexCount * 8 字节
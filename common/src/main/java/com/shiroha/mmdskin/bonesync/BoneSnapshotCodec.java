@@ -0,0 +1,248 @@
+package com.shiroha.mmdskin.bonesync;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 骨骼快照量化与二进制帧编解码
+ *
+ * 每骨骼的动画输入姿势量化为：
+ * - 旋转：smallest-three 四元数，2 位最大分量索引 + 3 × 10 位，共 32 位
+ * - 平移：3 × int16，精度 1/256 模型单位
+ *
+ * 帧只包含相对基准状态发生变化的骨骼：
+ * - 关键帧：基准为静息姿势（零平移 + 单位旋转）
+ * - 增量帧：基准为发送端上一次已发送的状态，帧头携带基准序号，接收端不连续时丢弃直到下一个关键帧
+ *
+ * 帧格式（大端）：
+ * 版本(u8) 标志(u8) 序号(u16) 基准序号(u16) 采样时刻(u16) 骨骼数(u16) 条目数(u16)，
+ * 之后每条目：骨骼索引(u16) 掩码(u8) [旋转(u32)] [平移(3 × i16)]
+ */
+final class BoneSnapshotCodec {
+
+    static final int VERSION = 1;
+    static final int FLAG_KEYFRAME = 1;
+
+    static final int HEADER_BYTES = 12;
+    static final int MASK_ROTATION = 1;
+    static final int MASK_TRANSLATION = 2;
+
+    /** 每骨骼 float 数（与 NativeFunc.CopyBonePoseToBuffer 布局一致） */
+    static final int FLOATS_PER_BONE = 7;
+
+    /** 单位四元数的量化值 */
+    static final int IDENTITY_ROTATION = quantizeRotation(0f, 0f, 0f, 1f);
+
+    private static final float POSITION_SCALE = 256.0f;
+    private static final float COMPONENT_RANGE = (float) (1.0 / Math.sqrt(2.0));
+    private static final int COMPONENT_MAX = 1023;
+
+    private BoneSnapshotCodec() {}
+
+    // ==================== 量化 ====================
+
+    static int quantizeRotation(float x, float y, float z, float w) {
+        float[] q = {x, y, z, w};
+        int largest = 0;
+        for (int i = 1; i < 4; i++) {
+            if (Math.abs(q[i]) > Math.abs(q[largest])) largest = i;
+        }
+        // q 与 -q 表示同一旋转，保证省略的最大分量为正
+        float sign = q[largest] < 0 ? -1f : 1f;
+        int packed = largest << 30;
+        int shift = 20;
+        for (int i = 0; i < 4; i++) {
+            if (i == largest) continue;
+            float v = q[i] * sign / COMPONENT_RANGE;
+            int bits = Math.round((Math.max(-1f, Math.min(1f, v)) + 1f) * 0.5f * COMPONENT_MAX);
+            packed |= bits << shift;
+            shift -= 10;
+        }
+        return packed;
+    }
+
+    /** 解量化旋转，写入 out[offset..offset+4]（xyzw） */
+    static void dequantizeRotation(int packed, float[] out, int offset) {
+        int largest = packed >>> 30;
+        int shift = 20;
+        float sum = 0f;
+        for (int i = 0; i < 4; i++) {
+            if (i == largest) continue;
+            float v = (((packed >>> shift) & COMPONENT_MAX) / (float) COMPONENT_MAX * 2f - 1f) * COMPONENT_RANGE;
+            out[offset + i] = v;
+            sum += v * v;
+            shift -= 10;
+        }
+        out[offset + largest] = (float) Math.sqrt(Math.max(0f, 1f - sum));
+    }
+
+    static short quantizePosition(float v) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(v * POSITION_SCALE)));
+    }
+
+    static float dequantizePosition(short v) {
+        return v / POSITION_SCALE;
+    }
+
+    /** 两个量化旋转之间的近似差异（用于带宽不足时的发送优先级） */
+    static int rotationError(int a, int b) {
+        if (a == b) return 0;
+        if ((a >>> 30) != (b >>> 30)) return COMPONENT_MAX;
+        int error = 0;
+        for (int shift = 0; shift <= 20; shift += 10) {
+            error += Math.abs(((a >>> shift) & COMPONENT_MAX) - ((b >>> shift) & COMPONENT_MAX));
+        }
+        return error;
+    }
+
+    // ==================== 量化姿势 ====================
+
+    /**
+     * 量化后的整套骨骼姿势（发送端的已发送状态 / 接收端的当前状态）
+     */
+    static final class QuantizedPose {
+        final int boneCount;
+        final int[] rotations;
+        final short[] positions;
+
+        QuantizedPose(int boneCount) {
+            this.boneCount = boneCount;
+            this.rotations = new int[boneCount];
+            this.positions = new short[boneCount * 3];
+            reset();
+        }
+
+        /** 重置为静息姿势（关键帧基准） */
+        void reset() {
+            Arrays.fill(rotations, IDENTITY_ROTATION);
+            Arrays.fill(positions, (short) 0);
+        }
+
+        /** 解量化为 float 姿势（布局同 FLOATS_PER_BONE） */
+        void toFloats(float[] out) {
+            for (int i = 0; i < boneCount; i++) {
+                int o = i * FLOATS_PER_BONE;
+                out[o] = dequantizePosition(positions[i * 3]);
+                out[o + 1] = dequantizePosition(positions[i * 3 + 1]);
+                out[o + 2] = dequantizePosition(positions[i * 3 + 2]);
+                dequantizeRotation(rotations[i], out, o + 3);
+            }
+        }
+    }
+
+    // ==================== 编码 ====================
+
+    /**
+     * 编码一帧：按差异从大到小选取变化的骨骼，直到达到字节预算；
+     * 已写入的骨骼同步更新到 sent，未写入的留到后续帧继续发送
+     *
+     * @param sample    本次采样的量化姿势
+     * @param sent      发送端已发送状态（关键帧时调用方应先 reset）
+     * @param maxBytes  帧字节预算
+     * @return 编码后的帧；没有任何变化时返回 null
+     */
+    static byte[] encode(QuantizedPose sample, QuantizedPose sent, boolean keyframe,
+                         int seq, int baseSeq, int tick, int maxBytes) {
+        int n = sample.boneCount;
+        long[] order = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int error = rotationError(sample.rotations[i], sent.rotations[i]);
+            for (int c = 0; c < 3; c++) {
+                error += Math.abs(sample.positions[i * 3 + c] - sent.positions[i * 3 + c]);
+            }
+            if (error > 0) {
+                // 高位为差异（降序排列取反），低位为骨骼索引
+                order[count++] = ((long) (Integer.MAX_VALUE - error) << 32) | i;
+            }
+        }
+        if (count == 0 && !keyframe) return null;
+        Arrays.sort(order, 0, count);
+
+        ByteBuffer buf = ByteBuffer.allocate(maxBytes);
+        buf.position(HEADER_BYTES);
+        int written = 0;
+        for (int k = 0; k < count; k++) {
+            int i = (int) order[k];
+            int mask = 0;
+            if (sample.rotations[i] != sent.rotations[i]) mask |= MASK_ROTATION;
+            if (sample.positions[i * 3] != sent.positions[i * 3]
+                    || sample.positions[i * 3 + 1] != sent.positions[i * 3 + 1]
+                    || sample.positions[i * 3 + 2] != sent.positions[i * 3 + 2]) {
+                mask |= MASK_TRANSLATION;
+            }
+            int size = 3 + ((mask & MASK_ROTATION) != 0 ? 4 : 0) + ((mask & MASK_TRANSLATION) != 0 ? 6 : 0);
+            if (buf.remaining() < size) continue;
+
+            buf.putShort((short) i);
+            buf.put((byte) mask);
+            if ((mask & MASK_ROTATION) != 0) {
+                buf.putInt(sample.rotations[i]);
+                sent.rotations[i] = sample.rotations[i];
+            }
+            if ((mask & MASK_TRANSLATION) != 0) {
+                for (int c = 0; c < 3; c++) {
+                    buf.putShort(sample.positions[i * 3 + c]);
+                    sent.positions[i * 3 + c] = sample.positions[i * 3 + c];
+                }
+            }
+            written++;
+        }
+
+        int length = buf.position();
+        buf.position(0);
+        buf.put((byte) VERSION);
+        buf.put((byte) (keyframe ? FLAG_KEYFRAME : 0));
+        buf.putShort((short) seq);
+        buf.putShort((short) baseSeq);
+        buf.putShort((short) tick);
+        buf.putShort((short) n);
+        buf.putShort((short) written);
+        return Arrays.copyOf(buf.array(), length);
+    }
+
+    // ==================== 解码 ====================
+
+    /** 帧头 */
+    record Header(boolean keyframe, int seq, int baseSeq, int tick, int boneCount, int entryCount) {}
+
+    /** 解析帧头，版本不符或长度不足时返回 null */
+    static Header readHeader(ByteBuffer buf) {
+        if (buf.remaining() < HEADER_BYTES) return null;
+        int version = buf.get() & 0xFF;
+        if (version != VERSION) return null;
+        int flags = buf.get() & 0xFF;
+        int seq = buf.getShort() & 0xFFFF;
+        int baseSeq = buf.getShort() & 0xFFFF;
+        int tick = buf.getShort() & 0xFFFF;
+        int boneCount = buf.getShort() & 0xFFFF;
+        int entryCount = buf.getShort() & 0xFFFF;
+        return new Header((flags & FLAG_KEYFRAME) != 0, seq, baseSeq, tick, boneCount, entryCount);
+    }
+
+    /**
+     * 把帧条目应用到 pose（调用方已按关键帧/增量帧准备好基准）
+     * @return 帧数据完整有效时返回 true
+     */
+    static boolean applyEntries(ByteBuffer buf, Header header, QuantizedPose pose) {
+        try {
+            for (int k = 0; k < header.entryCount(); k++) {
+                int i = buf.getShort() & 0xFFFF;
+                int mask = buf.get() & 0xFF;
+                if (i >= pose.boneCount) return false;
+                if ((mask & MASK_ROTATION) != 0) {
+                    pose.rotations[i] = buf.getInt();
+                }
+                if ((mask & MASK_TRANSLATION) != 0) {
+                    for (int c = 0; c < 3; c++) {
+                        pose.positions[i * 3 + c] = buf.getShort();
+                    }
+                }
+            }
+            return true;
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+    }
+}
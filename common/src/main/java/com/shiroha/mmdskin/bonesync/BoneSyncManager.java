@@ -1,22 +1,55 @@
 package com.shiroha.mmdskin.bonesync;
 
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.render.PlayerModelResolver;
+import com.shiroha.mmdskin.ui.network.NetworkOpCode;
 import net.minecraft.client.Minecraft;
+import net.minecraft.world.entity.Entity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 骨骼同步总调度器
  * 控制采样频率、优先级判断、本地发送与远程接收
+ *
+ * 发送端以 10 Hz 采样本地玩家的动画输入姿势，量化后只发送变化的骨骼（增量帧，≤ 384 字节），
+ * 每 3 秒或模型变化时发送一次关键帧，保证新进入视距的玩家能够建立基准。
+ * 接收端按玩家维护 RemoteBoneStream，插值后在渲染前写入对应模型。
  */
 public final class BoneSyncManager {
-
     private static final Logger logger = LogManager.getLogger();
 
     private static volatile boolean enabled = false;
-    private static final long SAMPLE_INTERVAL_MS = 100; // 10fps
+    static final long SAMPLE_INTERVAL_MS = 100; // 10fps
+    /** 关键帧间隔（采样次数） */
+    private static final int KEYFRAME_INTERVAL = 30;
+    /** 增量帧字节预算，超出的骨骼按差异大小延后到下一帧 */
+    private static final int MAX_DELTA_BYTES = 384;
+
     private static long lastSampleTime;
 
+    // 发送端状态
+    private static long sampledModel = 0;
+    private static BoneSnapshotCodec.QuantizedPose sample;
+    private static BoneSnapshotCodec.QuantizedPose sent;
+    private static ByteBuffer sampleBuffer;
+    private static float[] sampleFloats;
+    private static int samplesSinceKeyframe;
+    private static int seq = 0;
+    private static int tick = 0;
+
+    // 接收端状态
+    private static final Map<UUID, RemoteBoneStream> remoteStreams = new ConcurrentHashMap<>();
+    private static ByteBuffer applyBuffer;
+
     public static void setEnabled(boolean enable) {
         enabled = enable;
     }
@@ -27,28 +60,138 @@ public final class BoneSyncManager {
      * 每帧调用：本地玩家采样 + 发送
      */
     public static void tickLocal() {
-        if (!enabled) return;
-
         long now = System.currentTimeMillis();
         if (now - lastSampleTime < SAMPLE_INTERVAL_MS) return;
         lastSampleTime = now;
 
         try {
+            evictStaleStreams(now);
+
+            if (!enabled || !ConfigManager.isBoneSyncEnabled()) return;
             Minecraft mc = Minecraft.getInstance();
             if (mc.player == null) return;
 
             PlayerModelResolver.Result resolved = PlayerModelResolver.resolve(mc.player);
             if (resolved == null) return;
+            long handle = resolved.model().model.getModelHandle();
+            if (handle == 0) return;
 
-            // TODO: 骨骼快照采样与网络发送
+            sampleAndSend(handle);
         } catch (Exception e) {
             logger.error("骨骼同步采样失败", e);
         }
     }
 
+    private static void sampleAndSend(long handle) {
+        NativeFunc nf = NativeFunc.GetInst();
+        int boneCount = nf.GetBoneCount(handle);
+        if (boneCount <= 0 || boneCount > 0xFFFF) return;
+
+        // 模型切换：重建状态并立即发送关键帧
+        if (handle != sampledModel || sample == null || sample.boneCount != boneCount) {
+            sampledModel = handle;
+            sample = new BoneSnapshotCodec.QuantizedPose(boneCount);
+            sent = new BoneSnapshotCodec.QuantizedPose(boneCount);
+            sampleFloats = new float[boneCount * BoneSnapshotCodec.FLOATS_PER_BONE];
+            sampleBuffer = ensureCapacity(sampleBuffer, sampleFloats.length * 4);
+            samplesSinceKeyframe = KEYFRAME_INTERVAL;
+        }
+
+        sampleBuffer.clear();
+        if (nf.CopyBonePoseToBuffer(handle, sampleBuffer) != boneCount) return;
+        sampleBuffer.asFloatBuffer().get(sampleFloats);
+        for (int i = 0; i < boneCount; i++) {
+            int o = i * BoneSnapshotCodec.FLOATS_PER_BONE;
+            sample.positions[i * 3] = BoneSnapshotCodec.quantizePosition(sampleFloats[o]);
+            sample.positions[i * 3 + 1] = BoneSnapshotCodec.quantizePosition(sampleFloats[o + 1]);
+            sample.positions[i * 3 + 2] = BoneSnapshotCodec.quantizePosition(sampleFloats[o + 2]);
+            sample.rotations[i] = BoneSnapshotCodec.quantizeRotation(
+                    sampleFloats[o + 3], sampleFloats[o + 4], sampleFloats[o + 5], sampleFloats[o + 6]);
+        }
+
+        boolean keyframe = ++samplesSinceKeyframe >= KEYFRAME_INTERVAL;
+        if (keyframe) {
+            sent.reset();
+            samplesSinceKeyframe = 0;
+        }
+        int nextSeq = (seq + 1) & 0xFFFF;
+        byte[] frame = BoneSnapshotCodec.encode(sample, sent, keyframe, nextSeq, seq, tick,
+                keyframe ? NetworkOpCode.MAX_BINARY_PAYLOAD : MAX_DELTA_BYTES);
+        tick = (tick + 1) & 0xFFFF;
+        if (frame == null) return;
+
+        seq = nextSeq;
+        BoneSyncNetworkHandler.send(frame);
+    }
+
+    /**
+     * 网络线程回调后在主线程调用：接收远程玩家的骨骼帧
+     */
+    public static void onRemoteFrame(UUID playerUUID, byte[] data) {
+        if (data == null || !ConfigManager.isBoneSyncEnabled()) return;
+        remoteStreams.computeIfAbsent(playerUUID, k -> new RemoteBoneStream())
+                .onFrame(data, System.currentTimeMillis());
+    }
+
+    /**
+     * 渲染前调用：把远程玩家的插值姿势写入模型（无同步数据时保持本地动画）
+     */
+    public static void applyRemotePose(Entity entity, long modelHandle) {
+        if (remoteStreams.isEmpty() || modelHandle == 0) return;
+        RemoteBoneStream stream = remoteStreams.get(entity.getUUID());
+        if (stream == null) return;
+
+        NativeFunc nf = NativeFunc.GetInst();
+        if (stream.appliedModel != modelHandle) {
+            // 模型切换：清除旧模型上的同步姿势，骨骼数不一致时不应用
+            if (stream.appliedModel != 0) nf.SetNetworkBonePose(stream.appliedModel, null, 0);
+            stream.appliedModel = 0;
+            if (nf.GetBoneCount(modelHandle) != stream.boneCount()) return;
+        }
+
+        float[] pose = stream.sample(System.currentTimeMillis());
+        if (pose == null) return;
+
+        applyBuffer = ensureCapacity(applyBuffer, pose.length * 4);
+        applyBuffer.clear();
+        applyBuffer.asFloatBuffer().put(pose);
+        nf.SetNetworkBonePose(modelHandle, applyBuffer, stream.boneCount());
+        stream.appliedModel = modelHandle;
+    }
+
+    /** 移除长时间未收到数据的远程流，并恢复对应模型的本地动画 */
+    private static void evictStaleStreams(long now) {
+        if (remoteStreams.isEmpty()) return;
+        Iterator<RemoteBoneStream> it = remoteStreams.values().iterator();
+        while (it.hasNext()) {
+            RemoteBoneStream stream = it.next();
+            if (stream.isStale(now)) {
+                clearApplied(stream);
+                it.remove();
+            }
+        }
+    }
+
+    private static void clearApplied(RemoteBoneStream stream) {
+        if (stream.appliedModel != 0) {
+            NativeFunc.GetInst().SetNetworkBonePose(stream.appliedModel, null, 0);
+            stream.appliedModel = 0;
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int bytes) {
+        if (buffer != null && buffer.capacity() >= bytes) return buffer;
+        if (buffer != null) MemoryUtil.memFree(buffer);
+        return MemoryUtil.memAlloc(bytes);
+    }
+
     public static void onDisconnect() {
         enabled = false;
         lastSampleTime = 0;
+        sampledModel = 0;
+        sample = null;
+        sent = null;
+        remoteStreams.values().forEach(BoneSyncManager::clearApplied);
+        remoteStreams.clear();
     }
-
 }
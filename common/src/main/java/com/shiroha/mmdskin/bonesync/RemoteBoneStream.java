@@ -0,0 +1,162 @@
+package com.shiroha.mmdskin.bonesync;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * 单个远程玩家的骨骼快照流
+ *
+ * 校验序号后把帧解码到当前量化姿势，并缓冲最近若干快照；
+ * 渲染时以固定延迟在相邻快照之间插值（平移线性插值、旋转 nlerp），平滑网络抖动与 10 Hz 采样。
+ * 快照时间由发送端采样时刻换算：取「接收时间 - 采样时间」的下包络作为时钟偏移，排队延迟不会拉伸动作。
+ */
+final class RemoteBoneStream {
+
+    /** 插值延迟：1.5 个采样间隔，覆盖常见的到达抖动 */
+    private static final long INTERP_DELAY_MS = BoneSyncManager.SAMPLE_INTERVAL_MS * 3 / 2;
+    /** 超过该时间未收到帧视为停止同步（大于关键帧间隔） */
+    private static final long STALE_MS = 10_000;
+    private static final int MAX_SNAPSHOTS = 8;
+
+    private BoneSnapshotCodec.QuantizedPose pose;
+    private int lastSeq = -1;
+    private boolean synced = false;
+    private long lastReceiveTime;
+
+    private long lastTick = -1;
+    private long clockOffset;
+
+    private final ArrayDeque<Snapshot> snapshots = new ArrayDeque<>();
+    private float[] output;
+
+    /** 当前写入同步姿势的模型句柄（0 表示尚未应用） */
+    long appliedModel = 0;
+
+    /**
+     * 处理一帧数据
+     * @return 帧被接受时返回 true；增量帧与当前状态不连续时丢弃，等待下一个关键帧
+     */
+    boolean onFrame(byte[] data, long now) {
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        BoneSnapshotCodec.Header header = BoneSnapshotCodec.readHeader(buf);
+        if (header == null) return false;
+
+        if (pose == null || pose.boneCount != header.boneCount()) {
+            pose = new BoneSnapshotCodec.QuantizedPose(header.boneCount());
+            snapshots.clear();
+            output = null;
+            synced = false;
+        }
+        if (header.keyframe()) {
+            pose.reset();
+            synced = true;
+        } else if (!synced || header.baseSeq() != lastSeq) {
+            synced = false;
+            return false;
+        }
+        if (!BoneSnapshotCodec.applyEntries(buf, header, pose)) {
+            synced = false;
+            return false;
+        }
+        lastSeq = header.seq();
+        lastReceiveTime = now;
+
+        // 复用最旧的快照数组
+        Snapshot snapshot = snapshots.size() >= MAX_SNAPSHOTS ? snapshots.pollFirst() : null;
+        if (snapshot == null || snapshot.pose.length != pose.boneCount * BoneSnapshotCodec.FLOATS_PER_BONE) {
+            snapshot = new Snapshot(new float[pose.boneCount * BoneSnapshotCodec.FLOATS_PER_BONE]);
+        }
+        pose.toFloats(snapshot.pose);
+        snapshot.time = localTimeOf(header.tick(), now);
+        snapshots.addLast(snapshot);
+        return true;
+    }
+
+    /** 把 16 位采样时刻换算为本地时间 */
+    private long localTimeOf(int tick, long now) {
+        long unwrapped;
+        if (lastTick < 0) {
+            unwrapped = tick;
+        } else {
+            int delta = (tick - (int) (lastTick & 0xFFFF)) & 0xFFFF;
+            if (delta >= 0x8000) delta -= 0x10000;
+            unwrapped = lastTick + delta;
+        }
+        long senderTime = unwrapped * BoneSyncManager.SAMPLE_INTERVAL_MS;
+        long candidate = now - senderTime;
+        if (lastTick < 0 || candidate < clockOffset) {
+            clockOffset = candidate;
+        } else {
+            // 缓慢跟随更晚的偏移，适应两端时钟漂移
+            clockOffset += (candidate - clockOffset) / 16;
+        }
+        lastTick = unwrapped;
+        return senderTime + clockOffset;
+    }
+
+    /**
+     * 计算当前时刻的插值姿势（布局同 BoneSnapshotCodec.FLOATS_PER_BONE）
+     * @return 尚无快照时返回 null；返回的数组在下次调用前有效
+     */
+    float[] sample(long now) {
+        if (snapshots.isEmpty()) return null;
+        long t = now - INTERP_DELAY_MS;
+
+        Snapshot prev = null;
+        Snapshot next = null;
+        for (Snapshot s : snapshots) {
+            if (s.time <= t) {
+                prev = s;
+            } else {
+                next = s;
+                break;
+            }
+        }
+        if (prev == null) return snapshots.peekFirst().pose;
+        if (next == null) return prev.pose;
+
+        float alpha = (t - prev.time) / (float) (next.time - prev.time);
+        if (output == null || output.length != prev.pose.length) {
+            output = new float[prev.pose.length];
+        }
+        interpolate(prev.pose, next.pose, alpha, output);
+        return output;
+    }
+
+    private static void interpolate(float[] a, float[] b, float alpha, float[] out) {
+        for (int o = 0; o < a.length; o += BoneSnapshotCodec.FLOATS_PER_BONE) {
+            for (int c = 0; c < 3; c++) {
+                out[o + c] = a[o + c] + (b[o + c] - a[o + c]) * alpha;
+            }
+            float dot = a[o + 3] * b[o + 3] + a[o + 4] * b[o + 4] + a[o + 5] * b[o + 5] + a[o + 6] * b[o + 6];
+            float sign = dot < 0 ? -1f : 1f;
+            float len = 0f;
+            for (int c = 3; c < 7; c++) {
+                float v = a[o + c] + (b[o + c] * sign - a[o + c]) * alpha;
+                out[o + c] = v;
+                len += v * v;
+            }
+            float inv = len > 1e-12f ? (float) (1.0 / Math.sqrt(len)) : 1f;
+            for (int c = 3; c < 7; c++) {
+                out[o + c] *= inv;
+            }
+        }
+    }
+
+    int boneCount() {
+        return pose != null ? pose.boneCount : 0;
+    }
+
+    boolean isStale(long now) {
+        return now - lastReceiveTime > STALE_MS;
+    }
+
+    private static final class Snapshot {
+        final float[] pose;
+        long time;
+
+        Snapshot(float[] pose) {
+            this.pose = pose;
+        }
+    }
+}
@@ -20,6 +20,17 @@ public abstract class AbstractMmdSkinConfig implements ConfigManager.IConfigProv
     @Override public boolean isGpuSkinningEnabled() { return data.gpuSkinningEnabled; }
     @Override public boolean isGpuMorphEnabled() { return data.gpuMorphEnabled; }
     @Override public int getMaxBones() { return data.maxBones; }
+    @Override public boolean isPersistentVertexStreamEnabled() { return data.persistentVertexStreamEnabled; }
+    @Override public boolean isParallelModelUpdateEnabled() { return data.parallelModelUpdateEnabled; }
+    @Override public boolean isGpuSkinningBatchEnabled() { return data.gpuSkinningBatchEnabled; }
+    @Override public boolean isMaterialBatchingEnabled() { return data.materialBatchingEnabled; }
+    @Override public boolean isAnimationLodEnabled() { return data.animationLodEnabled; }
+    @Override public int getAnimationLodDistance() { return data.animationLodDistance; }
+    @Override public int getModelLoadThreads() { return data.modelLoadThreads; }
+    @Override public int getGlUploadBudgetMs() { return data.glUploadBudgetMs; }
+    @Override public boolean isModelCacheEnabled() { return data.modelCacheEnabled; }
+    @Override public boolean isTextureCompressionEnabled() { return data.textureCompressionEnabled; }
+    @Override public boolean isBoneSyncEnabled() { return data.boneSyncEnabled; }
 
     // ==================== Toon 渲染 ====================
 
@@ -49,6 +60,9 @@ public abstract class AbstractMmdSkinConfig implements ConfigManager.IConfigProv
     @Override public boolean isPhysicsJointsEnabled() { return data.physicsJointsEnabled; }
     @Override public boolean isPhysicsKinematicFilter() { return data.physicsKinematicFilter; }
     @Override public boolean isPhysicsDebugLog() { return data.physicsDebugLog; }
+    @Override public float getPhysicsFrameBudgetMs() { return data.physicsFrameBudgetMs; }
+    @Override public float getPhysicsTierDistance() { return data.physicsTierDistance; }
+    @Override public boolean isPhysicsSharedWorld() { return data.physicsSharedWorld; }
 
     // ==================== 第一人称 / 调试 / 纹理缓存 ====================
 
@@ -28,6 +28,17 @@ public class ConfigData {
     public boolean gpuSkinningEnabled = false;
     public boolean gpuMorphEnabled = false;
     public int maxBones = 2048;
+    public boolean persistentVertexStreamEnabled = false;
+    public boolean parallelModelUpdateEnabled = true;
+    public boolean gpuSkinningBatchEnabled = true;
+    public boolean materialBatchingEnabled = true;
+    public boolean animationLodEnabled = true;
+    public int animationLodDistance = 32;
+    public int modelLoadThreads = 3;
+    public int glUploadBudgetMs = 4;
+    public boolean modelCacheEnabled = true;
+    public boolean textureCompressionEnabled = false;
+    public boolean boneSyncEnabled = false;
     
     // Toon 渲染（3渲2）
     public boolean toonRenderingEnabled = false;
@@ -57,6 +68,9 @@ public class ConfigData {
     public boolean physicsJointsEnabled = true;
     public boolean physicsKinematicFilter = true;
     public boolean physicsDebugLog = false;
+    public float physicsFrameBudgetMs = 4.0f;
+    public float physicsTierDistance = 24.0f;
+    public boolean physicsSharedWorld = false;
     
     // 第一人称模型显示
     public boolean firstPersonModelEnabled = false;
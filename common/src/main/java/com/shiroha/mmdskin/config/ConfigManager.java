@@ -43,6 +43,51 @@ public class ConfigManager {
         return provider != null ? provider.getMaxBones() : 2048;
     }
     
+    /** 持久映射顶点流需要 OpenGL 4.4 或 ARB_buffer_storage，不支持时自动回退 */
+    public static boolean isPersistentVertexStreamEnabled() {
+        return provider != null ? provider.isPersistentVertexStreamEnabled() : false;
+    }
+    
+    public static boolean isParallelModelUpdateEnabled() {
+        return provider != null ? provider.isParallelModelUpdateEnabled() : true;
+    }
+    
+    public static boolean isGpuSkinningBatchEnabled() {
+        return provider != null ? provider.isGpuSkinningBatchEnabled() : true;
+    }
+    
+    public static boolean isMaterialBatchingEnabled() {
+        return provider != null ? provider.isMaterialBatchingEnabled() : true;
+    }
+    
+    public static boolean isAnimationLodEnabled() {
+        return provider != null ? provider.isAnimationLodEnabled() : true;
+    }
+    
+    public static int getAnimationLodDistance() {
+        return provider != null ? provider.getAnimationLodDistance() : 32;
+    }
+    
+    public static int getModelLoadThreads() {
+        return provider != null ? provider.getModelLoadThreads() : 3;
+    }
+    
+    public static int getGlUploadBudgetMs() {
+        return provider != null ? provider.getGlUploadBudgetMs() : 4;
+    }
+    
+    public static boolean isModelCacheEnabled() {
+        return provider != null ? provider.isModelCacheEnabled() : true;
+    }
+    
+    public static boolean isTextureCompressionEnabled() {
+        return provider != null ? provider.isTextureCompressionEnabled() : false;
+    }
+    
+    public static boolean isBoneSyncEnabled() {
+        return provider != null ? provider.isBoneSyncEnabled() : false;
+    }
+    
     // ==================== Toon 渲染配置 ====================
     
     public static boolean isToonRenderingEnabled() {
@@ -143,6 +188,18 @@ public class ConfigManager {
         return provider != null ? provider.isPhysicsDebugLog() : false;
     }
     
+    public static float getPhysicsFrameBudgetMs() {
+        return provider != null ? provider.getPhysicsFrameBudgetMs() : 4.0f;
+    }
+    
+    public static float getPhysicsTierDistance() {
+        return provider != null ? provider.getPhysicsTierDistance() : 24.0f;
+    }
+    
+    public static boolean isPhysicsSharedWorld() {
+        return provider != null ? provider.isPhysicsSharedWorld() : false;
+    }
+    
     // ==================== 第一人称模型配置 ====================
     
     public static boolean isFirstPersonModelEnabled() {
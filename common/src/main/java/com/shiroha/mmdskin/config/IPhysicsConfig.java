@@ -37,4 +37,13 @@ public interface IPhysicsConfig {
 
     /** 是否输出调试日志（默认 false） */
     default boolean isPhysicsDebugLog() { return false; }
+
+    /** 每帧物理耗时预算（毫秒，所有模型合计，0 = 不限制），默认 4.0 */
+    default float getPhysicsFrameBudgetMs() { return 4.0f; }
+
+    /** 物理降级基准距离（方块，0 = 不按距离降级），默认 24.0 */
+    default float getPhysicsTierDistance() { return 24.0f; }
+
+    /** 所有模型共用一个物理世界（默认 false） */
+    default boolean isPhysicsSharedWorld() { return false; }
 }
@@ -32,4 +32,37 @@ public interface IRenderConfig {
 
     /** 纹理缓存 VRAM 软预算（MB），仅约束延迟释放队列（默认 256） */
     default int getTextureCacheBudgetMB() { return 256; }
+
+    /** CPU 蒙皮持久映射顶点流（需要 OpenGL 4.4 / ARB_buffer_storage，默认关闭） */
+    default boolean isPersistentVertexStreamEnabled() { return false; }
+
+    /** 多模型并行更新（动画/物理/CPU 蒙皮在工作线程池上并行执行） */
+    default boolean isParallelModelUpdateEnabled() { return true; }
+
+    /** GPU 蒙皮批处理（共享 arena SSBO，整帧一次状态切换与内存屏障，需启用多模型并行更新） */
+    default boolean isGpuSkinningBatchEnabled() { return true; }
+
+    /** 材质批量绘制（相邻同状态子网格合并为一次 MultiDraw，Toon 着色在支持 bindless 纹理时按剔除状态分组间接绘制） */
+    default boolean isMaterialBatchingEnabled() { return true; }
+
+    /** 动画 LOD（远处/小屏幕模型降频更新，跳过物理并冻结 Morph 与眨眼） */
+    default boolean isAnimationLodEnabled() { return true; }
+
+    /** 动画 LOD 起始距离（格），超过该距离降频，超过两倍距离进一步降频 */
+    default int getAnimationLodDistance() { return 32; }
+
+    /** 后台模型加载线程数（同时解析的模型数量上限） */
+    default int getModelLoadThreads() { return 3; }
+
+    /** 每帧 GL 上传预算（毫秒），异步加载模型的纹理上传与 VBO 创建按帧分摊 */
+    default int getGlUploadBudgetMs() { return 4; }
+
+    /** 是否启用解析模型磁盘缓存（命中时跳过 PMX / VRM 解析） */
+    default boolean isModelCacheEnabled() { return true; }
+
+    /** 是否启用纹理压缩管线（后台生成 Mip 链并压缩为 BC1/BC3，需 S3TC 支持） */
+    default boolean isTextureCompressionEnabled() { return false; }
+
+    /** 是否启用骨骼姿势同步（发送本地姿势并应用其他玩家的同步姿势） */
+    default boolean isBoneSyncEnabled() { return false; }
 }
@@ -32,6 +32,9 @@ public final class PathConstants {
     // ==================== 着色器目录 ====================
     public static final String SHADER_DIR = "shader";
     
+    // ==================== 缓存目录 ====================
+    public static final String MODEL_CACHE_DIR = "ModelCache";
+    
     // ==================== 配置文件名 ====================
     public static final String ACTION_WHEEL_CONFIG = "action_wheel.json";
     public static final String MODEL_SELECTOR_CONFIG = "model_selector.json";
@@ -107,6 +110,10 @@ public final class PathConstants {
         return new File(getSkinRootDir(), SHADER_DIR);
     }
     
+    public static File getModelCacheDir() {
+        return new File(getSkinRootDir(), MODEL_CACHE_DIR);
+    }
+    
     public static File getModelDir(String modelName) {
         return new File(getEntityPlayerDir(), modelName);
     }
@@ -0,0 +1,96 @@
+package com.shiroha.mmdskin.renderer.animation;
+
+import com.shiroha.mmdskin.NativeFunc;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 模型无关的动画片段缓存
+ *
+ * 动画句柄本身不依赖模型（Rust 侧以 Arc 共享片段数据，每模型每层只构建轻量的骨骼/Morph 绑定表），
+ * 因此同一文件只解析一次，所有模型共享同一句柄：
+ * - 以加载路径（含 FBX 的 "#Stack" 后缀）为键，记录文件修改时间与长度，文件变化后重新解析
+ * - 引用计数：每次 acquire 计数 +1，release 计数 -1，归零时才删除原生动画
+ * - 文件变化后旧句柄从路径索引中移除，但仍保留到最后一个持有者释放
+ *
+ * 线程安全：所有方法同步
+ */
+final class AnimClipCache {
+
+    private static final class Entry {
+        final String path;
+        final long handle;
+        final long lastModified;
+        final long length;
+        int refCount;
+
+        Entry(String path, long handle, long lastModified, long length) {
+            this.path = path;
+            this.handle = handle;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
+    private static final Map<String, Entry> byPath = new HashMap<>();
+    private static final Map<Long, Entry> byHandle = new HashMap<>();
+
+    private AnimClipCache() {}
+
+    /**
+     * 获取动画句柄（命中缓存时共享已解析的片段）
+     *
+     * @param file     动画源文件（用于检测修改）
+     * @param loadPath 传给 LoadAnimation 的路径
+     * @return 动画句柄，加载失败返回 0
+     */
+    static synchronized long acquire(NativeFunc nf, long modelHandle, File file, String loadPath) {
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        Entry entry = byPath.get(loadPath);
+        if (entry != null) {
+            if (entry.lastModified == lastModified && entry.length == length) {
+                entry.refCount++;
+                return entry.handle;
+            }
+            // 文件已变化：旧片段由现有持有者继续使用，新请求重新解析
+            byPath.remove(loadPath);
+        }
+
+        long handle = nf.LoadAnimation(modelHandle, loadPath);
+        if (handle == 0) return 0;
+
+        entry = new Entry(loadPath, handle, lastModified, length);
+        entry.refCount = 1;
+        byPath.put(loadPath, entry);
+        byHandle.put(handle, entry);
+        return handle;
+    }
+
+    /**
+     * 释放一次引用，计数归零时删除原生动画
+     */
+    static synchronized void release(NativeFunc nf, long handle) {
+        if (handle == 0) return;
+        Entry entry = byHandle.get(handle);
+        if (entry == null) {
+            nf.DeleteAnimation(handle);
+            return;
+        }
+        if (--entry.refCount > 0) return;
+
+        byHandle.remove(handle);
+        if (byPath.get(entry.path) == entry) {
+            byPath.remove(entry.path);
+        }
+        nf.DeleteAnimation(handle);
+    }
+
+    /** 当前缓存的片段数量（含文件变化后仍被引用的旧片段） */
+    static synchronized int size() {
+        return byHandle.size();
+    }
+}
@@ -30,6 +30,8 @@ import org.apache.logging.log4j.Logger;
  * 4. CustomAnim 目录
  * 5. DefaultAnim 目录
  * 
+ * 同一动画文件在所有模型之间共享一个句柄（见 AnimClipCache），每模型的表只记录槽位到句柄的映射。
+ * 
  * 线程安全：使用 ConcurrentHashMap 保证多线程访问安全
  */
 public class MMDAnimManager {
@@ -81,7 +83,7 @@ public class MMDAnimManager {
         if (sub != null) {
             for (Long handle : sub.values()) {
                 if (handle != null) {
-                    nf.DeleteAnimation(handle);
+                    AnimClipCache.release(nf, handle);
                 }
             }
         }
@@ -171,7 +173,7 @@ public class MMDAnimManager {
         for (String ext : ANIM_EXTENSIONS) {
             File file = new File(dir, animName + ext);
             if (file.exists()) {
-                return nf.LoadAnimation(model.getModelHandle(), file.getAbsolutePath());
+                return AnimClipCache.acquire(nf, model.getModelHandle(), file, file.getAbsolutePath());
             }
         }
         // 2. 多 Stack FBX 回退：扫描目录中的 .fbx 文件，尝试 file.fbx#animName
@@ -180,8 +182,8 @@ public class MMDAnimManager {
             File[] fbxFiles = dirFile.listFiles((d, name) -> name.toLowerCase().endsWith(".fbx"));
             if (fbxFiles != null) {
                 for (File fbx : fbxFiles) {
-                    long handle = nf.LoadAnimation(
-                        model.getModelHandle(),
+                    long handle = AnimClipCache.acquire(
+                        nf, model.getModelHandle(), fbx,
                         fbx.getAbsolutePath() + "#" + animName
                     );
                     if (handle != 0) return handle;
@@ -207,13 +209,13 @@ public class MMDAnimManager {
         File animsDir = PathConstants.getModelAnimsDirByPath(modelDir);
         File target = new File(animsDir, mappedFile);
         if (target.exists()) {
-            return nf.LoadAnimation(model.getModelHandle(), target.getAbsolutePath());
+            return AnimClipCache.acquire(nf, model.getModelHandle(), target, target.getAbsolutePath());
         }
         
         // 回退：在模型根目录中查找
         target = new File(modelDir, mappedFile);
         if (target.exists()) {
-            return nf.LoadAnimation(model.getModelHandle(), target.getAbsolutePath());
+            return AnimClipCache.acquire(nf, model.getModelHandle(), target, target.getAbsolutePath());
         }
         
         logger.warn("映射配置的动画文件不存在: {} -> {} (槽位: {})", modelDir, mappedFile, animName);
@@ -228,7 +230,7 @@ public class MMDAnimManager {
         Map<String, Long> sub = animModel.get(model);
         if (sub != null) {
             for (Long handle : sub.values()) {
-                nf.DeleteAnimation(handle);
+                AnimClipCache.release(nf, handle);
             }
             sub.clear();
         }
@@ -242,6 +244,13 @@ public class MMDAnimManager {
         return animFilename.getAbsolutePath();
     }
     
+    /**
+     * 获取当前缓存的动画片段数量（所有模型共享）
+     */
+    public static int getSharedClipCount() {
+        return AnimClipCache.size();
+    }
+    
     /**
      * 获取默认动画目录
      */
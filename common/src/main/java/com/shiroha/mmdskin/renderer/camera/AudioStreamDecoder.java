@@ -0,0 +1,335 @@
+package com.shiroha.mmdskin.renderer.camera;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+import org.lwjgl.stb.STBVorbis;
+import org.lwjgl.stb.STBVorbisInfo;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 流式音频解码器
+ *
+ * 按需逐段解码为 little-endian PCM，不一次性读入整个文件，并支持向后跳过：
+ * - MP3：JLayer 逐帧解码
+ * - OGG：STB Vorbis 从内存映射的文件中增量解码
+ * - WAV：Java Sound 流式读取（非 PCM 编码转换为 16-bit）
+ */
+interface AudioStreamDecoder extends Closeable {
+
+    int sampleRate();
+
+    int channels();
+
+    int bitsPerSample();
+
+    /** 估计的总帧数（每声道样本数），未知时返回 -1 */
+    long estimatedFrames();
+
+    /**
+     * 解码 PCM 到 dst
+     * @return 写入的字节数，已到文件末尾时返回 -1
+     */
+    int read(byte[] dst, int off, int len) throws IOException;
+
+    /**
+     * 向后跳过 frames 帧（默认解码后丢弃；到达文件末尾时停止）
+     */
+    default void skipFrames(long frames) throws IOException {
+        int frameBytes = Math.max(1, channels() * (bitsPerSample() / 8));
+        byte[] scratch = new byte[frameBytes * 4096];
+        long remaining = frames * frameBytes;
+        while (remaining > 0) {
+            int n = read(scratch, 0, (int) Math.min(scratch.length, remaining));
+            if (n < 0) return;
+            remaining -= n;
+        }
+    }
+
+    /**
+     * 按扩展名打开解码器（只解析文件头，不解码音频数据）
+     */
+    static AudioStreamDecoder open(File file, String ext) throws Exception {
+        switch (ext) {
+            case "mp3":
+                return new Mp3(file);
+            case "ogg":
+                return new Ogg(file);
+            case "wav":
+                return new Wav(file);
+            default:
+                return null;
+        }
+    }
+
+    // ==================== MP3 ====================
+
+    final class Mp3 implements AudioStreamDecoder {
+        private final FileInputStream input;
+        private final Bitstream bitstream;
+        private final Decoder decoder = new Decoder();
+        private final int sampleRate;
+        private final int channels;
+        private final long estimatedFrames;
+
+        private Header pendingHeader;
+        private short[] samples;
+        private int sampleCount;
+        private int samplePos;
+
+        Mp3(File file) throws Exception {
+            input = new FileInputStream(file);
+            try {
+                bitstream = new Bitstream(new BufferedInputStream(input, 64 * 1024));
+                pendingHeader = bitstream.readFrame();
+                if (pendingHeader == null) throw new IOException("MP3 无有效帧");
+                sampleRate = pendingHeader.frequency();
+                channels = pendingHeader.mode() == Header.SINGLE_CHANNEL ? 1 : 2;
+                float totalMs = pendingHeader.total_ms((int) Math.min(Integer.MAX_VALUE, file.length()));
+                estimatedFrames = totalMs > 0 ? (long) (totalMs / 1000.0 * sampleRate) : -1;
+            } catch (Exception e) {
+                input.close();
+                throw e;
+            }
+        }
+
+        @Override public int sampleRate() { return sampleRate; }
+        @Override public int channels() { return channels; }
+        @Override public int bitsPerSample() { return 16; }
+        @Override public long estimatedFrames() { return estimatedFrames; }
+
+        @Override
+        public int read(byte[] dst, int off, int len) throws IOException {
+            int written = 0;
+            while (written + 1 < len) {
+                if (samplePos >= sampleCount && !decodeNextFrame()) {
+                    return written > 0 ? written : -1;
+                }
+                // short → little-endian 16-bit PCM
+                int n = Math.min(sampleCount - samplePos, (len - written) / 2);
+                for (int i = 0; i < n; i++) {
+                    short s = samples[samplePos++];
+                    dst[off + written++] = (byte) (s & 0xFF);
+                    dst[off + written++] = (byte) ((s >> 8) & 0xFF);
+                }
+            }
+            return written;
+        }
+
+        /** 整帧跳过时只读帧头不解码；目标所在帧解码后丢弃前段样本 */
+        @Override
+        public void skipFrames(long frames) throws IOException {
+            long remaining = frames * channels;
+            int buffered = (int) Math.min(sampleCount - samplePos, remaining);
+            samplePos += buffered;
+            remaining -= buffered;
+            try {
+                while (remaining > 0) {
+                    Header header = pendingHeader != null ? pendingHeader : bitstream.readFrame();
+                    pendingHeader = null;
+                    if (header == null) return;
+                    int frameSamples = samplesPerFrame(header) * channels;
+                    if (frameSamples > remaining) {
+                        pendingHeader = header;
+                        if (!decodeNextFrame()) return;
+                        samplePos = (int) Math.min(remaining, sampleCount);
+                        return;
+                    }
+                    bitstream.closeFrame();
+                    remaining -= frameSamples;
+                }
+            } catch (javazoom.jl.decoder.JavaLayerException e) {
+                throw new IOException("MP3 跳转失败", e);
+            }
+        }
+
+        private static int samplesPerFrame(Header header) {
+            if (header.layer() == 1) return 384;
+            if (header.layer() == 3 && header.version() != Header.MPEG1) return 576;
+            return 1152;
+        }
+
+        private boolean decodeNextFrame() throws IOException {
+            try {
+                Header header = pendingHeader != null ? pendingHeader : bitstream.readFrame();
+                pendingHeader = null;
+                if (header == null) return false;
+                SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                bitstream.closeFrame();
+                samples = output.getBuffer();
+                sampleCount = output.getBufferLength();
+                samplePos = 0;
+                return true;
+            } catch (javazoom.jl.decoder.JavaLayerException e) {
+                throw new IOException("MP3 解码失败", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                bitstream.close();
+            } catch (javazoom.jl.decoder.BitstreamException ignored) {
+            }
+            input.close();
+        }
+    }
+
+    // ==================== OGG ====================
+
+    final class Ogg implements AudioStreamDecoder {
+        /** 内存映射的文件内容（按需分页，STB 解码期间必须保持引用） */
+        private final MappedByteBuffer mapped;
+        private final long handle;
+        private final int sampleRate;
+        private final int channels;
+        private final long estimatedFrames;
+        private final ShortBuffer scratch;
+        /** 下一次解码的帧位置 */
+        private long position;
+        private boolean exhausted;
+
+        Ogg(File file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                IntBuffer error = stack.mallocInt(1);
+                handle = STBVorbis.stb_vorbis_open_memory(mapped, error, null);
+                if (handle == MemoryUtil.NULL) {
+                    throw new IOException("STB Vorbis 打开失败, error=" + error.get(0));
+                }
+                STBVorbisInfo info = STBVorbisInfo.malloc(stack);
+                STBVorbis.stb_vorbis_get_info(handle, info);
+                sampleRate = info.sample_rate();
+                channels = info.channels();
+            }
+            int length = STBVorbis.stb_vorbis_stream_length_in_samples(handle);
+            estimatedFrames = length > 0 ? length : -1;
+            scratch = MemoryUtil.memAllocShort(4096 * Math.max(1, channels));
+        }
+
+        @Override public int sampleRate() { return sampleRate; }
+        @Override public int channels() { return channels; }
+        @Override public int bitsPerSample() { return 16; }
+        @Override public long estimatedFrames() { return estimatedFrames; }
+
+        @Override
+        public int read(byte[] dst, int off, int len) {
+            int frameBytes = channels * 2;
+            int maxFrames = Math.min(len / frameBytes, scratch.capacity() / channels);
+            if (maxFrames <= 0) return 0;
+            scratch.clear().limit(maxFrames * channels);
+            if (exhausted) return -1;
+            int frames = STBVorbis.stb_vorbis_get_samples_short_interleaved(handle, channels, scratch);
+            if (frames <= 0) return -1;
+            position += frames;
+            int samples = frames * channels;
+            for (int i = 0; i < samples; i++) {
+                short s = scratch.get(i);
+                dst[off + i * 2] = (byte) (s & 0xFF);
+                dst[off + i * 2 + 1] = (byte) ((s >> 8) & 0xFF);
+            }
+            return samples * 2;
+        }
+
+        /** 直接按样本位置跳转，不解码中间数据 */
+        @Override
+        public void skipFrames(long frames) {
+            long target = position + frames;
+            if (target > Integer.MAX_VALUE || !STBVorbis.stb_vorbis_seek(handle, (int) target)) {
+                exhausted = true;
+                return;
+            }
+            position = target;
+        }
+
+        @Override
+        public void close() {
+            STBVorbis.stb_vorbis_close(handle);
+            MemoryUtil.memFree(scratch);
+        }
+    }
+
+    // ==================== WAV ====================
+
+    final class Wav implements AudioStreamDecoder {
+        private final AudioInputStream source;
+        private final AudioInputStream stream;
+        private final AudioFormat format;
+
+        Wav(File file) throws Exception {
+            source = AudioSystem.getAudioInputStream(file);
+            AudioFormat fmt = source.getFormat();
+            // 如果不是 PCM 编码，转换为 16-bit little-endian PCM
+            if (fmt.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
+                stream = AudioSystem.getAudioInputStream(
+                        new AudioFormat(
+                                AudioFormat.Encoding.PCM_SIGNED,
+                                fmt.getSampleRate(),
+                                16,
+                                fmt.getChannels(),
+                                fmt.getChannels() * 2,
+                                fmt.getSampleRate(),
+                                false
+                        ), source);
+            } else {
+                stream = source;
+            }
+            format = stream.getFormat();
+        }
+
+        @Override public int sampleRate() { return (int) format.getSampleRate(); }
+        @Override public int channels() { return format.getChannels(); }
+        @Override public int bitsPerSample() { return format.getSampleSizeInBits(); }
+
+        @Override
+        public long estimatedFrames() {
+            long frames = stream.getFrameLength();
+            return frames != AudioSystem.NOT_SPECIFIED ? frames : -1;
+        }
+
+        @Override
+        public int read(byte[] dst, int off, int len) throws IOException {
+            return stream.read(dst, off, len);
+        }
+
+        @Override
+        public void skipFrames(long frames) throws IOException {
+            int frameSize = format.getFrameSize();
+            if (frameSize <= 0) {
+                AudioStreamDecoder.super.skipFrames(frames);
+                return;
+            }
+            long remaining = frames * frameSize;
+            while (remaining > 0) {
+                long n = stream.skip(remaining);
+                if (n <= 0) return;
+                remaining -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != source) stream.close();
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.shiroha.mmdskin.renderer.camera;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 舞台音频解码块缓存
+ *
+ * 同一文件（路径 + 修改时间 + 长度）只由一个后台线程解码，按固定时长切块保存 PCM，
+ * 所有正在播放该文件的 StageAudioPlayer（本地与远程玩家）共享这些块：
+ * - 只缓存各播放器读取位置之后的一段窗口，总量超过 MAX_CACHED_BYTES 时按最久未读淘汰
+ * - 读取位置落在窗口外（跳转、远程同步）时解码器跳转到该位置继续解码
+ * - 引用计数归零时停止解码，只保留开头几块作为空闲缓存（仅一份，便于重播时立即出声）
+ */
+final class DecodedAudioCache {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 每块时长（毫秒），同时也是播放器单个 OpenAL 缓冲的最大时长 */
+    static final int CHUNK_MS = 500;
+    /** 每个读取位置之后预先解码的块数 */
+    private static final int DECODE_AHEAD_CHUNKS = 16;
+    /** 单个文件缓存的 PCM 上限（44.1kHz 立体声约 95 秒） */
+    private static final long MAX_CACHED_BYTES = 16L * 1024 * 1024;
+    /** 始终保留的开头块数（空闲缓存重播时无需等待解码） */
+    private static final int HEAD_CHUNKS = 4;
+
+    private static final AtomicInteger decoderIndex = new AtomicInteger();
+    private static final ExecutorService decoders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "MMD-AudioDecoder-" + decoderIndex.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Map<String, DecodedAudio> active = new HashMap<>();
+    private static DecodedAudio idle;
+
+    private DecodedAudioCache() {}
+
+    /**
+     * 获取文件的共享解码数据，并从开头为 reader 开始后台解码（不等待解码结果）
+     * @param reader 读取方（通常为播放器本身），用于记录其读取位置
+     * @return 格式不支持或文件头无效时返回 null
+     */
+    static synchronized DecodedAudio acquire(File file, String ext, Object reader) throws Exception {
+        String key = file.getCanonicalPath() + '|' + file.lastModified() + '|' + file.length();
+
+        DecodedAudio audio = active.get(key);
+        if (audio == null && idle != null && idle.key.equals(key)) {
+            audio = idle;
+            idle = null;
+            active.put(key, audio);
+            audio.start(null);
+        }
+        if (audio == null) {
+            AudioStreamDecoder decoder = AudioStreamDecoder.open(file, ext);
+            if (decoder == null) return null;
+            audio = new DecodedAudio(key, file, ext, decoder);
+            active.put(key, audio);
+            audio.start(decoder);
+        }
+        audio.refCount++;
+        audio.moveReader(reader, 0);
+        return audio;
+    }
+
+    /**
+     * 释放 reader 的一次引用
+     */
+    static synchronized void release(DecodedAudio audio, Object reader) {
+        if (audio == null) return;
+        audio.removeReader(reader);
+        if (--audio.refCount > 0) return;
+        active.remove(audio.key, audio);
+        audio.stop();
+        if (!audio.isFailed()) {
+            idle = audio;
+        }
+    }
+
+    /** 丢弃空闲缓存（断开连接时调用） */
+    static synchronized void clearIdle() {
+        idle = null;
+    }
+
+    /**
+     * 一个文件的解码结果
+     *
+     * 块按序号保存；除最后一块外每块恰为 chunkBytes 字节，按偏移即可定位。
+     * 解码线程每次挑选某个读取位置之后最近的缺失块解码，能顺序续解码时不跳转。
+     */
+    static final class DecodedAudio {
+        final String key;
+        final int sampleRate;
+        final int channels;
+        final int bitsPerSample;
+        final int frameBytes;
+        final int chunkBytes;
+        private final File file;
+        private final String ext;
+        private final long estimatedBytes;
+
+        /** 块序号 → PCM（访问顺序，用于按最久未读淘汰） */
+        private final LinkedHashMap<Integer, byte[]> chunks = new LinkedHashMap<>(64, 0.75f, true);
+        /** 读取方 → 当前读取的块序号 */
+        private final Map<Object, Integer> readers = new IdentityHashMap<>();
+        private long cachedBytes;
+        /** 音频总字节数，解码到文件末尾前为 -1 */
+        private long totalBytes = -1;
+        /** 解码器下一次顺序解码的块序号，解码器未打开时为 -1 */
+        private int decoderChunk = -1;
+        /** 每次启动/停止解码线程时递增，旧线程据此退出 */
+        private int generation;
+        private boolean failed;
+        private int refCount;
+
+        private DecodedAudio(String key, File file, String ext, AudioStreamDecoder decoder) {
+            this.key = key;
+            this.file = file;
+            this.ext = ext;
+            this.sampleRate = decoder.sampleRate();
+            this.channels = decoder.channels();
+            this.bitsPerSample = decoder.bitsPerSample();
+            this.frameBytes = Math.max(1, channels * (bitsPerSample / 8));
+            this.chunkBytes = Math.max(1, (int) ((long) sampleRate * CHUNK_MS / 1000)) * frameBytes;
+            long frames = decoder.estimatedFrames();
+            this.estimatedBytes = frames > 0 ? frames * frameBytes : -1;
+        }
+
+        /** 启动解码线程（decoder 为已打开的解码器，位于文件开头；为 null 时按需打开） */
+        private synchronized void start(AudioStreamDecoder decoder) {
+            int gen = ++generation;
+            decoderChunk = decoder != null ? 0 : -1;
+            decoders.execute(() -> decodeLoop(gen, decoder));
+        }
+
+        /** 停止解码线程，只保留开头几块 */
+        private synchronized void stop() {
+            generation++;
+            readers.clear();
+            Iterator<Map.Entry<Integer, byte[]>> it = chunks.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, byte[]> entry = it.next();
+                if (entry.getKey() >= HEAD_CHUNKS) {
+                    cachedBytes -= entry.getValue().length;
+                    it.remove();
+                }
+            }
+            notifyAll();
+        }
+
+        /** 后台线程：按读取位置的需要逐块解码，直到被停止或解码失败 */
+        private void decodeLoop(int gen, AudioStreamDecoder decoder) {
+            try {
+                while (true) {
+                    int target = -1;
+                    int position;
+                    synchronized (this) {
+                        while (gen == generation && (target = nextWanted()) < 0) {
+                            wait();
+                        }
+                        if (gen != generation) return;
+                        position = decoderChunk;
+                    }
+                    if (decoder == null || target != position) {
+                        decoder = seek(decoder, position, target);
+                    }
+                    byte[] chunk = decodeChunk(decoder);
+                    synchronized (this) {
+                        if (gen != generation) return;
+                        decoderChunk = target + 1;
+                        if (chunk == null) {
+                            markEnd((long) target * chunkBytes);
+                        } else {
+                            store(target, chunk);
+                            if (chunk.length < chunkBytes) {
+                                markEnd((long) target * chunkBytes + chunk.length);
+                            }
+                        }
+                        notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("[StageAudio] 流式解码失败: {} - {}", key, e.getMessage());
+                synchronized (this) {
+                    if (gen == generation) {
+                        failed = true;
+                        notifyAll();
+                    }
+                }
+            } finally {
+                closeQuietly(decoder);
+            }
+        }
+
+        /**
+         * 把解码器定位到 target 块开头：向后跳转时跳过中间数据，向前跳转时重新打开文件
+         */
+        private AudioStreamDecoder seek(AudioStreamDecoder decoder, int position, int target) throws Exception {
+            long framesPerChunk = chunkBytes / frameBytes;
+            if (decoder != null && position >= 0 && target > position) {
+                decoder.skipFrames((target - position) * framesPerChunk);
+                return decoder;
+            }
+            closeQuietly(decoder);
+            AudioStreamDecoder reopened = AudioStreamDecoder.open(file, ext);
+            if (reopened == null) throw new IOException("无法重新打开音频文件");
+            reopened.skipFrames(target * framesPerChunk);
+            return reopened;
+        }
+
+        /** 解码一块 PCM；已到文件末尾时返回 null */
+        private byte[] decodeChunk(AudioStreamDecoder decoder) throws IOException {
+            byte[] chunk = new byte[chunkBytes];
+            int filled = 0;
+            while (filled < chunkBytes) {
+                int n = decoder.read(chunk, filled, chunkBytes - filled);
+                if (n < 0) break;
+                filled += n;
+            }
+            filled -= filled % frameBytes;
+            if (filled == 0) return null;
+            return filled == chunkBytes ? chunk : Arrays.copyOf(chunk, filled);
+        }
+
+        /**
+         * 下一个需要解码的块：各读取位置之后窗口内的第一个缺失块，
+         * 优先选择解码器当前位置（无需跳转），否则选择离读取位置最近的
+         * @return 无需解码时返回 -1
+         */
+        private int nextWanted() {
+            if (failed) return -1;
+            int limit = chunkLimit();
+            int best = -1;
+            int bestLead = Integer.MAX_VALUE;
+            for (int cursor : readers.values()) {
+                int end = Math.min(limit, cursor + DECODE_AHEAD_CHUNKS);
+                for (int i = cursor; i < end; i++) {
+                    if (chunks.containsKey(i)) continue;
+                    if (i == decoderChunk) return i;
+                    if (i - cursor < bestLead) {
+                        best = i;
+                        bestLead = i - cursor;
+                    }
+                    break;
+                }
+            }
+            return best;
+        }
+
+        private int chunkLimit() {
+            return totalBytes >= 0 ? (int) ((totalBytes + chunkBytes - 1) / chunkBytes) : Integer.MAX_VALUE;
+        }
+
+        private void markEnd(long bytes) {
+            totalBytes = totalBytes < 0 ? bytes : Math.min(totalBytes, bytes);
+        }
+
+        private void store(int index, byte[] chunk) {
+            byte[] previous = chunks.put(index, chunk);
+            if (previous != null) cachedBytes -= previous.length;
+            cachedBytes += chunk.length;
+            if (cachedBytes <= MAX_CACHED_BYTES) return;
+
+            // 按最久未读淘汰；读取窗口内与开头的块保留（全部受保护时允许暂时超出上限）
+            Iterator<Map.Entry<Integer, byte[]>> it = chunks.entrySet().iterator();
+            while (cachedBytes > MAX_CACHED_BYTES && it.hasNext()) {
+                Map.Entry<Integer, byte[]> entry = it.next();
+                if (isRetained(entry.getKey())) continue;
+                cachedBytes -= entry.getValue().length;
+                it.remove();
+            }
+        }
+
+        private boolean isRetained(int index) {
+            if (index < HEAD_CHUNKS) return true;
+            for (int cursor : readers.values()) {
+                if (index >= cursor && index < cursor + DECODE_AHEAD_CHUNKS) return true;
+            }
+            return false;
+        }
+
+        private synchronized void moveReader(Object reader, int index) {
+            Integer previous = readers.put(reader, index);
+            if (previous == null || previous != index) notifyAll();
+        }
+
+        private synchronized void removeReader(Object reader) {
+            readers.remove(reader);
+        }
+
+        /**
+         * 从 offset 处读取 PCM 到 dst（最多读到所在块的末尾），并把 reader 的读取位置移到该处
+         * @return 读取的字节数；尚未解码到该位置时返回 0；已超出音频末尾或解码失败时返回 -1
+         */
+        synchronized int read(Object reader, long offset, ByteBuffer dst) {
+            if (failed || (totalBytes >= 0 && offset >= totalBytes)) return -1;
+            int index = (int) (offset / chunkBytes);
+            moveReader(reader, index);
+            byte[] chunk = chunks.get(index);
+            if (chunk == null) return 0;
+            int within = (int) (offset % chunkBytes);
+            if (within >= chunk.length) return -1;
+            int n = Math.min(chunk.length - within, dst.remaining());
+            dst.put(chunk, within, n);
+            return n;
+        }
+
+        synchronized boolean isFailed() {
+            return failed;
+        }
+
+        int bytesPerSecond() {
+            return sampleRate * frameBytes;
+        }
+
+        /** 时长（秒）：解码到文件末尾前使用文件头估计值 */
+        synchronized float durationSeconds() {
+            long bytes = totalBytes >= 0 ? totalBytes : Math.max(estimatedBytes, 0);
+            return (float) bytes / bytesPerSecond();
+        }
+
+        private static void closeQuietly(AudioStreamDecoder decoder) {
+            if (decoder == null) return;
+            try {
+                decoder.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
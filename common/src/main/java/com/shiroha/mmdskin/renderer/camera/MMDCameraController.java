@@ -372,6 +372,30 @@ public class MMDCameraController {
         }
     }
 
+    /**
+     * 音频以原速播放时以其播放位置为主时钟：起播前与欠载期间保持当前帧，出声后直接取音频位置；
+     * 远程同步偏差过大时跳转音频而不是变速追赶（音频不变速）
+     * @return false 表示未使用音频时钟，调用方按帧间隔推进
+     */
+    private boolean advanceByAudio() {
+        if (playbackSpeed != 1.0f) return false;
+        audioPlayer.update();
+        if (!audioPlayer.isPlaying()) return false;
+
+        if (targetSyncFrame >= 0) {
+            if (Math.abs(targetSyncFrame - currentFrame) > SYNC_TOLERANCE) {
+                audioPlayer.setPlaybackPosition(targetSyncFrame / VMD_FPS);
+                currentFrame = targetSyncFrame;
+            }
+            targetSyncFrame = -1.0f;
+            return true;
+        }
+        if (audioPlayer.isSourcePlaying()) {
+            currentFrame = audioPlayer.getPlaybackPosition() * VMD_FPS;
+        }
+        return true;
+    }
+
     private void updatePlaying() {
         long now = System.nanoTime();
         float deltaTime = (now - lastTickTimeNs) / 1_000_000_000.0f;
@@ -384,17 +408,19 @@ public class MMDCameraController {
             lastEscTimeNs = 0;
         }
 
-        float effectiveSpeed = playbackSpeed;
-        if (targetSyncFrame >= 0) {
-            float drift = targetSyncFrame - currentFrame;
-            if (Math.abs(drift) > SYNC_TOLERANCE) {
-                effectiveSpeed = drift > 0 ? CATCHUP_SPEED_MAX : CATCHUP_SPEED_MIN;
-            } else {
-                targetSyncFrame = -1.0f;
+        if (!advanceByAudio()) {
+            float effectiveSpeed = playbackSpeed;
+            if (targetSyncFrame >= 0) {
+                float drift = targetSyncFrame - currentFrame;
+                if (Math.abs(drift) > SYNC_TOLERANCE) {
+                    effectiveSpeed = drift > 0 ? CATCHUP_SPEED_MAX : CATCHUP_SPEED_MIN;
+                } else {
+                    targetSyncFrame = -1.0f;
+                }
             }
-        }
 
-        currentFrame += deltaTime * VMD_FPS * effectiveSpeed;
+            currentFrame += deltaTime * VMD_FPS * effectiveSpeed;
+        }
 
         if (currentFrame >= maxFrame) {
             currentFrame = maxFrame;
@@ -717,6 +743,10 @@ public class MMDCameraController {
         if (state != StageState.WATCHING) return;
         if (audioPlayer.load(audioPath)) {
             audioPlayer.play();
+            // 中途加入观看时从当前帧对应位置开始
+            if (currentFrame > 0) {
+                audioPlayer.setPlaybackPosition(currentFrame / VMD_FPS);
+            }
         } else {
             logger.warn("[WATCHING] 音频加载失败: {}", audioPath);
         }
@@ -862,17 +892,19 @@ public class MMDCameraController {
         lastTickTimeNs = now;
         deltaTime = Math.min(deltaTime, 0.1f);
 
-        float effectiveSpeed = playbackSpeed;
-        if (targetSyncFrame >= 0) {
-            float drift = targetSyncFrame - currentFrame;
-            if (Math.abs(drift) > SYNC_TOLERANCE) {
-                effectiveSpeed = drift > 0 ? CATCHUP_SPEED_MAX : CATCHUP_SPEED_MIN;
-            } else {
-                targetSyncFrame = -1.0f;
+        if (!advanceByAudio()) {
+            float effectiveSpeed = playbackSpeed;
+            if (targetSyncFrame >= 0) {
+                float drift = targetSyncFrame - currentFrame;
+                if (Math.abs(drift) > SYNC_TOLERANCE) {
+                    effectiveSpeed = drift > 0 ? CATCHUP_SPEED_MAX : CATCHUP_SPEED_MIN;
+                } else {
+                    targetSyncFrame = -1.0f;
+                }
             }
-        }
 
-        currentFrame += deltaTime * VMD_FPS * effectiveSpeed;
+            currentFrame += deltaTime * VMD_FPS * effectiveSpeed;
+        }
 
         if (currentFrame >= maxFrame) {
             exitWatchMode(true);
@@ -1,26 +1,19 @@
 package com.shiroha.mmdskin.renderer.camera;
 
-import javazoom.jl.decoder.*;
 import net.minecraft.world.entity.player.Player;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.openal.AL10;
 import org.lwjgl.openal.AL11;
-import org.lwjgl.stb.STBVorbis;
-import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
 import net.minecraft.client.Minecraft;
 
-import java.io.*;
+import java.io.File;
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
-import java.nio.ShortBuffer;
-import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -29,7 +22,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * 使用 OpenAL 播放音频，支持 MP3 (JLayer) / OGG (STB Vorbis) / WAV (Java Sound) 三种格式。
  * 
  * 设计要点：
- * - 全量解码到 PCM 后上传 OpenAL Buffer，保证帧同步可靠性
+ * - 流式播放：后台线程逐块解码，Source 上只排队少量 OpenAL 缓冲，每 tick 回收并补充
+ * - 解码结果由 DecodedAudioCache 按文件共享，多个远程玩家播放同一首歌只解码一次，只缓存读取位置附近的窗口
+ * - 加载不等待解码：首块解码完成即起播；舞台相机以 getPlaybackPosition() 为主时钟，起播前与欠载时动作随之停住
+ * - 播放位置 = 已出队缓冲的字节偏移 + AL_SEC_OFFSET，保证帧同步可靠性
  * - 与 MMDCameraController 的 PLAYING 状态联动（play/pause/stop）
  * - 通过独立 OpenAL Source 播放，不干扰 MC 自身的音频系统
  */
@@ -85,6 +81,7 @@ public class StageAudioPlayer {
         if (instance != null) {
             instance.cleanup();
         }
+        DecodedAudioCache.clearIdle();
     }
 
     /**
@@ -131,21 +128,43 @@ public class StageAudioPlayer {
     }
 
     private static final Logger logger = LogManager.getLogger();
+
+    /** 队列中的 OpenAL 缓冲数（每个最多 DecodedAudioCache.CHUNK_MS 毫秒） */
+    private static final int STREAM_BUFFER_COUNT = 4;
+
+    /** 所有已加载的播放器（每 tick 补充缓冲队列） */
+    private static final Set<StageAudioPlayer> ACTIVE = ConcurrentHashMap.newKeySet();
     
     // OpenAL 资源
-    private int alBuffer = 0;
+    private int[] alBuffers = null;
     private int alSource = 0;
+    private int alFormat = 0;
     private boolean initialized = false;
     
+    // 流式状态
+    private DecodedAudioCache.DecodedAudio audio = null;
+    private ByteBuffer staging = null;
+    private final ArrayDeque<Integer> freeBuffers = new ArrayDeque<>();
+    /** 已入队缓冲的字节数（按入队顺序） */
+    private final ArrayDeque<Integer> queuedLengths = new ArrayDeque<>();
+    /** 队首缓冲在音频流中的字节偏移 */
+    private long queueStartByte = 0;
+    /** 下一个入队缓冲的字节偏移 */
+    private long nextByte = 0;
+    /** 已读到音频末尾（或解码失败），队列播完即结束 */
+    private boolean endOfStream = false;
+    /** 已请求播放且尚未播放到结尾 */
+    private boolean streaming = false;
+    private boolean paused = false;
+    
     // 音频信息
     private String audioPath = null;
-    private float durationSeconds = 0.0f;
     
     // 音量（0.0 ~ 1.0）
     private float volume = 1.0f;
     
     /**
-     * 加载音频文件（全量解码到 PCM → 上传 OpenAL Buffer）
+     * 加载音频文件（共享解码缓存 + 流式播放）
      * 支持 .mp3 / .ogg / .wav
      * 
      * @param filePath 音频文件绝对路径
@@ -172,80 +191,64 @@ public class StageAudioPlayer {
         
         String ext = getExtension(filePath).toLowerCase();
         
-        PcmData pcm;
+        DecodedAudioCache.DecodedAudio decoded;
         try {
-            switch (ext) {
-                case "mp3":
-                    pcm = decodeMp3(file);
-                    break;
-                case "ogg":
-                    pcm = decodeOgg(file);
-                    break;
-                case "wav":
-                    pcm = decodeWav(file);
-                    break;
-                default:
-                    logger.warn("[StageAudio] 不支持的音频格式: {}", ext);
-                    return false;
-            }
+            decoded = DecodedAudioCache.acquire(file, ext, this);
         } catch (Exception e) {
             logger.error("[StageAudio] 解码失败: {} - {}", filePath, e.getMessage());
             return false;
         }
-        
-        if (pcm == null || pcm.data == null || pcm.data.limit() == 0) {
-            logger.warn("[StageAudio] 解码结果为空: {}", filePath);
+        if (decoded == null) {
+            logger.warn("[StageAudio] 不支持的音频格式: {}", ext);
             return false;
         }
         
         // 确定 OpenAL 格式
-        int alFormat = getAlFormat(pcm.channels, pcm.bitsPerSample);
-        if (alFormat == 0) {
-            logger.error("[StageAudio] 不支持的 PCM 格式: ch={}, bits={}", pcm.channels, pcm.bitsPerSample);
-            MemoryUtil.memFree(pcm.data);
+        int format = getAlFormat(decoded.channels, decoded.bitsPerSample);
+        if (format == 0) {
+            logger.error("[StageAudio] 不支持的 PCM 格式: ch={}, bits={}", decoded.channels, decoded.bitsPerSample);
+            DecodedAudioCache.release(decoded, this);
             return false;
         }
         
-        // 创建 OpenAL Buffer 和 Source
-        alBuffer = AL10.alGenBuffers();
-        AL10.alBufferData(alBuffer, alFormat, pcm.data, pcm.sampleRate);
+        // 创建 OpenAL 缓冲队列和 Source
+        alBuffers = new int[STREAM_BUFFER_COUNT];
+        AL10.alGenBuffers(alBuffers);
+        alSource = AL10.alGenSources();
         
         int err = AL10.alGetError();
         if (err != AL10.AL_NO_ERROR) {
-            logger.error("[StageAudio] alBufferData 错误: 0x{}", Integer.toHexString(err));
-            AL10.alDeleteBuffers(alBuffer);
-            alBuffer = 0;
-            MemoryUtil.memFree(pcm.data);
+            logger.error("[StageAudio] OpenAL 资源创建错误: 0x{}", Integer.toHexString(err));
+            DecodedAudioCache.release(decoded, this);
+            releaseAl();
             return false;
         }
         
-        alSource = AL10.alGenSources();
-        AL10.alSourcei(alSource, AL10.AL_BUFFER, alBuffer);
         AL10.alSourcef(alSource, AL10.AL_GAIN, volume);
         // 非位置音频（2D播放）
         AL10.alSourcei(alSource, AL10.AL_SOURCE_RELATIVE, AL10.AL_TRUE);
         AL10.alSource3f(alSource, AL10.AL_POSITION, 0, 0, 0);
         
-        // 计算时长
-        int totalSamples = pcm.data.remaining() / (pcm.channels * (pcm.bitsPerSample / 8));
-        durationSeconds = (float) totalSamples / pcm.sampleRate;
-        
-        // 释放 CPU 端缓冲（已上传到 OpenAL）
-        MemoryUtil.memFree(pcm.data);
+        for (int buffer : alBuffers) freeBuffers.push(buffer);
+        staging = MemoryUtil.memAlloc(decoded.chunkBytes);
         
+        this.audio = decoded;
+        this.alFormat = format;
         this.audioPath = filePath;
         this.initialized = true;
+        ACTIVE.add(this);
         
         return true;
     }
     
     /**
-     * 开始播放
+     * 开始播放（从头开始）
      */
     public void play() {
         if (!initialized) return;
-        AL10.alSourceRewind(alSource);
-        AL10.alSourcePlay(alSource);
+        streaming = true;
+        paused = false;
+        seekToByte(0);
     }
     
     /**
@@ -253,6 +256,8 @@ public class StageAudioPlayer {
      */
     public void stop() {
         if (!initialized) return;
+        streaming = false;
+        paused = false;
         AL10.alSourceStop(alSource);
     }
     
@@ -260,7 +265,8 @@ public class StageAudioPlayer {
      * 暂停播放
      */
     public void pause() {
-        if (!initialized) return;
+        if (!initialized || !streaming) return;
+        paused = true;
         AL10.alSourcePause(alSource);
     }
     
@@ -268,19 +274,30 @@ public class StageAudioPlayer {
      * 恢复播放
      */
     public void resume() {
-        if (!initialized) return;
-        int state = AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE);
-        if (state == AL10.AL_PAUSED) {
-            AL10.alSourcePlay(alSource);
-        }
+        if (!initialized || !paused) return;
+        paused = false;
+        pump();
     }
     
     /**
      * 是否正在播放
      */
     public boolean isPlaying() {
-        if (!initialized) return false;
-        return AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING;
+        return initialized && streaming && !paused;
+    }
+    
+    /**
+     * Source 是否正在出声（起播前等待首块解码与欠载补充期间为 false）
+     */
+    public boolean isSourcePlaying() {
+        return isPlaying() && AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING;
+    }
+    
+    /**
+     * 立即回收并补充缓冲队列（以音频为主时钟的调用方每帧调用，起播与欠载恢复不必等下一 tick）
+     */
+    public void update() {
+        pump();
     }
     
     /**
@@ -288,16 +305,17 @@ public class StageAudioPlayer {
      */
     public float getPlaybackPosition() {
         if (!initialized) return 0.0f;
-        return AL10.alGetSourcef(alSource, AL11.AL_SEC_OFFSET);
+        return (float) queueStartByte / audio.bytesPerSecond() + AL10.alGetSourcef(alSource, AL11.AL_SEC_OFFSET);
     }
     
     /**
      * 设置播放位置（秒）
+     * 缓存窗口内的位置直接读取；窗口外的位置由解码器跳转解码，就绪后开始出声
      */
     public void setPlaybackPosition(float seconds) {
         if (!initialized) return;
-        seconds = Math.max(0, Math.min(seconds, durationSeconds));
-        AL10.alSourcef(alSource, AL11.AL_SEC_OFFSET, seconds);
+        seconds = Math.max(0, Math.min(seconds, getDuration()));
+        seekToByte((long) (seconds * audio.sampleRate) * audio.frameBytes);
     }
     
     /**
@@ -316,10 +334,10 @@ public class StageAudioPlayer {
     }
     
     /**
-     * 获取音频时长（秒）
+     * 获取音频时长（秒），解码完成前为文件头估计值
      */
     public float getDuration() {
-        return durationSeconds;
+        return audio != null ? audio.durationSeconds() : 0.0f;
     }
     
     /**
@@ -349,174 +367,101 @@ public class StageAudioPlayer {
      * 释放所有 OpenAL 资源
      */
     public void cleanup() {
+        ACTIVE.remove(this);
+        releaseAl();
+        if (staging != null) {
+            MemoryUtil.memFree(staging);
+            staging = null;
+        }
+        if (audio != null) {
+            DecodedAudioCache.release(audio, this);
+            audio = null;
+        }
+        freeBuffers.clear();
+        queuedLengths.clear();
+        queueStartByte = 0;
+        nextByte = 0;
+        endOfStream = false;
+        streaming = false;
+        paused = false;
+        initialized = false;
+        audioPath = null;
+    }
+    
+    private void releaseAl() {
         if (alSource != 0) {
             AL10.alSourceStop(alSource);
             AL10.alDeleteSources(alSource);
             alSource = 0;
         }
-        if (alBuffer != 0) {
-            AL10.alDeleteBuffers(alBuffer);
-            alBuffer = 0;
+        if (alBuffers != null) {
+            AL10.alDeleteBuffers(alBuffers);
+            alBuffers = null;
         }
-        initialized = false;
-        audioPath = null;
-        durationSeconds = 0.0f;
     }
     
-    // ==================== 格式解码 ====================
+    // ==================== 流式缓冲 ====================
     
     /**
-     * 解码后的 PCM 数据
+     * 清空队列并从指定字节偏移重新入队
      */
-    private static class PcmData {
-        ByteBuffer data;
-        int sampleRate;
-        int channels;
-        int bitsPerSample;
-        
-        PcmData(ByteBuffer data, int sampleRate, int channels, int bitsPerSample) {
-            this.data = data;
-            this.sampleRate = sampleRate;
-            this.channels = channels;
-            this.bitsPerSample = bitsPerSample;
-        }
+    private void seekToByte(long offset) {
+        AL10.alSourceStop(alSource);
+        // 停止后所有缓冲都变为已处理，可以全部出队
+        AL10.alSourcei(alSource, AL10.AL_BUFFER, 0);
+        freeBuffers.clear();
+        for (int buffer : alBuffers) freeBuffers.push(buffer);
+        queuedLengths.clear();
+        queueStartByte = offset;
+        nextByte = offset;
+        endOfStream = false;
+        pump();
     }
     
     /**
-     * MP3 解码（JLayer）
-     * 逐帧解码为 16-bit PCM
+     * 回收已播放的缓冲、补充新数据，并在欠载后恢复播放
      */
-    private PcmData decodeMp3(File file) throws Exception {
-        ByteArrayOutputStream pcmOut = new ByteArrayOutputStream();
-        
-        int sampleRate = 0;
-        int channels = 0;
+    private void pump() {
+        if (!initialized || !streaming) return;
         
-        try (FileInputStream fis = new FileInputStream(file)) {
-            Bitstream bitstream = new Bitstream(fis);
-            Decoder decoder = new Decoder();
-            
-            Header header;
-            while ((header = bitstream.readFrame()) != null) {
-                if (sampleRate == 0) {
-                    sampleRate = header.frequency();
-                    channels = header.mode() == Header.SINGLE_CHANNEL ? 1 : 2;
-                }
-                
-                // 解码一帧 → float[] 样本（-1.0 ~ 1.0 范围的 short 值）
-                SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
-                short[] samples = output.getBuffer();
-                int len = output.getBufferLength();
-                
-                // short[] → byte[]（little-endian 16-bit PCM）
-                for (int i = 0; i < len; i++) {
-                    pcmOut.write(samples[i] & 0xFF);
-                    pcmOut.write((samples[i] >> 8) & 0xFF);
-                }
-                
-                bitstream.closeFrame();
-            }
-            
-            bitstream.close();
+        int processed = AL10.alGetSourcei(alSource, AL10.AL_BUFFERS_PROCESSED);
+        while (processed-- > 0) {
+            freeBuffers.push(AL10.alSourceUnqueueBuffers(alSource));
+            Integer length = queuedLengths.poll();
+            if (length != null) queueStartByte += length;
         }
         
-        byte[] pcmBytes = pcmOut.toByteArray();
-        if (pcmBytes.length == 0 || sampleRate == 0) return null;
-        
-        ByteBuffer buffer = MemoryUtil.memAlloc(pcmBytes.length);
-        buffer.put(pcmBytes).flip();
-        
-        return new PcmData(buffer, sampleRate, channels, 16);
-    }
-    
-    /**
-     * OGG Vorbis 解码（STB Vorbis — LWJGL 内置）
-     * 一次性解码整个文件
-     */
-    private PcmData decodeOgg(File file) throws Exception {
-        byte[] fileBytes = Files.readAllBytes(file.toPath());
-        ByteBuffer fileBuffer = MemoryUtil.memAlloc(fileBytes.length);
-        fileBuffer.put(fileBytes).flip();
+        while (!freeBuffers.isEmpty() && !endOfStream) {
+            staging.clear();
+            int n = audio.read(this, nextByte, staging);
+            if (n < 0) endOfStream = true;
+            if (n <= 0) break;
+            staging.flip();
+            int buffer = freeBuffers.pop();
+            AL10.alBufferData(buffer, alFormat, staging, audio.sampleRate);
+            AL10.alSourceQueueBuffers(alSource, buffer);
+            queuedLengths.add(n);
+            nextByte += n;
+        }
         
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer channelsBuffer = stack.mallocInt(1);
-            IntBuffer sampleRateBuffer = stack.mallocInt(1);
-            
-            ShortBuffer decoded = STBVorbis.stb_vorbis_decode_memory(
-                fileBuffer, channelsBuffer, sampleRateBuffer
-            );
-            
-            MemoryUtil.memFree(fileBuffer);
-            
-            if (decoded == null) {
-                logger.error("[StageAudio] STB Vorbis 解码失败");
-                return null;
+        if (paused) return;
+        if (AL10.alGetSourcei(alSource, AL10.AL_SOURCE_STATE) != AL10.AL_PLAYING) {
+            if (!queuedLengths.isEmpty()) {
+                // 起播，或解码/tick 跟不上导致欠载后立即继续
+                AL10.alSourcePlay(alSource);
+            } else if (queuedLengths.isEmpty() && endOfStream) {
+                // 播放结束
+                streaming = false;
             }
-            
-            int channels = channelsBuffer.get(0);
-            int sampleRate = sampleRateBuffer.get(0);
-            
-            // ShortBuffer → ByteBuffer（16-bit little-endian）
-            ByteBuffer pcmBuffer = MemoryUtil.memAlloc(decoded.remaining() * 2);
-            while (decoded.hasRemaining()) {
-                short s = decoded.get();
-                pcmBuffer.put((byte) (s & 0xFF));
-                pcmBuffer.put((byte) ((s >> 8) & 0xFF));
-            }
-            pcmBuffer.flip();
-            
-            // STB 分配的内存需要用 LWJGL free 释放
-            MemoryUtil.memFree(decoded);
-            
-            return new PcmData(pcmBuffer, sampleRate, channels, 16);
         }
     }
     
     /**
-     * WAV 解码（Java Sound API）
-     * 读取 PCM 数据（自动处理各种 WAV 子格式）
+     * 每 tick 调用：为所有播放中的音频补充缓冲队列
      */
-    private PcmData decodeWav(File file) throws Exception {
-        try (AudioInputStream ais = AudioSystem.getAudioInputStream(file)) {
-            AudioFormat fmt = ais.getFormat();
-            
-            // 如果不是 PCM 编码，转换为 PCM
-            AudioFormat targetFmt = fmt;
-            boolean needConvert = fmt.getEncoding() != AudioFormat.Encoding.PCM_SIGNED;
-            AudioInputStream targetAis = needConvert 
-                ? AudioSystem.getAudioInputStream(
-                    new AudioFormat(
-                        AudioFormat.Encoding.PCM_SIGNED,
-                        fmt.getSampleRate(),
-                        16,
-                        fmt.getChannels(),
-                        fmt.getChannels() * 2,
-                        fmt.getSampleRate(),
-                        false // little-endian
-                    ), ais)
-                : ais;
-            
-            try {
-                if (needConvert) {
-                    targetFmt = targetAis.getFormat();
-                }
-                
-                byte[] pcmBytes = targetAis.readAllBytes();
-                
-                ByteBuffer buffer = MemoryUtil.memAlloc(pcmBytes.length);
-                buffer.put(pcmBytes).flip();
-                
-                return new PcmData(
-                    buffer,
-                    (int) targetFmt.getSampleRate(),
-                    targetFmt.getChannels(),
-                    targetFmt.getSampleSizeInBits()
-                );
-            } finally {
-                if (needConvert) {
-                    targetAis.close();
-                }
-            }
+    public static void tickStreams() {
+        for (StageAudioPlayer sap : ACTIVE) {
+            sap.pump();
         }
     }
     
@@ -93,6 +93,16 @@ public interface IMMDModel {
      */
     default long getVramUsage() { return 0; }
     
+    /**
+     * 获取当前动画 LOD 等级（0 = 全速更新，数值越大更新越稀疏）
+     */
+    default int getAnimationLodLevel() { return 0; }
+    
+    /**
+     * 本帧是否未绘制（未绘制的模型只推进动画时钟，重新可见时一次性快进）
+     */
+    default boolean isOffscreen() { return false; }
+    
     /**
      * 获取模型 RAM 占用（字节）
      * 包括 Rust 原生堆内存 + Java 侧堆外缓冲区（ByteBuffer/FloatBuffer）
@@ -1,8 +1,10 @@
 package com.shiroha.mmdskin.renderer.core;
 
+import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.model.MMDModelManager;
+import com.shiroha.mmdskin.renderer.resource.GlUploadBudget;
 import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
 
 import net.minecraft.client.Minecraft;
@@ -29,6 +31,8 @@ public class PerformanceHud {
     private static final int PADDING     = 5;
     private static final int INNER_PAD   = 3;
     
+    private static final String[] PHYSICS_TIER_NAMES = {"全速", "减少子步", "半频", "冻结"};
+    
     private static final long REFRESH_INTERVAL_MS = 500;
     private static long lastRefreshTime = 0;
     
@@ -123,24 +127,57 @@ public class PerformanceHud {
         }
         int pendingCount = MMDTextureManager.getPendingReleaseCount();
         long pendingVram = MMDTextureManager.getPendingReleaseVram();
+        int deduped = MMDTextureManager.getDedupedPathCount();
+        String dedupSuffix = deduped > 0 ? String.format("  去重 %d", deduped) : "";
         if (pendingCount > 0) {
-            addLine(String.format("  纹理   %d 张  VRAM %s (待释放 %d 张 %s)",
-                    texCount, fmtB(texVram), pendingCount, fmtB(pendingVram)), VALUE_COLOR);
+            addLine(String.format("  纹理   %d 张  VRAM %s (待释放 %d 张 %s)%s",
+                    texCount, fmtB(texVram), pendingCount, fmtB(pendingVram), dedupSuffix), VALUE_COLOR);
         } else {
-            addLine(String.format("  纹理   %d 张  VRAM %s", texCount, fmtB(texVram)), VALUE_COLOR);
+            addLine(String.format("  纹理   %d 张  VRAM %s%s", texCount, fmtB(texVram), dedupSuffix), VALUE_COLOR);
         }
         
+        // GL 上传预算（上一帧用量；预算耗尽说明有收尾工作被推迟到后续帧）
+        int loading = MMDModelManager.getPendingLoadCount();
+        int sliced = MMDTextureManager.getSlicedUploadCount();
+        int uploadColor = GlUploadBudget.wasLastFrameExhausted() ? WARN_COLOR : VALUE_COLOR;
+        addLine(String.format("  GL上传 %.1f / %d ms  %s  加载中 %d  分块 %d",
+                GlUploadBudget.getLastFrameUsedMs(), GlUploadBudget.getBudgetMs(),
+                fmtB(GlUploadBudget.getLastFrameBytes()), loading, sliced), uploadColor);
+        
         // 汇总 RAM/VRAM
         long totalRam = 0, totalVram = 0;
+        int[] lodCounts = new int[3];
+        int offscreen = 0;
         for (MMDModelManager.Model m : models) {
             totalRam += m.model.getRamUsage();
             totalVram += m.model.getVramUsage();
+            if (m.model.isOffscreen()) {
+                offscreen++;
+            } else {
+                lodCounts[Math.min(2, Math.max(0, m.model.getAnimationLodLevel()))]++;
+            }
         }
         long totalMmdVram = totalVram + texVram;
         
         addLine(String.format("  RAM    %s", fmtB(totalRam)), VALUE_COLOR);
         addLine(String.format("  VRAM   %s (模型 %s + 纹理 %s)",
                 fmtB(totalMmdVram), fmtB(totalVram), fmtB(texVram)), VALUE_COLOR);
+        if (!models.isEmpty()) {
+            addLine(String.format("  动画LOD 全速 %d  降频 %d  远景 %d  未绘制 %d",
+                    lodCounts[0], lodCounts[1], lodCounts[2], offscreen), VALUE_COLOR);
+        }
+        addLine(String.format("  动画片段 %d 个（模型间共享）", MMDAnimManager.getSharedClipCount()), VALUE_COLOR);
+        if (!models.isEmpty()) {
+            // 物理预算（上一帧所有模型合计；压力 > 0 表示已整体降级）
+            NativeFunc nf = NativeFunc.GetInst();
+            float physicsMs = nf.GetPhysicsFrameMicros() / 1000.0f;
+            float budgetMs = ConfigManager.getPhysicsFrameBudgetMs();
+            int pressure = nf.GetPhysicsBudgetPressure();
+            int physicsColor = budgetMs > 0 && physicsMs > budgetMs ? WARN_COLOR : VALUE_COLOR;
+            addLine(budgetMs > 0
+                    ? String.format("  物理   %.2f / %.0f ms  降级 %d", physicsMs, budgetMs, pressure)
+                    : String.format("  物理   %.2f ms", physicsMs), physicsColor);
+        }
         
         // ===== 模型详情 =====
         if (!models.isEmpty()) {
@@ -177,6 +214,11 @@ public class PerformanceHud {
                 if (vMorphs > 0 || uvMorphs > 0) {
                     addLine(String.format("    Morph: 顶点 %d  UV %d", vMorphs, uvMorphs), LABEL_COLOR);
                 }
+                if (nf.IsPhysicsEnabled(handle)) {
+                    int tier = nf.GetPhysicsTier(handle);
+                    addLine(String.format("    物理 %s  %.2f ms", PHYSICS_TIER_NAMES[Math.min(3, Math.max(0, tier))],
+                            nf.GetPhysicsStepMicros(handle) / 1000.0f), tier > 0 ? WARN_COLOR : LABEL_COLOR);
+                }
             }
         }
         
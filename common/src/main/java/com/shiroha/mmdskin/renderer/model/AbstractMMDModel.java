@@ -1,6 +1,7 @@
 package com.shiroha.mmdskin.renderer.model;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.bonesync.BoneSyncManager;
 import com.shiroha.mmdskin.renderer.camera.MMDCameraController;
 import com.shiroha.mmdskin.renderer.core.EyeTrackingHelper;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
@@ -21,6 +22,8 @@ import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * MMD 模型抽象基类（SRP + LoD）
@@ -49,6 +52,21 @@ public abstract class AbstractMMDModel implements IMMDModel {
 
     // 时间追踪
     protected long lastUpdateTime = -1;
+    // 超出单步上限、只推进动画时钟的时间（秒），在下次更新时一次性快进
+    private float skippedTime;
+
+    // 并行更新（由 ParallelModelUpdater 在帧开始时派发，render 入口等待）
+    private Future<?> pendingUpdate;
+    private long pendingFrame = -1;
+    private boolean parallelUpdated;
+    private long markedFrame = -1;
+
+    // 动画 LOD（见 AnimationLod），相位错开使同等级模型分摊到不同帧
+    private int lodLevel = AnimationLod.LEVEL_FULL;
+    private final int lodPhase = System.identityHashCode(this) & 0x7FFFFFFF;
+    // 上次传给 Rust 的物理分级距离（变化超过 PHYSICS_DISTANCE_STEP 才重新设置）
+    private float physicsDistance = -1.0f;
+    private static final float PHYSICS_DISTANCE_STEP = 0.5f;
 
     // 预分配临时对象
     protected final Quaternionf tempQuat = new Quaternionf();
@@ -85,6 +103,10 @@ public abstract class AbstractMMDModel implements IMMDModel {
                        int packedLight, RenderContext context) {
         if (model == 0 || !isReady()) return;
 
+        // 屏障：等待帧开始时派发的并行更新完成，之后本帧不再重复更新
+        awaitPendingUpdate();
+        updateLodLevel(entityIn, context);
+
         if (entityIn instanceof LivingEntity living) {
             handleLivingEntity(living, entityYaw, entityPitch, entityTrans,
                     tickDelta, mat, packedLight, context);
@@ -174,6 +196,9 @@ public abstract class AbstractMMDModel implements IMMDModel {
             EyeTrackingHelper.updateEyeTracking(getNf(), model, entityIn, entityYaw, tickDelta, getModelName());
         }
 
+        // 远程玩家的网络同步骨骼姿势
+        BoneSyncManager.applyRemotePose(entityIn, model);
+
         // 传递实体位置和朝向给物理系统（用于人物移动时的惯性效果）
         float posX = (float)(Mth.lerp(tickDelta, entityIn.xo, entityIn.getX()) * MODEL_SCALE);
         float posY = (float)(Mth.lerp(tickDelta, entityIn.yo, entityIn.getY()) * MODEL_SCALE);
@@ -187,23 +212,151 @@ public abstract class AbstractMMDModel implements IMMDModel {
 
     /**
      * deltaTime 计算 + 调用子类更新（模板方法）
+     *
+     * 只有被绘制的模型才会走到这里；未绘制期间不做任何工作，
+     * 重新可见时由 consumeDeltaTime 把空档计入 skippedTime，在 runUpdate 中一次性快进。
      */
     protected void update() {
+        long frame = ParallelModelUpdater.currentFrame();
+        if (markedFrame != frame) {
+            markedFrame = frame;
+            ParallelModelUpdater.markRendered(this);
+        }
+        if (parallelUpdated) {
+            parallelUpdated = false;
+            return;
+        }
+        if (!isLodUpdateFrame()) return;
+
+        float deltaTime = consumeDeltaTime();
+        if (deltaTime <= 0.0f) return;
+        runUpdate(deltaTime);
+    }
+
+    /**
+     * 计算距上次更新的 deltaTime 并推进时间戳（返回 0 表示本次跳过更新）
+     * 超出 MAX_DELTA_TIME 的部分（模型未绘制或卡顿）累计到 skippedTime，只推进时钟
+     */
+    private float consumeDeltaTime() {
         long currentTime = System.currentTimeMillis();
         if (lastUpdateTime < 0) {
             lastUpdateTime = currentTime;
-            return;
+            return 0.0f;
         }
 
         float deltaTime = (currentTime - lastUpdateTime) / 1000.0f;
         lastUpdateTime = currentTime;
 
-        if (deltaTime <= 0.0f) return;
-        if (deltaTime > MAX_DELTA_TIME) deltaTime = MAX_DELTA_TIME;
+        if (deltaTime <= 0.0f) return 0.0f;
+        if (deltaTime > MAX_DELTA_TIME) {
+            skippedTime += deltaTime - MAX_DELTA_TIME;
+            return MAX_DELTA_TIME;
+        }
+        return deltaTime;
+    }
 
+    /**
+     * 先快进跳过的时间（只推进时钟，物理由 Rust 侧按需重置），再执行一次完整更新
+     * 可在工作线程上执行
+     */
+    private void runUpdate(float deltaTime) {
+        float skipped = skippedTime;
+        if (skipped > 0.0f) {
+            skippedTime = 0.0f;
+            getNf().AdvanceAnimationClock(model, skipped);
+        }
         onUpdate(deltaTime);
     }
 
+    /**
+     * 把 onUpdate 派发到工作线程（渲染线程调用）
+     */
+    boolean dispatchParallelUpdate(ExecutorService executor) {
+        if (model == 0 || !isReady() || pendingUpdate != null || !supportsParallelUpdate()) return false;
+        if (!isLodUpdateFrame()) return false;
+        float deltaTime = consumeDeltaTime();
+        if (deltaTime <= 0.0f) return false;
+        pendingFrame = ParallelModelUpdater.currentFrame();
+        pendingUpdate = executor.submit(() -> runUpdate(deltaTime));
+        return true;
+    }
+
+    /**
+     * 等待已派发的并行更新完成，完成后本帧下一次 update() 不再重复更新
+     * 派发后模型被剔除、若干帧后才再次绘制时，旧结果已过期，本帧照常重新更新
+     */
+    protected void awaitPendingUpdate() {
+        Future<?> pending = pendingUpdate;
+        if (pending == null) return;
+        pendingUpdate = null;
+        ParallelModelUpdater.await(pending);
+        parallelUpdated = pendingFrame == ParallelModelUpdater.currentFrame();
+    }
+
+    /**
+     * 按距离/屏幕尺寸更新 LOD 等级，等级变化时通知 Rust 侧切换降级模式；
+     * 同时把相机距离传给 Rust 用于选择物理质量等级
+     */
+    private void updateLodLevel(Entity entityIn, RenderContext context) {
+        float distance = AnimationLod.physicsDistance(entityIn, context);
+        if ((distance < 0.0f) != (physicsDistance < 0.0f)
+                || Math.abs(distance - physicsDistance) >= PHYSICS_DISTANCE_STEP) {
+            getNf().SetPhysicsCameraDistance(model, distance);
+            physicsDistance = distance;
+        }
+
+        int level = Math.min(AnimationLod.computeLevel(entityIn, context), maxLodLevel());
+        if (level == lodLevel) return;
+        boolean reduced = level > AnimationLod.LEVEL_FULL;
+        if (reduced != (lodLevel > AnimationLod.LEVEL_FULL)) {
+            getNf().SetUpdateLodReduced(model, reduced);
+        }
+        lodLevel = level;
+    }
+
+    /**
+     * 当前帧是否轮到该模型更新（跳过的帧在下次更新时累积 deltaTime）
+     */
+    private boolean isLodUpdateFrame() {
+        int interval = AnimationLod.updateInterval(lodLevel);
+        return interval <= 1 || (ParallelModelUpdater.currentFrame() + lodPhase) % interval == 0;
+    }
+
+    /**
+     * LOD 跳帧插值系数：未降级时返回 -1；降级时返回本帧在更新间隔内的位置（0 为更新帧）
+     *
+     * 渲染在上一次与本次更新的姿势之间按该系数插值，显示滞后一个更新间隔但不再阶梯跳变。
+     */
+    protected float lodBlendAlpha() {
+        int interval = AnimationLod.updateInterval(lodLevel);
+        if (interval <= 1) return -1.0f;
+        return (float) ((ParallelModelUpdater.currentFrame() + lodPhase) % interval) / interval;
+    }
+
+    /**
+     * 该渲染路径允许的最高 LOD 等级（无法在跳帧间插值的路径应限制在 LEVEL_REDUCED）
+     */
+    protected int maxLodLevel() {
+        return AnimationLod.LEVEL_FAR;
+    }
+
+    @Override
+    public int getAnimationLodLevel() {
+        return lodLevel;
+    }
+
+    @Override
+    public boolean isOffscreen() {
+        return markedFrame != ParallelModelUpdater.currentFrame();
+    }
+
+    /**
+     * onUpdate 是否可在工作线程上执行（只含 native 调用、不触碰 GL 状态时返回 true）
+     */
+    protected boolean supportsParallelUpdate() {
+        return false;
+    }
+
     /**
      * 获取材质 Morph 结果
      */
@@ -239,6 +392,7 @@ public abstract class AbstractMMDModel implements IMMDModel {
 
     /** 释放模型原生句柄 */
     protected void disposeModelHandle() {
+        awaitPendingUpdate();
         if (model != 0) {
             getNf().DeleteModel(model);
             model = 0;
@@ -0,0 +1,70 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.core.RenderContext;
+import net.minecraft.client.Camera;
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * 动画 LOD 策略（距离 + 屏幕尺寸）
+ *
+ * 等级：
+ * - 0 全速：每帧更新，完整物理/Morph/眨眼
+ * - 1 降频：每 2 帧更新一次，跳过物理、冻结 Morph 与眨眼
+ * - 2 远景：每 4 帧更新一次，同上
+ *
+ * 跳过的帧累积 deltaTime，动画时间线保持正确；绘制复用上一次的蒙皮结果。
+ * 本地玩家与非世界场景（物品栏、GUI）始终全速。
+ *
+ * 物理质量等级（全速/减少子步/半频/冻结）由 Rust 侧按 {@link #physicsDistance} 与全局每帧预算选择。
+ */
+final class AnimationLod {
+    static final int LEVEL_FULL = 0;
+    static final int LEVEL_REDUCED = 1;
+    static final int LEVEL_FAR = 2;
+
+    private static final int[] UPDATE_INTERVALS = {1, 2, 4};
+
+    /** 模型在屏幕上的投影高度低于该像素数时至少降到等级 1 */
+    private static final double SMALL_SCREEN_PX = 96.0;
+    /** 低于该像素数时降到等级 2 */
+    private static final double TINY_SCREEN_PX = 32.0;
+
+    private AnimationLod() {}
+
+    static int computeLevel(Entity entity, RenderContext context) {
+        if (!ConfigManager.isAnimationLodEnabled()) return LEVEL_FULL;
+        if (entity == null || context == null || !context.isWorldScene()) return LEVEL_FULL;
+
+        Minecraft mc = Minecraft.getInstance();
+        Camera camera = mc.gameRenderer.getMainCamera();
+        if (entity == camera.getEntity()) return LEVEL_FULL;
+
+        double distance = Math.sqrt(camera.getPosition().distanceToSqr(entity.position()));
+        double lodDistance = ConfigManager.getAnimationLodDistance();
+
+        // 透视投影下的屏幕高度（像素）：h / d * (屏幕高 / (2 * tan(fov / 2)))
+        double halfFov = Math.toRadians(mc.options.fov().get()) * 0.5;
+        double screenPx = entity.getBbHeight() / Math.max(distance, 0.1)
+                * mc.getWindow().getHeight() / (2.0 * Math.tan(halfFov));
+
+        if (distance > lodDistance * 2.0 || screenPx < TINY_SCREEN_PX) return LEVEL_FAR;
+        if (distance > lodDistance || screenPx < SMALL_SCREEN_PX) return LEVEL_REDUCED;
+        return LEVEL_FULL;
+    }
+
+    /**
+     * 物理分级使用的相机距离（方块）；本地玩家与非世界场景返回 -1（固定全速物理）
+     */
+    static float physicsDistance(Entity entity, RenderContext context) {
+        if (entity == null || context == null || !context.isWorldScene()) return -1.0f;
+        Camera camera = Minecraft.getInstance().gameRenderer.getMainCamera();
+        if (entity == camera.getEntity()) return -1.0f;
+        return (float) Math.sqrt(camera.getPosition().distanceToSqr(entity.position()));
+    }
+
+    static int updateInterval(int level) {
+        return UPDATE_INTERVALS[Math.max(0, Math.min(level, UPDATE_INTERVALS.length - 1))];
+    }
+}
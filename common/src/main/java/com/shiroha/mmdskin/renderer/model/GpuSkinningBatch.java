@@ -0,0 +1,174 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.shader.ShaderConstants;
+import com.shiroha.mmdskin.renderer.shader.SkinningComputeShader;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多模型 GPU 蒙皮批处理
+ *
+ * 帧开始时由 ParallelModelUpdater 派发更新的 GPU 蒙皮模型会登记到本批次。
+ * 本帧第一个 GPU 蒙皮模型渲染时统一处理整批：
+ * - 所有模型的骨骼矩阵 / Morph 权重打包进共享 arena SSBO（每类一次上传）
+ * - 蒙皮程序与 SSBO 绑定状态只切换/保存一次，各模型以 glBindBufferRange 读取自己的区间
+ * - 整批只插入一次内存屏障
+ *
+ * 未登记（本帧新出现、或并行更新关闭）以及蒙皮后又被更新的模型回退到逐模型 dispatch。
+ * 所有方法只能在渲染线程调用。
+ */
+final class GpuSkinningBatch {
+    private static final List<MMDModelGpuSkinning> members = new ArrayList<>();
+    private static final List<SkinningComputeShader.ArenaRanges> ranges = new ArrayList<>();
+    private static long memberFrame = -1;
+    private static boolean flushed = false;
+
+    // 共享 arena（GPU）与暂存区（CPU）
+    private static final Arena boneArena = new Arena();
+    private static final Arena morphArena = new Arena();
+    private static final Arena uvMorphArena = new Arena();
+    private static int ssboAlignment = 0;
+
+    private GpuSkinningBatch() {}
+
+    /** 登记本帧已派发并行更新的模型 */
+    static void enqueue(MMDModelGpuSkinning model) {
+        long frame = ParallelModelUpdater.currentFrame();
+        if (memberFrame != frame) {
+            members.clear();
+            memberFrame = frame;
+            flushed = false;
+        }
+        members.add(model);
+    }
+
+    /**
+     * 确保模型本帧已完成蒙皮
+     * @return true 表示已由批处理完成，调用方无需再逐模型 dispatch
+     */
+    static boolean ensureSkinned(MMDModelGpuSkinning model, SkinningComputeShader shader) {
+        long frame = ParallelModelUpdater.currentFrame();
+        if (memberFrame != frame || !ConfigManager.isGpuSkinningBatchEnabled()) return false;
+        if (!flushed) {
+            flushed = true;
+            flush(shader, frame);
+        }
+        return model.batchSkinnedFrame == frame;
+    }
+
+    private static void flush(SkinningComputeShader shader, long frame) {
+        if (ssboAlignment <= 0) {
+            ssboAlignment = Math.max(4, GL46C.glGetInteger(GL46C.GL_SHADER_STORAGE_BUFFER_OFFSET_ALIGNMENT));
+        }
+        boneArena.reset();
+        morphArena.reset();
+        uvMorphArena.reset();
+        ranges.clear();
+
+        // 1. 等待并行更新，并把每个模型的数据写入暂存区
+        for (MMDModelGpuSkinning m : members) {
+            if (m.getModelHandle() == 0 || !m.isReady()) {
+                ranges.add(null);
+                continue;
+            }
+            m.awaitPendingUpdate();
+
+            long boneOffset = boneArena.reserve((long) ShaderConstants.MAX_BONES * 64);
+            int bones = m.copyBoneMatricesTo(boneArena.slice(boneOffset, (long) ShaderConstants.MAX_BONES * 64));
+            if (bones <= 0) {
+                ranges.add(null);
+                continue;
+            }
+            long boneSize = (long) Math.min(bones, ShaderConstants.MAX_BONES) * 64;
+            boneArena.commit(boneOffset + boneSize);
+
+            long morphOffset = 0, uvMorphOffset = 0;
+            int morphCount = m.getVertexMorphCount();
+            int uvMorphCount = m.getUvMorphCount();
+            if (morphCount > 0) morphOffset = morphArena.reserve((long) morphCount * 4);
+            if (uvMorphCount > 0) uvMorphOffset = uvMorphArena.reserve((long) uvMorphCount * 4);
+            m.copyMorphWeightsTo(
+                    morphCount > 0 ? morphArena.slice(morphOffset, (long) morphCount * 4) : null,
+                    uvMorphCount > 0 ? uvMorphArena.slice(uvMorphOffset, (long) uvMorphCount * 4) : null);
+            if (morphCount > 0) morphArena.commit(morphOffset + (long) morphCount * 4);
+            if (uvMorphCount > 0) uvMorphArena.commit(uvMorphOffset + (long) uvMorphCount * 4);
+
+            ranges.add(new SkinningComputeShader.ArenaRanges(boneOffset, boneSize, morphOffset, uvMorphOffset));
+        }
+
+        // 2. 每类 arena 一次上传
+        boneArena.upload();
+        morphArena.upload();
+        uvMorphArena.upload();
+
+        // 3. 单次程序切换 + 逐模型 dispatch + 单次屏障
+        shader.beginBatch();
+        for (int i = 0; i < members.size(); i++) {
+            SkinningComputeShader.ArenaRanges r = ranges.get(i);
+            if (r == null) continue;
+            MMDModelGpuSkinning m = members.get(i);
+            shader.dispatchInBatch(m.dispatchParams(boneArena.buffer, morphArena.buffer, uvMorphArena.buffer), r);
+            m.batchSkinnedFrame = frame;
+        }
+        shader.endBatch();
+
+        members.clear();
+        ranges.clear();
+    }
+
+    /**
+     * 可增长的共享 SSBO + CPU 暂存区，区间按 SSBO 偏移对齐
+     */
+    private static final class Arena {
+        int buffer = 0;
+        long gpuCapacity = 0;
+        ByteBuffer staging = null;
+        long used = 0;
+
+        void reset() {
+            used = 0;
+        }
+
+        /** 预留 size 字节（按对齐起始），返回起始偏移；实际占用由 commit 确定 */
+        long reserve(long size) {
+            long offset = (used + ssboAlignment - 1) / ssboAlignment * ssboAlignment;
+            long required = offset + size;
+            if (staging == null || staging.capacity() < required) {
+                long newCapacity = Math.max(required, staging == null ? 64 * 1024 : (long) staging.capacity() * 2);
+                staging = staging == null
+                        ? MemoryUtil.memAlloc((int) newCapacity)
+                        : MemoryUtil.memRealloc(staging, (int) newCapacity);
+            }
+            return offset;
+        }
+
+        ByteBuffer slice(long offset, long size) {
+            return MemoryUtil.memSlice(staging, (int) offset, (int) size);
+        }
+
+        void commit(long end) {
+            used = Math.max(used, end);
+        }
+
+        /** 孤立旧存储后整段上传，避免与上一帧仍在读取的 GPU 命令同步 */
+        void upload() {
+            if (used == 0) return;
+            if (buffer == 0) buffer = GL46C.glGenBuffers();
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, buffer);
+            if (gpuCapacity < used) {
+                gpuCapacity = Math.max(used, gpuCapacity * 2);
+            }
+            GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, gpuCapacity, GL46C.GL_STREAM_DRAW);
+            staging.position(0);
+            staging.limit((int) used);
+            GL46C.glBufferSubData(GL46C.GL_COPY_WRITE_BUFFER, 0, staging);
+            staging.clear();
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+        }
+    }
+}
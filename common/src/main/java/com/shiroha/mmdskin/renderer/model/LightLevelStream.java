@@ -0,0 +1,107 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.NativeFunc;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 共享光照等级顶点流（UV2 lightmap 坐标）
+ *
+ * 整个模型在同一帧内使用相同的 (blockBrightness, skyBrightness)，
+ * 桌面端使用 1 元素 VBO + glVertexAttribDivisor(1)，非实例化绘制时所有顶点读取第 0 个元素，
+ * 每次绘制只需 8 字节。安卓 GL 翻译层（gl4es/ANGLE）对 divisor 支持不可靠，
+ * 仍使用逐顶点 VBO（替代 glVertexAttribI4i 常量属性），但仅在光照值变化时重新填充上传。
+ */
+final class LightLevelStream {
+    private final int bufferObject;
+    private final int vertexCount;
+    private final boolean instanced;
+    /** 逐顶点模式的填充缓冲区（实例化模式下为 8 字节） */
+    private ByteBuffer buffer;
+
+    /** 已上传的光照值（block << 32 | sky），Long.MIN_VALUE 表示尚未上传 */
+    private long uploadedLight = Long.MIN_VALUE;
+
+    private LightLevelStream(int bufferObject, int vertexCount, boolean instanced, ByteBuffer buffer) {
+        this.bufferObject = bufferObject;
+        this.vertexCount = vertexCount;
+        this.instanced = instanced;
+        this.buffer = buffer;
+    }
+
+    /** 当前 GL 上下文能否使用属性 divisor 共享单个光照元素 */
+    private static boolean isDivisorSupported() {
+        if (NativeFunc.isAndroid()) return false;
+        GLCapabilities caps = GL.getCapabilities();
+        return caps.OpenGL33 || caps.GL_ARB_instanced_arrays;
+    }
+
+    /** 创建光照流并预分配 VBO（必须在渲染线程调用） */
+    static LightLevelStream create(int vertexCount) {
+        boolean instanced = isDivisorSupported();
+        int elements = instanced ? 1 : vertexCount;
+        ByteBuffer buffer = MemoryUtil.memAlloc(elements * 8); //int * 2
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int bufferObject = GL46C.glGenBuffers();
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, bufferObject);
+        GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, (long) elements * 8, GL46C.GL_DYNAMIC_DRAW);
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+        return new LightLevelStream(bufferObject, vertexCount, instanced, buffer);
+    }
+
+    /**
+     * 按采样到的光照计算 UV2 并在变化时上传
+     * Iris 兼容：UV2 不应包含 skyDarken，Iris 的光照管线会自行处理昼夜变化
+     */
+    void update(int blockLight, int skyLight, float skyDarken, boolean irisActive) {
+        int blockBrightness = 16 * blockLight;
+        int skyBrightness = irisActive ? (16 * skyLight) : Math.round((15.0f - skyDarken) * (skyLight / 15.0f) * 16);
+        long packed = ((long) blockBrightness << 32) | (skyBrightness & 0xFFFFFFFFL);
+        if (packed == uploadedLight) return;
+
+        int elements = instanced ? 1 : vertexCount;
+        buffer.clear();
+        for (int i = 0; i < elements; i++) {
+            buffer.putInt(blockBrightness);
+            buffer.putInt(skyBrightness);
+        }
+        buffer.flip();
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, bufferObject);
+        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, buffer);
+        uploadedLight = packed;
+    }
+
+    /** 启用并绑定 UV2 属性（location 为 -1 时忽略） */
+    void bind(int location) {
+        if (location == -1) return;
+        GL46C.glEnableVertexAttribArray(location);
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, bufferObject);
+        GL46C.glVertexAttribIPointer(location, 2, GL46C.GL_INT, 0, 0);
+        if (instanced) GL46C.glVertexAttribDivisor(location, 1);
+    }
+
+    /** 禁用 UV2 属性并恢复 divisor（属性位置在不同着色器间会复用） */
+    void unbind(int location) {
+        if (location == -1) return;
+        if (instanced) GL46C.glVertexAttribDivisor(location, 0);
+        GL46C.glDisableVertexAttribArray(location);
+    }
+
+    long getVramUsage() {
+        return (instanced ? 1L : vertexCount) * 8;
+    }
+
+    long getRamUsage() {
+        return buffer != null ? buffer.capacity() : 0;
+    }
+
+    void dispose() {
+        if (buffer != null) { MemoryUtil.memFree(buffer); buffer = null; }
+        GL46C.glDeleteBuffers(bufferObject);
+    }
+}
@@ -24,9 +24,9 @@ import org.lwjgl.system.MemoryUtil;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * GPU 蒙皮 MMD 模型渲染器
@@ -41,27 +41,34 @@ import java.util.List;
  */
 public class MMDModelGpuSkinning extends AbstractMMDModel {
     private static SkinningComputeShader computeShader;
+    
+    /** 最近一次由 GpuSkinningBatch 完成蒙皮的帧序号（-1 表示需要逐模型 dispatch） */
+    long batchSkinnedFrame = -1;
+    /** 自上次蒙皮 dispatch 后姿势是否有更新 */
+    private boolean poseDirty = true;
     private static ToonShaderCpu toonShaderCpu;
     private static final ToonConfig toonConfig = ToonConfig.getInstance();
     
     // 模型数据
     private int vertexCount;
     
-    // OpenGL 资源 - VAO
+    // OpenGL 资源 - VAO（每实例独立）
     private int vertexArrayObject;
+    /** 同一模型资产共享的静态缓冲区（索引、颜色/UV1、蒙皮输入、Morph 偏移） */
+    private SharedMeshBuffers shared;
     private int indexBufferObject;
     
-    // 原始数据 VBO（静态，作为 Compute Shader 的 SSBO 输入）
+    // 原始数据 VBO（静态，作为 Compute Shader 的 SSBO 输入，引用自 shared）
     private int positionBufferObject;
     private int normalBufferObject;
     private int uv0BufferObject;
     private int boneIndicesBufferObject;
     private int boneWeightsBufferObject;
     
-    // Minecraft 标准顶点属性 VBO
+    // Minecraft 标准顶点属性 VBO（color/uv1 引用自 shared）
     private int colorBufferObject;
     private int uv1BufferObject;
-    private int uv2BufferObject;
+    private LightLevelStream lightStream;
     
     // Compute Shader 输出缓冲区（每实例独立，同时作为 SSBO 和 VBO）
     private int skinnedPositionsBuffer;
@@ -70,18 +77,6 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     // 骨骼矩阵 SSBO（每实例独立，避免多模型数据冲突）
     private int boneMatrixSSBO = 0;
     
-    // 缓冲区（allocateDirect 分配，由 GC 回收）
-    @SuppressWarnings("unused")
-    private ByteBuffer posBuffer;
-    @SuppressWarnings("unused")
-    private ByteBuffer norBuffer;
-    @SuppressWarnings("unused")
-    private ByteBuffer uv0Buffer;
-    @SuppressWarnings("unused")
-    private ByteBuffer colorBuffer;
-    @SuppressWarnings("unused")
-    private ByteBuffer uv1Buffer;
-    private ByteBuffer uv2Buffer;
     private FloatBuffer boneMatricesBuffer;
     private FloatBuffer modelViewMatBuff;
     private FloatBuffer projMatBuff;
@@ -91,7 +86,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     
     // 顶点 Morph 数据
     private int vertexMorphCount = 0;
-    private boolean morphDataUploaded = false;
+    /** 本帧非零权重的顶点 Morph 数（为 0 时 Compute Shader 跳过 Morph 阶段） */
+    private int activeVertexMorphCount = 0;
+    /** Morph 权重最近一次写入了批量 arena，逐模型 SSBO 需在下次单独 dispatch 前重新上传 */
+    private boolean morphWeightsInArena = false;
     private FloatBuffer morphWeightsBuffer;
     private ByteBuffer morphWeightsByteBuffer;
     private int morphOffsetsSSBO = 0;
@@ -99,7 +97,6 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     
     // UV Morph 数据
     private int uvMorphCount = 0;
-    private boolean uvMorphDataUploaded = false;
     private FloatBuffer uvMorphWeightsBuffer;
     private ByteBuffer uvMorphWeightsByteBuffer;
     private int uvMorphOffsetsSSBO = 0;
@@ -131,6 +128,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     // G3 优化：批量子网格元数据缓冲区（每子网格 20 字节，每帧复用）
     private ByteBuffer subMeshDataBuf;
     
+    // 子网格批量绘制（加载时构建，材质批处理开启时按绘制掩码修补，替代逐帧 subMeshDataBuf）
+    private SubMeshBatcher batcher;
+    private boolean batchedThisFrame;
+    
     // 临时存储当前 PoseStack，供 renderNormal 使用
     private PoseStack currentDeliverStack;
     
@@ -195,17 +196,18 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         }
         
         // 资源追踪变量（用于异常时清理）
-        int vao = 0, indexVbo = 0, posVbo = 0, norVbo = 0, uv0Vbo = 0;
-        int boneIdxVbo = 0, boneWgtVbo = 0, colorVbo = 0, uv1Vbo = 0, uv2Vbo = 0;
+        int vao = 0;
+        SharedMeshBuffers shared = null;
+        LightLevelStream lightStream = null;
         int[] outputBuffers = null;
         int boneMatrixSSBO = 0;
-        int[] morphBuffers = null;
+        int morphWeightsSSBO = 0;
         FloatBuffer boneMatricesBuffer = null;
         ByteBuffer boneMatricesByteBuffer = null;
         FloatBuffer modelViewMatBuff = null;
         FloatBuffer projMatBuff = null;
         FloatBuffer morphWeightsBuffer = null;
-        int[] uvMorphBuffers = null;
+        int uvMorphWeightsSSBO = 0;
         FloatBuffer uvMorphWeightsBuf = null;
         int skinnedUvBuf = 0;
         ByteBuffer matMorphResultsByteBuf = null;
@@ -226,122 +228,17 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                     boneCount, ShaderConstants.MAX_BONES);
             }
             
-            // 创建 VAO 和 VBO
-            vao = GL46C.glGenVertexArrays();
-            indexVbo = GL46C.glGenBuffers();
-            posVbo = GL46C.glGenBuffers();
-            norVbo = GL46C.glGenBuffers();
-            uv0Vbo = GL46C.glGenBuffers();
-            boneIdxVbo = GL46C.glGenBuffers();
-            boneWgtVbo = GL46C.glGenBuffers();
-            colorVbo = GL46C.glGenBuffers();
-            uv1Vbo = GL46C.glGenBuffers();
-            uv2Vbo = GL46C.glGenBuffers();
+            // 静态缓冲区：同一模型资产的实例共享（首个实例上传）
+            shared = SharedMeshBuffers.acquire(nf, model);
+            shared.ensureSkinningInputs(nf, model);
             
+            // VAO（每实例独立）
+            vao = GL46C.glGenVertexArrays();
             GL46C.glBindVertexArray(vao);
+            GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, shared.indexBufferObject);
             
-            // 索引缓冲区
-            int indexElementSize = (int) nf.GetIndexElementSize(model);
-            int indexCount = (int) nf.GetIndexCount(model);
-            int indexSize = indexCount * indexElementSize;
-            long indexData = nf.GetIndices(model);
-            ByteBuffer indexBuffer = ByteBuffer.allocateDirect(indexSize);
-            nf.CopyDataToByteBuffer(indexBuffer, indexData, indexSize);
-            indexBuffer.position(0);
-            GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexVbo);
-            GL46C.glBufferData(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL46C.GL_STATIC_DRAW);
-            
-            int indexType = switch (indexElementSize) {
-                case 1 -> GL46C.GL_UNSIGNED_BYTE;
-                case 2 -> GL46C.GL_UNSIGNED_SHORT;
-                case 4 -> GL46C.GL_UNSIGNED_INT;
-                default -> 0;
-            };
-            
-            // 原始顶点位置（静态，用于 Compute Shader 输入）
-            ByteBuffer posBuffer = ByteBuffer.allocateDirect(vertexCount * 12);
-            posBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            int copiedPos = nf.CopyOriginalPositionsToBuffer(model, posBuffer, vertexCount);
-            if (copiedPos == 0) {
-                logger.warn("原始顶点位置数据复制失败");
-            }
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, posVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, posBuffer, GL46C.GL_STATIC_DRAW);
-            
-            // 原始法线（静态）
-            ByteBuffer norBuffer = ByteBuffer.allocateDirect(vertexCount * 12);
-            norBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            int copiedNor = nf.CopyOriginalNormalsToBuffer(model, norBuffer, vertexCount);
-            if (copiedNor == 0) {
-                logger.warn("原始法线数据复制失败");
-            }
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, norVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, norBuffer, GL46C.GL_STATIC_DRAW);
-            
-            // UV（静态）
-            ByteBuffer uv0Buffer = ByteBuffer.allocateDirect(vertexCount * 8);
-            uv0Buffer.order(ByteOrder.LITTLE_ENDIAN);
-            long uvData = nf.GetUVs(model);
-            nf.CopyDataToByteBuffer(uv0Buffer, uvData, vertexCount * 8);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv0Vbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv0Buffer, GL46C.GL_STATIC_DRAW);
-            
-            // 骨骼索引（静态，ivec4）
-            ByteBuffer boneIndicesByteBuffer = ByteBuffer.allocateDirect(vertexCount * 16);
-            boneIndicesByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            int copiedIdx = nf.CopyBoneIndicesToBuffer(model, boneIndicesByteBuffer, vertexCount);
-            if (copiedIdx == 0) {
-                logger.warn("骨骼索引数据复制失败");
-            }
-            IntBuffer boneIndicesBuffer = boneIndicesByteBuffer.asIntBuffer();
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, boneIdxVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, boneIndicesBuffer, GL46C.GL_STATIC_DRAW);
-            
-            // 骨骼权重（静态，vec4）
-            ByteBuffer boneWeightsByteBuffer = ByteBuffer.allocateDirect(vertexCount * 16);
-            boneWeightsByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            int copiedWgt = nf.CopyBoneWeightsToBuffer(model, boneWeightsByteBuffer, vertexCount);
-            if (copiedWgt == 0) {
-                logger.warn("骨骼权重数据复制失败");
-            }
-            FloatBuffer boneWeightsFloatBuffer = boneWeightsByteBuffer.asFloatBuffer();
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, boneWgtVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, boneWeightsFloatBuffer, GL46C.GL_STATIC_DRAW);
-            
-            // 顶点颜色缓冲区（Minecraft 标准属性：白色 + 全不透明）
-            ByteBuffer colorBuffer = ByteBuffer.allocateDirect(vertexCount * 16);
-            colorBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            for (int i = 0; i < vertexCount; i++) {
-                colorBuffer.putFloat(1.0f);
-                colorBuffer.putFloat(1.0f);
-                colorBuffer.putFloat(1.0f);
-                colorBuffer.putFloat(1.0f);
-            }
-            colorBuffer.flip();
-            
-            // UV1 缓冲区（overlay）— 静态数据，创建时即上传到 GPU
-            ByteBuffer uv1Buffer = ByteBuffer.allocateDirect(vertexCount * 8);
-            uv1Buffer.order(ByteOrder.LITTLE_ENDIAN);
-            for (int i = 0; i < vertexCount; i++) {
-                uv1Buffer.putInt(15);
-                uv1Buffer.putInt(15);
-            }
-            uv1Buffer.flip();
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv1Vbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv1Buffer, GL46C.GL_STATIC_DRAW);
-            
-            // UV2 缓冲区（lightmap）
-            ByteBuffer uv2Buffer = ByteBuffer.allocateDirect(vertexCount * 8);
-            uv2Buffer.order(ByteOrder.LITTLE_ENDIAN);
-            
-            // 安卓兼容：上传白色 Color VBO（替代 glVertexAttrib4f 常量属性）
-            // 安卓 GL 翻译层（gl4es/ANGLE）对 glVertexAttrib4f 常量属性支持不完整，
-            // 导致 Color.a=0 → entity_cutout 着色器 discard → 模型全透明
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, colorVbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, colorBuffer, GL46C.GL_STATIC_DRAW);
-            // 预分配 UV2 VBO（每帧更新光照数据）
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2Vbo);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, vertexCount * 8, GL46C.GL_DYNAMIC_DRAW);
+            // UV2 光照流（lightmap，仅在光照变化时更新）
+            lightStream = LightLevelStream.create(vertexCount);
             
             // 材质（记录纹理引用键）
             List<String> texKeys = new ArrayList<>();
@@ -410,7 +307,7 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             int morphCount = (int) nf.GetVertexMorphCount(model);
             if (morphCount > 0) {
                 morphWeightsBuffer = MemoryUtil.memAllocFloat(morphCount);
-                morphBuffers = SkinningComputeShader.createMorphBuffers(morphCount);
+                morphWeightsSSBO = SkinningComputeShader.createMorphWeightsBuffer(morphCount);
             }
             
             // 初始化 UV Morph 数据
@@ -418,7 +315,7 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             int uvMorphCnt = nf.GetUvMorphCount(model);
             if (uvMorphCnt > 0) {
                 uvMorphWeightsBuf = MemoryUtil.memAllocFloat(uvMorphCnt);
-                uvMorphBuffers = SkinningComputeShader.createUvMorphBuffers(uvMorphCnt);
+                uvMorphWeightsSSBO = SkinningComputeShader.createMorphWeightsBuffer(uvMorphCnt);
                 skinnedUvBuf = SkinningComputeShader.createSkinnedUvBuffer(vertexCount);
             } else {
                 // 即使没有 UV Morph，也创建蒙皮 UV 输出缓冲区用于 Compute Shader 写入
@@ -439,28 +336,23 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             result.modelDir = modelDir;
             result.vertexCount = vertexCount;
             result.vertexArrayObject = vao;
-            result.indexBufferObject = indexVbo;
-            result.positionBufferObject = posVbo;
-            result.normalBufferObject = norVbo;
-            result.uv0BufferObject = uv0Vbo;
-            result.boneIndicesBufferObject = boneIdxVbo;
-            result.boneWeightsBufferObject = boneWgtVbo;
-            result.colorBufferObject = colorVbo;
-            result.uv1BufferObject = uv1Vbo;
-            result.uv2BufferObject = uv2Vbo;
+            result.shared = shared;
+            result.indexBufferObject = shared.indexBufferObject;
+            result.positionBufferObject = shared.positionBufferObject;
+            result.normalBufferObject = shared.normalBufferObject;
+            result.uv0BufferObject = shared.uv0BufferObject;
+            result.boneIndicesBufferObject = shared.boneIndicesBufferObject;
+            result.boneWeightsBufferObject = shared.boneWeightsBufferObject;
+            result.colorBufferObject = shared.colorBufferObject;
+            result.uv1BufferObject = shared.uv1BufferObject;
+            result.lightStream = lightStream;
             result.skinnedPositionsBuffer = outputBuffers[0];
             result.skinnedNormalsBuffer = outputBuffers[1];
             result.boneMatrixSSBO = boneMatrixSSBO;
-            result.posBuffer = posBuffer;
-            result.norBuffer = norBuffer;
-            result.uv0Buffer = uv0Buffer;
-            result.colorBuffer = colorBuffer;
-            result.uv1Buffer = uv1Buffer;
-            result.uv2Buffer = uv2Buffer;
             result.boneMatricesBuffer = boneMatricesBuffer;
             result.boneMatricesByteBuffer = boneMatricesByteBuffer;
-            result.indexElementSize = indexElementSize;
-            result.indexType = indexType;
+            result.indexElementSize = shared.indexElementSize;
+            result.indexType = shared.indexType;
             result.mats = mats;
             result.lightMapMaterial = lightMapMaterial;
             result.textureKeys = texKeys;
@@ -471,8 +363,8 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                 result.morphWeightsBuffer = morphWeightsBuffer;
                 result.morphWeightsByteBuffer = ByteBuffer.allocateDirect(morphCount * 4);
                 result.morphWeightsByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-                result.morphOffsetsSSBO = morphBuffers[0];
-                result.morphWeightsSSBO = morphBuffers[1];
+                result.morphOffsetsSSBO = shared.morphOffsetsSSBO();
+                result.morphWeightsSSBO = morphWeightsSSBO;
             }
             // UV Morph
             result.uvMorphCount = uvMorphCnt;
@@ -481,8 +373,8 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                 result.uvMorphWeightsBuffer = uvMorphWeightsBuf;
                 result.uvMorphWeightsByteBuffer = ByteBuffer.allocateDirect(uvMorphCnt * 4);
                 result.uvMorphWeightsByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-                result.uvMorphOffsetsSSBO = uvMorphBuffers[0];
-                result.uvMorphWeightsSSBO = uvMorphBuffers[1];
+                result.uvMorphOffsetsSSBO = shared.uvMorphOffsetsSSBO();
+                result.uvMorphWeightsSSBO = uvMorphWeightsSSBO;
             }
             // 材质 Morph
             result.materialMorphResultCount = matMorphCount;
@@ -491,6 +383,9 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             subMeshDataBufLocal = MemoryUtil.memAlloc(result.subMeshCount * 20);
             subMeshDataBufLocal.order(ByteOrder.LITTLE_ENDIAN);
             result.subMeshDataBuf = subMeshDataBufLocal;
+            nf.BatchGetSubMeshData(model, subMeshDataBufLocal);
+            result.batcher = new SubMeshBatcher(subMeshDataBufLocal, result.subMeshCount, mats,
+                result.indexElementSize, result.indexType);
             result.initialized = true;
             
             // 启用自动眨眼
@@ -507,28 +402,15 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             
             // 清理 GL 资源
             if (vao > 0) GL46C.glDeleteVertexArrays(vao);
-            if (indexVbo > 0) GL46C.glDeleteBuffers(indexVbo);
-            if (posVbo > 0) GL46C.glDeleteBuffers(posVbo);
-            if (norVbo > 0) GL46C.glDeleteBuffers(norVbo);
-            if (uv0Vbo > 0) GL46C.glDeleteBuffers(uv0Vbo);
-            if (boneIdxVbo > 0) GL46C.glDeleteBuffers(boneIdxVbo);
-            if (boneWgtVbo > 0) GL46C.glDeleteBuffers(boneWgtVbo);
-            if (colorVbo > 0) GL46C.glDeleteBuffers(colorVbo);
-            if (uv1Vbo > 0) GL46C.glDeleteBuffers(uv1Vbo);
-            if (uv2Vbo > 0) GL46C.glDeleteBuffers(uv2Vbo);
+            if (shared != null) shared.release();
+            if (lightStream != null) lightStream.dispose();
             if (outputBuffers != null) {
                 GL46C.glDeleteBuffers(outputBuffers[0]);
                 GL46C.glDeleteBuffers(outputBuffers[1]);
             }
             if (boneMatrixSSBO > 0) GL46C.glDeleteBuffers(boneMatrixSSBO);
-            if (morphBuffers != null) {
-                GL46C.glDeleteBuffers(morphBuffers[0]);
-                GL46C.glDeleteBuffers(morphBuffers[1]);
-            }
-            if (uvMorphBuffers != null) {
-                GL46C.glDeleteBuffers(uvMorphBuffers[0]);
-                GL46C.glDeleteBuffers(uvMorphBuffers[1]);
-            }
+            if (morphWeightsSSBO > 0) GL46C.glDeleteBuffers(morphWeightsSSBO);
+            if (uvMorphWeightsSSBO > 0) GL46C.glDeleteBuffers(uvMorphWeightsSSBO);
             if (skinnedUvBuf > 0) GL46C.glDeleteBuffers(skinnedUvBuf);
             if (lightMapMaterial != null && lightMapMaterial.ownsTexture && lightMapMaterial.tex > 0) {
                 GL46C.glDeleteTextures(lightMapMaterial.tex);
@@ -556,8 +438,64 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     @Override
     protected void onUpdate(float deltaTime) {
         getNf().UpdateAnimationOnly(model, deltaTime);
+        // 批量蒙皮之后的再次更新（如 Iris 阴影 pass 后的主 pass）需要重新 dispatch
+        batchSkinnedFrame = -1;
+        poseDirty = true;
+    }
+
+    @Override
+    protected boolean supportsParallelUpdate() {
+        return true;
+    }
+    
+    @Override
+    boolean dispatchParallelUpdate(ExecutorService executor) {
+        if (!super.dispatchParallelUpdate(executor)) return false;
+        GpuSkinningBatch.enqueue(this);
+        return true;
+    }
+    
+    // ===== 批量蒙皮（GpuSkinningBatch 调用，仅渲染线程） =====
+    
+    /** 构建 dispatch 参数；骨骼矩阵与 Morph 权重缓冲区可替换为共享 arena */
+    SkinningComputeShader.DispatchParams dispatchParams(int boneSSBO, int morphWeights, int uvMorphWeights) {
+        return new SkinningComputeShader.DispatchParams(
+            positionBufferObject, normalBufferObject,
+            boneIndicesBufferObject, boneWeightsBufferObject, uv0BufferObject,
+            skinnedPositionsBuffer, skinnedNormalsBuffer, skinnedUvBuffer,
+            boneSSBO,
+            morphOffsetsSSBO, morphWeights, activeVertexMorphCount > 0 ? vertexMorphCount : 0,
+            uvMorphOffsetsSSBO, uvMorphWeights, uvMorphCount,
+            vertexCount
+        );
+    }
+    
+    /** 把骨骼蒙皮矩阵直接写入 dst（返回骨骼数，0 表示失败） */
+    int copyBoneMatricesTo(ByteBuffer dst) {
+        float lodAlpha = lodBlendAlpha();
+        if (lodAlpha >= 0.0f) {
+            return nf.CopyLodBlendedSkinningMatricesToBuffer(model, dst, lodAlpha);
+        }
+        return nf.CopySkinningMatricesToBuffer(model, dst);
+    }
+    
+    /** 上传静态 Morph 偏移，并把当前权重直接写入 dst */
+    void copyMorphWeightsTo(ByteBuffer morphDst, ByteBuffer uvMorphDst) {
+        if (vertexMorphCount > 0) {
+            ensureMorphOffsetsUploaded();
+            activeVertexMorphCount = nf.CopyGpuMorphWeightsToBuffer(model, morphDst);
+        }
+        if (uvMorphCount > 0) {
+            ensureUvMorphOffsetsUploaded();
+            nf.CopyGpuUvMorphWeightsToBuffer(model, uvMorphDst);
+        }
+        morphWeightsInArena = true;
     }
     
+    int getVertexMorphCount() { return vertexMorphCount; }
+    
+    int getUvMorphCount() { return uvMorphCount; }
+    
     @Override
     protected void doRenderModel(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans, PoseStack deliverStack, int packedLight) {
         Minecraft MCinstance = Minecraft.getInstance();
@@ -585,31 +523,39 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         float baseScale = getModelScale();
         deliverStack.scale(baseScale, baseScale, baseScale);
         
-        uploadBoneMatrices();
-        if (vertexMorphCount > 0) {
-            uploadMorphData();
-        }
-        if (uvMorphCount > 0) {
-            uploadUvMorphData();
-        }
-        if (materialMorphResultCount > 0) {
+        // 材质批处理：可见性与 alpha 剔除由绘制掩码给出，无需拉取材质 Morph 结果与子网格元数据
+        batchedThisFrame = ConfigManager.isMaterialBatchingEnabled();
+        if (batchedThisFrame) {
+            batcher.refresh(nf, model);
+        } else if (materialMorphResultCount > 0) {
             fetchMaterialMorphResults();
         }
         
-        // Compute Shader 蒙皮（含 UV Morph）
-        computeShader.dispatch(new SkinningComputeShader.DispatchParams(
-            positionBufferObject, normalBufferObject,
-            boneIndicesBufferObject, boneWeightsBufferObject, uv0BufferObject,
-            skinnedPositionsBuffer, skinnedNormalsBuffer, skinnedUvBuffer,
-            boneMatrixSSBO,
-            morphOffsetsSSBO, morphWeightsSSBO, vertexMorphCount,
-            uvMorphOffsetsSSBO, uvMorphWeightsSSBO, uvMorphCount,
-            vertexCount
-        ));
+        // 批量模式下本帧可见模型已在共享 arena 中统一蒙皮；否则逐模型上传并 dispatch
+        // LOD 降级时每帧上传上一次与本次更新之间插值的骨骼矩阵并重新 dispatch（Morph 冻结，沿用已上传的权重）
+        boolean batched = GpuSkinningBatch.ensureSkinned(this, computeShader);
+        float lodAlpha = lodBlendAlpha();
+        if (!batched && (poseDirty || lodAlpha >= 0.0f)) {
+            uploadBoneMatrices(lodAlpha);
+            boolean morphStale = poseDirty || morphWeightsInArena;
+            if (morphStale && vertexMorphCount > 0) {
+                uploadMorphData();
+            }
+            if (morphStale && uvMorphCount > 0) {
+                uploadUvMorphData();
+            }
+            morphWeightsInArena = false;
+            
+            // Compute Shader 蒙皮（含 UV Morph）
+            computeShader.dispatch(dispatchParams(boneMatrixSSBO, morphWeightsSSBO, uvMorphWeightsSSBO));
+        }
+        poseDirty = false;
         
         // G3 优化：批量获取所有子网格元数据（1 次 JNI 替代 ~180 次/帧）
-        subMeshDataBuf.clear();
-        nf.BatchGetSubMeshData(model, subMeshDataBuf);
+        if (!batchedThisFrame) {
+            subMeshDataBuf.clear();
+            nf.BatchGetSubMeshData(model, subMeshDataBuf);
+        }
         
         boolean useToon = ConfigManager.isToonRenderingEnabled();
         if (useToon) {
@@ -667,12 +613,12 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         if (normalLocation != -1) GL46C.glDisableVertexAttribArray(normalLocation);
         if (uv0Location != -1) GL46C.glDisableVertexAttribArray(uv0Location);
         if (uv1Location != -1) GL46C.glDisableVertexAttribArray(uv1Location);
-        if (uv2Location != -1) GL46C.glDisableVertexAttribArray(uv2Location);
+        lightStream.unbind(uv2Location);
         if (colorLocation != -1) GL46C.glDisableVertexAttribArray(colorLocation);
         if (I_positionLocation != -1) GL46C.glDisableVertexAttribArray(I_positionLocation);
         if (I_normalLocation != -1) GL46C.glDisableVertexAttribArray(I_normalLocation);
         if (I_uv0Location != -1) GL46C.glDisableVertexAttribArray(I_uv0Location);
-        if (I_uv2Location != -1) GL46C.glDisableVertexAttribArray(I_uv2Location);
+        lightStream.unbind(I_uv2Location);
         if (I_colorLocation != -1) GL46C.glDisableVertexAttribArray(I_colorLocation);
     }
     
@@ -704,28 +650,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         GL46C.glUseProgram(shaderProgram);
         updateLocation(shaderProgram);
         
-        // === UV2：填充 VBO 并绑定属性（替代 glVertexAttribI4i 常量属性，安卓兼容）===
-        int blockBrightness = 16 * blockLight;
-        // Iris 兼容：UV2 不应包含 skyDarken，Iris 的光照管线会自行处理昼夜变化
-        int skyBrightness = irisActive ? (16 * skyLight) : Math.round((15.0f - skyDarken) * (skyLight / 15.0f) * 16);
-        uv2Buffer.clear();
-        for (int i = 0; i < vertexCount; i++) {
-            uv2Buffer.putInt(blockBrightness);
-            uv2Buffer.putInt(skyBrightness);
-        }
-        uv2Buffer.flip();
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, uv2Buffer);
-        if (uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-            GL46C.glVertexAttribIPointer(uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (I_uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(I_uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-            GL46C.glVertexAttribIPointer(I_uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
+        // === UV2：共享光照流（替代 glVertexAttribI4i 常量属性，安卓兼容；光照不变时不重传）===
+        lightStream.update(blockLight, skyLight, skyDarken, irisActive);
+        lightStream.bind(uv2Location);
+        lightStream.bind(I_uv2Location);
         // === Color：使用白色 VBO + ColorModulator uniform 传递光照（替代 glVertexAttrib4f，安卓兼容）===
         // Color VBO 在创建时填充白色 (1,1,1,1)，光照强度已通过 setShaderColor → ColorModulator 传递
         if (colorLocation != -1) {
@@ -834,19 +762,23 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             RenderSystem.enableCull();
             
             // 绘制描边（G3 优化：从 subMeshDataBuf 读取）
-            for (int i = 0; i < subMeshCount; ++i) {
-                int base = i * 20;
-                int materialID = subMeshDataBuf.getInt(base);
-                int beginIndex = subMeshDataBuf.getInt(base + 4);
-                int count      = subMeshDataBuf.getInt(base + 8);
-                float edgeAlpha= subMeshDataBuf.getFloat(base + 12);
-                boolean visible= subMeshDataBuf.get(base + 16) != 0;
+            if (batchedThisFrame) {
+                batcher.drawOutline();
+            } else {
+                for (int i = 0; i < subMeshCount; ++i) {
+                    int base = i * 20;
+                    int materialID = subMeshDataBuf.getInt(base);
+                    int beginIndex = subMeshDataBuf.getInt(base + 4);
+                    int count      = subMeshDataBuf.getInt(base + 8);
+                    float edgeAlpha= subMeshDataBuf.getFloat(base + 12);
+                    boolean visible= subMeshDataBuf.get(base + 16) != 0;
                 
-                if (!visible) continue;
-                if (getEffectiveMaterialAlpha(materialID, edgeAlpha) < 0.001f) continue;
+                    if (!visible) continue;
+                    if (getEffectiveMaterialAlpha(materialID, edgeAlpha) < 0.001f) continue;
                 
-                long startPos = (long) beginIndex * indexElementSize;
-                GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
+                    long startPos = (long) beginIndex * indexElementSize;
+                    GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
+                }
             }
             
             // 恢复背面剔除
@@ -894,7 +826,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         );
         toonShaderCpu.setSpecular(toonConfig.getSpecularPower(), toonConfig.getSpecularIntensity());
         
-        drawAllSubMeshes(MCinstance);
+        if (!batchedThisFrame || !batcher.drawMainBindless(toonShaderCpu,
+                MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId())) {
+            drawAllSubMeshes(MCinstance);
+        }
         
         if (toonPosLoc != -1) GL46C.glDisableVertexAttribArray(toonPosLoc);
         if (toonNorLoc != -1) GL46C.glDisableVertexAttribArray(toonNorLoc);
@@ -907,6 +842,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
      * 绘制所有子网格
      */
     private void drawAllSubMeshes(Minecraft MCinstance) {
+        if (batchedThisFrame) {
+            batcher.drawMain(MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId());
+            return;
+        }
         RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
         
         // G3 优化：从预填充的 subMeshDataBuf 读取元数据（0 次 JNI 调用）
@@ -944,11 +883,14 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     
     /**
      * 上传骨骼矩阵到 Compute Shader 的 SSBO
+     * @param lodAlpha LOD 跳帧插值系数，负数表示直接上传当前矩阵
      */
-    private void uploadBoneMatrices() {
+    private void uploadBoneMatrices(float lodAlpha) {
         boneMatricesByteBuffer.clear();
         
-        int copiedBones = nf.CopySkinningMatricesToBuffer(model, boneMatricesByteBuffer);
+        int copiedBones = lodAlpha >= 0.0f
+                ? nf.CopyLodBlendedSkinningMatricesToBuffer(model, boneMatricesByteBuffer, lodAlpha)
+                : nf.CopySkinningMatricesToBuffer(model, boneMatricesByteBuffer);
         if (copiedBones == 0) return;
         
         boneMatricesBuffer.clear();
@@ -968,8 +910,26 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     private void uploadMorphData() {
         if (vertexMorphCount <= 0) return;
         
-        // 首次上传偏移数据（静态）
-        if (!morphDataUploaded) {
+        ensureMorphOffsetsUploaded();
+        
+        // 每帧更新权重（复用预分配缓冲区）
+        if (morphWeightsBuffer != null && morphWeightsByteBuffer != null) {
+            morphWeightsByteBuffer.clear();
+            activeVertexMorphCount = nf.CopyGpuMorphWeightsToBuffer(model, morphWeightsByteBuffer);
+            morphWeightsBuffer.clear();
+            morphWeightsByteBuffer.position(0);
+            morphWeightsBuffer.put(morphWeightsByteBuffer.asFloatBuffer());
+            morphWeightsBuffer.flip();
+            computeShader.updateMorphWeights(morphWeightsSSBO, morphWeightsBuffer);
+        }
+    }
+    
+    /**
+     * 首次上传 Morph 偏移数据（静态，同一资产的实例只上传一次）
+     */
+    private void ensureMorphOffsetsUploaded() {
+        if (vertexMorphCount <= 0) return;
+        if (!shared.morphOffsetsUploaded) {
             long offsetsSize = nf.GetGpuMorphOffsetsSize(model);
             if (offsetsSize > 0) {
                 // 边界检查：避免 long 截断为负数导致 memAlloc 异常
@@ -983,24 +943,13 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                     try {
                         nf.CopyGpuMorphOffsetsToBuffer(model, offsetsBuffer);
                         computeShader.uploadMorphOffsets(morphOffsetsSSBO, offsetsBuffer);
-                        morphDataUploaded = true;
+                        shared.morphOffsetsUploaded = true;
                     } finally {
                         MemoryUtil.memFree(offsetsBuffer);
                     }
                 }
             }
         }
-        
-        // 每帧更新权重（复用预分配缓冲区）
-        if (morphWeightsBuffer != null && morphWeightsByteBuffer != null) {
-            morphWeightsByteBuffer.clear();
-            nf.CopyGpuMorphWeightsToBuffer(model, morphWeightsByteBuffer);
-            morphWeightsBuffer.clear();
-            morphWeightsByteBuffer.position(0);
-            morphWeightsBuffer.put(morphWeightsByteBuffer.asFloatBuffer());
-            morphWeightsBuffer.flip();
-            computeShader.updateMorphWeights(morphWeightsSSBO, morphWeightsBuffer);
-        }
     }
     
     /**
@@ -1009,8 +958,26 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     private void uploadUvMorphData() {
         if (uvMorphCount <= 0) return;
         
-        // 首次上传偏移数据（静态）
-        if (!uvMorphDataUploaded) {
+        ensureUvMorphOffsetsUploaded();
+        
+        // 每帧更新权重
+        if (uvMorphWeightsBuffer != null && uvMorphWeightsByteBuffer != null) {
+            uvMorphWeightsByteBuffer.clear();
+            nf.CopyGpuUvMorphWeightsToBuffer(model, uvMorphWeightsByteBuffer);
+            uvMorphWeightsBuffer.clear();
+            uvMorphWeightsByteBuffer.position(0);
+            uvMorphWeightsBuffer.put(uvMorphWeightsByteBuffer.asFloatBuffer());
+            uvMorphWeightsBuffer.flip();
+            computeShader.updateUvMorphWeights(uvMorphWeightsSSBO, uvMorphWeightsBuffer);
+        }
+    }
+    
+    /**
+     * 首次上传 UV Morph 偏移数据（静态，同一资产的实例只上传一次）
+     */
+    private void ensureUvMorphOffsetsUploaded() {
+        if (uvMorphCount <= 0) return;
+        if (!shared.uvMorphOffsetsUploaded) {
             long offsetsSize = nf.GetGpuUvMorphOffsetsSize(model);
             if (offsetsSize > 0 && offsetsSize <= Integer.MAX_VALUE) {
                 ByteBuffer offsetsBuffer = MemoryUtil.memAlloc((int) offsetsSize);
@@ -1018,23 +985,12 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                 try {
                     nf.CopyGpuUvMorphOffsetsToBuffer(model, offsetsBuffer);
                     computeShader.uploadUvMorphOffsets(uvMorphOffsetsSSBO, offsetsBuffer);
-                    uvMorphDataUploaded = true;
+                    shared.uvMorphOffsetsUploaded = true;
                 } finally {
                     MemoryUtil.memFree(offsetsBuffer);
                 }
             }
         }
-        
-        // 每帧更新权重
-        if (uvMorphWeightsBuffer != null && uvMorphWeightsByteBuffer != null) {
-            uvMorphWeightsByteBuffer.clear();
-            nf.CopyGpuUvMorphWeightsToBuffer(model, uvMorphWeightsByteBuffer);
-            uvMorphWeightsBuffer.clear();
-            uvMorphWeightsByteBuffer.position(0);
-            uvMorphWeightsBuffer.put(uvMorphWeightsByteBuffer.asFloatBuffer());
-            uvMorphWeightsBuffer.flip();
-            computeShader.updateUvMorphWeights(uvMorphWeightsSSBO, uvMorphWeightsBuffer);
-        }
     }
     
     
@@ -1071,35 +1027,25 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         if (!initialized) return 0;
         NativeFunc nf = getNf();
         long total = 0;
-        int indexCount = (int) nf.GetIndexCount(model);
-        // IBO
-        total += (long) indexCount * indexElementSize;
-        // pos + normal + uv0 VBO（静态输入）
-        total += (long) vertexCount * 12 * 2;
-        total += (long) vertexCount * 8;
-        // boneIdx + boneWgt VBO
-        total += (long) vertexCount * 16 * 2;
-        // color + uv1 + uv2 VBO
-        total += (long) vertexCount * 16;
-        total += (long) vertexCount * 8 * 2;
+        // 共享静态缓冲区（IBO、color/uv1、pos/nor/uv0/boneIdx/boneWgt、Morph 偏移）按实例数分摊
+        total += shared.getVramShare(
+            vertexMorphCount > 0 ? nf.GetGpuMorphOffsetsSize(model) : 0,
+            uvMorphCount > 0 ? nf.GetGpuUvMorphOffsetsSize(model) : 0);
+        // uv2 光照流
+        total += lightStream.getVramUsage();
         // Compute Shader 输出 SSBO（skinned pos + skinned nor）
         total += (long) vertexCount * 12 * 2;
         // Bone matrix SSBO（固定分配 MAX_BONES 大小）
         total += (long) ShaderConstants.MAX_BONES * 64;
-        // Morph SSBOs（使用 JNI 精确查询实际分配大小）
-        if (vertexMorphCount > 0) {
-            total += nf.GetGpuMorphOffsetsSize(model); // offsets
-            total += (long) vertexMorphCount * 4;       // weights
-        }
-        // UV Morph SSBOs
-        if (uvMorphCount > 0) {
-            total += nf.GetGpuUvMorphOffsetsSize(model); // offsets
-            total += (long) uvMorphCount * 4;             // weights
-        }
+        // Morph 权重 SSBO
+        total += (long) vertexMorphCount * 4;
+        total += (long) uvMorphCount * 4;
         // Skinned UV buffer（无论是否有 UV Morph 都会分配）
         if (skinnedUvBuffer > 0) {
             total += (long) vertexCount * 8;
         }
+        // 间接绘制命令 + bindless 句柄表
+        total += batcher.getVramSize();
         return total;
     }
     
@@ -1107,8 +1053,8 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     public long getRamUsage() {
         if (!initialized) return 0;
         long rustRam = getNf().GetModelMemoryUsage(model);
-        // Java 侧堆外内存：6 个逐顶点 ByteBuffer
-        long javaRam = (long) vertexCount * 64; // pos(12)+nor(12)+uv0(8)+color(16)+uv1(8)+uv2(8)
+        // Java 侧堆外内存：uv2 光照流（共享静态缓冲区上传后即释放中转内存）
+        long javaRam = lightStream.getRamUsage();
         // MemoryUtil 预分配缓冲区
         javaRam += 128; // modelViewMat(64)+projMat(64)
         // 骨骼矩阵缓冲区（FloatBuffer + ByteBuffer）
@@ -1152,23 +1098,15 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         
         // 释放 OpenGL 资源
         GL46C.glDeleteVertexArrays(vertexArrayObject);
-        GL46C.glDeleteBuffers(indexBufferObject);
-        GL46C.glDeleteBuffers(positionBufferObject);
-        GL46C.glDeleteBuffers(normalBufferObject);
-        GL46C.glDeleteBuffers(uv0BufferObject);
-        GL46C.glDeleteBuffers(boneIndicesBufferObject);
-        GL46C.glDeleteBuffers(boneWeightsBufferObject);
-        GL46C.glDeleteBuffers(colorBufferObject);
-        GL46C.glDeleteBuffers(uv1BufferObject);
-        GL46C.glDeleteBuffers(uv2BufferObject);
+        shared.release();
+        shared = null;
+        lightStream.dispose();
         GL46C.glDeleteBuffers(skinnedPositionsBuffer);
         GL46C.glDeleteBuffers(skinnedNormalsBuffer);
         
         // 释放每实例 SSBO
         if (boneMatrixSSBO > 0) GL46C.glDeleteBuffers(boneMatrixSSBO);
-        if (morphOffsetsSSBO > 0) GL46C.glDeleteBuffers(morphOffsetsSSBO);
         if (morphWeightsSSBO > 0) GL46C.glDeleteBuffers(morphWeightsSSBO);
-        if (uvMorphOffsetsSSBO > 0) GL46C.glDeleteBuffers(uvMorphOffsetsSSBO);
         if (uvMorphWeightsSSBO > 0) GL46C.glDeleteBuffers(uvMorphWeightsSSBO);
         if (skinnedUvBuffer > 0) GL46C.glDeleteBuffers(skinnedUvBuffer);
         boneMatrixSSBO = 0; morphOffsetsSSBO = 0; morphWeightsSSBO = 0;
@@ -1191,6 +1129,7 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         if (modelViewMatBuff != null) { MemoryUtil.memFree(modelViewMatBuff); modelViewMatBuff = null; }
         if (projMatBuff != null) { MemoryUtil.memFree(projMatBuff); projMatBuff = null; }
         if (subMeshDataBuf != null) { MemoryUtil.memFree(subMeshDataBuf); subMeshDataBuf = null; }
+        if (batcher != null) { batcher.release(); batcher = null; }
     }
     
     /** @deprecated 使用 {@link #dispose()} 替代 */
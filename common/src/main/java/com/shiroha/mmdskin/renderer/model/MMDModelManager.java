@@ -1,8 +1,10 @@
 package com.shiroha.mmdskin.renderer.model;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.config.ModelConfigData;
 import com.shiroha.mmdskin.config.ModelConfigManager;
+import com.shiroha.mmdskin.config.PathConstants;
 import com.shiroha.mmdskin.renderer.animation.MMDAnimManager;
 import com.shiroha.mmdskin.renderer.core.EntityAnimState;
 import com.shiroha.mmdskin.renderer.core.IMMDModel;
@@ -10,20 +12,21 @@ import com.shiroha.mmdskin.renderer.core.IrisCompat;
 import com.shiroha.mmdskin.renderer.core.ModelCache;
 import com.shiroha.mmdskin.renderer.core.RenderModeManager;
 import com.shiroha.mmdskin.renderer.model.factory.ModelFactoryRegistry;
+import com.shiroha.mmdskin.renderer.resource.GlUploadBudget;
 import com.shiroha.mmdskin.renderer.resource.MMDTextureManager;
 import com.shiroha.mmdskin.maid.MaidMMDModelManager;
+import net.minecraft.world.entity.Entity;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -32,37 +35,51 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * MMD 模型管理器：模型加载生命周期管理，两阶段异步加载（后台 Rust 解析 + 渲染线程 GL 创建）
+ * 渲染线程阶段受 GlUploadBudget 每帧预算约束：先分块上传纹理，再在有剩余预算的帧创建 VBO 与材质。
  */
 public class MMDModelManager {
     static final Logger logger = LogManager.getLogger();
     
     private static ModelCache<Model> modelCache;
     
-    /** 单线程加载，避免多个大模型同时占满内存 */
-    private static final ExecutorService loadingExecutor = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "MMD-ModelLoader");
-        t.setDaemon(true);
-        return t;
-    });
-    
     static class AsyncLoadResult {
         final long modelHandle;
         final ModelInfo modelInfo;
         final String modelName;
+        /** 后台预解码的纹理路径，渲染线程按预算逐个上传 */
+        final List<String> texturePaths;
+        /** 下一个待上传的纹理（仅渲染线程访问） */
+        int nextTexture = 0;
         
-        AsyncLoadResult(long modelHandle, ModelInfo modelInfo, String modelName) {
+        AsyncLoadResult(long modelHandle, ModelInfo modelInfo, String modelName, List<String> texturePaths) {
             this.modelHandle = modelHandle;
             this.modelInfo = modelInfo;
             this.modelName = modelName;
+            this.texturePaths = texturePaths;
+        }
+        
+        /** 在本帧预算内继续上传纹理，全部就绪时返回 true */
+        boolean uploadTextures() {
+            while (nextTexture < texturePaths.size()) {
+                if (!MMDTextureManager.uploadPredecodedSliced(texturePaths.get(nextTexture))) {
+                    return false;
+                }
+                nextTexture++;
+            }
+            return true;
         }
     }
     
-    private static final ConcurrentHashMap<String, Future<AsyncLoadResult>> pendingLoads = new ConcurrentHashMap<>();
+    /** 后台加载任务（有界工作线程 + 优先级队列，见 ModelLoadScheduler） */
+    private static final ConcurrentHashMap<String, ModelLoadScheduler.LoadTask<AsyncLoadResult>> pendingLoads = new ConcurrentHashMap<>();
     private static final ConcurrentHashMap<String, Long> failedLoads = new ConcurrentHashMap<>();
     private static final long FAILED_RETRY_INTERVAL_MS = 10_000;
     private static final Set<String> missingModels = ConcurrentHashMap.newKeySet();
     
     private static final AtomicInteger totalModelsLoaded = new AtomicInteger(0);
+    
+    /** 已同步到 Rust 的解析缓存开关状态（null 表示尚未同步） */
+    private static Boolean appliedModelCache = null;
 
     public static int getTotalModelsLoaded() { return totalModelsLoaded.get(); }
 
@@ -74,6 +91,21 @@ public class MMDModelManager {
     }
 
     public static Model GetModel(String modelName, String cacheKey) {
+        return GetModel(modelName, cacheKey, ModelLoadScheduler.PRIORITY_DEFAULT);
+    }
+    
+    /**
+     * 获取实体的模型；尚未加载时按实体与相机的距离排队（本地玩家最优先）
+     */
+    public static Model GetModel(String modelName, String cacheKey, Entity entity) {
+        ModelCache.CacheEntry<Model> entry = modelCache.get(modelName + "_" + cacheKey);
+        if (entry != null) {
+            return entry.value;
+        }
+        return GetModel(modelName, cacheKey, ModelLoadScheduler.priorityOf(entity));
+    }
+    
+    private static Model GetModel(String modelName, String cacheKey, double priority) {
         String fullCacheKey = modelName + "_" + cacheKey;
         
         ModelCache.CacheEntry<Model> entry = modelCache.get(fullCacheKey);
@@ -85,27 +117,38 @@ public class MMDModelManager {
             return null;
         }
         
-        Future<AsyncLoadResult> future = pendingLoads.get(fullCacheKey);
+        ModelLoadScheduler.LoadTask<AsyncLoadResult> future = pendingLoads.get(fullCacheKey);
         if (future != null) {
             if (!future.isDone()) {
+                future.request(priority);
                 return null;
             }
             
-            pendingLoads.remove(fullCacheKey);
+            AsyncLoadResult result;
             try {
-                AsyncLoadResult result = future.get();
-                if (result == null || result.modelHandle == 0) {
-                    logger.error("后台模型加载返回空句柄: {}", fullCacheKey);
-                    markFailed(fullCacheKey);
-                    return null;
-                }
-                
-                return finalizeModelOnRenderThread(fullCacheKey, result);
+                result = future.get();
             } catch (Exception e) {
+                pendingLoads.remove(fullCacheKey);
                 logger.error("获取后台加载结果失败: {}", fullCacheKey, e);
                 markFailed(fullCacheKey);
                 return null;
             }
+            if (result == null || result.modelHandle == 0) {
+                pendingLoads.remove(fullCacheKey);
+                logger.error("后台模型加载返回空句柄: {}", fullCacheKey);
+                markFailed(fullCacheKey);
+                return null;
+            }
+            
+            // 分帧收尾：纹理未传完或本帧预算已用完时留在 pendingLoads 中，下一帧继续
+            if (!result.uploadTextures() || !GlUploadBudget.tryAcquire()) {
+                return null;
+            }
+            pendingLoads.remove(fullCacheKey);
+            long start = System.nanoTime();
+            Model model = finalizeModelOnRenderThread(fullCacheKey, result);
+            GlUploadBudget.charge(0, System.nanoTime() - start);
+            return model;
         }
         
         Long failedTime = failedLoads.get(fullCacheKey);
@@ -122,19 +165,33 @@ public class MMDModelManager {
             return null;
         }
         
-        startBackgroundLoad(fullCacheKey, modelInfo, modelName);
+        startBackgroundLoad(fullCacheKey, modelInfo, modelName, priority);
         return null;
     }
     
-    private static void startBackgroundLoad(String fullCacheKey, ModelInfo modelInfo, String modelName) {
+    /**
+     * 配置变化时同步 Rust 侧解析模型磁盘缓存目录（在提交加载任务前调用）
+     */
+    private static void syncModelCacheDir() {
+        boolean enabled = ConfigManager.isModelCacheEnabled();
+        if (appliedModelCache != null && appliedModelCache == enabled) return;
+        appliedModelCache = enabled;
+        String dir = enabled ? PathConstants.getModelCacheDir().getAbsolutePath() : "";
+        NativeFunc.GetInst().SetModelCacheDir(dir);
+        logger.info("[异步加载] 模型解析缓存: {}", enabled ? dir : "已关闭");
+    }
+    
+    private static void startBackgroundLoad(String fullCacheKey, ModelInfo modelInfo, String modelName, double priority) {
         if (pendingLoads.containsKey(fullCacheKey)) {
             return;
         }
         
+        syncModelCacheDir();
+        MMDTextureManager.detectCompressionSupport();
         logger.info("[异步加载] 开始后台加载模型: {} ({})", modelName, modelInfo.getModelFileName());
         long startTime = System.currentTimeMillis();
         
-        Future<AsyncLoadResult> future = loadingExecutor.submit(() -> {
+        ModelLoadScheduler.LoadTask<AsyncLoadResult> task = ModelLoadScheduler.newTask(() -> {
             long handle = 0;
             try {
                 NativeFunc nf = NativeFunc.GetInst();
@@ -160,7 +217,7 @@ public class MMDModelManager {
                 
                 logger.info("[异步加载] 模型解析完成 ({}ms)，开始预解码纹理: {}", elapsed, modelName);
                 
-                preloadModelTextures(nf, handle, modelInfo.getFolderPath());
+                List<String> texturePaths = preloadModelTextures(nf, handle, modelInfo.getFolderPath());
                 
                 if (!pendingLoads.containsKey(fullCacheKey) || Thread.interrupted()) {
                     logger.info("[异步加载] 后台任务已被取消（纹理预解码后），释放句柄: {}", modelName);
@@ -170,7 +227,7 @@ public class MMDModelManager {
                 
                 long totalElapsed = System.currentTimeMillis() - startTime;
                 logger.info("[异步加载] 后台加载全部完成 ({}ms): {}", totalElapsed, modelName);
-                return new AsyncLoadResult(handle, modelInfo, modelName);
+                return new AsyncLoadResult(handle, modelInfo, modelName, texturePaths);
             } catch (Exception e) {
                 long elapsed = System.currentTimeMillis() - startTime;
                 logger.error("[异步加载] 后台加载异常 ({}ms): {}", elapsed, modelName, e);
@@ -179,31 +236,32 @@ public class MMDModelManager {
                 }
                 return null;
             }
-        });
+        }, priority);
         
-        if (pendingLoads.putIfAbsent(fullCacheKey, future) != null) {
-            future.cancel(false);
+        // 先登记再入队，避免任务开始时因找不到登记而误判为已取消
+        if (pendingLoads.putIfAbsent(fullCacheKey, task) == null) {
+            ModelLoadScheduler.schedule(task);
         }
     }
     
-    /** 后台预解码纹理（不涉及 GL） */
-    private static void preloadModelTextures(NativeFunc nf, long modelHandle, String modelDir) {
+    /** 后台预解码纹理（不涉及 GL），同一模型的不同纹理并行解码 */
+    private static List<String> preloadModelTextures(NativeFunc nf, long modelHandle, String modelDir) {
+        Set<String> paths = new LinkedHashSet<>();
         try {
             int matCount = (int) nf.GetMaterialCount(modelHandle);
-            int preloaded = 0;
             
             for (int i = 0; i < matCount; i++) {
                 String texPath = nf.GetMaterialTex(modelHandle, i);
                 if (texPath == null || texPath.isEmpty()) continue;
-                
-                MMDTextureManager.preloadTexture(texPath);
-                preloaded++;
+                paths.add(texPath);
             }
+            paths.add(modelDir + "/lightMap.png");
             
-            MMDTextureManager.preloadTexture(modelDir + "/lightMap.png");
+            ModelLoadScheduler.decodeAll(paths, MMDTextureManager::preloadTexture);
         } catch (Exception e) {
             logger.warn("[异步加载] 纹理预解码部分失败（不影响后续加载）", e);
         }
+        return new ArrayList<>(paths);
     }
     
     /** 渲染线程完成 GL 资源创建 */
@@ -305,15 +363,30 @@ public class MMDModelManager {
                 } catch (Exception ignored) {}
             }
         } else {
-            future.cancel(true);
+            ModelLoadScheduler.cancel(future);
         }
     }
     
     public static void tick() {
+        cancelStaleLoads();
         modelCache.tick(MMDModelManager::disposeModel);
         MMDTextureManager.tick();
     }
     
+    /** 取消长时间无人请求（实体已离开视野）且尚未开始的加载任务 */
+    private static void cancelStaleLoads() {
+        if (pendingLoads.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        pendingLoads.entrySet().removeIf(entry -> {
+            if (entry.getValue().isStale(now)) {
+                logger.info("[异步加载] 模型长时间未被请求，取消排队: {}", entry.getKey());
+                ModelLoadScheduler.cancel(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+    
     private static Model createModelWrapper(String name, IMMDModel model, String modelName) {
         Model m = new Model();
         m.entityName = name;
@@ -61,15 +61,17 @@ public class MMDModelOpenGL extends AbstractMMDModel {
     int I_colorLocation;
 
     int vertexCount;
-    ByteBuffer posBuffer, colorBuffer, norBuffer, uv0Buffer, uv1Buffer, uv2Buffer;
+    ByteBuffer posBuffer, norBuffer, uv0Buffer;
     int vertexArrayObject;
+    /** 同一模型资产共享的静态缓冲区（索引、颜色、UV1）；UV0 受 UV Morph 影响，仍为每实例 */
+    SharedMeshBuffers shared;
     int indexBufferObject;
     int vertexBufferObject;
     int colorBufferObject;
     int normalBufferObject;
     int texcoordBufferObject;
     int uv1BufferObject;
-    int uv2BufferObject;
+    LightLevelStream lightStream;
     int indexElementSize;
     int indexType;
     MMDMaterial[] mats;
@@ -89,6 +91,15 @@ public class MMDModelOpenGL extends AbstractMMDModel {
     // 性能优化：缓存子网格数量 + 批量元数据缓冲区（消除逐子网格 JNI 调用）
     private int subMeshCount;
     private ByteBuffer subMeshDataBuf;
+    // 子网格批量绘制（加载时构建，材质批处理开启时按绘制掩码修补，替代逐帧 subMeshDataBuf）
+    private SubMeshBatcher batcher;
+    private boolean batchedThisFrame;
+    // 性能优化：持久映射三缓冲顶点流（Rust 直接写入，null 表示使用 glBufferSubData 拷贝路径）
+    private PersistentVertexStream vertexStream;
+    // 位置/法线属性指针在 VBO 中的字节偏移（持久映射流按槽位偏移，否则为 0）
+    private long skinnedVertexOffset = 0;
+    /** 自上次上传后是否有新的蒙皮结果 */
+    private boolean vertexDataDirty = true;
 
     MMDModelOpenGL() {
     }
@@ -137,54 +148,30 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         BufferUploader.reset();
         
         // 资源追踪变量（用于异常时清理）
-        int vertexArrayObject = 0, indexBufferObject = 0;
-        int positionBufferObject = 0, colorBufferObject = 0, normalBufferObject = 0;
-        int uv0BufferObject = 0, uv1BufferObject = 0, uv2BufferObject = 0;
+        int vertexArrayObject = 0;
+        SharedMeshBuffers shared = null;
+        int positionBufferObject = 0, normalBufferObject = 0;
+        int uv0BufferObject = 0;
+        LightLevelStream lightStream = null;
         MMDMaterial lightMapMaterial = null;
+        PersistentVertexStream vertexStream = null;
         FloatBuffer modelViewMatBuff = null, projMatBuff = null;
         FloatBuffer light0Buff = null, light1Buff = null;
         ByteBuffer matMorphResultsByteBuf = null;
         
         try {
+            // 索引 / 颜色 / UV1 为静态数据，同一模型资产的实例共享（首个实例上传）
+            shared = SharedMeshBuffers.acquire(nf, model);
             vertexArrayObject = GL46C.glGenVertexArrays();
-            indexBufferObject = GL46C.glGenBuffers();
             positionBufferObject = GL46C.glGenBuffers();
-            colorBufferObject = GL46C.glGenBuffers();
             normalBufferObject = GL46C.glGenBuffers();
             uv0BufferObject = GL46C.glGenBuffers();
-            uv1BufferObject = GL46C.glGenBuffers();
-            uv2BufferObject = GL46C.glGenBuffers();
 
             int vertexCount = (int) nf.GetVertexCount(model);
-            ByteBuffer posBuffer = MemoryUtil.memAlloc(vertexCount * 12); //float * 3
-            ByteBuffer colorBuffer = MemoryUtil.memAlloc(vertexCount * 16); //float * 4
-            ByteBuffer norBuffer = MemoryUtil.memAlloc(vertexCount * 12); //float * 3
             ByteBuffer uv0Buffer = MemoryUtil.memAlloc(vertexCount * 8); //float * 2
-            ByteBuffer uv1Buffer = MemoryUtil.memAlloc(vertexCount * 8); //int * 2
-            ByteBuffer uv2Buffer = MemoryUtil.memAlloc(vertexCount * 8); //int * 2
-            colorBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            uv1Buffer.order(ByteOrder.LITTLE_ENDIAN);
-            uv2Buffer.order(ByteOrder.LITTLE_ENDIAN);
 
             GL46C.glBindVertexArray(vertexArrayObject);
-            //Init indexBufferObject
-            int indexElementSize = (int) nf.GetIndexElementSize(model);
-            int indexCount = (int) nf.GetIndexCount(model);
-            int indexSize = indexCount * indexElementSize;
-            long indexData = nf.GetIndices(model);
-            ByteBuffer indexBuffer = MemoryUtil.memAlloc(indexSize);
-            nf.CopyDataToByteBuffer(indexBuffer, indexData, indexSize);
-            indexBuffer.position(0);
-            GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBufferObject);
-            GL46C.glBufferData(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL46C.GL_STATIC_DRAW);
-            MemoryUtil.memFree(indexBuffer); // 一次性上传后立即释放
-
-            int indexType = switch (indexElementSize) {
-                case 1 -> GL46C.GL_UNSIGNED_BYTE;
-                case 2 -> GL46C.GL_UNSIGNED_SHORT;
-                case 4 -> GL46C.GL_UNSIGNED_INT;
-                default -> 0;
-            };
+            GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, shared.indexBufferObject);
 
             //Material（记录纹理引用键）
             List<String> texKeys = new ArrayList<>();
@@ -234,63 +221,49 @@ public class MMDModelOpenGL extends AbstractMMDModel {
                 lightMapMaterial.hasAlpha = true;
             }
 
-            for(int i=0; i<vertexCount; i++){
-                colorBuffer.putFloat(1.0f);
-                colorBuffer.putFloat(1.0f);
-                colorBuffer.putFloat(1.0f);
-                colorBuffer.putFloat(1.0f);
-            }
-            colorBuffer.flip();
-
-            for(int i=0; i<vertexCount; i++){
-                uv1Buffer.putInt(15);
-                uv1Buffer.putInt(15);
-            }
-            uv1Buffer.flip();
-
-            // 性能优化：预分配动态 VBO 大小（后续使用 glBufferSubData 仅更新数据，避免每帧重分配 GPU 内存）
+            // 性能优化：优先使用持久映射三缓冲（Rust 直接写入 VBO，无中转拷贝）；
+            // 不支持时预分配动态 VBO 大小（后续使用 glBufferSubData 仅更新数据，避免每帧重分配 GPU 内存）
             int posAndNorSize = vertexCount * 12;
             int uv0Size = vertexCount * 8;
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, positionBufferObject);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, posAndNorSize, GL46C.GL_DYNAMIC_DRAW);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, posAndNorSize, GL46C.GL_DYNAMIC_DRAW);
+            if (ConfigManager.isPersistentVertexStreamEnabled() && PersistentVertexStream.isSupported()) {
+                vertexStream = PersistentVertexStream.create(positionBufferObject, normalBufferObject, vertexCount);
+            }
+            ByteBuffer posBuffer = null, norBuffer = null;
+            if (vertexStream == null) {
+                posBuffer = MemoryUtil.memAlloc(posAndNorSize); //float * 3
+                norBuffer = MemoryUtil.memAlloc(posAndNorSize); //float * 3
+                GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, positionBufferObject);
+                GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, posAndNorSize, GL46C.GL_DYNAMIC_DRAW);
+                GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
+                GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, posAndNorSize, GL46C.GL_DYNAMIC_DRAW);
+            }
             // UV0：加载初始数据并上传；无 UV Morph 时作为静态数据，有 UV Morph 时每帧更新
             long uv0Data = nf.GetUVs(model);
             nf.CopyDataToByteBuffer(uv0Buffer, uv0Data, uv0Size);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv0BufferObject);
             GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv0Buffer, GL46C.GL_DYNAMIC_DRAW);
-            
-            // 性能优化：uv1 是静态数据（永远是 {15, 15}），只在创建时上传一次
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv1BufferObject);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, uv1Buffer, GL46C.GL_STATIC_DRAW);
-            // 安卓兼容：上传白色 Color VBO + 预分配 UV2 VBO
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, colorBufferObject);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, colorBuffer, GL46C.GL_STATIC_DRAW);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-            GL46C.glBufferData(GL46C.GL_ARRAY_BUFFER, vertexCount * 8, GL46C.GL_DYNAMIC_DRAW);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+            // 预分配 UV2 光照流
+            lightStream = LightLevelStream.create(vertexCount);
 
             MMDModelOpenGL result = new MMDModelOpenGL();
             result.model = model;
             result.modelDir = modelDir;
             result.vertexCount = vertexCount;
             result.posBuffer = posBuffer;
-            result.colorBuffer = colorBuffer;
             result.norBuffer = norBuffer;
             result.uv0Buffer = uv0Buffer;
-            result.uv1Buffer = uv1Buffer;
-            result.uv2Buffer = uv2Buffer;
-            result.indexBufferObject = indexBufferObject;
+            result.shared = shared;
+            result.indexBufferObject = shared.indexBufferObject;
             result.vertexBufferObject = positionBufferObject;
-            result.colorBufferObject = colorBufferObject;
+            result.colorBufferObject = shared.colorBufferObject;
             result.texcoordBufferObject = uv0BufferObject;
-            result.uv1BufferObject = uv1BufferObject;
-            result.uv2BufferObject = uv2BufferObject;
+            result.uv1BufferObject = shared.uv1BufferObject;
+            result.lightStream = lightStream;
             result.normalBufferObject = normalBufferObject;
             result.vertexArrayObject = vertexArrayObject;
-            result.indexElementSize = indexElementSize;
-            result.indexType = indexType;
+            result.indexElementSize = shared.indexElementSize;
+            result.indexType = shared.indexType;
             result.mats = mats;
             result.lightMapMaterial = lightMapMaterial;
             result.hasUvMorph = nf.GetUvMorphCount(model) > 0;
@@ -320,6 +293,10 @@ public class MMDModelOpenGL extends AbstractMMDModel {
             result.subMeshCount = (int) nf.GetSubMeshCount(model);
             result.subMeshDataBuf = MemoryUtil.memAlloc(result.subMeshCount * 20);
             result.subMeshDataBuf.order(ByteOrder.LITTLE_ENDIAN);
+            nf.BatchGetSubMeshData(model, result.subMeshDataBuf);
+            result.batcher = new SubMeshBatcher(result.subMeshDataBuf, result.subMeshCount, mats,
+                result.indexElementSize, result.indexType);
+            result.vertexStream = vertexStream;
             
             // 启用自动眨眼
             nf.SetAutoBlinkEnabled(model, true);
@@ -332,14 +309,13 @@ public class MMDModelOpenGL extends AbstractMMDModel {
             // 避免 RenderModeManager 多工厂回退时 use-after-free
             logger.error("CPU 蒙皮模型创建失败，清理资源: {}", e.getMessage());
             
+            if (vertexStream != null) vertexStream.dispose();
             if (vertexArrayObject > 0) GL46C.glDeleteVertexArrays(vertexArrayObject);
-            if (indexBufferObject > 0) GL46C.glDeleteBuffers(indexBufferObject);
+            if (shared != null) shared.release();
             if (positionBufferObject > 0) GL46C.glDeleteBuffers(positionBufferObject);
-            if (colorBufferObject > 0) GL46C.glDeleteBuffers(colorBufferObject);
             if (normalBufferObject > 0) GL46C.glDeleteBuffers(normalBufferObject);
             if (uv0BufferObject > 0) GL46C.glDeleteBuffers(uv0BufferObject);
-            if (uv1BufferObject > 0) GL46C.glDeleteBuffers(uv1BufferObject);
-            if (uv2BufferObject > 0) GL46C.glDeleteBuffers(uv2BufferObject);
+            if (lightStream != null) lightStream.dispose();
             if (lightMapMaterial != null && lightMapMaterial.ownsTexture && lightMapMaterial.tex > 0) {
                 GL46C.glDeleteTextures(lightMapMaterial.tex);
             }
@@ -361,11 +337,8 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         
         // 释放 MemoryUtil 分配的逐帧 ByteBuffer
         if (posBuffer != null) { MemoryUtil.memFree(posBuffer); posBuffer = null; }
-        if (colorBuffer != null) { MemoryUtil.memFree(colorBuffer); colorBuffer = null; }
         if (norBuffer != null) { MemoryUtil.memFree(norBuffer); norBuffer = null; }
         if (uv0Buffer != null) { MemoryUtil.memFree(uv0Buffer); uv0Buffer = null; }
-        if (uv1Buffer != null) { MemoryUtil.memFree(uv1Buffer); uv1Buffer = null; }
-        if (uv2Buffer != null) { MemoryUtil.memFree(uv2Buffer); uv2Buffer = null; }
         
         // 释放预分配的矩阵缓冲区
         if (modelViewMatBuff != null) { MemoryUtil.memFree(modelViewMatBuff); modelViewMatBuff = null; }
@@ -373,6 +346,7 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         if (light0Buff != null) { MemoryUtil.memFree(light0Buff); light0Buff = null; }
         if (light1Buff != null) { MemoryUtil.memFree(light1Buff); light1Buff = null; }
         if (subMeshDataBuf != null) { MemoryUtil.memFree(subMeshDataBuf); subMeshDataBuf = null; }
+        if (batcher != null) { batcher.release(); batcher = null; }
         disposeMaterialMorphBuffers();
         
         // 释放自建的 lightMap 纹理（来自 MMDTextureManager 的不在此删除）
@@ -381,29 +355,29 @@ public class MMDModelOpenGL extends AbstractMMDModel {
             lightMapMaterial.tex = 0;
         }
         
+        if (vertexStream != null) { vertexStream.dispose(); vertexStream = null; }
+        
         // 删除 OpenGL 资源
         GL46C.glDeleteVertexArrays(vertexArrayObject);
-        GL46C.glDeleteBuffers(indexBufferObject);
+        if (shared != null) { shared.release(); shared = null; }
         GL46C.glDeleteBuffers(vertexBufferObject);
-        GL46C.glDeleteBuffers(colorBufferObject);
         GL46C.glDeleteBuffers(normalBufferObject);
         GL46C.glDeleteBuffers(texcoordBufferObject);
-        GL46C.glDeleteBuffers(uv1BufferObject);
-        GL46C.glDeleteBuffers(uv2BufferObject);
+        if (lightStream != null) { lightStream.dispose(); lightStream = null; }
     }
 
     @Override
     public long getVramUsage() {
         long total = 0;
-        // IBO
-        int indexCount = (int) getNf().GetIndexCount(model);
-        total += (long) indexCount * indexElementSize;
-        // pos + normal VBO (dynamic)
-        total += (long) vertexCount * 12 * 2;
-        // color VBO (static)
-        total += (long) vertexCount * 16;
-        // uv0 + uv1 + uv2 VBO
-        total += (long) vertexCount * 8 * 3;
+        // 共享 IBO + color/uv1 VBO（static，按实例数分摊）
+        if (shared != null) total += shared.getVramShare(0, 0);
+        // pos + normal VBO (dynamic，持久映射流为 3 槽位)
+        total += vertexStream != null ? vertexStream.getVramUsage() : (long) vertexCount * 12 * 2;
+        // uv0 VBO + uv2 光照流
+        total += (long) vertexCount * 8;
+        if (lightStream != null) total += lightStream.getVramUsage();
+        // 间接绘制命令 + bindless 句柄表
+        if (batcher != null) total += batcher.getVramSize();
         return total;
     }
     
@@ -411,8 +385,10 @@ public class MMDModelOpenGL extends AbstractMMDModel {
     public long getRamUsage() {
         if (model == 0) return 0;
         long rustRam = getNf().GetModelMemoryUsage(model);
-        // Java 侧堆外内存：6 个逐顶点 ByteBuffer
-        long javaRam = (long) vertexCount * 64; // pos(12)+color(16)+nor(12)+uv0(8)+uv1(8)+uv2(8)
+        // Java 侧堆外内存：逐顶点 ByteBuffer（持久映射流模式下无 pos/nor 中转缓冲区）
+        long javaRam = (long) vertexCount * 8; // uv0(8)
+        if (lightStream != null) javaRam += lightStream.getRamUsage(); // uv2 光照流
+        if (vertexStream == null) javaRam += (long) vertexCount * 24; // pos(12)+nor(12)
         // MemoryUtil 预分配缓冲区
         javaRam += 152; // modelViewMat(64)+projMat(64)+light0(12)+light1(12)
         // 材质 Morph 缓冲区
@@ -424,9 +400,52 @@ public class MMDModelOpenGL extends AbstractMMDModel {
     
     @Override
     protected void onUpdate(float deltaTime) {
+        vertexDataDirty = true;
+        if (vertexStream != null) {
+            vertexStream.update(getNf(), model, deltaTime);
+            return;
+        }
         getNf().UpdateModel(model, deltaTime);
     }
 
+    @Override
+    protected int maxLodLevel() {
+        // CPU 蒙皮结果是顶点数据，跳帧插值需逐帧混合并重新上传全部顶点，开销与蒙皮本身相当；
+        // 因此不插值，只允许隔帧更新，避免远处模型以 1/4 帧率阶梯跳变
+        return AnimationLod.LEVEL_REDUCED;
+    }
+
+    @Override
+    protected boolean supportsParallelUpdate() {
+        // 持久映射流需要在渲染线程等待 fence，只有 glBufferSubData 路径可并行
+        return vertexStream == null;
+    }
+
+    /**
+     * 上传 CPU 蒙皮后的位置/法线到 VBO
+     * 持久映射流模式下 Rust 已在 onUpdate 中直接写入，只需切换到最新槽位的偏移
+     */
+    private void uploadSkinnedVertices() {
+        if (vertexStream != null) {
+            skinnedVertexOffset = vertexStream.drawOffset();
+            return;
+        }
+        skinnedVertexOffset = 0;
+        // LOD 跳帧时 VBO 中仍是上次的蒙皮结果，无需重传
+        if (!vertexDataDirty) return;
+        vertexDataDirty = false;
+        int posAndNorSize = vertexCount * 12; // float * 3
+        long posData = nf.GetPoss(model);
+        nf.CopyDataToByteBuffer(posBuffer, posData, posAndNorSize);
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
+        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, posBuffer);
+
+        long normalData = nf.GetNormals(model);
+        nf.CopyDataToByteBuffer(norBuffer, normalData, posAndNorSize);
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
+        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, norBuffer);
+    }
+
     @Override
     protected void doRenderModel(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans, PoseStack deliverStack, int packedLight) {
         Minecraft MCinstance = Minecraft.getInstance();
@@ -448,12 +467,18 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         float baseScale = getModelScale();
         deliverStack.scale(baseScale, baseScale, baseScale);
         
-        // 获取材质 Morph 结果
-        fetchMaterialMorphResults();
-        
-        // 批量获取所有子网格元数据（1 次 JNI 替代逐子网格调用）
-        subMeshDataBuf.clear();
-        nf.BatchGetSubMeshData(model, subMeshDataBuf);
+        // 材质批处理：可见性与 alpha 剔除由绘制掩码给出，无需拉取材质 Morph 结果与子网格元数据
+        batchedThisFrame = ConfigManager.isMaterialBatchingEnabled();
+        if (batchedThisFrame) {
+            batcher.refresh(nf, model);
+        } else {
+            // 获取材质 Morph 结果
+            fetchMaterialMorphResults();
+            
+            // 批量获取所有子网格元数据（1 次 JNI 替代逐子网格调用）
+            subMeshDataBuf.clear();
+            nf.BatchGetSubMeshData(model, subMeshDataBuf);
+        }
         
         // 检查是否启用 Toon 渲染
         boolean useToon = ConfigManager.isToonRenderingEnabled();
@@ -506,17 +531,8 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         RenderSystem.blendEquation(GL46C.GL_FUNC_ADD);
         RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
 
-        // === 上传顶点数据到 VBO（使用 glBufferSubData 仅更新数据，避免每帧重分配 GPU 内存）===
-        int posAndNorSize = vertexCount * 12; // float * 3
-        long posData = nf.GetPoss(model);
-        nf.CopyDataToByteBuffer(posBuffer, posData, posAndNorSize);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, posBuffer);
-
-        long normalData = nf.GetNormals(model);
-        nf.CopyDataToByteBuffer(norBuffer, normalData, posAndNorSize);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, norBuffer);
+        // === 上传顶点数据到 VBO（持久映射流或 glBufferSubData，避免每帧重分配 GPU 内存）===
+        uploadSkinnedVertices();
 
         // 性能优化：无 UV Morph 时跳过 UV0 重传（已在创建时上传）
         if (hasUvMorph) {
@@ -529,33 +545,11 @@ public class MMDModelOpenGL extends AbstractMMDModel {
 
         // 性能优化：uv1 已在创建时上传，无需每帧重传
 
-        // === UV2：填充 VBO 并绑定属性（替代 glVertexAttribI4i 常量属性，安卓兼容）===
-        int blockBrightness = 16 * blockLight;
-        // Iris 兼容：UV2 不应包含 skyDarken，Iris 的光照管线会自行处理昼夜变化
-        int skyBrightness = irisActive ? (16 * skyLight) : Math.round((15.0f - skyDarken) * (skyLight / 15.0f) * 16);
-        uv2Buffer.clear();
-        for (int i = 0; i < vertexCount; i++) {
-            uv2Buffer.putInt(blockBrightness);
-            uv2Buffer.putInt(skyBrightness);
-        }
-        uv2Buffer.flip();
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, uv2Buffer);
-        if (uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-            GL46C.glVertexAttribIPointer(uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (K_uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(K_uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-            GL46C.glVertexAttribIPointer(K_uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (I_uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(I_uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv2BufferObject);
-            GL46C.glVertexAttribIPointer(I_uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
+        // === UV2：共享光照流（替代 glVertexAttribI4i 常量属性，安卓兼容；光照不变时不重传）===
+        lightStream.update(blockLight, skyLight, skyDarken, irisActive);
+        lightStream.bind(uv2Location);
+        lightStream.bind(K_uv2Location);
+        lightStream.bind(I_uv2Location);
         // === Color：使用白色 VBO + ColorModulator uniform 传递光照（替代 glVertexAttrib4f，安卓兼容）===
         // Color VBO 在创建时填充白色 (1,1,1,1)，光照强度已通过 setShaderColor → ColorModulator 传递
         if (colorLocation != -1) {
@@ -573,12 +567,12 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         if (positionLocation != -1) {
             GL46C.glEnableVertexAttribArray(positionLocation);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-            GL46C.glVertexAttribPointer(positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(positionLocation, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (normalLocation != -1) {
             GL46C.glEnableVertexAttribArray(normalLocation);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-            GL46C.glVertexAttribPointer(normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(normalLocation, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (uv0Location != -1) {
             GL46C.glEnableVertexAttribArray(uv0Location);
@@ -639,12 +633,12 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         if (K_positionLocation != -1) {
             GL46C.glEnableVertexAttribArray(K_positionLocation);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-            GL46C.glVertexAttribPointer(K_positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(K_positionLocation, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (K_normalLocation != -1) {
             GL46C.glEnableVertexAttribArray(K_normalLocation);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-            GL46C.glVertexAttribPointer(K_normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(K_normalLocation, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (K_uv0Location != -1) {
             GL46C.glEnableVertexAttribArray(K_uv0Location);
@@ -677,12 +671,12 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         if (I_positionLocation != -1) {
             GL46C.glEnableVertexAttribArray(I_positionLocation);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-            GL46C.glVertexAttribPointer(I_positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(I_positionLocation, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (I_normalLocation != -1) {
             GL46C.glEnableVertexAttribArray(I_normalLocation);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-            GL46C.glVertexAttribPointer(I_normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(I_normalLocation, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (I_uv0Location != -1) {
             GL46C.glEnableVertexAttribArray(I_uv0Location);
@@ -691,36 +685,42 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         }
 
         //Draw（从预填充的 subMeshDataBuf 读取元数据，0 次逐子网格 JNI 调用）
-        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
-        for (int i = 0; i < subMeshCount; ++i) {
-            int base = i * 20;
-            int materialID  = subMeshDataBuf.getInt(base);
-            int beginIndex  = subMeshDataBuf.getInt(base + 4);
-            int vertCount   = subMeshDataBuf.getInt(base + 8);
-            float alpha     = subMeshDataBuf.getFloat(base + 12);
-            boolean visible = subMeshDataBuf.get(base + 16) != 0;
-            boolean bothFace= subMeshDataBuf.get(base + 17) != 0;
+        if (batchedThisFrame) {
+            batcher.drawMain(MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId());
+        } else {
+            RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+            for (int i = 0; i < subMeshCount; ++i) {
+                int base = i * 20;
+                int materialID  = subMeshDataBuf.getInt(base);
+                int beginIndex  = subMeshDataBuf.getInt(base + 4);
+                int vertCount   = subMeshDataBuf.getInt(base + 8);
+                float alpha     = subMeshDataBuf.getFloat(base + 12);
+                boolean visible = subMeshDataBuf.get(base + 16) != 0;
+                boolean bothFace= subMeshDataBuf.get(base + 17) != 0;
             
-            if (!visible) continue;
-            if (getEffectiveMaterialAlpha(materialID, alpha) < 0.001f) continue;
+                if (!visible) continue;
+                if (getEffectiveMaterialAlpha(materialID, alpha) < 0.001f) continue;
 
-            if (bothFace) {
-                RenderSystem.disableCull();
-            } else {
-                RenderSystem.enableCull();
-            }
-            int texId;
-            if (mats[materialID].tex == 0)
-                texId = MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId();
-            else
-                texId = mats[materialID].tex;
-            RenderSystem.setShaderTexture(0, texId);
-            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, texId);
-            long startPos = (long) beginIndex * indexElementSize;
+                if (bothFace) {
+                    RenderSystem.disableCull();
+                } else {
+                    RenderSystem.enableCull();
+                }
+                int texId;
+                if (mats[materialID].tex == 0)
+                    texId = MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId();
+                else
+                    texId = mats[materialID].tex;
+                RenderSystem.setShaderTexture(0, texId);
+                GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, texId);
+                long startPos = (long) beginIndex * indexElementSize;
 
-            GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertCount, indexType, startPos);
+                GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertCount, indexType, startPos);
+            }
         }
 
+        if (vertexStream != null) vertexStream.fenceDrawn();
+
         if(KAIMyLocationV != -1)
             GL46C.glUniform1i(KAIMyLocationV, 0);
         if(KAIMyLocationF != -1)
@@ -732,16 +732,16 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         if (normalLocation != -1) GL46C.glDisableVertexAttribArray(normalLocation);
         if (uv0Location != -1) GL46C.glDisableVertexAttribArray(uv0Location);
         if (uv1Location != -1) GL46C.glDisableVertexAttribArray(uv1Location);
-        if (uv2Location != -1) GL46C.glDisableVertexAttribArray(uv2Location);
+        lightStream.unbind(uv2Location);
         if (colorLocation != -1) GL46C.glDisableVertexAttribArray(colorLocation);
         if (K_positionLocation != -1) GL46C.glDisableVertexAttribArray(K_positionLocation);
         if (K_normalLocation != -1) GL46C.glDisableVertexAttribArray(K_normalLocation);
         if (K_uv0Location != -1) GL46C.glDisableVertexAttribArray(K_uv0Location);
-        if (K_uv2Location != -1) GL46C.glDisableVertexAttribArray(K_uv2Location);
+        lightStream.unbind(K_uv2Location);
         if (I_positionLocation != -1) GL46C.glDisableVertexAttribArray(I_positionLocation);
         if (I_normalLocation != -1) GL46C.glDisableVertexAttribArray(I_normalLocation);
         if (I_uv0Location != -1) GL46C.glDisableVertexAttribArray(I_uv0Location);
-        if (I_uv2Location != -1) GL46C.glDisableVertexAttribArray(I_uv2Location);
+        lightStream.unbind(I_uv2Location);
         if (I_colorLocation != -1) GL46C.glDisableVertexAttribArray(I_colorLocation);
         
         // 解绑缓冲区
@@ -789,18 +789,8 @@ public class MMDModelOpenGL extends AbstractMMDModel {
             }
         }
         
-        // 获取蒙皮后的顶点数据（由 Rust 引擎计算）并一次性上传到 VBO（两遍共用）
-        int posAndNorSize = vertexCount * 12;
-        long posData = nf.GetPoss(model);
-        nf.CopyDataToByteBuffer(posBuffer, posData, posAndNorSize);
-        long normalData = nf.GetNormals(model);
-        nf.CopyDataToByteBuffer(norBuffer, normalData, posAndNorSize);
-        
-        // 上传顶点数据到 VBO（glBufferSubData，描边和主体两遍共用，避免重复上传）
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, posBuffer);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, norBuffer);
+        // 获取蒙皮后的顶点数据（由 Rust 引擎计算）并一次性上传到 VBO（描边和主体两遍共用，避免重复上传）
+        uploadSkinnedVertices();
         if (hasUvMorph) {
             int uv0Size = vertexCount * 8;
             long uv0Data = nf.GetUVs(model);
@@ -828,12 +818,12 @@ public class MMDModelOpenGL extends AbstractMMDModel {
             if (posLoc != -1) {
                 GL46C.glEnableVertexAttribArray(posLoc);
                 GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-                GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
+                GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
             }
             if (norLoc != -1) {
                 GL46C.glEnableVertexAttribArray(norLoc);
                 GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-                GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
+                GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
             }
             
             toonShaderCpu.setOutlineProjectionMatrix(projMatBuff);
@@ -850,19 +840,23 @@ public class MMDModelOpenGL extends AbstractMMDModel {
             RenderSystem.enableCull();
             
             // 绘制描边（从 subMeshDataBuf 读取元数据）
-            for (int i = 0; i < subMeshCount; ++i) {
-                int base = i * 20;
-                int materialID = subMeshDataBuf.getInt(base);
-                int beginIndex = subMeshDataBuf.getInt(base + 4);
-                int count      = subMeshDataBuf.getInt(base + 8);
-                float edgeAlpha= subMeshDataBuf.getFloat(base + 12);
-                boolean visible= subMeshDataBuf.get(base + 16) != 0;
+            if (batchedThisFrame) {
+                batcher.drawOutline();
+            } else {
+                for (int i = 0; i < subMeshCount; ++i) {
+                    int base = i * 20;
+                    int materialID = subMeshDataBuf.getInt(base);
+                    int beginIndex = subMeshDataBuf.getInt(base + 4);
+                    int count      = subMeshDataBuf.getInt(base + 8);
+                    float edgeAlpha= subMeshDataBuf.getFloat(base + 12);
+                    boolean visible= subMeshDataBuf.get(base + 16) != 0;
                 
-                if (!visible) continue;
-                if (getEffectiveMaterialAlpha(materialID, edgeAlpha) < 0.001f) continue;
+                    if (!visible) continue;
+                    if (getEffectiveMaterialAlpha(materialID, edgeAlpha) < 0.001f) continue;
                 
-                long startPos = (long) beginIndex * indexElementSize;
-                GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
+                    long startPos = (long) beginIndex * indexElementSize;
+                    GL46C.glDrawElements(GL46C.GL_TRIANGLES, count, indexType, startPos);
+                }
             }
             
             // 恢复背面剔除
@@ -884,12 +878,12 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         if (posLoc != -1) {
             GL46C.glEnableVertexAttribArray(posLoc);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, vertexBufferObject);
-            GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (norLoc != -1) {
             GL46C.glEnableVertexAttribArray(norLoc);
             GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBufferObject);
-            GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
+            GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, skinnedVertexOffset);
         }
         if (uvLoc != -1) {
             GL46C.glEnableVertexAttribArray(uvLoc);
@@ -911,38 +905,47 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         toonShaderCpu.setSpecular(toonConfig.getSpecularPower(), toonConfig.getSpecularIntensity());
         
         // 绘制所有子网格（从 subMeshDataBuf 读取元数据）
-        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
-        for (int i = 0; i < subMeshCount; ++i) {
-            int base = i * 20;
-            int materialID  = subMeshDataBuf.getInt(base);
-            int beginIndex  = subMeshDataBuf.getInt(base + 4);
-            int vertCount   = subMeshDataBuf.getInt(base + 8);
-            float alpha     = subMeshDataBuf.getFloat(base + 12);
-            boolean visible = subMeshDataBuf.get(base + 16) != 0;
-            boolean bothFace= subMeshDataBuf.get(base + 17) != 0;
+        if (batchedThisFrame) {
+            int missingTexture = MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId();
+            if (!batcher.drawMainBindless(toonShaderCpu, missingTexture)) {
+                batcher.drawMain(missingTexture);
+            }
+        } else {
+            RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+            for (int i = 0; i < subMeshCount; ++i) {
+                int base = i * 20;
+                int materialID  = subMeshDataBuf.getInt(base);
+                int beginIndex  = subMeshDataBuf.getInt(base + 4);
+                int vertCount   = subMeshDataBuf.getInt(base + 8);
+                float alpha     = subMeshDataBuf.getFloat(base + 12);
+                boolean visible = subMeshDataBuf.get(base + 16) != 0;
+                boolean bothFace= subMeshDataBuf.get(base + 17) != 0;
             
-            if (!visible) continue;
-            if (getEffectiveMaterialAlpha(materialID, alpha) < 0.001f) continue;
+                if (!visible) continue;
+                if (getEffectiveMaterialAlpha(materialID, alpha) < 0.001f) continue;
             
-            if (bothFace) {
-                RenderSystem.disableCull();
-            } else {
-                RenderSystem.enableCull();
-            }
+                if (bothFace) {
+                    RenderSystem.disableCull();
+                } else {
+                    RenderSystem.enableCull();
+                }
             
-            int texId;
-            if (mats[materialID].tex == 0) {
-                texId = MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId();
-            } else {
-                texId = mats[materialID].tex;
-            }
-            RenderSystem.setShaderTexture(0, texId);
-            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, texId);
+                int texId;
+                if (mats[materialID].tex == 0) {
+                    texId = MCinstance.getTextureManager().getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE).getId();
+                } else {
+                    texId = mats[materialID].tex;
+                }
+                RenderSystem.setShaderTexture(0, texId);
+                GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, texId);
             
-            long startPos = (long) beginIndex * indexElementSize;
-            GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertCount, indexType, startPos);
+                long startPos = (long) beginIndex * indexElementSize;
+                GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertCount, indexType, startPos);
+            }
         }
         
+        if (vertexStream != null) vertexStream.fenceDrawn();
+        
         // 清理顶点属性
         if (posLoc != -1) GL46C.glDisableVertexAttribArray(posLoc);
         if (norLoc != -1) GL46C.glDisableVertexAttribArray(norLoc);
@@ -0,0 +1,186 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import net.minecraft.client.Camera;
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.entity.Entity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 模型后台加载调度器
+ *
+ * 多个工作线程从优先级队列中取任务（Rust 解析 + 纹理预解码），优先级越小越先加载：
+ * - 本地玩家 / 相机实体最优先
+ * - 其余按与相机距离的平方排序，同优先级按提交顺序
+ *
+ * 渲染线程每帧请求仍在排队的模型时刷新其优先级（玩家移动后重新排序），
+ * 长时间无人请求（实体离开视野）且尚未开始的任务会被取消。
+ * 工作线程数由配置决定，限制同时驻留内存的大模型数量。
+ */
+final class ModelLoadScheduler {
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 本地玩家 / UI 等需要立即显示的请求 */
+    static final double PRIORITY_URGENT = -1.0;
+    /** 无法确定实体位置的请求 */
+    static final double PRIORITY_DEFAULT = 0.0;
+
+    /** 排队任务超过该时间未被请求则取消 */
+    private static final long STALE_REQUEST_MS = 5_000;
+    /** 优先级（距离平方）变化小于该值时不重新入队，避免每帧打乱堆 */
+    private static final double REPRIORITIZE_THRESHOLD = 16.0;
+
+    private static final AtomicLong sequence = new AtomicLong();
+    private static final AtomicInteger loaderIndex = new AtomicInteger();
+    private static final AtomicInteger decoderIndex = new AtomicInteger();
+
+    private static final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>(16, (a, b) -> {
+        LoadTask<?> ta = (LoadTask<?>) a;
+        LoadTask<?> tb = (LoadTask<?>) b;
+        int c = Double.compare(ta.priority, tb.priority);
+        return c != 0 ? c : Long.compare(ta.seq, tb.seq);
+    });
+
+    private static final ThreadPoolExecutor loaders = new ThreadPoolExecutor(
+            1, 1, 30, TimeUnit.SECONDS, queue, r -> {
+                Thread t = new Thread(r, "MMD-ModelLoader-" + loaderIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    /** 纹理解码线程池（与加载线程分离，加载线程等待解码时不会互相阻塞） */
+    private static final ExecutorService decoders = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(6, Runtime.getRuntime().availableProcessors() - 1)), r -> {
+                Thread t = new Thread(r, "MMD-TextureDecoder-" + decoderIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    private ModelLoadScheduler() {}
+
+    /**
+     * 计算实体的加载优先级
+     */
+    static double priorityOf(Entity entity) {
+        if (entity == null) return PRIORITY_DEFAULT;
+        Minecraft mc = Minecraft.getInstance();
+        if (entity == mc.player || entity == mc.getCameraEntity()) return PRIORITY_URGENT;
+        Camera camera = mc.gameRenderer.getMainCamera();
+        return camera.getPosition().distanceToSqr(entity.position());
+    }
+
+    /**
+     * 创建加载任务（尚未入队，调用方登记后再调用 {@link #schedule}）
+     */
+    static <T> LoadTask<T> newTask(Callable<T> work, double priority) {
+        return new LoadTask<>(work, priority);
+    }
+
+    static void schedule(LoadTask<?> task) {
+        applyPoolSize();
+        loaders.execute(task);
+    }
+
+    /** 取消任务并从队列中移除 */
+    static void cancel(Future<?> future) {
+        future.cancel(true);
+        if (future instanceof LoadTask<?> task) {
+            loaders.remove(task);
+        }
+    }
+
+    /**
+     * 并行解码一组纹理，等待全部完成；当前线程被中断时取消剩余任务
+     */
+    static void decodeAll(Collection<String> paths, Consumer<String> decoder) {
+        List<Future<?>> futures = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            futures.add(decoders.submit(() -> decoder.accept(path)));
+        }
+        try {
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    logger.warn("[异步加载] 纹理预解码失败", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> f : futures) f.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** 按配置调整加载线程数（只在提交任务时检查） */
+    private static void applyPoolSize() {
+        int size = Math.max(1, ConfigManager.getModelLoadThreads());
+        if (loaders.getCorePoolSize() == size) return;
+        if (size > loaders.getMaximumPoolSize()) {
+            loaders.setMaximumPoolSize(size);
+            loaders.setCorePoolSize(size);
+        } else {
+            loaders.setCorePoolSize(size);
+            loaders.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * 带优先级的加载任务
+     */
+    static final class LoadTask<T> extends FutureTask<T> {
+        final long seq = sequence.incrementAndGet();
+        /** 只在任务不在队列中时修改（见 request） */
+        volatile double priority;
+        private volatile boolean started = false;
+        private volatile long lastRequested = System.currentTimeMillis();
+
+        private LoadTask(Callable<T> work, double priority) {
+            super(work);
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            super.run();
+        }
+
+        /**
+         * 渲染线程再次请求该模型：刷新请求时间，必要时按新优先级重新入队
+         */
+        void request(double newPriority) {
+            lastRequested = System.currentTimeMillis();
+            if (started || Math.abs(newPriority - priority) < REPRIORITIZE_THRESHOLD
+                    && !(newPriority == PRIORITY_URGENT && priority != PRIORITY_URGENT)) {
+                return;
+            }
+            // 先出队再修改，保持堆有序；若已被工作线程取走则无需处理
+            if (queue.remove(this)) {
+                priority = newPriority;
+                queue.offer(this);
+            }
+        }
+
+        /** 排队中且长时间无人请求 */
+        boolean isStale(long now) {
+            return !started && !isDone() && now - lastRequested > STALE_REQUEST_MS;
+        }
+    }
+}
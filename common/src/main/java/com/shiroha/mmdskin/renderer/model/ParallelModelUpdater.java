@@ -0,0 +1,91 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多模型并行更新调度器
+ *
+ * 帧开始时（LevelRenderer.renderLevel 入口）把上一帧被渲染过的模型的
+ * onUpdate（动画、IK、物理、CPU 蒙皮，均为 native 调用）派发到工作线程池；
+ * 各模型在 render() 入口处等待自身的更新完成（屏障），随后照常上传并绘制。
+ *
+ * 线程安全依赖 Rust 侧约定：不同模型句柄可并行更新，同一句柄的更新与读取必须串行
+ * （见 runtime.rs MmdModel 文档）。头部角度、物理位置等输入在上一帧设置，
+ * 因此并行模式下这些输入相对渲染结果延迟一帧。
+ *
+ * 所有方法只能在渲染线程调用；只有 onUpdate 本身运行在工作线程上。
+ */
+public final class ParallelModelUpdater {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int WORKER_COUNT = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+    private static final AtomicInteger threadIndex = new AtomicInteger();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(WORKER_COUNT, r -> {
+        Thread t = new Thread(r, "MMD-SkinWorker-" + threadIndex.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** 本帧已渲染的模型（下一帧开始时派发更新） */
+    private static List<AbstractMMDModel> renderedThisFrame = new ArrayList<>();
+    private static List<AbstractMMDModel> dispatchList = new ArrayList<>();
+    private static long frameIndex = 0;
+
+    private ParallelModelUpdater() {}
+
+    /**
+     * 帧开始：为上一帧渲染过的模型派发并行更新
+     */
+    public static void beginFrame() {
+        frameIndex++;
+        List<AbstractMMDModel> models = renderedThisFrame;
+        renderedThisFrame = dispatchList;
+        dispatchList = models;
+        renderedThisFrame.clear();
+
+        // 有模型渲染过才说明原生库已加载；结算上一帧物理耗时、调整物理等级预算，
+        // 并在派发模型更新前步进共享物理世界（若启用）
+        if (!models.isEmpty()) {
+            AbstractMMDModel.getNf().BeginPhysicsFrame();
+        }
+
+        if (!ConfigManager.isParallelModelUpdateEnabled()) {
+            models.clear();
+            return;
+        }
+        for (AbstractMMDModel model : models) {
+            model.dispatchParallelUpdate(workers);
+        }
+        models.clear();
+    }
+
+    /** 记录模型在本帧被渲染（调用方保证每帧每模型只记录一次） */
+    static void markRendered(AbstractMMDModel model) {
+        renderedThisFrame.add(model);
+    }
+
+    static long currentFrame() {
+        return frameIndex;
+    }
+
+    /** 等待派发的更新完成；工作线程中的异常在渲染线程记录 */
+    static void await(Future<?> pending) {
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("并行模型更新失败", e.getCause());
+        }
+    }
+}
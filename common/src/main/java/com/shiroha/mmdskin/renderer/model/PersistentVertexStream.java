@@ -0,0 +1,161 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.NativeFunc;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 持久映射三缓冲顶点流（CPU 蒙皮零拷贝上传）
+ *
+ * 位置/法线 VBO 使用 glBufferStorage(MAP_PERSISTENT | MAP_COHERENT) 分配 3 帧容量，
+ * Rust 通过 UpdateModelToMappedBuffer 把蒙皮结果直接写入当前槽位，
+ * 省去 Rust → Java ByteBuffer → glBufferSubData 的两次中转拷贝。
+ *
+ * 同步：写入槽位前等待该槽位上次绘制的 fence，绘制后为当前槽位插入新 fence。
+ * 需要 OpenGL 4.4 或 ARB_buffer_storage，不满足时由调用方回退到 glBufferSubData 路径。
+ */
+final class PersistentVertexStream {
+    private static final Logger logger = LogManager.getLogger();
+
+    static final int SLOT_COUNT = 3;
+    /** 单次 fence 等待上限（纳秒），超时后继续等待并记录一次警告 */
+    private static final long FENCE_WAIT_TIMEOUT_NS = 16_000_000L;
+    private static final int MAP_FLAGS = GL46C.GL_MAP_WRITE_BIT | GL46C.GL_MAP_PERSISTENT_BIT | GL46C.GL_MAP_COHERENT_BIT;
+
+    private final int positionBuffer;
+    private final int normalBuffer;
+    private final long positionAddress;
+    private final long normalAddress;
+    private final int vertexCount;
+    private final long slotBytes;
+    private final long[] fences = new long[SLOT_COUNT];
+
+    /** 最近一次写入完成、可供绘制的槽位（-1 表示尚未写入） */
+    private int readySlot = -1;
+    private boolean fenceWarned = false;
+
+    private PersistentVertexStream(int positionBuffer, int normalBuffer,
+                                   long positionAddress, long normalAddress, int vertexCount) {
+        this.positionBuffer = positionBuffer;
+        this.normalBuffer = normalBuffer;
+        this.positionAddress = positionAddress;
+        this.normalAddress = normalAddress;
+        this.vertexCount = vertexCount;
+        this.slotBytes = (long) vertexCount * 12;
+    }
+
+    /** 当前 GL 上下文是否支持不可变持久映射缓冲区 */
+    static boolean isSupported() {
+        if (NativeFunc.isAndroid()) return false;
+        GLCapabilities caps = GL.getCapabilities();
+        return caps.OpenGL44 || caps.GL_ARB_buffer_storage;
+    }
+
+    /**
+     * 为已生成（尚未分配存储）的位置/法线 VBO 分配持久映射存储。
+     * 必须在渲染线程调用；失败返回 null，缓冲区保持可变状态供回退路径使用。
+     */
+    static PersistentVertexStream create(int positionBuffer, int normalBuffer, int vertexCount) {
+        if (vertexCount <= 0) return null;
+        long totalBytes = (long) vertexCount * 12 * SLOT_COUNT;
+
+        long posAddr = allocateMapped(positionBuffer, totalBytes);
+        if (posAddr == 0) return null;
+        long norAddr = allocateMapped(normalBuffer, totalBytes);
+        if (norAddr == 0) {
+            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, positionBuffer);
+            GL46C.glUnmapBuffer(GL46C.GL_ARRAY_BUFFER);
+            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+            return null;
+        }
+        return new PersistentVertexStream(positionBuffer, normalBuffer, posAddr, norAddr, vertexCount);
+    }
+
+    private static long allocateMapped(int buffer, long totalBytes) {
+        while (GL46C.glGetError() != GL46C.GL_NO_ERROR) { /* 清除残留错误 */ }
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, buffer);
+        GL46C.glBufferStorage(GL46C.GL_ARRAY_BUFFER, totalBytes, MAP_FLAGS);
+        ByteBuffer mapped = GL46C.glMapBufferRange(GL46C.GL_ARRAY_BUFFER, 0, totalBytes, MAP_FLAGS);
+        int err = GL46C.glGetError();
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+        if (mapped == null || err != GL46C.GL_NO_ERROR) {
+            logger.warn("持久映射顶点流分配失败 (GL error 0x{})，回退到 glBufferSubData", Integer.toHexString(err));
+            return 0;
+        }
+        return MemoryUtil.memAddress(mapped);
+    }
+
+    /**
+     * 更新模型并把蒙皮结果写入下一个槽位。
+     * Rust 侧容量校验失败时，从内部缓冲区拷贝到映射内存，保证槽位数据完整。
+     */
+    void update(NativeFunc nf, long model, float deltaTime) {
+        int slot = (readySlot + 1) % SLOT_COUNT;
+        waitFence(slot);
+        long posAddr = positionAddress + slot * slotBytes;
+        long norAddr = normalAddress + slot * slotBytes;
+        if (!nf.UpdateModelToMappedBuffer(model, deltaTime, posAddr, norAddr, vertexCount)) {
+            long posData = nf.GetPoss(model);
+            long norData = nf.GetNormals(model);
+            if (posData == 0 || norData == 0) return;
+            MemoryUtil.memCopy(posData, posAddr, slotBytes);
+            MemoryUtil.memCopy(norData, norAddr, slotBytes);
+        }
+        readySlot = slot;
+    }
+
+    /** 当前可绘制槽位在 VBO 中的字节偏移（用作 glVertexAttribPointer 的 offset） */
+    long drawOffset() {
+        return readySlot < 0 ? 0 : readySlot * slotBytes;
+    }
+
+    /** 绘制提交后调用：为当前槽位插入 fence，保护其在 GPU 读取完成前不被覆盖 */
+    void fenceDrawn() {
+        if (readySlot < 0) return;
+        long old = fences[readySlot];
+        if (old != 0) GL46C.glDeleteSync(old);
+        fences[readySlot] = GL46C.glFenceSync(GL46C.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    private void waitFence(int slot) {
+        long fence = fences[slot];
+        if (fence == 0) return;
+        int result = GL46C.glClientWaitSync(fence, GL46C.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_WAIT_TIMEOUT_NS);
+        while (result == GL46C.GL_TIMEOUT_EXPIRED) {
+            if (!fenceWarned) {
+                fenceWarned = true;
+                logger.warn("持久映射顶点流等待 GPU 超过 {} ms，GPU 可能落后 CPU 多于 {} 帧",
+                        FENCE_WAIT_TIMEOUT_NS / 1_000_000L, SLOT_COUNT);
+            }
+            result = GL46C.glClientWaitSync(fence, 0, FENCE_WAIT_TIMEOUT_NS);
+        }
+        GL46C.glDeleteSync(fence);
+        fences[slot] = 0;
+    }
+
+    /** 持久映射缓冲区占用的显存字节数（3 槽位 × 位置 + 法线） */
+    long getVramUsage() {
+        return slotBytes * SLOT_COUNT * 2;
+    }
+
+    /** 删除 fence 并解除映射（缓冲区对象本身由模型负责删除） */
+    void dispose() {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            if (fences[i] != 0) {
+                GL46C.glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, positionBuffer);
+        GL46C.glUnmapBuffer(GL46C.GL_ARRAY_BUFFER);
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, normalBuffer);
+        GL46C.glUnmapBuffer(GL46C.GL_ARRAY_BUFFER);
+        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+    }
+}
@@ -0,0 +1,230 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.shiroha.mmdskin.NativeFunc;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 同一模型资产的静态 GL 缓冲区（多实例共享，引用计数）
+ *
+ * Rust 侧同一模型文件的多个实例共享一份 ModelAsset（GetModelAssetId 相同），
+ * 渲染层对应地只上传一份不随实例变化的数据：索引、常量颜色 / overlay UV1，
+ * 以及 GPU 蒙皮的静态输入（原始位置/法线/UV0、骨骼索引/权重）与 Morph 偏移 SSBO。
+ * VAO、蒙皮输出、骨骼矩阵、Morph 权重等随姿态变化的缓冲区仍由各实例持有。
+ *
+ * 仅在渲染线程访问；最后一个实例释放时删除 GL 缓冲区。
+ */
+final class SharedMeshBuffers {
+    private static final Logger logger = LogManager.getLogger();
+    private static final Map<Long, SharedMeshBuffers> SHARED = new HashMap<>();
+
+    /** 资产编号（0 表示无法共享，不登记到表中） */
+    private final long assetId;
+    private int refCount = 1;
+
+    final int vertexCount;
+    final int indexCount;
+    final int indexElementSize;
+    final int indexType;
+    final int indexBufferObject;
+    final int colorBufferObject;
+    final int uv1BufferObject;
+
+    // GPU 蒙皮静态输入（首个 GPU 蒙皮实例创建）
+    int positionBufferObject;
+    int normalBufferObject;
+    int uv0BufferObject;
+    int boneIndicesBufferObject;
+    int boneWeightsBufferObject;
+
+    // Morph 偏移 SSBO（首次 dispatch 时上传）
+    int morphOffsetsSSBO;
+    int uvMorphOffsetsSSBO;
+    boolean morphOffsetsUploaded;
+    boolean uvMorphOffsetsUploaded;
+
+    private SharedMeshBuffers(long assetId, int vertexCount, int indexCount, int indexElementSize,
+                              int indexBufferObject, int colorBufferObject, int uv1BufferObject) {
+        this.assetId = assetId;
+        this.vertexCount = vertexCount;
+        this.indexCount = indexCount;
+        this.indexElementSize = indexElementSize;
+        this.indexType = switch (indexElementSize) {
+            case 1 -> GL46C.GL_UNSIGNED_BYTE;
+            case 2 -> GL46C.GL_UNSIGNED_SHORT;
+            case 4 -> GL46C.GL_UNSIGNED_INT;
+            default -> 0;
+        };
+        this.indexBufferObject = indexBufferObject;
+        this.colorBufferObject = colorBufferObject;
+        this.uv1BufferObject = uv1BufferObject;
+    }
+
+    /** 获取模型所属资产的共享缓冲区（已存在时增加引用，否则创建并上传） */
+    static SharedMeshBuffers acquire(NativeFunc nf, long model) {
+        long assetId = nf.GetModelAssetId(model);
+        SharedMeshBuffers shared = assetId != 0 ? SHARED.get(assetId) : null;
+        if (shared != null) {
+            shared.refCount++;
+            return shared;
+        }
+        shared = create(nf, model, assetId);
+        if (assetId != 0) SHARED.put(assetId, shared);
+        return shared;
+    }
+
+    private static SharedMeshBuffers create(NativeFunc nf, long model, long assetId) {
+        int vertexCount = (int) nf.GetVertexCount(model);
+        int indexElementSize = (int) nf.GetIndexElementSize(model);
+        int indexCount = (int) nf.GetIndexCount(model);
+        int indexBufferObject = 0, colorBufferObject = 0, uv1BufferObject = 0;
+        ByteBuffer staging = null;
+        try {
+            indexBufferObject = GL46C.glGenBuffers();
+            colorBufferObject = GL46C.glGenBuffers();
+            uv1BufferObject = GL46C.glGenBuffers();
+
+            int indexSize = indexCount * indexElementSize;
+            staging = MemoryUtil.memAlloc(Math.max(indexSize, vertexCount * 16));
+            staging.order(ByteOrder.LITTLE_ENDIAN);
+
+            // 索引（GL_ELEMENT_ARRAY_BUFFER 绑定属于 VAO 状态，此处经 COPY_WRITE 上传，各实例绘制时自行绑定）
+            staging.limit(indexSize);
+            nf.CopyDataToByteBuffer(staging, nf.GetIndices(model), indexSize);
+            staging.position(0);
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, indexBufferObject);
+            GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, staging, GL46C.GL_STATIC_DRAW);
+
+            // 安卓兼容：白色 Color VBO（替代 glVertexAttrib4f 常量属性）
+            staging.clear();
+            for (int i = 0; i < vertexCount; i++) {
+                staging.putFloat(1.0f);
+                staging.putFloat(1.0f);
+                staging.putFloat(1.0f);
+                staging.putFloat(1.0f);
+            }
+            staging.flip();
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, colorBufferObject);
+            GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, staging, GL46C.GL_STATIC_DRAW);
+
+            // UV1（overlay）永远是 {15, 15}
+            staging.clear();
+            for (int i = 0; i < vertexCount; i++) {
+                staging.putInt(15);
+                staging.putInt(15);
+            }
+            staging.flip();
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, uv1BufferObject);
+            GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, staging, GL46C.GL_STATIC_DRAW);
+            GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+
+            return new SharedMeshBuffers(assetId, vertexCount, indexCount, indexElementSize,
+                indexBufferObject, colorBufferObject, uv1BufferObject);
+        } catch (RuntimeException e) {
+            if (indexBufferObject > 0) GL46C.glDeleteBuffers(indexBufferObject);
+            if (colorBufferObject > 0) GL46C.glDeleteBuffers(colorBufferObject);
+            if (uv1BufferObject > 0) GL46C.glDeleteBuffers(uv1BufferObject);
+            throw e;
+        } finally {
+            if (staging != null) MemoryUtil.memFree(staging);
+        }
+    }
+
+    /** 创建 GPU 蒙皮静态输入（已创建时直接返回；Rust 侧需已调用 InitGpuSkinningData） */
+    void ensureSkinningInputs(NativeFunc nf, long model) {
+        if (positionBufferObject != 0) return;
+        ByteBuffer staging = MemoryUtil.memAlloc(vertexCount * 16);
+        staging.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            // 原始顶点位置 / 法线（未蒙皮）
+            staging.limit(vertexCount * 12);
+            if (nf.CopyOriginalPositionsToBuffer(model, staging, vertexCount) == 0) {
+                logger.warn("原始顶点位置数据复制失败");
+            }
+            positionBufferObject = upload(staging, vertexCount * 12);
+            staging.clear().limit(vertexCount * 12);
+            if (nf.CopyOriginalNormalsToBuffer(model, staging, vertexCount) == 0) {
+                logger.warn("原始法线数据复制失败");
+            }
+            normalBufferObject = upload(staging, vertexCount * 12);
+
+            // UV0（未应用 UV Morph 的原始值，UV Morph 结果写入各实例的蒙皮 UV 缓冲区）
+            staging.clear().limit(vertexCount * 8);
+            nf.CopyDataToByteBuffer(staging, nf.GetUVs(model), vertexCount * 8);
+            uv0BufferObject = upload(staging, vertexCount * 8);
+
+            // 骨骼索引（ivec4）/ 权重（vec4）
+            staging.clear();
+            if (nf.CopyBoneIndicesToBuffer(model, staging, vertexCount) == 0) {
+                logger.warn("骨骼索引数据复制失败");
+            }
+            boneIndicesBufferObject = upload(staging, vertexCount * 16);
+            staging.clear();
+            if (nf.CopyBoneWeightsToBuffer(model, staging, vertexCount) == 0) {
+                logger.warn("骨骼权重数据复制失败");
+            }
+            boneWeightsBufferObject = upload(staging, vertexCount * 16);
+        } finally {
+            MemoryUtil.memFree(staging);
+        }
+    }
+
+    private static int upload(ByteBuffer staging, int size) {
+        staging.position(0).limit(size);
+        int buffer = GL46C.glGenBuffers();
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, buffer);
+        GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, staging, GL46C.GL_STATIC_DRAW);
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+        return buffer;
+    }
+
+    /** 获取 Morph 偏移 SSBO（首次调用时创建，数据由调用方上传后标记 morphOffsetsUploaded） */
+    int morphOffsetsSSBO() {
+        if (morphOffsetsSSBO == 0) morphOffsetsSSBO = GL46C.glGenBuffers();
+        return morphOffsetsSSBO;
+    }
+
+    /** 获取 UV Morph 偏移 SSBO（首次调用时创建） */
+    int uvMorphOffsetsSSBO() {
+        if (uvMorphOffsetsSSBO == 0) uvMorphOffsetsSSBO = GL46C.glGenBuffers();
+        return uvMorphOffsetsSSBO;
+    }
+
+    /** 共享缓冲区显存中由单个实例分摊的部分（字节） */
+    long getVramShare(long morphOffsetsSize, long uvMorphOffsetsSize) {
+        long total = (long) indexCount * indexElementSize;
+        total += (long) vertexCount * (16 + 8); // color + uv1
+        if (positionBufferObject != 0) {
+            total += (long) vertexCount * (12 * 2 + 8 + 16 * 2); // pos + nor + uv0 + boneIdx + boneWgt
+        }
+        if (morphOffsetsUploaded) total += morphOffsetsSize;
+        if (uvMorphOffsetsUploaded) total += uvMorphOffsetsSize;
+        return total / Math.max(refCount, 1);
+    }
+
+    /** 释放一个引用，归零时删除所有 GL 缓冲区 */
+    void release() {
+        if (--refCount > 0) return;
+        if (assetId != 0) SHARED.remove(assetId, this);
+        GL46C.glDeleteBuffers(indexBufferObject);
+        GL46C.glDeleteBuffers(colorBufferObject);
+        GL46C.glDeleteBuffers(uv1BufferObject);
+        if (positionBufferObject > 0) GL46C.glDeleteBuffers(positionBufferObject);
+        if (normalBufferObject > 0) GL46C.glDeleteBuffers(normalBufferObject);
+        if (uv0BufferObject > 0) GL46C.glDeleteBuffers(uv0BufferObject);
+        if (boneIndicesBufferObject > 0) GL46C.glDeleteBuffers(boneIndicesBufferObject);
+        if (boneWeightsBufferObject > 0) GL46C.glDeleteBuffers(boneWeightsBufferObject);
+        if (morphOffsetsSSBO > 0) GL46C.glDeleteBuffers(morphOffsetsSSBO);
+        if (uvMorphOffsetsSSBO > 0) GL46C.glDeleteBuffers(uvMorphOffsetsSSBO);
+        positionBufferObject = normalBufferObject = uv0BufferObject = 0;
+        boneIndicesBufferObject = boneWeightsBufferObject = 0;
+        morphOffsetsSSBO = uvMorphOffsetsSSBO = 0;
+    }
+}
@@ -0,0 +1,277 @@
+package com.shiroha.mmdskin.renderer.model;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.resource.BindlessTextures;
+import com.shiroha.mmdskin.renderer.shader.ShaderConstants;
+import com.shiroha.mmdskin.renderer.shader.ToonShaderBase;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * 子网格批量绘制
+ *
+ * 绘制列表在加载时由 BatchGetSubMeshData（每子网格 20 字节）构建一次，保持 PMX 材质顺序
+ * （半透明混合依赖该顺序），相邻且状态相同的子网格预先分组：
+ * - 普通路径：相邻的同剔除模式、同纹理子网格合并为一次 glMultiDrawElements，状态只在组边界切换
+ * - bindless 路径（Toon 主着色器以 MMD_BINDLESS 编译时）：纹理不再打断分组，相邻同剔除模式的子网格
+ *   以一次 glMultiDrawElementsIndirect 绘制，baseInstance 为材质索引，着色器从句柄表采样
+ * - 描边：不需要纹理且剔除模式固定，全部子网格一次绘制
+ *
+ * 可见性与材质 Morph alpha 剔除由 Rust 侧的绘制掩码给出：掩码版本号未变时每帧无需任何子网格处理，
+ * 变化时只修补受影响子网格的绘制数（隐藏为 0）与间接命令的 instanceCount。
+ *
+ * 每个模型实例持有一份（可见性与材质 Morph 按实例变化），仅在渲染线程访问。
+ */
+final class SubMeshBatcher {
+    /** 间接绘制命令：count, instanceCount, firstIndex, baseVertex, baseInstance */
+    private static final int COMMAND_SIZE = 20;
+
+    private final int indexElementSize;
+    private final int indexType;
+    private final int materialCount;
+    private final int subMeshCount;
+
+    // 静态子网格数据（加载时构建）
+    private final int[] subMeshMaterial;
+    /** 材质纹理，0 表示无纹理（普通路径用 Minecraft 缺失纹理，bindless 路径用白色兜底纹理） */
+    private final int[] subMeshTexture;
+    private final boolean[] subMeshBothFace;
+    private final int[] subMeshIndexCount;
+
+    // 当前绘制状态（按掩码修补）
+    private final boolean[] drawn;
+    private final IntBuffer counts;
+    private final PointerBuffer offsets;
+    private final ByteBuffer mask;
+    private int maskVersion = -1;
+    private int visibleCount;
+
+    // 同纹理同剔除分组（普通路径）
+    private int runCount;
+    private final int[] runStart;
+    private final int[] runVisible;
+    private final int[] runOf;
+
+    // 同剔除分组（bindless 路径）
+    private int cullRunCount;
+    private final int[] cullRunStart;
+    private final int[] cullRunVisible;
+    private final int[] cullRunOf;
+
+    // bindless 资源（首次使用时创建）
+    private ByteBuffer commands;
+    private int commandBuffer;
+    private int handleBuffer;
+    private ByteBuffer handleData;
+
+    /**
+     * @param subMeshData BatchGetSubMeshData 的输出（只读取静态字段）
+     */
+    SubMeshBatcher(ByteBuffer subMeshData, int subMeshCount, MMDMaterial[] mats,
+                   int indexElementSize, int indexType) {
+        this.indexElementSize = indexElementSize;
+        this.indexType = indexType;
+        this.materialCount = mats.length;
+        this.subMeshCount = subMeshCount;
+        this.subMeshMaterial = new int[subMeshCount];
+        this.subMeshTexture = new int[subMeshCount];
+        this.subMeshBothFace = new boolean[subMeshCount];
+        this.subMeshIndexCount = new int[subMeshCount];
+        this.drawn = new boolean[subMeshCount];
+        this.counts = MemoryUtil.memCallocInt(Math.max(subMeshCount, 1));
+        this.offsets = MemoryUtil.memAllocPointer(Math.max(subMeshCount, 1));
+        this.mask = MemoryUtil.memCalloc(Math.max(subMeshCount, 1));
+        this.runStart = new int[subMeshCount + 1];
+        this.runVisible = new int[subMeshCount];
+        this.runOf = new int[subMeshCount];
+        this.cullRunStart = new int[subMeshCount + 1];
+        this.cullRunVisible = new int[subMeshCount];
+        this.cullRunOf = new int[subMeshCount];
+
+        for (int i = 0; i < subMeshCount; ++i) {
+            int base = i * 20;
+            int materialID = subMeshData.getInt(base);
+            int beginIndex = subMeshData.getInt(base + 4);
+            subMeshMaterial[i] = materialID;
+            subMeshTexture[i] = materialID < mats.length ? mats[materialID].tex : 0;
+            subMeshIndexCount[i] = Math.max(subMeshData.getInt(base + 8), 0);
+            subMeshBothFace[i] = subMeshData.get(base + 17) != 0;
+            offsets.put(i, (long) beginIndex * indexElementSize);
+        }
+
+        for (int i = 0; i < subMeshCount; ++i) {
+            if (i == 0 || subMeshTexture[i] != subMeshTexture[i - 1]
+                    || subMeshBothFace[i] != subMeshBothFace[i - 1]) {
+                runStart[runCount++] = i;
+            }
+            runOf[i] = runCount - 1;
+            if (i == 0 || subMeshBothFace[i] != subMeshBothFace[i - 1]) {
+                cullRunStart[cullRunCount++] = i;
+            }
+            cullRunOf[i] = cullRunCount - 1;
+        }
+        runStart[runCount] = subMeshCount;
+        cullRunStart[cullRunCount] = subMeshCount;
+    }
+
+    /**
+     * 同步绘制掩码：版本号未变时只有一次无拷贝的 JNI 查询，变化时修补受影响的子网格
+     */
+    void refresh(NativeFunc nf, long model) {
+        int version = nf.GetSubMeshDrawMask(model, mask, maskVersion);
+        if (version == maskVersion) return;
+        maskVersion = version;
+
+        int dirtyBegin = subMeshCount;
+        int dirtyEnd = 0;
+        for (int i = 0; i < subMeshCount; ++i) {
+            boolean draw = mask.get(i) != 0;
+            if (draw == drawn[i]) continue;
+            drawn[i] = draw;
+            int delta = draw ? 1 : -1;
+            counts.put(i, draw ? subMeshIndexCount[i] : 0);
+            runVisible[runOf[i]] += delta;
+            cullRunVisible[cullRunOf[i]] += delta;
+            visibleCount += delta;
+            if (commands != null) {
+                commands.putInt(i * COMMAND_SIZE + 4, draw ? 1 : 0);
+            }
+            dirtyBegin = Math.min(dirtyBegin, i);
+            dirtyEnd = i + 1;
+        }
+
+        // 只重传变化区间的间接命令
+        if (commandBuffer != 0 && dirtyBegin < dirtyEnd) {
+            commands.limit(dirtyEnd * COMMAND_SIZE).position(dirtyBegin * COMMAND_SIZE);
+            GL46C.glNamedBufferSubData(commandBuffer, (long) dirtyBegin * COMMAND_SIZE, commands);
+            commands.clear();
+        }
+    }
+
+    /** 描边 pass：全部子网格一次绘制（隐藏子网格绘制数为 0，剔除状态由调用方设置） */
+    void drawOutline() {
+        if (visibleCount == 0) return;
+        multiDraw(0, subMeshCount);
+    }
+
+    /**
+     * 主 pass：相邻同剔除模式、同纹理子网格合并绘制（纹理绑定在 TEXTURE0）
+     * @param missingTexture 材质无纹理时使用的纹理
+     */
+    void drawMain(int missingTexture) {
+        if (visibleCount == 0) return;
+        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+        int boundTexture = -1;
+        int cullState = -1;
+        for (int r = 0; r < runCount; ++r) {
+            if (runVisible[r] == 0) continue;
+            int start = runStart[r];
+            int end = runStart[r + 1];
+
+            int cull = subMeshBothFace[start] ? 0 : 1;
+            if (cull != cullState) {
+                if (cull == 0) RenderSystem.disableCull(); else RenderSystem.enableCull();
+                cullState = cull;
+            }
+            int tex = subMeshTexture[start] != 0 ? subMeshTexture[start] : missingTexture;
+            if (tex != boundTexture) {
+                // setShaderTexture 更新 Iris TextureTracker，glBindTexture 做实际 GL 绑定
+                RenderSystem.setShaderTexture(0, tex);
+                GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
+                boundTexture = tex;
+            }
+            multiDraw(start, end);
+        }
+    }
+
+    /**
+     * 主 pass（bindless）：相邻同剔除模式的子网格一次间接绘制，命令缓冲区常驻 GPU
+     * 需已 useMain；着色器不是 bindless 变体时返回 false，调用方改用 drawMain()
+     * 无纹理子网格使用 missingTexture 的拷贝，与 drawMain() 的外观一致
+     */
+    boolean drawMainBindless(ToonShaderBase shader, int missingTexture) {
+        if (!shader.isBindless()) return false;
+        if (visibleCount == 0) return true;
+        ensureBindlessResources(missingTexture);
+
+        int savedIndirect = GL46C.glGetInteger(GL46C.GL_DRAW_INDIRECT_BUFFER_BINDING);
+        int savedSSBO = GL46C.glGetIntegeri(GL46C.GL_SHADER_STORAGE_BUFFER_BINDING, ShaderConstants.MATERIAL_TEXTURES_BINDING);
+        GL46C.glBindBuffer(GL46C.GL_DRAW_INDIRECT_BUFFER, commandBuffer);
+        GL46C.glBindBufferBase(GL46C.GL_SHADER_STORAGE_BUFFER, ShaderConstants.MATERIAL_TEXTURES_BINDING, handleBuffer);
+        shader.setUseBindless(true);
+
+        for (int r = 0; r < cullRunCount; ++r) {
+            if (cullRunVisible[r] == 0) continue;
+            int start = cullRunStart[r];
+            int end = cullRunStart[r + 1];
+            if (subMeshBothFace[start]) RenderSystem.disableCull(); else RenderSystem.enableCull();
+            GL46C.glMultiDrawElementsIndirect(GL46C.GL_TRIANGLES, indexType,
+                (long) start * COMMAND_SIZE, end - start, COMMAND_SIZE);
+        }
+
+        shader.setUseBindless(false);
+        GL46C.glBindBufferBase(GL46C.GL_SHADER_STORAGE_BUFFER, ShaderConstants.MATERIAL_TEXTURES_BINDING, savedSSBO);
+        GL46C.glBindBuffer(GL46C.GL_DRAW_INDIRECT_BUFFER, savedIndirect);
+        return true;
+    }
+
+    private void multiDraw(int start, int end) {
+        if (end - start == 1) {
+            GL46C.glDrawElements(GL46C.GL_TRIANGLES, counts.get(start), indexType, offsets.get(start));
+            return;
+        }
+        counts.limit(end).position(start);
+        offsets.limit(end).position(start);
+        GL46C.glMultiDrawElements(GL46C.GL_TRIANGLES, counts, indexType, offsets);
+        counts.clear();
+        offsets.clear();
+    }
+
+    /** 间接命令与句柄表只在首次 bindless 绘制时构建上传一次（材质纹理加载后不再变化） */
+    private void ensureBindlessResources(int missingTexture) {
+        if (commandBuffer != 0) return;
+        commands = MemoryUtil.memAlloc(Math.max(subMeshCount, 1) * COMMAND_SIZE);
+        for (int i = 0; i < subMeshCount; ++i) {
+            int base = i * COMMAND_SIZE;
+            commands.putInt(base, subMeshIndexCount[i]);
+            commands.putInt(base + 4, drawn[i] ? 1 : 0);
+            commands.putInt(base + 8, (int) (offsets.get(i) / indexElementSize));
+            commands.putInt(base + 12, 0);
+            commands.putInt(base + 16, subMeshMaterial[i]);
+        }
+        handleData = MemoryUtil.memCalloc(Math.max(materialCount, 1) * 8);
+        for (int i = 0; i < subMeshCount; ++i) {
+            int material = subMeshMaterial[i];
+            if (material < materialCount) {
+                long handle = BindlessTextures.handleOf(subMeshTexture[i]);
+                handleData.putLong(material * 8, handle != 0 ? handle : BindlessTextures.fallbackHandle(missingTexture));
+            }
+        }
+
+        commandBuffer = GL46C.glGenBuffers();
+        handleBuffer = GL46C.glGenBuffers();
+        GL46C.glNamedBufferData(commandBuffer, commands, GL46C.GL_DYNAMIC_DRAW);
+        GL46C.glNamedBufferData(handleBuffer, handleData, GL46C.GL_STATIC_DRAW);
+    }
+
+    /** 显存占用（字节） */
+    long getVramSize() {
+        if (commandBuffer == 0) return 0;
+        return (long) commands.capacity() + handleData.capacity();
+    }
+
+    void release() {
+        MemoryUtil.memFree(counts);
+        MemoryUtil.memFree(offsets);
+        MemoryUtil.memFree(mask);
+        if (commands != null) { MemoryUtil.memFree(commands); commands = null; }
+        if (handleData != null) { MemoryUtil.memFree(handleData); handleData = null; }
+        if (commandBuffer > 0) { GL46C.glDeleteBuffers(commandBuffer); commandBuffer = 0; }
+        if (handleBuffer > 0) { GL46C.glDeleteBuffers(handleBuffer); handleBuffer = 0; }
+    }
+}
@@ -39,7 +39,7 @@ public class MmdSkinRenderer<T extends Entity> extends EntityRenderer<T> {
                        MultiBufferSource bufferIn, int packedLightIn) {
         super.render(entityIn, entityYaw, tickDelta, matrixStackIn, bufferIn, packedLightIn);
         
-        MMDModelManager.Model model = MMDModelManager.GetModel(modelName, entityIn.getStringUUID());
+        MMDModelManager.Model model = MMDModelManager.GetModel(modelName, entityIn.getStringUUID(), entityIn);
         if (model == null) return;
         
         model.loadModelProperties(false);
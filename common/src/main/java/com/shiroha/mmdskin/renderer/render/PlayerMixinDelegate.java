@@ -75,7 +75,7 @@ public final class PlayerMixinDelegate {
         }
 
         // 加载模型
-        MMDModelManager.Model modelData = MMDModelManager.GetModel(selectedModel, playerName);
+        MMDModelManager.Model modelData = MMDModelManager.GetModel(selectedModel, playerName, player);
 
         if (modelData == null) {
             if (MMDModelManager.isModelPending(selectedModel, playerName)) {
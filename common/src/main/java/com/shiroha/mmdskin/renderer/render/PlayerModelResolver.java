@@ -41,7 +41,7 @@ public final class PlayerModelResolver {
             return null;
         }
         
-        MMDModelManager.Model m = MMDModelManager.GetModel(selectedModel, playerName);
+        MMDModelManager.Model m = MMDModelManager.GetModel(selectedModel, playerName, player);
         if (m == null) {
             return null;
         }
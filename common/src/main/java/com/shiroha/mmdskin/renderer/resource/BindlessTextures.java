@@ -0,0 +1,95 @@
+package com.shiroha.mmdskin.renderer.resource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.ARBBindlessTexture;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 材质纹理的 bindless 句柄（ARB_bindless_texture）
+ *
+ * 句柄在首次使用时创建并常驻，按 GL 纹理名缓存；纹理由 MMDTextureManager 删除前必须先调用 release()，
+ * 否则纹理名被复用后会取到失效句柄。创建句柄后纹理参数不可再修改，因此只对上传完成的材质纹理使用。
+ * 没有纹理的材质使用 Minecraft 缺失纹理的一份拷贝：外观与非 bindless 路径绑定的缺失纹理一致，
+ * 又不会因创建句柄而锁定 Minecraft 自身纹理的参数。
+ *
+ * 仅在渲染线程访问。
+ */
+public final class BindlessTextures {
+    private static final Logger logger = LogManager.getLogger();
+    private static final Map<Integer, Long> handles = new HashMap<>();
+    private static Boolean supported = null;
+    /** 无纹理材质使用的缺失纹理拷贝（常驻，不随模型释放） */
+    private static int fallbackTexture = 0;
+
+    private BindlessTextures() {}
+
+    /** 是否支持 bindless 纹理与 gl_BaseInstance（着色器为 GLSL 460，需要 OpenGL 4.6） */
+    public static boolean isSupported() {
+        if (supported == null) {
+            GLCapabilities caps = GL.getCapabilities();
+            supported = caps.GL_ARB_bindless_texture && caps.OpenGL46;
+            if (supported) {
+                logger.info("支持 bindless 纹理，Toon 着色启用材质间接批量绘制");
+            }
+        }
+        return supported;
+    }
+
+    /** 获取纹理的常驻句柄（首次调用时创建），失败返回 0 */
+    public static long handleOf(int tex) {
+        if (tex <= 0) return 0;
+        Long cached = handles.get(tex);
+        if (cached != null) return cached;
+        long handle = ARBBindlessTexture.glGetTextureHandleARB(tex);
+        if (handle != 0) {
+            ARBBindlessTexture.glMakeTextureHandleResidentARB(handle);
+        }
+        handles.put(tex, handle);
+        return handle;
+    }
+
+    /**
+     * 无纹理材质的句柄：首次调用时拷贝 missingTexture（Minecraft 缺失纹理）的第 0 级
+     * 无法读取其尺寸时退化为 1×1 白色纹理
+     */
+    public static long fallbackHandle(int missingTexture) {
+        if (fallbackTexture == 0) {
+            int width = 0;
+            int height = 0;
+            if (missingTexture > 0) {
+                width = GL46C.glGetTextureLevelParameteri(missingTexture, 0, GL46C.GL_TEXTURE_WIDTH);
+                height = GL46C.glGetTextureLevelParameteri(missingTexture, 0, GL46C.GL_TEXTURE_HEIGHT);
+            }
+            boolean copy = width > 0 && height > 0;
+            fallbackTexture = GL46C.glCreateTextures(GL46C.GL_TEXTURE_2D);
+            GL46C.glTextureStorage2D(fallbackTexture, 1, GL46C.GL_RGBA8, copy ? width : 1, copy ? height : 1);
+            GL46C.glTextureParameteri(fallbackTexture, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_NEAREST);
+            GL46C.glTextureParameteri(fallbackTexture, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_NEAREST);
+            if (copy) {
+                GL46C.glCopyImageSubData(missingTexture, GL46C.GL_TEXTURE_2D, 0, 0, 0, 0,
+                    fallbackTexture, GL46C.GL_TEXTURE_2D, 0, 0, 0, 0, width, height, 1);
+            } else {
+                try (MemoryStack stack = MemoryStack.stackPush()) {
+                    GL46C.glTextureSubImage2D(fallbackTexture, 0, 0, 0, 1, 1, GL46C.GL_RGBA, GL46C.GL_UNSIGNED_BYTE,
+                        stack.bytes((byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF));
+                }
+            }
+        }
+        return handleOf(fallbackTexture);
+    }
+
+    /** 纹理删除前释放句柄驻留 */
+    public static void release(int tex) {
+        Long handle = handles.remove(tex);
+        if (handle != null && handle != 0) {
+            ARBBindlessTexture.glMakeTextureHandleNonResidentARB(handle);
+        }
+    }
+}
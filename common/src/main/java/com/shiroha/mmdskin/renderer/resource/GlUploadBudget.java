@@ -0,0 +1,85 @@
+package com.shiroha.mmdskin.renderer.resource;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+
+/**
+ * 渲染线程 GL 上传时间预算
+ *
+ * 异步加载完成的模型在渲染线程上的收尾工作（纹理上传、VBO 创建、材质构建）按帧分摊：
+ * 每帧累计耗时超过预算后，剩余工作留到后续帧继续。每帧的第一份工作总是允许执行，保证进度。
+ *
+ * 帧边界由 LevelRenderer.renderLevel 入口调用 {@link #beginFrame()} 标记；
+ * 未进入世界渲染时（如菜单界面）超过一个时间窗口自动视为新的一帧。
+ * 所有方法只能在渲染线程调用。
+ */
+public final class GlUploadBudget {
+    /** 大纹理分块上传时每块的最大字节数 */
+    public static final int CHUNK_BYTES = 4 * 1024 * 1024;
+
+    /** 没有显式帧边界时的自动帧窗口 */
+    private static final long AUTO_FRAME_NANOS = 50_000_000L;
+
+    private static long frameStartNanos = System.nanoTime();
+    private static long usedNanos = 0;
+    private static long usedBytes = 0;
+    private static boolean exhausted = false;
+
+    private static long lastFrameNanos = 0;
+    private static long lastFrameBytes = 0;
+    private static boolean lastFrameExhausted = false;
+
+    private GlUploadBudget() {}
+
+    /** 帧开始：重置本帧预算 */
+    public static void beginFrame() {
+        lastFrameNanos = usedNanos;
+        lastFrameBytes = usedBytes;
+        lastFrameExhausted = exhausted;
+        usedNanos = 0;
+        usedBytes = 0;
+        exhausted = false;
+        frameStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 本帧是否还能执行一份上传工作
+     */
+    public static boolean tryAcquire() {
+        if (System.nanoTime() - frameStartNanos > AUTO_FRAME_NANOS) {
+            beginFrame();
+        }
+        if (usedNanos == 0 && usedBytes == 0) return true;
+        if (usedNanos < budgetNanos()) return true;
+        exhausted = true;
+        return false;
+    }
+
+    /** 记录一份已完成的上传工作 */
+    public static void charge(long bytes, long nanos) {
+        usedBytes += bytes;
+        usedNanos += Math.max(1, nanos);
+    }
+
+    private static long budgetNanos() {
+        return Math.max(1, ConfigManager.getGlUploadBudgetMs()) * 1_000_000L;
+    }
+
+    // ==================== 统计（PerformanceHud） ====================
+
+    public static double getLastFrameUsedMs() {
+        return lastFrameNanos / 1_000_000.0;
+    }
+
+    public static long getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    public static int getBudgetMs() {
+        return ConfigManager.getGlUploadBudgetMs();
+    }
+
+    /** 上一帧是否因预算耗尽而推迟了工作 */
+    public static boolean wasLastFrameExhausted() {
+        return lastFrameExhausted;
+    }
+}
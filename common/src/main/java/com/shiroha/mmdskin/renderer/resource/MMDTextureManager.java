@@ -4,14 +4,23 @@ import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.ConfigManager;
 
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.EXTTextureCompressionS3TC;
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL46C;
 import org.lwjgl.system.MemoryUtil;
 
@@ -22,6 +31,17 @@ import org.lwjgl.system.MemoryUtil;
  * 支持两阶段异步加载：
  * 1. preloadTexture() — 后台线程调用，Rust 解码图片 + 拷贝像素到 Java ByteBuffer
  * 2. GetTexture() — 渲染线程调用，如果有预解码数据则只做 GL 上传
+ *    异步加载的模型先通过 uploadPredecodedSliced() 在每帧上传预算内分块上传，避免集中卡顿
+ * 
+ * 可选压缩管线（textureCompressionEnabled，需 S3TC 支持）：
+ * Rust 在后台线程生成完整 Mip 链并压缩为 BC1 / BC3（按文件内容缓存到磁盘），
+ * 渲染线程以 glCompressedTexImage2D 逐层级上传；显存统计按实际压缩后大小（含 Mip 链）计算。
+ * 
+ * 内容去重：
+ * 缓存按文件内容（SHA-256）而非路径索引。不同模型目录中字节相同的 toon / spa / sph / 皮肤纹理
+ * 共享同一个 GL 纹理与同一个引用计数；路径 → 内容键的别名只在预解码时由后台线程计算，
+ * 渲染线程遇到未预解码的路径时不读文件，直接以路径本身为键并固定该别名。
+ * 公开方法仍以路径为参数，addRef() / release() 语义不变（每个模型对各自路径各计一次）。
  * 
  * 引用计数 + 延迟释放机制：
  * - 模型创建时通过 addRef() 增加纹理引用计数
@@ -34,7 +54,19 @@ public class MMDTextureManager {
     private static final Logger logger = LogManager.getLogger();
     private static NativeFunc nf;
     
-    /** 活跃纹理（refCount > 0） */
+    /** 纹理路径 → 内容键（文件不可读或未经预解码时为路径本身） */
+    private static final Map<String, String> contentKeys = new ConcurrentHashMap<>();
+    
+    /** 已出现过的内容键（用于统计复用路径数） */
+    private static final Set<String> knownKeys = ConcurrentHashMap.newKeySet();
+    
+    /** 与其他路径共用内容键的路径数量 */
+    private static final AtomicInteger dedupedPaths = new AtomicInteger();
+    
+    /** 模型内嵌纹理虚拟路径前缀（与 Rust texture::embedded 一致） */
+    private static final String EMBEDDED_PREFIX = "embedded:";
+    
+    /** 活跃纹理（refCount > 0），以下各表均以内容键索引 */
     private static volatile Map<String, Texture> textures;
     
     /** 延迟释放队列（refCount == 0，等待 TTL 超时或预算淘汰） */
@@ -43,6 +75,21 @@ public class MMDTextureManager {
     /** 后台线程预解码的纹理数据（尚未上传到 GL） */
     private static final Map<String, PredecodedTexture> predecodedTextures = new ConcurrentHashMap<>();
     
+    /** 分帧上传中的纹理（仅渲染线程访问） */
+    private static final Map<String, SlicedUpload> slicedUploads = new HashMap<>();
+    
+    /** 分块上传使用的像素解包缓冲区（PBO），0 表示尚未创建 */
+    private static int unpackBuffer = 0;
+    
+    /** 纹理格式（与 Rust TextureFormat 一致） */
+    static final int FORMAT_RAW = 0;
+    static final int FORMAT_BC1 = 1;
+    static final int FORMAT_BC3 = 3;
+    
+    /** 当前 GL 上下文是否支持 S3TC 压缩纹理（由渲染线程检测，后台线程只读） */
+    private static volatile boolean compressionSupported = false;
+    private static volatile boolean compressionChecked = false;
+    
     /** 延迟释放超时时间（毫秒） */
     private static final long TEXTURE_TTL_MS = 60_000;
 
@@ -50,6 +97,71 @@ public class MMDTextureManager {
         nf = NativeFunc.GetInst();
         textures = new ConcurrentHashMap<>();
         pendingRelease.clear();
+        contentKeys.clear();
+        knownKeys.clear();
+        dedupedPaths.set(0);
+    }
+    
+    /**
+     * 解析纹理路径对应的缓存键（渲染线程）
+     * 只查表不读文件；未预解码的路径以路径本身为键并固定别名，保证之后的 addRef() / release() 使用同一个键。
+     */
+    private static String keyOf(String filename) {
+        String key = contentKeys.get(filename);
+        return key != null ? key : registerKey(filename, pathKey(filename));
+    }
+    
+    /**
+     * 解析纹理路径对应的内容键（后台预解码线程）
+     * 首次访问时读取文件计算内容哈希，之后直接查表。
+     */
+    private static String resolveContentKey(String filename) {
+        String key = contentKeys.get(filename);
+        return key != null ? key : registerKey(filename, hashContent(filename));
+    }
+    
+    /** 登记路径别名（已登记时以先登记者为准），并更新复用路径计数 */
+    private static String registerKey(String filename, String key) {
+        String existing = contentKeys.putIfAbsent(filename, key);
+        if (existing != null) return existing;
+        if (!knownKeys.add(key)) dedupedPaths.incrementAndGet();
+        return key;
+    }
+    
+    /**
+     * 无需读文件的键：模型内嵌纹理虚拟路径（embedded:<像素哈希>:<索引>:<源文件>）取像素哈希部分，其余为路径本身
+     */
+    private static String pathKey(String filename) {
+        if (filename.startsWith(EMBEDDED_PREFIX)) {
+            int end = filename.indexOf(':', EMBEDDED_PREFIX.length());
+            return end > 0 ? filename.substring(0, end) : filename;
+        }
+        return filename;
+    }
+    
+    /**
+     * 文件字节的 SHA-256（附带长度）；文件不存在或不可读时返回路径本身，行为与按路径缓存一致。
+     * 内嵌纹理直接使用 pathKey()，无需读文件。
+     */
+    private static String hashContent(String filename) {
+        if (filename.startsWith(EMBEDDED_PREFIX)) {
+            return pathKey(filename);
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long length = 0;
+            int n;
+            while ((n = channel.read(buffer)) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                length += n;
+            }
+            return HexFormat.of().formatHex(digest.digest()) + ":" + length;
+        } catch (Exception e) {
+            return filename;
+        }
     }
     
     /**
@@ -59,42 +171,82 @@ public class MMDTextureManager {
      * @param filename 纹理文件完整路径
      */
     public static void preloadTexture(String filename) {
-        // 快速检查：已有 GL 纹理、待释放纹理或已预解码，跳过
         Map<String, Texture> localTextures = textures;
         if (localTextures == null) return;
-        if (localTextures.containsKey(filename) || pendingRelease.containsKey(filename)
-                || predecodedTextures.containsKey(filename)) {
+        
+        // 快速检查：相同内容已有 GL 纹理、待释放纹理或已预解码，跳过
+        String key = resolveContentKey(filename);
+        if (localTextures.containsKey(key) || pendingRelease.containsKey(key)
+                || predecodedTextures.containsKey(key)) {
             return;
         }
         
-        NativeFunc localNf = NativeFunc.GetInst();
-        long nfTex = localNf.LoadTexture(filename);
-        if (nfTex == 0) {
+        PredecodedTexture predecoded = decodeTexture(NativeFunc.GetInst(), filename);
+        if (predecoded == null) {
             return;
         }
         
+        // 原子放入：并发时只有一个线程成功，失败方释放自己的 buffer 防止泄漏
+        PredecodedTexture existing = predecodedTextures.putIfAbsent(key, predecoded);
+        if (existing != null) {
+            MemoryUtil.memFree(predecoded.pixelData);
+            predecoded.pixelData = null;
+        }
+    }
+    
+    /**
+     * 检测当前 GL 上下文的压缩纹理支持（渲染线程调用，提交后台加载前执行一次即可）
+     */
+    public static void detectCompressionSupport() {
+        if (compressionChecked) return;
+        compressionChecked = true;
+        compressionSupported = !NativeFunc.isAndroid()
+                && GL.getCapabilities().GL_EXT_texture_compression_s3tc;
+        logger.info("[纹理] S3TC 压缩纹理支持: {}", compressionSupported);
+    }
+    
+    /** 新解码的纹理是否走压缩管线 */
+    private static boolean useCompression() {
+        return compressionSupported && ConfigManager.isTextureCompressionEnabled();
+    }
+    
+    /**
+     * 通过 Rust 解码纹理并拷贝到 Java ByteBuffer（任意线程）
+     * 启用压缩管线时得到 BC1 / BC3 + 完整 Mip 链，否则为未压缩单层级 RGB / RGBA。
+     * 
+     * @return 预解码数据，失败返回 null
+     */
+    private static PredecodedTexture decodeTexture(NativeFunc localNf, String filename) {
+        boolean compressed = useCompression();
+        long nfTex = compressed ? localNf.LoadTextureCompressed(filename) : localNf.LoadTexture(filename);
+        if (nfTex == 0) {
+            return null;
+        }
+        
         try {
-            int x = localNf.GetTextureX(nfTex);
-            int y = localNf.GetTextureY(nfTex);
-            long texData = localNf.GetTextureData(nfTex);
-            boolean hasAlpha = localNf.TextureHasAlpha(nfTex);
+            PredecodedTexture predecoded = new PredecodedTexture();
+            predecoded.width = localNf.GetTextureX(nfTex);
+            predecoded.height = localNf.GetTextureY(nfTex);
+            predecoded.hasAlpha = localNf.TextureHasAlpha(nfTex);
+            predecoded.format = compressed ? localNf.GetTextureFormat(nfTex) : FORMAT_RAW;
+            if (predecoded.isCompressed()) {
+                int levels = localNf.GetTextureMipCount(nfTex);
+                predecoded.mipSizes = new int[levels];
+                for (int i = 0; i < levels; i++) {
+                    predecoded.mipSizes[i] = localNf.GetTextureMipSize(nfTex, i);
+                }
+            } else {
+                predecoded.mipSizes = new int[] {
+                    predecoded.width * predecoded.height * (predecoded.hasAlpha ? 4 : 3)
+                };
+            }
             
-            int texSize = x * y * (hasAlpha ? 4 : 3);
+            int texSize = (int) predecoded.byteSize();
             ByteBuffer pixelBuffer = MemoryUtil.memAlloc(texSize);
-            localNf.CopyDataToByteBuffer(pixelBuffer, texData, texSize);
+            localNf.CopyDataToByteBuffer(pixelBuffer, localNf.GetTextureData(nfTex), texSize);
             pixelBuffer.rewind();
-            
-            PredecodedTexture predecoded = new PredecodedTexture();
             predecoded.pixelData = pixelBuffer;
-            predecoded.width = x;
-            predecoded.height = y;
-            predecoded.hasAlpha = hasAlpha;
-            
-            // 原子放入：并发时只有一个线程成功，失败方释放自己的 buffer 防止泄漏
-            PredecodedTexture existing = predecodedTextures.putIfAbsent(filename, predecoded);
-            if (existing != null) {
-                MemoryUtil.memFree(pixelBuffer);
-            }
+            return predecoded;
         } finally {
             localNf.DeleteTexture(nfTex);
         }
@@ -104,6 +256,10 @@ public class MMDTextureManager {
      * 清除所有预解码数据（在模型重载时调用）
      */
     public static void clearPreloaded() {
+        for (SlicedUpload upload : slicedUploads.values()) {
+            upload.abort();
+        }
+        slicedUploads.clear();
         // 释放所有未消费的预解码缓冲区，防止 native 内存泄漏
         for (PredecodedTexture p : predecodedTextures.values()) {
             if (p.pixelData != null) {
@@ -120,67 +276,49 @@ public class MMDTextureManager {
      * 返回的纹理 refCount 不变，需由调用者通过 addRef() 管理。
      */
     public static Texture GetTexture(String filename) {
+        String key = keyOf(filename);
+        
         // 1. 活跃缓存命中
-        Texture result = textures.get(filename);
+        Texture result = textures.get(key);
         if (result != null) {
             return result;
         }
         
         // 2. 检查延迟释放队列（复用已加载但 refCount 归零的纹理）
-        result = pendingRelease.remove(filename);
+        result = pendingRelease.remove(key);
         if (result != null) {
             result.refCount.set(0);
-            textures.put(filename, result);
+            textures.put(key, result);
+            return result;
+        }
+        
+        // 3. 分帧上传尚未完成：立即补完剩余分块
+        SlicedUpload inFlight = slicedUploads.remove(key);
+        if (inFlight != null) {
+            while (!inFlight.isComplete()) {
+                inFlight.uploadNextChunk();
+            }
+            result = inFlight.finish();
+            textures.put(key, result);
             return result;
         }
         
-        // 3. 检查预解码数据
-        PredecodedTexture predecoded = predecodedTextures.remove(filename);
+        // 4. 检查预解码数据
+        PredecodedTexture predecoded = predecodedTextures.remove(key);
         if (predecoded != null) {
             result = uploadPredecodedTexture(predecoded);
-            textures.put(filename, result);
+            textures.put(key, result);
             return result;
         }
         
-        // 4. 全量同步加载
-        long nfTex = nf.LoadTexture(filename);
-        if (nfTex == 0) {
+        // 5. 全量同步加载
+        detectCompressionSupport();
+        predecoded = decodeTexture(nf, filename);
+        if (predecoded == null) {
             return null;
         }
-        int x = nf.GetTextureX(nfTex);
-        int y = nf.GetTextureY(nfTex);
-        long texData = nf.GetTextureData(nfTex);
-        boolean hasAlpha = nf.TextureHasAlpha(nfTex);
-
-        int tex = GL46C.glGenTextures();
-        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
-        int texSize = x * y * (hasAlpha ? 4 : 3);
-        ByteBuffer texBuffer = MemoryUtil.memAlloc(texSize);
-        try {
-            nf.CopyDataToByteBuffer(texBuffer, texData, texSize);
-            texBuffer.rewind();
-            if (hasAlpha) {
-                GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, 4);
-                GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGBA, x, y, 0, GL46C.GL_RGBA, GL46C.GL_UNSIGNED_BYTE, texBuffer);
-            } else {
-                GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, 1);
-                GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGB, x, y, 0, GL46C.GL_RGB, GL46C.GL_UNSIGNED_BYTE, texBuffer);
-            }
-        } finally {
-            MemoryUtil.memFree(texBuffer);
-        }
-        nf.DeleteTexture(nfTex);
-
-        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, 0);
-        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_LINEAR);
-        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_LINEAR);
-        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
-
-        result = new Texture();
-        result.tex = tex;
-        result.hasAlpha = hasAlpha;
-        result.vramSize = (long) x * y * (hasAlpha ? 4 : 3);
-        textures.put(filename, result);
+        result = uploadPredecodedTexture(predecoded);
+        textures.put(key, result);
         return result;
     }
     
@@ -191,7 +329,16 @@ public class MMDTextureManager {
         int tex = GL46C.glGenTextures();
         GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
         
-        if (predecoded.hasAlpha) {
+        if (predecoded.isCompressed()) {
+            int offset = 0;
+            for (int level = 0; level < predecoded.mipCount(); level++) {
+                int size = predecoded.mipSizes[level];
+                GL46C.glCompressedTexImage2D(GL46C.GL_TEXTURE_2D, level, predecoded.glInternalFormat(),
+                    predecoded.mipWidth(level), predecoded.mipHeight(level), 0,
+                    MemoryUtil.memSlice(predecoded.pixelData, offset, size));
+                offset += size;
+            }
+        } else if (predecoded.hasAlpha) {
             GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, 4);
             GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGBA,
                 predecoded.width, predecoded.height, 0,
@@ -203,9 +350,7 @@ public class MMDTextureManager {
                 GL46C.GL_RGB, GL46C.GL_UNSIGNED_BYTE, predecoded.pixelData);
         }
         
-        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, 0);
-        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_LINEAR);
-        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_LINEAR);
+        applySamplerParams(predecoded);
         GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
         
         // GL 上传完成，释放 off-heap 像素缓冲区
@@ -217,18 +362,185 @@ public class MMDTextureManager {
         Texture result = new Texture();
         result.tex = tex;
         result.hasAlpha = predecoded.hasAlpha;
-        result.vramSize = (long) predecoded.width * predecoded.height * (predecoded.hasAlpha ? 4 : 3);
+        result.vramSize = predecoded.byteSize();
         return result;
     }
+    
+    /** 设置当前绑定纹理的 Mip 范围与过滤方式（有 Mip 链时使用三线性过滤） */
+    private static void applySamplerParams(PredecodedTexture data) {
+        int maxLevel = data.mipCount() - 1;
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, maxLevel);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER,
+            maxLevel > 0 ? GL46C.GL_LINEAR_MIPMAP_LINEAR : GL46C.GL_LINEAR);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_LINEAR);
+    }
 
+    // ==================== 分帧上传 ====================
+    
+    /**
+     * 在本帧 GL 上传预算内分块上传预解码纹理（渲染线程调用）
+     * 完成的纹理放入延迟释放队列，随后 GetTexture() 直接复用；若模型最终未创建则按 TTL 回收。
+     * 
+     * @param filename 纹理文件完整路径
+     * @return true 表示纹理已就绪（或没有预解码数据，交由 GetTexture 处理），false 表示本帧预算已用完
+     */
+    public static boolean uploadPredecodedSliced(String filename) {
+        if (textures == null) return true;
+        String key = keyOf(filename);
+        if (textures.containsKey(key) || pendingRelease.containsKey(key)) return true;
+        
+        SlicedUpload upload = slicedUploads.get(key);
+        if (upload == null) {
+            if (!GlUploadBudget.tryAcquire()) return false;
+            PredecodedTexture predecoded = predecodedTextures.remove(key);
+            if (predecoded == null) return true;
+            upload = SlicedUpload.begin(predecoded);
+            slicedUploads.put(key, upload);
+        }
+        
+        while (!upload.isComplete()) {
+            if (!GlUploadBudget.tryAcquire()) return false;
+            long start = System.nanoTime();
+            long bytes = upload.uploadNextChunk();
+            GlUploadBudget.charge(bytes, System.nanoTime() - start);
+        }
+        
+        slicedUploads.remove(key);
+        Texture result = upload.finish();
+        result.lastReleaseTime = System.currentTimeMillis();
+        pendingRelease.put(key, result);
+        return true;
+    }
+    
+    /** 大纹理分块上传是否经由 PBO（安卓 GL 翻译层直接从客户端内存上传） */
+    private static boolean usePixelUnpackBuffer() {
+        return !NativeFunc.isAndroid();
+    }
+    
+    /**
+     * 分帧上传状态：先分配各层级纹理存储，再逐层级按行带（每块不超过 GlUploadBudget.CHUNK_BYTES）
+     * 通过 glTexSubImage2D / glCompressedTexSubImage2D 逐块填充，全部完成前纹理不会被任何模型引用。
+     * 压缩格式的行带以 4 像素高的块行为单位。
+     */
+    private static final class SlicedUpload {
+        private final PredecodedTexture data;
+        private final int tex;
+        private int level = 0;
+        /** 当前层级已上传的行数（压缩格式按块行计） */
+        private int nextRow = 0;
+        /** 当前层级在像素缓冲区中的起始偏移 */
+        private int levelOffset = 0;
+        
+        private SlicedUpload(PredecodedTexture data, int tex) {
+            this.data = data;
+            this.tex = tex;
+        }
+        
+        static SlicedUpload begin(PredecodedTexture data) {
+            int tex = GL46C.glGenTextures();
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
+            if (data.isCompressed()) {
+                for (int level = 0; level < data.mipCount(); level++) {
+                    GL46C.glCompressedTexImage2D(GL46C.GL_TEXTURE_2D, level, data.glInternalFormat(),
+                        data.mipWidth(level), data.mipHeight(level), 0, data.mipSizes[level], 0L);
+                }
+            } else {
+                int format = data.glInternalFormat();
+                GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, format, data.width, data.height, 0,
+                    format, GL46C.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+            }
+            applySamplerParams(data);
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
+            return new SlicedUpload(data, tex);
+        }
+        
+        boolean isComplete() {
+            return level >= data.mipCount();
+        }
+        
+        /** 上传当前层级的下一块行带，返回上传的字节数 */
+        long uploadNextChunk() {
+            int width = data.mipWidth(level);
+            int totalRows = data.mipRows(level);
+            int rowBytes = data.mipRowBytes(level);
+            int rowsPerChunk = Math.max(1, GlUploadBudget.CHUNK_BYTES / Math.max(1, rowBytes));
+            int rows = Math.min(rowsPerChunk, totalRows - nextRow);
+            int size = rows * rowBytes;
+            ByteBuffer chunk = MemoryUtil.memSlice(data.pixelData, levelOffset + nextRow * rowBytes, size);
+            
+            // 压缩格式：块行换算为像素行，最后一个块行可能不足 4 像素
+            int y = data.isCompressed() ? nextRow * 4 : nextRow;
+            int height = data.isCompressed() ? Math.min(rows * 4, data.mipHeight(level) - y) : rows;
+            
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
+            if (!data.isCompressed()) {
+                GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, data.hasAlpha ? 4 : 1);
+                GL46C.glPixelStorei(GL46C.GL_UNPACK_ROW_LENGTH, 0);
+                GL46C.glPixelStorei(GL46C.GL_UNPACK_SKIP_ROWS, 0);
+                GL46C.glPixelStorei(GL46C.GL_UNPACK_SKIP_PIXELS, 0);
+            }
+            if (usePixelUnpackBuffer()) {
+                // 每块重新分配 PBO 存储（孤立旧存储），驱动可异步完成到纹理的拷贝
+                if (unpackBuffer == 0) unpackBuffer = GL46C.glGenBuffers();
+                GL46C.glBindBuffer(GL46C.GL_PIXEL_UNPACK_BUFFER, unpackBuffer);
+                GL46C.glBufferData(GL46C.GL_PIXEL_UNPACK_BUFFER, chunk, GL46C.GL_STREAM_DRAW);
+                if (data.isCompressed()) {
+                    GL46C.glCompressedTexSubImage2D(GL46C.GL_TEXTURE_2D, level, 0, y, width, height,
+                        data.glInternalFormat(), size, 0L);
+                } else {
+                    GL46C.glTexSubImage2D(GL46C.GL_TEXTURE_2D, 0, 0, y, width, height,
+                        data.glInternalFormat(), GL46C.GL_UNSIGNED_BYTE, 0L);
+                }
+                GL46C.glBindBuffer(GL46C.GL_PIXEL_UNPACK_BUFFER, 0);
+            } else if (data.isCompressed()) {
+                GL46C.glCompressedTexSubImage2D(GL46C.GL_TEXTURE_2D, level, 0, y, width, height,
+                    data.glInternalFormat(), chunk);
+            } else {
+                GL46C.glTexSubImage2D(GL46C.GL_TEXTURE_2D, 0, 0, y, width, height,
+                    data.glInternalFormat(), GL46C.GL_UNSIGNED_BYTE, chunk);
+            }
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
+            
+            nextRow += rows;
+            if (nextRow >= totalRows) {
+                levelOffset += data.mipSizes[level];
+                level++;
+                nextRow = 0;
+            }
+            return size;
+        }
+        
+        /** 上传完成：释放像素缓冲区并生成纹理记录 */
+        Texture finish() {
+            if (data.pixelData != null) {
+                MemoryUtil.memFree(data.pixelData);
+                data.pixelData = null;
+            }
+            Texture result = new Texture();
+            result.tex = tex;
+            result.hasAlpha = data.hasAlpha;
+            result.vramSize = data.byteSize();
+            return result;
+        }
+        
+        /** 放弃上传：删除纹理对象并释放像素缓冲区 */
+        void abort() {
+            GL46C.glDeleteTextures(tex);
+            if (data.pixelData != null) {
+                MemoryUtil.memFree(data.pixelData);
+                data.pixelData = null;
+            }
+        }
+    }
+    
     // ==================== 引用计数管理 ====================
     
     /**
-     * 增加纹理引用计数（模型创建时调用）
+     * 增加纹理引用计数（模型创建时调用，内容相同的路径共享计数）
      * @param filename 纹理文件路径
      */
     public static void addRef(String filename) {
-        Texture tex = textures.get(filename);
+        Texture tex = textures.get(keyOf(filename));
         if (tex != null) {
             tex.refCount.incrementAndGet();
         }
@@ -242,7 +554,7 @@ public class MMDTextureManager {
      */
     public static void release(String filename) {
         if (filename == null || textures == null) return;
-        textures.compute(filename, (key, tex) -> {
+        textures.compute(keyOf(filename), (key, tex) -> {
             if (tex == null) return null;
             int remaining = tex.refCount.decrementAndGet();
             if (remaining <= 0) {
@@ -325,6 +637,7 @@ public class MMDTextureManager {
     /** 删除 GL 纹理对象 */
     private static void deleteGlTexture(Texture tex) {
         if (tex != null && tex.tex > 0) {
+            BindlessTextures.release(tex.tex);
             GL46C.glDeleteTextures(tex.tex);
             tex.tex = 0;
         }
@@ -348,17 +661,22 @@ public class MMDTextureManager {
             deleteGlTexture(tex);
         }
         pendingRelease.clear();
+        for (SlicedUpload upload : slicedUploads.values()) {
+            upload.abort();
+        }
+        slicedUploads.clear();
     }
     
     /**
      * 删除单个纹理（强制，不走引用计数）
      */
     public static void DeleteTexture(String filename) {
+        String key = keyOf(filename);
         if (textures != null) {
-            Texture tex = textures.remove(filename);
+            Texture tex = textures.remove(key);
             deleteGlTexture(tex);
         }
-        Texture pending = pendingRelease.remove(filename);
+        Texture pending = pendingRelease.remove(key);
         deleteGlTexture(pending);
     }
     
@@ -385,11 +703,16 @@ public class MMDTextureManager {
         return total;
     }
     
-    /** 获取活跃纹理数量 */
+    /** 获取活跃纹理数量（按内容去重后） */
     public static int getTextureCount() {
         return textures != null ? textures.size() : 0;
     }
     
+    /** 因内容相同而复用已有纹理的路径数量 */
+    public static int getDedupedPathCount() {
+        return dedupedPaths.get();
+    }
+    
     /** 获取延迟释放队列中的纹理数量 */
     public static int getPendingReleaseCount() {
         return pendingRelease.size();
@@ -404,11 +727,60 @@ public class MMDTextureManager {
         return total;
     }
     
+    /** 分帧上传中的纹理数量 */
+    public static int getSlicedUploadCount() {
+        return slicedUploads.size();
+    }
+    
     /** 后台线程预解码的纹理数据（像素数据 + 尺寸，尚未上传到 GL） */
     static class PredecodedTexture {
         ByteBuffer pixelData;
         int width;
         int height;
         boolean hasAlpha;
+        /** 像素格式（FORMAT_*） */
+        int format = FORMAT_RAW;
+        /** 各 Mip 层级字节数，按顺序紧密排列在 pixelData 中（未压缩格式只有层级 0） */
+        int[] mipSizes;
+        
+        boolean isCompressed() {
+            return format != FORMAT_RAW;
+        }
+        
+        int mipCount() {
+            return mipSizes.length;
+        }
+        
+        int mipWidth(int level) {
+            return Math.max(1, width >> level);
+        }
+        
+        int mipHeight(int level) {
+            return Math.max(1, height >> level);
+        }
+        
+        /** 层级行数（压缩格式按 4 像素块行计） */
+        int mipRows(int level) {
+            return isCompressed() ? (mipHeight(level) + 3) / 4 : mipHeight(level);
+        }
+        
+        int mipRowBytes(int level) {
+            return mipSizes[level] / mipRows(level);
+        }
+        
+        int glInternalFormat() {
+            return switch (format) {
+                case FORMAT_BC1 -> EXTTextureCompressionS3TC.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+                case FORMAT_BC3 -> EXTTextureCompressionS3TC.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+                default -> hasAlpha ? GL46C.GL_RGBA : GL46C.GL_RGB;
+            };
+        }
+        
+        /** 全部层级的总字节数（即上传后的显存占用） */
+        long byteSize() {
+            long total = 0;
+            for (int size : mipSizes) total += size;
+            return total;
+        }
     }
 }
@@ -9,4 +9,7 @@ public final class ShaderConstants {
 
     /** 最大骨骼数量 */
     public static final int MAX_BONES = 2048;
+
+    /** 材质纹理句柄 SSBO 绑定点（与 toon_main_body.frag.glsl 一致，避开蒙皮 Compute Shader 的 0~12） */
+    public static final int MATERIAL_TEXTURES_BINDING = 13;
 }
@@ -29,7 +29,7 @@ import static com.shiroha.mmdskin.renderer.shader.ShaderConstants.MAX_BONES;
  * - binding 2: 骨骼索引（只读）
  * - binding 3: 骨骼权重（只读）
  * - binding 4: 骨骼矩阵（只读，每帧更新）
- * - binding 5: Morph 偏移数据（只读，静态）
+ * - binding 5: Morph 偏移数据（只读，静态，按顶点的 CSR 稀疏格式）
  * - binding 6: Morph 权重（只读，每帧更新）
  * - binding 7: 蒙皮后顶点位置（写入）
  * - binding 8: 蒙皮后顶点法线（写入）
@@ -64,6 +64,10 @@ public class SkinningComputeShader {
     private static final int BINDING_UV_MORPH_WEIGHTS = 11;
     private static final int BINDING_SKINNED_UVS = 12;
 
+    // 批量 dispatch 期间保存的 GL 状态
+    private int savedProgram = 0;
+    private SSBOBindings savedSSBO = null;
+
     private static final String COMPUTE_SHADER_SOURCE =
             AssetsUtil.getAssetsAsString("shader/compute_skinning.comp.glsl");
 
@@ -104,6 +108,15 @@ public class SkinningComputeShader {
         }
     }
     
+    /**
+     * 批量蒙皮时共享 arena SSBO 中的每模型字节区间
+     * boneMatrixSSBO / morphWeightsSSBO / uvMorphWeightsSSBO 以 glBindBufferRange 绑定到这些区间
+     */
+    public record ArenaRanges(
+            long boneOffset, long boneSize,
+            long morphWeightsOffset, long uvMorphWeightsOffset
+    ) {}
+    
     /**
      * 初始化 Compute Shader
      */
@@ -154,27 +167,48 @@ public class SkinningComputeShader {
      */
     public void dispatch(DispatchParams p) {
         if (!initialized || program == 0) return;
-        
-        int savedProgram = GL46C.glGetInteger(GL46C.GL_CURRENT_PROGRAM);
-        var savedSSBO = new SSBOBindings();
+        beginBatch();
+        dispatchInBatch(p, null);
+        endBatch();
+    }
+    
+    /**
+     * 开始批量蒙皮：保存程序与 SSBO 绑定状态（整批只查询一次）并切换到蒙皮程序
+     */
+    public void beginBatch() {
+        savedProgram = GL46C.glGetInteger(GL46C.GL_CURRENT_PROGRAM);
+        savedSSBO = new SSBOBindings();
         
         GL43C.glUseProgram(program);
-        
+        if (maxBonesLocation >= 0) GL43C.glUniform1i(maxBonesLocation, MAX_BONES);
+    }
+    
+    /**
+     * 在 beginBatch/endBatch 之间为单个模型绑定缓冲区并 dispatch
+     * 各模型写入独立的输出缓冲区，批内无需内存屏障
+     *
+     * @param ranges 非 null 时骨骼矩阵与 Morph 权重从共享 arena 的对应区间读取
+     */
+    public void dispatchInBatch(DispatchParams p, ArenaRanges ranges) {
         if (vertexCountLocation >= 0) GL43C.glUniform1i(vertexCountLocation, p.vertexCount());
         if (morphCountLocation >= 0) GL43C.glUniform1i(morphCountLocation, p.morphCount());
-        if (maxBonesLocation >= 0) GL43C.glUniform1i(maxBonesLocation, MAX_BONES);
         if (uvMorphCountLocation >= 0) GL43C.glUniform1i(uvMorphCountLocation, p.uvMorphCount());
         
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_ORIG_POSITIONS, p.origPosBuffer());
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_ORIG_NORMALS, p.origNorBuffer());
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_INDICES, p.boneIdxBuffer());
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_WEIGHTS, p.boneWgtBuffer());
-        GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_MATRICES, p.boneMatrixSSBO());
+        if (ranges != null) {
+            GL43C.glBindBufferRange(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_MATRICES, p.boneMatrixSSBO(),
+                    ranges.boneOffset(), ranges.boneSize());
+        } else {
+            GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_MATRICES, p.boneMatrixSSBO());
+        }
         if (p.morphCount() > 0 && p.morphOffsetsSSBO() != 0) {
             GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_MORPH_OFFSETS, p.morphOffsetsSSBO());
         }
         if (p.morphCount() > 0 && p.morphWeightsSSBO() != 0) {
-            GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_MORPH_WEIGHTS, p.morphWeightsSSBO());
+            bindWeights(BINDING_MORPH_WEIGHTS, p.morphWeightsSSBO(), ranges != null ? ranges.morphWeightsOffset() : -1, p.morphCount());
         }
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_SKINNED_POSITIONS, p.outSkinnedPosBuffer());
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_SKINNED_NORMALS, p.outSkinnedNorBuffer());
@@ -185,16 +219,32 @@ public class SkinningComputeShader {
             GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_UV_MORPH_OFFSETS, p.uvMorphOffsetsSSBO());
         }
         if (p.uvMorphCount() > 0 && p.uvMorphWeightsSSBO() != 0) {
-            GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_UV_MORPH_WEIGHTS, p.uvMorphWeightsSSBO());
+            bindWeights(BINDING_UV_MORPH_WEIGHTS, p.uvMorphWeightsSSBO(), ranges != null ? ranges.uvMorphWeightsOffset() : -1, p.uvMorphCount());
         }
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_SKINNED_UVS, p.outSkinnedUvBuffer());
         
         int groupCount = (p.vertexCount() + LOCAL_SIZE_X - 1) / LOCAL_SIZE_X;
         GL43C.glDispatchCompute(groupCount, 1, 1);
-        
+    }
+    
+    private static void bindWeights(int binding, int buffer, long offset, int count) {
+        if (offset >= 0) {
+            GL43C.glBindBufferRange(GL43C.GL_SHADER_STORAGE_BUFFER, binding, buffer, offset, (long) count * 4);
+        } else {
+            GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, binding, buffer);
+        }
+    }
+    
+    /**
+     * 结束批量蒙皮：整批只插入一次内存屏障，并恢复 GL 状态
+     */
+    public void endBatch() {
         GL43C.glMemoryBarrier(GL43C.GL_VERTEX_ATTRIB_ARRAY_BARRIER_BIT | GL43C.GL_SHADER_STORAGE_BARRIER_BIT);
         
-        savedSSBO.restore();
+        if (savedSSBO != null) {
+            savedSSBO.restore();
+            savedSSBO = null;
+        }
         GL43C.glUseProgram(savedProgram);
     }
     
@@ -238,30 +288,16 @@ public class SkinningComputeShader {
     }
     
     /**
-     * 创建一对 Morph SSBO（每模型实例独立）
-     * 返回 int[2]：{morphOffsetsSSBO, morphWeightsSSBO}
+     * 创建 Morph / UV Morph 权重 SSBO（每模型实例独立）
+     * 偏移 SSBO 为静态数据，由同一模型资产的所有实例共享（见 SharedMeshBuffers）
      * 调用方负责管理生命周期
      */
-    public static int[] createMorphBuffers(int morphCount) {
-        int offsetsSSBO = GL46C.glGenBuffers();
+    public static int createMorphWeightsBuffer(int morphCount) {
         int weightsSSBO = GL46C.glGenBuffers();
         GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, weightsSSBO);
         GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, (long) morphCount * 4, GL46C.GL_DYNAMIC_DRAW);
         GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
-        return new int[]{offsetsSSBO, weightsSSBO};
-    }
-    
-    /**
-     * 创建 UV Morph SSBO（每模型实例独立）
-     * 返回 int[2]：{uvMorphOffsetsSSBO, uvMorphWeightsSSBO}
-     */
-    public static int[] createUvMorphBuffers(int uvMorphCount) {
-        int offsetsSSBO = GL46C.glGenBuffers();
-        int weightsSSBO = GL46C.glGenBuffers();
-        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, weightsSSBO);
-        GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, (long) uvMorphCount * 4, GL46C.GL_DYNAMIC_DRAW);
-        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
-        return new int[]{offsetsSSBO, weightsSSBO};
+        return weightsSSBO;
     }
     
     /**
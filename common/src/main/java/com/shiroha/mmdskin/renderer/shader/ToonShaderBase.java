@@ -1,5 +1,6 @@
 package com.shiroha.mmdskin.renderer.shader;
 
+import com.shiroha.mmdskin.renderer.resource.BindlessTextures;
 import com.shiroha.mmdskin.util.AssetsUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +21,8 @@ public abstract class ToonShaderBase {
     protected int mainProgram = 0;
     protected int outlineProgram = 0;
     protected boolean initialized = false;
+    /** 主着色器是否以 MMD_BINDLESS 编译（材质纹理经句柄表按 gl_BaseInstance 采样） */
+    protected boolean bindless = false;
     
     // ==================== 共享的片段着色器逻辑 ====================
     
@@ -46,6 +49,7 @@ public abstract class ToonShaderBase {
     protected int shadowColorLocation = -1;
     protected int specularPowerLocation = -1;
     protected int specularIntensityLocation = -1;
+    protected int useBindlessLocation = -1;
     
     // ==================== 描边着色器 Uniform locations ====================
     protected int outlineProjMatLocation = -1;
@@ -86,9 +90,20 @@ public abstract class ToonShaderBase {
         if (initialized) return true;
         
         try {
-            // 编译主着色器
-            mainProgram = compileProgram(getMainVertexShader(), MAIN_FRAGMENT_SHADER_BODY,
-                                        getShaderName() + "主着色器");
+            // 编译主着色器（支持时优先 bindless 变体，失败回退普通版本）
+            if (BindlessTextures.isSupported()) {
+                mainProgram = compileProgram(withBindless(getMainVertexShader()),
+                                            withBindless(MAIN_FRAGMENT_SHADER_BODY),
+                                            getShaderName() + "主着色器(bindless)");
+                bindless = mainProgram != 0;
+                if (!bindless) {
+                    logger.warn("{} bindless 变体编译失败，回退逐材质绘制", getShaderName());
+                }
+            }
+            if (mainProgram == 0) {
+                mainProgram = compileProgram(getMainVertexShader(), MAIN_FRAGMENT_SHADER_BODY,
+                                            getShaderName() + "主着色器");
+            }
             if (mainProgram == 0) return false;
             
             // 编译描边着色器
@@ -118,6 +133,12 @@ public abstract class ToonShaderBase {
         }
     }
     
+    /** 将 GLSL 330 源码改为 460 + bindless 扩展并定义 MMD_BINDLESS */
+    private static String withBindless(String source) {
+        return source.replaceFirst("#version 330 core",
+            "#version 460 core\n#extension GL_ARB_bindless_texture : require\n#define MMD_BINDLESS");
+    }
+    
     private void initCommonUniforms() {
         // 主着色器 uniform
         projMatLocation = GL46C.glGetUniformLocation(mainProgram, "ProjMat");
@@ -130,6 +151,7 @@ public abstract class ToonShaderBase {
         shadowColorLocation = GL46C.glGetUniformLocation(mainProgram, "ShadowColor");
         specularPowerLocation = GL46C.glGetUniformLocation(mainProgram, "SpecularPower");
         specularIntensityLocation = GL46C.glGetUniformLocation(mainProgram, "SpecularIntensity");
+        useBindlessLocation = bindless ? GL46C.glGetUniformLocation(mainProgram, "UseBindless") : -1;
         
         // 描边着色器 uniform
         outlineProjMatLocation = GL46C.glGetUniformLocation(outlineProgram, "ProjMat");
@@ -189,6 +211,13 @@ public abstract class ToonShaderBase {
         }
     }
     
+    /** 主着色器是否从材质句柄表采样（仅 bindless 变体有效，需已 useMain） */
+    public void setUseBindless(boolean enabled) {
+        if (useBindlessLocation >= 0) {
+            GL46C.glUniform1i(useBindlessLocation, enabled ? 1 : 0);
+        }
+    }
+    
     public void setLightIntensity(float intensity) {
         if (lightIntensityLocation >= 0) {
             GL46C.glUniform1f(lightIntensityLocation, intensity);
@@ -266,6 +295,7 @@ public abstract class ToonShaderBase {
     public int getOutlineNormalLocation() { return outlineNormalLocation; }
     
     public boolean isInitialized() { return initialized; }
+    public boolean isBindless() { return bindless; }
     
     // ==================== 资源释放 ====================
     
@@ -279,5 +309,6 @@ public abstract class ToonShaderBase {
             outlineProgram = 0;
         }
         initialized = false;
+        bindless = false;
     }
 }
@@ -17,6 +17,9 @@ public final class NetworkOpCode {
     public static final int STAGE_MULTI = 11;
     public static final int BONE_SYNC = 12;
 
+    /** 二进制载荷长度上限（服务端读取时校验，防止超大包） */
+    public static final int MAX_BINARY_PAYLOAD = 8192;
+
     /** 判断该 opCode 的载荷是否为纯字符串 */
     public static boolean isStringPayload(int opCode) {
         return opCode == CUSTOM_ANIM || opCode == MODEL_SELECT
@@ -25,6 +28,11 @@ public final class NetworkOpCode {
                 || opCode == REQUEST_ALL_MODELS || opCode == STAGE_MULTI;
     }
 
+    /** 判断该 opCode 的载荷是否为字节数组 */
+    public static boolean isBinaryPayload(int opCode) {
+        return opCode == BONE_SYNC;
+    }
+
     /** 判断该 opCode 的载荷是否为 entityId + 字符串 */
     public static boolean isEntityStringPayload(int opCode) {
         return opCode == MAID_MODEL || opCode == MAID_ACTION;
@@ -17,9 +17,10 @@ layout(std430, binding = 3) readonly buffer BoneWeightsBuffer {
 layout(std430, binding = 4) readonly buffer BoneMatrices {
     mat4 boneMatrices[];
 };
-// 顶点 Morph 数据（只读）
+// 顶点 Morph 数据（只读，按顶点的 CSR 稀疏格式）
+// [0, VertexCount]：每顶点条目起始下标；之后每条目 4 个 uint：Morph 索引 + 偏移 xyz（浮点位）
 layout(std430, binding = 5) readonly buffer MorphOffsets {
-    float morphOffsets[];
+    uint morphData[];
 };
 layout(std430, binding = 6) readonly buffer MorphWeights {
     float morphWeights[];
@@ -62,15 +63,17 @@ void main() {
     vec3 pos = vec3(origPositions[base3], origPositions[base3 + 1], origPositions[base3 + 2]);
     vec3 nor = vec3(origNormals[base3], origNormals[base3 + 1], origNormals[base3 + 2]);
 
-    // 应用顶点 Morph 偏移
+    // 应用顶点 Morph 偏移（只遍历影响本顶点的条目；MorphCount 为 0 表示本帧无激活 Morph）
     if (MorphCount > 0) {
-        for (int m = 0; m < MorphCount && m < 128; m++) {
-            float w = morphWeights[m];
-            if (w > 0.001) {
-                uint offsetIdx = uint(m) * uint(VertexCount) * 3u + vid * 3u;
-                pos.x += morphOffsets[offsetIdx] * w;
-                pos.y += morphOffsets[offsetIdx + 1u] * w;
-                pos.z += morphOffsets[offsetIdx + 2u] * w;
+        uint entryBase = uint(VertexCount) + 1u;
+        uint rowEnd = morphData[vid + 1u];
+        for (uint e = morphData[vid]; e < rowEnd; e++) {
+            uint idx = entryBase + e * 4u;
+            float w = morphWeights[morphData[idx]];
+            if (w != 0.0) {
+                pos += vec3(uintBitsToFloat(morphData[idx + 1u]),
+                            uintBitsToFloat(morphData[idx + 2u]),
+                            uintBitsToFloat(morphData[idx + 3u])) * w;
             }
         }
     }
@@ -5,6 +5,15 @@ in vec3 viewNormal;
 in vec3 viewPos;
 
 uniform sampler2D Sampler0;
+
+#ifdef MMD_BINDLESS
+// 材质纹理句柄表（按材质索引），UseBindless 为 0 时仍使用 Sampler0
+flat in uint materialIndex;
+uniform int UseBindless;
+layout(std430, binding = 13) readonly buffer MaterialTextures {
+    uvec2 textureHandles[];
+};
+#endif
 uniform float LightIntensity;
 uniform int ToonLevels;          // 色阶数量（2-5）
 uniform float RimPower;          // 边缘光锐度
@@ -27,7 +36,13 @@ float toonify(float value, int levels) {
     return floor(value * float(levels) + 0.5) / float(levels);
 }
 void main() {
+#ifdef MMD_BINDLESS
+    vec4 texColor = UseBindless != 0
+        ? texture(sampler2D(textureHandles[materialIndex]), texCoord0)
+        : texture(Sampler0, texCoord0);
+#else
     vec4 texColor = texture(Sampler0, texCoord0);
+#endif
     vec3 normal = normalize(viewNormal);
 
     // 主光源方向（视图空间）
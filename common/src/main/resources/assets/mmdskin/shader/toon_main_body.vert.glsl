@@ -11,6 +11,11 @@ out vec2 texCoord0;
 out vec3 viewNormal;
 out vec3 viewPos;
 
+#ifdef MMD_BINDLESS
+// 间接绘制的 baseInstance 为材质索引（不使用实例化属性，不影响顶点读取）
+flat out uint materialIndex;
+#endif
+
 void main() {
     // Position 和 Normal 已经是蒙皮后的数据（由 Rust 引擎计算）
     vec4 viewPosition = ModelViewMat * vec4(Position, 1.0);
@@ -22,4 +27,7 @@ void main() {
     texCoord0 = UV0;
     viewNormal = normalize(transformedNormal);
     viewPos = viewPosition.xyz;
+#ifdef MMD_BINDLESS
+    materialIndex = uint(gl_BaseInstance);
+#endif
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.shiroha.mmdskin.fabric.network;
 
 import java.util.UUID;
 
+import com.shiroha.mmdskin.bonesync.BoneSyncManager;
 import com.shiroha.mmdskin.fabric.register.MmdSkinRegisterCommon;
 import com.shiroha.mmdskin.maid.MaidMMDModelManager;
 import com.shiroha.mmdskin.renderer.animation.PendingAnimSignalCache;
@@ -61,7 +62,10 @@ public class MmdSkinNetworkPack {
         int opCode = buffer.readInt();
         UUID playerUUID = buffer.readUUID();
 
-        if (NetworkOpCode.isStringPayload(opCode)) {
+        if (NetworkOpCode.isBinaryPayload(opCode)) {
+            byte[] data = buffer.readByteArray(NetworkOpCode.MAX_BINARY_PAYLOAD);
+            handleBinary(opCode, playerUUID, data);
+        } else if (NetworkOpCode.isStringPayload(opCode)) {
             String data = buffer.readUtf();
             handleString(opCode, playerUUID, data);
         } else if (NetworkOpCode.isEntityStringPayload(opCode)) {
@@ -89,6 +93,15 @@ public class MmdSkinNetworkPack {
         }
     }
 
+    private static void handleBinary(int opCode, UUID playerUUID, byte[] data) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player == null || playerUUID.equals(mc.player.getUUID())) return;
+
+        if (opCode == NetworkOpCode.BONE_SYNC) {
+            BoneSyncManager.onRemoteFrame(playerUUID, data);
+        }
+    }
+
     private static void handleString(int opCode, UUID playerUUID, String data) {
         Minecraft mc = Minecraft.getInstance();
         if (mc.player == null || playerUUID.equals(mc.player.getUUID())) return;
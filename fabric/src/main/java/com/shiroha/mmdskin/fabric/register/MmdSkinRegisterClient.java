@@ -174,6 +174,7 @@ public class MmdSkinRegisterClient {
             
             com.shiroha.mmdskin.renderer.render.StageAnimSyncHelper.tickPending();
 
+            StageAudioPlayer.tickStreams();
             StageAudioPlayer.tickRemoteAttenuation();
             
             BoneSyncManager.tickLocal();
@@ -252,6 +253,7 @@ public class MmdSkinRegisterClient {
                         PlayerModelSyncManager.broadcastLocalModelSelection(player.getUUID(), selectedModel);
                     }
                     MmdSkinNetworkPack.sendToServer(NetworkOpCode.REQUEST_ALL_MODELS, player.getUUID(), "");
+                    BoneSyncManager.setEnabled(true);
                 }
             });
         });
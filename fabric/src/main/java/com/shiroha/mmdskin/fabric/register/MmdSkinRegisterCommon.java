@@ -36,6 +36,23 @@ public class MmdSkinRegisterCommon {
                 return;
             }
 
+            // 二进制载荷（骨骼同步）：只转发给正在追踪该玩家的客户端
+            if (NetworkOpCode.isBinaryPayload(opCode)) {
+                byte[] binData = buf.readByteArray(NetworkOpCode.MAX_BINARY_PAYLOAD);
+                server.execute(() -> {
+                    for (ServerPlayer serverPlayer : PlayerLookup.tracking(player)) {
+                        if (!serverPlayer.equals(player)) {
+                            FriendlyByteBuf binBuf = PacketByteBufs.create();
+                            binBuf.writeInt(opCode);
+                            binBuf.writeUUID(realUUID);
+                            binBuf.writeByteArray(binData);
+                            ServerPlayNetworking.send(serverPlayer, SKIN_S2C, binBuf);
+                        }
+                    }
+                });
+                return;
+            }
+
             // 读取载荷
             String strData = null;
             int entityId = 0;
@@ -4,14 +4,22 @@ import com.shiroha.mmdskin.compat.vr.VRArmHider;
 import com.shiroha.mmdskin.fabric.YsmCompat;
 import com.shiroha.mmdskin.renderer.core.FirstPersonManager;
 import com.shiroha.mmdskin.renderer.core.IrisCompat;
+import com.shiroha.mmdskin.renderer.model.ParallelModelUpdater;
+import com.shiroha.mmdskin.renderer.resource.GlUploadBudget;
 import com.shiroha.mmdskin.ui.network.PlayerModelSyncManager;
+import com.mojang.blaze3d.vertex.PoseStack;
 import net.minecraft.client.Camera;
 import net.minecraft.client.player.AbstractClientPlayer;
+import net.minecraft.client.renderer.GameRenderer;
 import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.world.entity.Entity;
+import org.joml.Matrix4f;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * LevelRenderer Mixin — 强制渲染本地玩家实体
@@ -20,10 +28,20 @@ import org.spongepowered.asm.mixin.injection.Redirect;
  * 此 Mixin 在以下场景强制返回 true：
  * 1. 第一人称 MMD 模型模式（非 VR）
  * 2. VR 模式下 MMD 模型激活（确保身体可见）
+ * <p>
+ * 同时在 renderLevel 入口派发上一帧可见模型的并行更新，并重置 GL 上传预算。
  */
 @Mixin(LevelRenderer.class)
 public abstract class LevelRendererMixin {
     
+    @Inject(method = "renderLevel", at = @At("HEAD"))
+    private void onRenderLevelHead(PoseStack poseStack, float partialTick, long finishNanoTime,
+                                   boolean renderBlockOutline, Camera camera, GameRenderer gameRenderer,
+                                   LightTexture lightTexture, Matrix4f projectionMatrix, CallbackInfo ci) {
+        ParallelModelUpdater.beginFrame();
+        GlUploadBudget.beginFrame();
+    }
+    
     @Redirect(
         method = "renderLevel",
         at = @At(value = "INVOKE", target = "Lnet/minecraft/client/Camera;isDetached()Z", ordinal = 0)
@@ -118,6 +118,33 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.maxBones = value)
             .build());
         
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.persistent_vertex_stream"),
+                data.persistentVertexStreamEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.persistent_vertex_stream.tooltip"))
+            .setSaveConsumer(value -> data.persistentVertexStreamEnabled = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.parallel_model_update"),
+                data.parallelModelUpdateEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.parallel_model_update.tooltip"))
+            .setSaveConsumer(value -> data.parallelModelUpdateEnabled = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.gpu_skinning_batch"),
+                data.gpuSkinningBatchEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.gpu_skinning_batch.tooltip"))
+            .setSaveConsumer(value -> data.gpuSkinningBatchEnabled = value)
+            .build());
+        
         performanceCategory.addEntry(entryBuilder
             .startIntSlider(
                 Component.translatable("gui.mmdskin.mod_settings.texture_cache_budget"),
@@ -128,6 +155,71 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.textureCacheBudgetMB = value)
             .build());
         
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.animation_lod"),
+                data.animationLodEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.animation_lod.tooltip"))
+            .setSaveConsumer(value -> data.animationLodEnabled = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.animation_lod_distance"),
+                data.animationLodDistance, 8, 128)
+            .setDefaultValue(32)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.animation_lod_distance.tooltip"))
+            .setTextGetter(value -> Component.literal(value + " 格"))
+            .setSaveConsumer(value -> data.animationLodDistance = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.model_load_threads"),
+                data.modelLoadThreads, 1, 8)
+            .setDefaultValue(3)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.model_load_threads.tooltip"))
+            .setSaveConsumer(value -> data.modelLoadThreads = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.gl_upload_budget"),
+                data.glUploadBudgetMs, 1, 20)
+            .setDefaultValue(4)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.gl_upload_budget.tooltip"))
+            .setTextGetter(value -> Component.literal(value + " ms"))
+            .setSaveConsumer(value -> data.glUploadBudgetMs = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.model_cache"),
+                data.modelCacheEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.model_cache.tooltip"))
+            .setSaveConsumer(value -> data.modelCacheEnabled = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.texture_compression"),
+                data.textureCompressionEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.texture_compression.tooltip"))
+            .setSaveConsumer(value -> data.textureCompressionEnabled = value)
+            .build());
+        
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.bone_sync"),
+                data.boneSyncEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.bone_sync.tooltip"))
+            .setSaveConsumer(value -> data.boneSyncEnabled = value)
+            .build());
+        
         // Toon 渲染设置分类（3渲2）
         ConfigCategory toonCategory = builder.getOrCreateCategory(
             Component.translatable("gui.mmdskin.mod_settings.category.toon"));
@@ -352,6 +444,37 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.physicsKinematicFilter = value)
             .build());
         
+        // 每帧物理预算（0 = 不限制）
+        physicsCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.physics_frame_budget"),
+                (int)data.physicsFrameBudgetMs, 0, 20)
+            .setDefaultValue(4)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_frame_budget.tooltip"))
+            .setTextGetter(value -> Component.literal(value == 0 ? "∞" : value + " ms"))
+            .setSaveConsumer(value -> data.physicsFrameBudgetMs = value)
+            .build());
+        
+        // 物理降级距离（0 = 不按距离降级）
+        physicsCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.physics_tier_distance"),
+                (int)data.physicsTierDistance, 0, 128)
+            .setDefaultValue(24)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_tier_distance.tooltip"))
+            .setSaveConsumer(value -> data.physicsTierDistance = value)
+            .build());
+        
+        // 共享物理世界
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_shared_world"),
+                data.physicsSharedWorld)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_shared_world.tooltip"))
+            .setSaveConsumer(value -> data.physicsSharedWorld = value)
+            .build());
+        
         // 调试日志
         physicsCategory.addEntry(entryBuilder
             .startBooleanToggle(
@@ -416,7 +539,10 @@ public class ModConfigScreen {
                     data.physicsMaxAngularVelocity,
                     data.physicsJointsEnabled,
                     data.physicsKinematicFilter,
-                    data.physicsDebugLog
+                    data.physicsDebugLog,
+                    data.physicsFrameBudgetMs,
+                    data.physicsTierDistance,
+                    data.physicsSharedWorld
                 );
             } catch (UnsatisfiedLinkError e) {
                 org.apache.logging.log4j.LogManager.getLogger().warn("物理配置 JNI 方法未找到，请重新编译 Rust 库");
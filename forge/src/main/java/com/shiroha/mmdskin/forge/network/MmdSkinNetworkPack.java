@@ -3,6 +3,7 @@ package com.shiroha.mmdskin.forge.network;
 import java.util.UUID;
 import java.util.function.Supplier;
 
+import com.shiroha.mmdskin.bonesync.BoneSyncManager;
 import com.shiroha.mmdskin.forge.register.MmdSkinRegisterCommon;
 import com.shiroha.mmdskin.maid.MaidMMDModelManager;
 import com.shiroha.mmdskin.renderer.animation.PendingAnimSignalCache;
@@ -34,6 +35,7 @@ public class MmdSkinNetworkPack {
     public UUID playerUUID;
     public String animId;
     public int arg0;
+    public byte[] data;
 
     public MmdSkinNetworkPack(int opCode, UUID playerUUID, String animId) {
         this.opCode = opCode;
@@ -49,6 +51,14 @@ public class MmdSkinNetworkPack {
         this.arg0 = arg0;
     }
 
+    public MmdSkinNetworkPack(int opCode, UUID playerUUID, byte[] data) {
+        this.opCode = opCode;
+        this.playerUUID = playerUUID;
+        this.animId = "";
+        this.arg0 = 0;
+        this.data = data;
+    }
+
     public MmdSkinNetworkPack(int opCode, UUID playerUUID, int entityId, String modelName) {
         this.opCode = opCode;
         this.playerUUID = playerUUID;
@@ -61,7 +71,11 @@ public class MmdSkinNetworkPack {
         opCode = buffer.readInt();
         playerUUID = buffer.readUUID();
 
-        if (NetworkOpCode.isStringPayload(opCode)) {
+        if (NetworkOpCode.isBinaryPayload(opCode)) {
+            animId = "";
+            arg0 = 0;
+            data = buffer.readByteArray(NetworkOpCode.MAX_BINARY_PAYLOAD);
+        } else if (NetworkOpCode.isStringPayload(opCode)) {
             animId = buffer.readUtf();
             arg0 = 0;
         } else if (NetworkOpCode.isEntityStringPayload(opCode)) {
@@ -78,7 +92,9 @@ public class MmdSkinNetworkPack {
         buffer.writeInt(opCode);
         buffer.writeUUID(playerUUID);
 
-        if (NetworkOpCode.isStringPayload(opCode)) {
+        if (NetworkOpCode.isBinaryPayload(opCode)) {
+            buffer.writeByteArray(data);
+        } else if (NetworkOpCode.isStringPayload(opCode)) {
             buffer.writeUtf(animId);
         } else if (NetworkOpCode.isEntityStringPayload(opCode)) {
             buffer.writeInt(arg0);
@@ -125,6 +141,12 @@ public class MmdSkinNetworkPack {
             return;
         }
 
+        // 骨骼同步：只转发给正在追踪该玩家的客户端（TRACKING_ENTITY 不含发送者自身）
+        if (NetworkOpCode.isBinaryPayload(opCode)) {
+            MmdSkinRegisterCommon.channel.send(PacketDistributor.TRACKING_ENTITY.with(() -> sender), this);
+            return;
+        }
+
         // 转发给所有客户端（Forge 的 ALL 包含发送者，客户端 doInClient 会自行过滤）
         MmdSkinRegisterCommon.channel.send(PacketDistributor.ALL.noArg(), this);
     }
@@ -136,6 +158,11 @@ public class MmdSkinNetworkPack {
         if (playerUUID.equals(mc.player.getUUID())) return;
         if (mc.level == null) return;
 
+        if (opCode == NetworkOpCode.BONE_SYNC) {
+            BoneSyncManager.onRemoteFrame(playerUUID, data);
+            return;
+        }
+
         Player target = mc.level.getPlayerByUUID(playerUUID);
 
         switch (opCode) {
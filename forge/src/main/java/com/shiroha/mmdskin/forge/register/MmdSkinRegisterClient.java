@@ -1,6 +1,8 @@
 package com.shiroha.mmdskin.forge.register;
 
 import com.shiroha.mmdskin.MmdSkin;
+import com.shiroha.mmdskin.bonesync.BoneSyncManager;
+import com.shiroha.mmdskin.bonesync.BoneSyncNetworkHandler;
 import com.shiroha.mmdskin.forge.config.ModConfigScreen;
 import com.shiroha.mmdskin.forge.network.MmdSkinNetworkPack;
 import com.shiroha.mmdskin.maid.MaidActionNetworkHandler;
@@ -184,6 +186,14 @@ public class MmdSkinRegisterClient {
                     new MmdSkinNetworkPack(NetworkOpCode.STAGE_MULTI, player.getUUID(), data));
             }
         });
+        
+        BoneSyncNetworkHandler.setNetworkSender(boneData -> {
+            LocalPlayer player = MCinstance.player;
+            if (player != null) {
+                MmdSkinRegisterCommon.channel.sendToServer(
+                    new MmdSkinNetworkPack(NetworkOpCode.BONE_SYNC, player.getUUID(), boneData));
+            }
+        });
     }
     
     @OnlyIn(Dist.CLIENT)
@@ -236,8 +246,12 @@ public class MmdSkinRegisterClient {
             // 舞台动画待处理队列重试
             com.shiroha.mmdskin.renderer.render.StageAnimSyncHelper.tickPending();
 
-            // 远程舞台音频距离衰减（每秒更新一次）
+            // 舞台音频流式缓冲补充 + 远程音频距离衰减（每秒更新一次）
+            StageAudioPlayer.tickStreams();
             StageAudioPlayer.tickRemoteAttenuation();
+
+            // 本地骨骼快照采样与发送
+            BoneSyncManager.tickLocal();
             
             // 主配置轮盘按键处理
             if (mc.screen == null || mc.screen instanceof ConfigWheelScreen) {
@@ -299,6 +313,7 @@ public class MmdSkinRegisterClient {
                 }
                 MmdSkinRegisterCommon.channel.sendToServer(
                     new MmdSkinNetworkPack(NetworkOpCode.REQUEST_ALL_MODELS, mc.player.getUUID(), ""));
+                BoneSyncManager.setEnabled(true);
             }
         }
         
@@ -307,6 +322,7 @@ public class MmdSkinRegisterClient {
             MMDCameraController.getInstance().exitStageMode();
             PlayerModelSyncManager.onDisconnect();
             MmdSkinRendererPlayerHelper.onDisconnect();
+            BoneSyncManager.onDisconnect();
             com.shiroha.mmdskin.ui.stage.StageInviteManager.getInstance().onDisconnect();
         }
 
@@ -0,0 +1,314 @@
+//! 骨骼层级更新基准：每帧 begin_update → 物理前 / 物理后 update_transforms → end_update
+//!
+//! 运行：cargo bench --bench bone_update
+//! 更新前后对比：recursive_baseline 为引入扁平层级之前的递归实现（原样复制于本文件），
+//! 与 serial / level_parallel 在同一次运行中使用相同的骨架与动画数据
+
+mod common;
+
+use criterion::{black_box, criterion_group, criterion_main, BenchmarkId, Criterion, Throughput};
+use std::collections::HashSet;
+
+use glam::{Mat4, Quat, Vec3};
+use mmd_engine::skeleton::{AppendConfig, BoneFlags, BoneLink, BoneSet, IkConfig, IkLink, IkSolver};
+
+use common::Rng;
+
+fn add(set: &mut BoneSet, parent: i32, position: Vec3) -> i32 {
+    let index = set.bone_count() as i32;
+    let mut bone = BoneLink::new(format!("bone_{}", index));
+    bone.parent_index = parent;
+    bone.initial_position = position;
+    bone.flags = BoneFlags::ROTATABLE | BoneFlags::MOVABLE;
+    set.add_bone(bone);
+    index
+}
+
+fn chain(set: &mut BoneSet, parent: i32, start: Vec3, step: Vec3, length: usize) -> Vec<i32> {
+    let mut bones = Vec::with_capacity(length);
+    let mut prev = parent;
+    for i in 0..length {
+        prev = add(set, prev, start + step * i as f32);
+        bones.push(prev);
+    }
+    bones
+}
+
+/// 典型 PMX 角色结构：躯干 / 四肢 / 手指 + 足 IK + 捩り（附加旋转）骨骼，其余为头发 / 裙摆物理链
+fn synthetic_skeleton(bone_count: usize, strand_length: usize) -> BoneSet {
+    let mut rng = Rng(0x2545_F491);
+    let mut set = BoneSet::new();
+    let root = add(&mut set, -1, Vec3::ZERO);
+    let center = add(&mut set, root, Vec3::new(0.0, 8.0, 0.0));
+    let spine = chain(&mut set, center, Vec3::new(0.0, 10.0, 0.0), Vec3::new(0.0, 1.5, 0.0), 4);
+    let head = *spine.last().unwrap();
+
+    for side in [-1.0f32, 1.0] {
+        // 手臂 + 捩り + 手指
+        let arm = chain(&mut set, spine[2], Vec3::new(side, 14.0, 0.0), Vec3::new(side * 2.0, -0.5, 0.0), 3);
+        let twist = add(&mut set, arm[1], Vec3::new(side * 3.0, 13.5, 0.0));
+        set.link_mut(twist as usize).unwrap().flags |= BoneFlags::APPEND_ROTATE;
+        set.link_mut(twist as usize).unwrap().append_config = Some(AppendConfig { parent: arm[1], rate: 0.5 });
+        for f in 0..5 {
+            chain(&mut set, arm[2], Vec3::new(side * 7.0, 13.0, f as f32 * 0.2), Vec3::new(side * 0.3, 0.0, 0.0), 3);
+        }
+
+        // 腿 + 足 IK
+        let leg = chain(&mut set, center, Vec3::new(side, 8.0, 0.0), Vec3::new(0.0, -3.5, 0.0), 3);
+        let ik = add(&mut set, root, Vec3::new(side, 1.0, 0.0));
+        let link = set.link_mut(ik as usize).unwrap();
+        link.flags |= BoneFlags::IK;
+        link.ik_config = Some(IkConfig {
+            target_bone: leg[2],
+            iterations: 40,
+            limit_angle: 2.0,
+            links: vec![
+                IkLink { bone_index: leg[1], has_limits: true, limit_min: Vec3::new(-3.14, 0.0, 0.0), limit_max: Vec3::new(-0.01, 0.0, 0.0) },
+                IkLink { bone_index: leg[0], has_limits: false, limit_min: Vec3::ZERO, limit_max: Vec3::ZERO },
+            ],
+        });
+    }
+
+    // 头发 / 裙摆链补足骨骼数
+    while set.bone_count() + strand_length <= bone_count {
+        let parent = if rng.next() % 3 == 0 { center } else { head };
+        let start = Vec3::new(rng.unit() - 0.5, 16.0 + rng.unit(), rng.unit() - 0.5);
+        chain(&mut set, parent, start, Vec3::new(0.0, -0.8, 0.0), strand_length);
+    }
+    while set.bone_count() < bone_count {
+        add(&mut set, head, Vec3::new(0.0, 17.0, 0.0));
+    }
+
+    set.build_hierarchy();
+    set
+}
+
+fn animate(set: &mut BoneSet, rng: &mut Rng) {
+    set.begin_update();
+    for i in 0..set.bone_count() {
+        let q = Quat::from_rotation_x((rng.unit() - 0.5) * 0.2) * Quat::from_rotation_z((rng.unit() - 0.5) * 0.2);
+        set.set_bone_rotation(i, q);
+    }
+}
+
+/// 扁平层级之前的 BoneSet 更新流程（基线）
+///
+/// 按当时的 update_transforms 原样保留：每次调用克隆排序索引、递归时克隆子骨骼列表、
+/// 物理骨骼用 HashSet 判断、每次 IK 求解克隆求解器。parent_to_world 为 crate 内字段，此处不写入。
+struct RecursiveBaseline {
+    links: Vec<BoneLink>,
+    sorted_indices: Vec<usize>,
+    children_cache: Vec<Vec<usize>>,
+    physics_bone_indices: HashSet<usize>,
+    ik_solvers: Vec<IkSolver>,
+    skinning_matrices: Vec<Mat4>,
+}
+
+impl RecursiveBaseline {
+    fn from_set(set: &BoneSet) -> Self {
+        let links: Vec<BoneLink> = set.links().cloned().collect();
+        let bone_count = links.len();
+        let mut sorted_indices: Vec<usize> = (0..bone_count).collect();
+        sorted_indices.sort_by(|&a, &b| links[a].transform_level.cmp(&links[b].transform_level));
+        let mut children_cache = vec![Vec::new(); bone_count];
+        for (i, link) in links.iter().enumerate() {
+            let parent_idx = link.parent_index;
+            if parent_idx >= 0 && (parent_idx as usize) < bone_count {
+                children_cache[parent_idx as usize].push(i);
+            }
+        }
+        let ik_solvers = links
+            .iter()
+            .enumerate()
+            .filter_map(|(i, bone)| bone.ik_config.clone().map(|config| IkSolver::new(i, config)))
+            .collect();
+        Self {
+            links,
+            sorted_indices,
+            children_cache,
+            physics_bone_indices: HashSet::new(),
+            ik_solvers,
+            skinning_matrices: vec![Mat4::IDENTITY; bone_count],
+        }
+    }
+
+    fn animate(&mut self, rng: &mut Rng) {
+        for bone in &mut self.links {
+            bone.reset_animation();
+        }
+        for bone in &mut self.links {
+            bone.animation_rotate =
+                Quat::from_rotation_x((rng.unit() - 0.5) * 0.2) * Quat::from_rotation_z((rng.unit() - 0.5) * 0.2);
+        }
+    }
+
+    fn end_update(&mut self) {
+        for i in 0..self.links.len() {
+            self.skinning_matrices[i] = self.links[i].get_skinning_matrix();
+        }
+    }
+
+    fn update_transforms(&mut self, after_physics: bool) {
+        for &idx in &self.sorted_indices.clone() {
+            if self.links[idx].deform_after_physics() != after_physics {
+                continue;
+            }
+            if self.physics_bone_indices.contains(&idx) {
+                continue;
+            }
+            self.links[idx].compute_local_transform();
+        }
+
+        for &idx in &self.sorted_indices.clone() {
+            if self.links[idx].deform_after_physics() != after_physics {
+                continue;
+            }
+            if self.links[idx].is_root() {
+                self.update_global_transform_recursive(idx);
+            }
+        }
+
+        for &idx in &self.sorted_indices.clone() {
+            if self.links[idx].deform_after_physics() != after_physics {
+                continue;
+            }
+            if self.links[idx].is_append_rotate() || self.links[idx].is_append_translate() {
+                self.apply_append_transform(idx);
+                self.update_global_transform_recursive(idx);
+            }
+            if self.links[idx].is_ik() {
+                self.solve_ik(idx);
+            }
+        }
+
+        for &idx in &self.sorted_indices.clone() {
+            if self.links[idx].deform_after_physics() != after_physics {
+                continue;
+            }
+            if self.links[idx].is_root() {
+                self.update_global_transform_recursive(idx);
+            }
+        }
+    }
+
+    fn update_global_transform_recursive(&mut self, index: usize) {
+        if self.physics_bone_indices.contains(&index) {
+            let children = self.children_cache[index].clone();
+            for child_idx in children {
+                self.update_global_transform_recursive(child_idx);
+            }
+            return;
+        }
+
+        let parent_idx = self.links[index].parent_index;
+        if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
+            let parent_global = self.links[parent_idx as usize].local_to_world;
+            self.links[index].local_to_world = parent_global * self.links[index].local_to_parent;
+        } else {
+            self.links[index].local_to_world = self.links[index].local_to_parent;
+        }
+
+        let children = self.children_cache[index].clone();
+        for child_idx in children {
+            self.update_global_transform_recursive(child_idx);
+        }
+    }
+
+    fn apply_append_transform(&mut self, index: usize) {
+        let append_config = match &self.links[index].append_config {
+            Some(config) => *config,
+            None => return,
+        };
+        let parent_idx = append_config.parent as usize;
+        if parent_idx >= self.links.len() {
+            return;
+        }
+        let rate = append_config.rate;
+        let is_append_local = self.links[index].is_append_local();
+        let parent_has_append = self.links[parent_idx].append_config.is_some();
+
+        if self.links[index].is_append_rotate() {
+            let append_rotate = if is_append_local || !parent_has_append {
+                self.links[parent_idx].animation_rotate
+            } else {
+                self.links[parent_idx].append_rotate
+            };
+            let append_rotate = if self.links[parent_idx].enable_ik() {
+                self.links[parent_idx].ik_rotate * append_rotate
+            } else {
+                append_rotate
+            };
+            self.links[index].append_rotate = Quat::IDENTITY.slerp(append_rotate, rate);
+        }
+
+        if self.links[index].is_append_translate() {
+            let append_translate = if is_append_local || !parent_has_append {
+                self.links[parent_idx].animation_translate
+            } else {
+                self.links[parent_idx].append_translate
+            };
+            self.links[index].append_translate = append_translate * rate;
+        }
+
+        self.links[index].compute_local_transform();
+    }
+
+    fn solve_ik(&mut self, bone_index: usize) {
+        if let Some(idx) = self.ik_solvers.iter().position(|s| s.bone_index == bone_index) {
+            let solver = self.ik_solvers[idx].clone();
+            solver.solve(&mut self.links, &self.children_cache);
+            self.update_global_transform_recursive(bone_index);
+        }
+    }
+}
+
+fn bench_bone_update(c: &mut Criterion) {
+    let mut group = c.benchmark_group("bone_update");
+
+    // 500 骨骼：典型 PMX；2000 骨骼宽层级：每层超过并行阈值
+    for &(bone_count, strand_length) in &[(500usize, 8usize), (2000, 6)] {
+        group.throughput(Throughput::Elements(bone_count as u64));
+
+        let mut baseline = RecursiveBaseline::from_set(&synthetic_skeleton(bone_count, strand_length));
+        let mut rng = Rng(0x9E37_79B9);
+        group.bench_with_input(BenchmarkId::new("recursive_baseline", bone_count), &bone_count, |b, _| {
+            b.iter(|| {
+                baseline.animate(&mut rng);
+                baseline.update_transforms(false);
+                baseline.update_transforms(true);
+                baseline.end_update();
+                black_box(&baseline.skinning_matrices);
+            })
+        });
+
+        let mut set = synthetic_skeleton(bone_count, strand_length);
+        set.set_parallel_levels(false);
+        let mut rng = Rng(0x9E37_79B9);
+        group.bench_with_input(BenchmarkId::new("serial", bone_count), &bone_count, |b, _| {
+            b.iter(|| {
+                animate(&mut set, &mut rng);
+                set.update_transforms(false);
+                set.update_transforms(true);
+                set.end_update();
+                black_box(set.get_skinning_matrices());
+            })
+        });
+
+        let mut set = synthetic_skeleton(bone_count, strand_length);
+        set.set_parallel_levels(true);
+        let mut rng = Rng(0x9E37_79B9);
+        group.bench_with_input(BenchmarkId::new("level_parallel", bone_count), &bone_count, |b, _| {
+            b.iter(|| {
+                animate(&mut set, &mut rng);
+                set.update_transforms(false);
+                set.update_transforms(true);
+                set.end_update();
+                black_box(set.get_skinning_matrices());
+            })
+        });
+    }
+    group.finish();
+}
+
+criterion_group!(benches, bench_bone_update);
+criterion_main!(benches);
@@ -0,0 +1,26 @@
+//! 基准共用的测试数据工具
+
+// 各基准只用到其中一部分
+#![allow(dead_code)]
+
+/// 确定性伪随机（xorshift32），保证每次运行数据一致
+pub struct Rng(pub u32);
+
+impl Rng {
+    pub fn next(&mut self) -> u32 {
+        self.0 ^= self.0 << 13;
+        self.0 ^= self.0 >> 17;
+        self.0 ^= self.0 << 5;
+        self.0
+    }
+
+    /// [0, 1) 均匀分布
+    pub fn unit(&mut self) -> f32 {
+        (self.next() >> 8) as f32 / (1u32 << 24) as f32
+    }
+
+    /// [0, n) 的整数
+    pub fn below(&mut self, n: usize) -> usize {
+        self.next() as usize % n
+    }
+}
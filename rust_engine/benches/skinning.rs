@@ -0,0 +1,114 @@
+//! CPU 蒙皮基准：逐顶点枚举分派（skinning::compute_skinning）对比分批 SIMD 内核
+//!
+//! 运行：cargo bench --bench skinning
+
+mod common;
+
+use criterion::{black_box, criterion_group, criterion_main, BenchmarkId, Criterion, Throughput};
+use glam::{EulerRot, Mat4, Quat, Vec3};
+use mmd_engine::model::VertexWeight;
+use mmd_engine::skinning::{compute_skinning, SkinningBatches, SkinningInput, SkinningPalette};
+
+use common::Rng;
+
+const BONE_COUNT: usize = 220;
+
+fn bone(rng: &mut Rng) -> i32 {
+    rng.below(BONE_COUNT) as i32
+}
+
+/// 典型角色模型的权重分布：BDEF2 为主，少量 BDEF4/BDEF1/SDEF
+fn synthetic_model(vertex_count: usize) -> (Vec<Vec3>, Vec<Vec3>, Vec<VertexWeight>) {
+    let mut rng = Rng(0x9E37_79B9);
+    let mut positions = Vec::with_capacity(vertex_count);
+    let mut normals = Vec::with_capacity(vertex_count);
+    let mut weights = Vec::with_capacity(vertex_count);
+    for _ in 0..vertex_count {
+        positions.push(Vec3::new(rng.unit() - 0.5, rng.unit() * 20.0, rng.unit() - 0.5));
+        normals.push(Vec3::new(rng.unit() - 0.5, rng.unit() - 0.5, rng.unit() - 0.5).normalize_or_zero());
+        let kind = rng.next() % 100;
+        weights.push(if kind < 55 {
+            VertexWeight::Bdef2 { bones: [bone(&mut rng), bone(&mut rng)], weight: rng.unit() }
+        } else if kind < 80 {
+            let a = rng.unit();
+            let b = (1.0 - a) * rng.unit();
+            let c = (1.0 - a - b) * rng.unit();
+            VertexWeight::Bdef4 {
+                bones: [bone(&mut rng), bone(&mut rng), bone(&mut rng), bone(&mut rng)],
+                weights: [a, b, c, 1.0 - a - b - c],
+            }
+        } else if kind < 95 {
+            VertexWeight::Bdef1 { bone: bone(&mut rng) }
+        } else {
+            VertexWeight::Sdef {
+                bones: [bone(&mut rng), bone(&mut rng)],
+                weight: rng.unit(),
+                c: Vec3::new(0.0, rng.unit() * 20.0, 0.0),
+                r0: Vec3::new(rng.unit(), 0.0, 0.0),
+                r1: Vec3::new(0.0, 0.0, rng.unit()),
+            }
+        });
+    }
+    (positions, normals, weights)
+}
+
+fn bone_matrices() -> Vec<Mat4> {
+    let mut rng = Rng(0x1234_5678);
+    (0..BONE_COUNT)
+        .map(|_| {
+            Mat4::from_rotation_translation(
+                Quat::from_euler(EulerRot::YXZ, rng.unit() * 3.0, rng.unit() - 0.5, rng.unit() - 0.5),
+                Vec3::new(rng.unit(), rng.unit(), rng.unit()),
+            )
+        })
+        .collect()
+}
+
+fn bench_skinning(c: &mut Criterion) {
+    let matrices = bone_matrices();
+    let mut group = c.benchmark_group("cpu_skinning");
+
+    for &vertex_count in &[20_000usize, 100_000] {
+        let (positions, normals, weights) = synthetic_model(vertex_count);
+        group.throughput(Throughput::Elements(vertex_count as u64));
+
+        group.bench_with_input(BenchmarkId::new("enum_dispatch", vertex_count), &vertex_count, |b, _| {
+            b.iter(|| {
+                compute_skinning(black_box(&SkinningInput {
+                    positions: &positions,
+                    normals: &normals,
+                    weights: &weights,
+                    bone_matrices: &matrices,
+                }))
+            })
+        });
+
+        let batches = SkinningBatches::build(&weights, &normals, matrices.len());
+        let mut palette = SkinningPalette::default();
+        let mut pos = positions.clone();
+        let mut nor = vec![Vec3::ZERO; vertex_count];
+        let mut pos_raw = vec![0.0f32; vertex_count * 3];
+        let mut nor_raw = vec![0.0f32; vertex_count * 3];
+
+        // 每次迭代都包含调色板派生，与运行时每帧的开销一致
+        group.bench_with_input(BenchmarkId::new("batched_simd", vertex_count), &vertex_count, |b, _| {
+            b.iter(|| {
+                pos.copy_from_slice(&positions);
+                palette.update(black_box(&matrices), batches.has_sdef(), batches.has_qdef());
+                batches.skin_serial(&palette, &mut pos, &mut nor, &mut pos_raw, &mut nor_raw);
+            })
+        });
+
+        group.bench_with_input(BenchmarkId::new("batched_simd_rayon", vertex_count), &vertex_count, |b, _| {
+            b.iter(|| {
+                pos.copy_from_slice(&positions);
+                palette.update(black_box(&matrices), batches.has_sdef(), batches.has_qdef());
+                batches.skin(&palette, &mut pos, &mut nor, &mut pos_raw, &mut nor_raw);
+            })
+        });
+    }
+    group.finish();
+}
+
+criterion_group!(benches, bench_skinning);
+criterion_main!(benches);
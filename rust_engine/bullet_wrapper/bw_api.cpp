@@ -88,8 +88,13 @@ static void bt_to_mat4(const btTransform& t, float* m) {
 
 /* ===== 物理世界 ===== */
 
-// 运动学-动态碰撞过滤回调（宽相阶段拦截，解决头发穿透胸部抖动）
-struct KinematicDynamicFilter : public btOverlapFilterCallback {
+// 宽相碰撞过滤回调
+// - kinematic：拦截运动学-动态刚体对（解决头发穿透胸部抖动）
+// - owners：共享世界中不同模型的刚体互不碰撞（刚体 userIndex 记录所属模型，-1 表示未归属）
+struct BW_OverlapFilter : public btOverlapFilterCallback {
+    bool kinematic = false;
+    bool owners = false;
+
     bool needBroadphaseCollision(btBroadphaseProxy* proxy0, btBroadphaseProxy* proxy1) const override {
         bool collides = (proxy0->m_collisionFilterGroup & proxy1->m_collisionFilterMask) != 0;
         collides = collides && (proxy1->m_collisionFilterGroup & proxy0->m_collisionFilterMask) != 0;
@@ -99,9 +104,9 @@ struct KinematicDynamicFilter : public btOverlapFilterCallback {
         auto* obj1 = static_cast<btCollisionObject*>(proxy1->m_clientObject);
         if (!obj0 || !obj1) return true;
 
-        bool k0 = obj0->isKinematicObject();
-        bool k1 = obj1->isKinematicObject();
-        if (k0 != k1) return false;
+        if (owners && obj0->getUserIndex() != obj1->getUserIndex()) return false;
+
+        if (kinematic && obj0->isKinematicObject() != obj1->isKinematicObject()) return false;
 
         return true;
     }
@@ -113,9 +118,25 @@ struct BW_World {
     btDbvtBroadphase* broadphase;
     btSequentialImpulseConstraintSolver* solver;
     btDiscreteDynamicsWorld* world;
-    KinematicDynamicFilter* kinematicFilter;
+    BW_OverlapFilter* overlapFilter;
 };
 
+// 任一过滤开关启用时安装回调，全部关闭时移除
+static void bw_world_update_filter(BW_World* w, bool kinematic, bool owners) {
+    if (kinematic || owners) {
+        if (!w->overlapFilter) {
+            w->overlapFilter = new BW_OverlapFilter();
+        }
+        w->overlapFilter->kinematic = kinematic;
+        w->overlapFilter->owners = owners;
+        w->world->getPairCache()->setOverlapFilterCallback(w->overlapFilter);
+    } else {
+        w->world->getPairCache()->setOverlapFilterCallback(nullptr);
+        delete w->overlapFilter;
+        w->overlapFilter = nullptr;
+    }
+}
+
 BW_World* bw_world_create(float gravity_x, float gravity_y, float gravity_z) {
     BW_TRY
     BW_World* w = new BW_World();
@@ -126,7 +147,7 @@ BW_World* bw_world_create(float gravity_x, float gravity_y, float gravity_z) {
     w->world      = new btDiscreteDynamicsWorld(
         w->dispatcher, w->broadphase, w->solver, w->config);
     w->world->setGravity(btVector3(gravity_x, gravity_y, gravity_z));
-    w->kinematicFilter = nullptr;
+    w->overlapFilter = nullptr;
     g_alloc_worlds.fetch_add(1, std::memory_order_relaxed);
     return w;
     BW_CATCH_NULL
@@ -134,7 +155,7 @@ BW_World* bw_world_create(float gravity_x, float gravity_y, float gravity_z) {
 
 void bw_world_destroy(BW_World* w) {
     if (!w) return;
-    delete w->kinematicFilter;
+    delete w->overlapFilter;
     delete w->world;
     delete w->solver;
     delete w->broadphase;
@@ -180,15 +201,34 @@ void bw_world_remove_constraint(BW_World* w, BW_Constraint* c) {
 
 void bw_world_set_kinematic_filter(BW_World* w, bool enabled) {
     if (!w) return;
-    if (enabled) {
-        if (!w->kinematicFilter) {
-            w->kinematicFilter = new KinematicDynamicFilter();
+    bw_world_update_filter(w, enabled, w->overlapFilter && w->overlapFilter->owners);
+}
+
+void bw_world_set_owner_filter(BW_World* w, bool enabled) {
+    if (!w) return;
+    bw_world_update_filter(w, w->overlapFilter && w->overlapFilter->kinematic, enabled);
+}
+
+void bw_world_clamp_velocities(BW_World* w, float max_linear, float max_angular) {
+    if (!w) return;
+    btScalar max_lin_sq = max_linear * max_linear;
+    btScalar max_ang_sq = max_angular * max_angular;
+    btAlignedObjectArray<btRigidBody*>& bodies = w->world->getNonStaticRigidBodies();
+    for (int i = 0; i < bodies.size(); i++) {
+        btRigidBody* body = bodies[i];
+        if (body->isKinematicObject()) continue;
+
+        const btVector3& lin = body->getLinearVelocity();
+        btScalar lin_sq = lin.length2();
+        if (lin_sq > max_lin_sq) {
+            body->setLinearVelocity(lin * (max_linear / btSqrt(lin_sq)));
+        }
+
+        const btVector3& ang = body->getAngularVelocity();
+        btScalar ang_sq = ang.length2();
+        if (ang_sq > max_ang_sq) {
+            body->setAngularVelocity(ang * (max_angular / btSqrt(ang_sq)));
         }
-        w->world->getPairCache()->setOverlapFilterCallback(w->kinematicFilter);
-    } else {
-        w->world->getPairCache()->setOverlapFilterCallback(nullptr);
-        delete w->kinematicFilter;
-        w->kinematicFilter = nullptr;
     }
 }
 
@@ -295,6 +335,32 @@ void bw_rigid_body_set_transform(BW_RigidBody* rb, const float* matrix4x4) {
     body->getMotionState()->setWorldTransform(t);
 }
 
+void bw_rigid_bodies_get_transforms(BW_RigidBody* const* rbs, int count, float* matrices) {
+    if (!rbs || !matrices) return;
+    btTransform t;
+    for (int i = 0; i < count; i++) {
+        if (!rbs[i]) continue;
+        ((btRigidBody*)rbs[i])->getMotionState()->getWorldTransform(t);
+        bt_to_mat4(t, matrices + i * 16);
+    }
+}
+
+void bw_rigid_bodies_set_transforms(BW_RigidBody* const* rbs, int count, const float* matrices) {
+    if (!rbs || !matrices) return;
+    for (int i = 0; i < count; i++) {
+        if (!rbs[i]) continue;
+        btRigidBody* body = (btRigidBody*)rbs[i];
+        btTransform t = mat4_to_bt(matrices + i * 16);
+        body->setWorldTransform(t);
+        body->getMotionState()->setWorldTransform(t);
+    }
+}
+
+void bw_rigid_body_set_owner(BW_RigidBody* rb, int owner) {
+    if (!rb) return;
+    ((btRigidBody*)rb)->setUserIndex(owner);
+}
+
 void bw_rigid_body_get_position(BW_RigidBody* rb, float* x, float* y, float* z) {
     if (!rb) return;
     btRigidBody* body = (btRigidBody*)rb;
@@ -68,6 +68,8 @@ void bw_world_remove_rigid_body(BW_World* world, BW_RigidBody* rb);
 void bw_world_add_constraint(BW_World* world, BW_Constraint* c, bool disable_collision);
 void bw_world_remove_constraint(BW_World* world, BW_Constraint* c);
 void bw_world_set_kinematic_filter(BW_World* world, bool enabled);
+void bw_world_set_owner_filter(BW_World* world, bool enabled);
+void bw_world_clamp_velocities(BW_World* world, float max_linear, float max_angular);
 
 /* ===== 碰撞形状 ===== */
 BW_Shape* bw_shape_sphere(float radius);
@@ -80,6 +82,11 @@ BW_RigidBody* bw_rigid_body_create(const BW_RigidBodyInfo* info);
 void bw_rigid_body_destroy(BW_RigidBody* rb);
 void bw_rigid_body_get_transform(BW_RigidBody* rb, float* matrix4x4);
 void bw_rigid_body_set_transform(BW_RigidBody* rb, const float* matrix4x4);
+/* 批量读写（matrices 为 count 个连续的 4x4 列主序矩阵） */
+void bw_rigid_bodies_get_transforms(BW_RigidBody* const* rbs, int count, float* matrices);
+void bw_rigid_bodies_set_transforms(BW_RigidBody* const* rbs, int count, const float* matrices);
+/* 所属模型编号（共享世界的模型间碰撞过滤） */
+void bw_rigid_body_set_owner(BW_RigidBody* rb, int owner);
 void bw_rigid_body_get_position(BW_RigidBody* rb, float* x, float* y, float* z);
 void bw_rigid_body_get_rotation(BW_RigidBody* rb, float* x, float* y, float* z, float* w);
 void bw_rigid_body_set_linear_velocity(BW_RigidBody* rb, float x, float y, float z);
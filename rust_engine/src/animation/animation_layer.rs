@@ -10,11 +10,12 @@ use std::collections::HashMap;
 use std::sync::Arc;
 
 use glam::{Vec3, Quat};
+use once_cell::sync::OnceCell;
 
 use crate::skeleton::BoneManager;
 use crate::morph::MorphManager;
 
-use super::VmdAnimation;
+use super::{AnimationBinding, VmdAnimation};
 
 // ============================================================================
 // 姿态快照
@@ -128,8 +129,10 @@ pub struct AnimationLayer {
     pub id: usize,
     /// 层名称
     pub name: String,
-    /// 当前动画
+    /// 当前动画（片段在模型之间共享）
     animation: Option<Arc<VmdAnimation>>,
+    /// 当前动画到本模型的绑定表（首次评估时构建，切换动画时重置）
+    binding: OnceCell<AnimationBinding>,
     /// 当前播放帧
     current_frame: f32,
     /// 当前状态
@@ -160,6 +163,7 @@ impl AnimationLayer {
             id,
             name: name.into(),
             animation: None,
+            binding: OnceCell::new(),
             current_frame: 0.0,
             state: AnimationLayerState::Stopped,
             config: AnimationLayerConfig::default(),
@@ -175,6 +179,7 @@ impl AnimationLayer {
     /// 设置动画（无过渡，直接替换）
     pub fn set_animation(&mut self, animation: Option<Arc<VmdAnimation>>) {
         self.animation = animation;
+        self.binding = OnceCell::new();
         self.current_frame = 0.0;
         self.state = AnimationLayerState::Stopped;
         self.effective_weight = 0.0;
@@ -202,6 +207,7 @@ impl AnimationLayer {
         
         // 设置新动画
         self.animation = animation;
+        self.binding = OnceCell::new();
         self.current_frame = 0.0;
         
         if transition_time > 0.0 && !snapshot.is_empty() {
@@ -400,7 +406,9 @@ impl AnimationLayer {
             self.evaluate_transition(bone_manager, morph_manager);
         } else if let Some(ref animation) = self.animation {
             if self.effective_weight > 0.001 {
-                animation.evaluate_with_weight(
+                let binding = self.binding.get_or_init(|| animation.bind(bone_manager, morph_manager));
+                animation.evaluate_bound(
+                    binding,
                     self.current_frame,
                     self.effective_weight,
                     bone_manager,
@@ -419,7 +427,9 @@ impl AnimationLayer {
         
         // 先应用新动画（权重 = 1.0，获取完整的新动画姿态）
         if let Some(ref animation) = self.animation {
-            animation.evaluate_with_weight(
+            let binding = self.binding.get_or_init(|| animation.bind(bone_manager, morph_manager));
+            animation.evaluate_bound(
+                binding,
                 self.current_frame,
                 self.effective_weight,
                 bone_manager,
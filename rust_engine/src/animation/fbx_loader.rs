@@ -629,9 +629,10 @@ pub fn apply_arm_retarget_correction(
         );
 
         if let Some(track) = animation.motion_mut().bone_tracks.get_mut(upper) {
-            for kf in track.keyframes.values_mut() {
+            for kf in track.keyframes_mut() {
                 kf.orientation = (kf.orientation * correction).normalize();
             }
+            track.bake();
         }
     }
 }
@@ -17,8 +17,8 @@ pub mod fbx_loader;
 pub use bezier_curve::{BezierCurve, BezierCurveCache, Curve};
 pub use interpolation::{KeyframeInterpolationPoint, BoneKeyframeInterpolation};
 pub use keyframe::{BoneKeyframe, MorphKeyframe, CameraKeyframe, CameraInterpolation};
-pub use motion_track::{MotionTrack, BoneMotionTrack, MorphMotionTrack, BoneFrameTransform, CameraMotionTrack, CameraFrameTransform};
+pub use motion_track::{MotionTrack, BoneMotionTrack, MorphMotionTrack, BoneFrameTransform, CameraMotionTrack, CameraFrameTransform, KeyframeCursor};
 pub use motion::Motion;
-pub use vmd_loader::{VmdFile, VmdAnimation};
+pub use vmd_loader::{VmdFile, VmdAnimation, AnimationBinding};
 pub use vpd_file::{VpdFile, VpdBone, VpdMorph};
 pub use animation_layer::{AnimationLayer, AnimationLayerManager, AnimationLayerState, AnimationLayerConfig, PoseSnapshot, BonePose};
@@ -5,7 +5,7 @@
 use std::collections::HashMap;
 
 use super::bezier_curve::BezierCurveCache;
-use super::motion_track::{BoneMotionTrack, MorphMotionTrack, IkMotionTrack, CameraMotionTrack, MotionTrack, BoneFrameTransform, CameraFrameTransform};
+use super::motion_track::{BoneMotionTrack, MorphMotionTrack, IkMotionTrack, CameraMotionTrack, MotionTrack, BoneFrameTransform, CameraFrameTransform, KeyframeCursor};
 use super::keyframe::{BoneKeyframe, MorphKeyframe, IkKeyframe, CameraKeyframe};
 
 /// 动画数据
@@ -182,6 +182,36 @@ impl Motion {
         }
     }
 
+    /// 采样指定骨骼轨道（轨道需属于本 Motion，用于已绑定的评估路径，省去按名称查找）
+    pub fn seek_bone_track(
+        &self,
+        track: &BoneMotionTrack,
+        frame_index: u32,
+        amount: f32,
+        cursor: &KeyframeCursor,
+    ) -> BoneFrameTransform {
+        track.seek_precisely_with_cursor(frame_index, amount, cursor, &self.bezier_cache)
+    }
+
+    /// 采样指定 Morph 轨道（轨道需属于本 Motion）
+    pub fn seek_morph_track(
+        &self,
+        track: &MorphMotionTrack,
+        frame_index: u32,
+        amount: f32,
+        cursor: &KeyframeCursor,
+    ) -> f32 {
+        track.seek_precisely_with_cursor(frame_index, amount, cursor)
+    }
+
+    /// 烘焙所有轨道的采样数组（加载完成后调用，避免播放首帧构建）
+    pub fn bake(&self) {
+        self.bone_tracks.values().for_each(BoneMotionTrack::bake);
+        self.morph_tracks.values().for_each(MorphMotionTrack::bake);
+        self.ik_tracks.values().for_each(IkMotionTrack::bake);
+        self.camera_track.bake();
+    }
+
     /// 获取骨骼轨道名称列表
     pub fn bone_track_names(&self) -> impl Iterator<Item = &String> {
         self.bone_tracks.keys()
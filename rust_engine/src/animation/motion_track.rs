@@ -1,9 +1,12 @@
 //! 动画轨道 - 复刻 mdanceio 实现
 //!
-//! 存储单个骨骼或 Morph 的所有关键帧，并提供查找和插值功能
+//! 存储单个骨骼或 Morph 的所有关键帧，并提供查找和插值功能。
+//! 采样前轨道烘焙为按帧号排序的平铺数组，以二分查找 + 游标定位关键帧区间。
 
 use std::collections::BTreeMap;
+use std::sync::atomic::{AtomicU32, Ordering};
 use glam::{Vec3, Quat, Mat4};
+use once_cell::sync::OnceCell;
 
 use super::bezier_curve::BezierCurveFactory;
 use super::interpolation::{
@@ -62,19 +65,75 @@ impl BoneFrameTransform {
     }
 }
 
+/// 关键帧游标
+///
+/// 记录上一次采样所在的区间（第一个帧号大于采样帧的关键帧位置）。
+/// 正常播放时采样帧单调递增，只需检查当前或下一个区间；跳转、循环时回退到二分查找。
+/// 使用原子变量以便在共享的 `&self` 评估路径中更新（每个动画层独占，无竞争）。
+#[derive(Debug, Default)]
+pub struct KeyframeCursor(AtomicU32);
+
+impl KeyframeCursor {
+    pub fn new() -> Self {
+        Self::default()
+    }
+
+    /// 返回 `frames` 中第一个帧号大于 `frame_index` 的位置
+    pub fn locate(&self, frames: &[u32], frame_index: u32) -> usize {
+        let hint = self.0.load(Ordering::Relaxed) as usize;
+        let pos = if is_upper_bound(frames, hint, frame_index) {
+            hint
+        } else if is_upper_bound(frames, hint + 1, frame_index) {
+            hint + 1
+        } else {
+            upper_bound(frames, frame_index)
+        };
+        self.0.store(pos as u32, Ordering::Relaxed);
+        pos
+    }
+}
+
+/// 二分查找第一个帧号大于 `frame_index` 的位置
+#[inline]
+fn upper_bound(frames: &[u32], frame_index: u32) -> usize {
+    frames.partition_point(|&f| f <= frame_index)
+}
+
+/// `pos` 是否恰为 `frame_index` 的上界位置
+#[inline]
+fn is_upper_bound(frames: &[u32], pos: usize, frame_index: u32) -> bool {
+    pos <= frames.len()
+        && (pos == 0 || frames[pos - 1] <= frame_index)
+        && (pos == frames.len() || frames[pos] > frame_index)
+}
+
+#[inline]
+fn locate(frames: &[u32], frame_index: u32, cursor: Option<&KeyframeCursor>) -> usize {
+    match cursor {
+        Some(cursor) => cursor.locate(frames, frame_index),
+        None => upper_bound(frames, frame_index),
+    }
+}
+
+/// 由上界位置得到前后关键帧下标
+#[inline]
+fn neighbors(len: usize, pos: usize) -> (Option<usize>, Option<usize>) {
+    (pos.checked_sub(1), (pos < len).then_some(pos))
+}
+
 /// 动画轨道 trait
 pub trait MotionTrack {
     type Frame;
-    
+
     /// 查找精确帧
     fn find(&self, frame_index: u32) -> Option<Self::Frame>;
-    
+
     /// 查找最近的前后帧索引
     fn search_closest(&self, frame_index: u32) -> (Option<u32>, Option<u32>);
-    
+
     /// 求值指定帧
     fn seek(&self, frame_index: u32, bezier_factory: &dyn BezierCurveFactory) -> Self::Frame;
-    
+
     /// 精确求值（支持帧间插值）
     fn seek_precisely(
         &self,
@@ -82,207 +141,260 @@ pub trait MotionTrack {
         amount: f32,
         bezier_factory: &dyn BezierCurveFactory,
     ) -> Self::Frame;
-    
+
     /// 获取轨道长度
     fn len(&self) -> usize;
-    
+
     /// 是否为空
     fn is_empty(&self) -> bool {
         self.len() == 0
     }
-    
+
     /// 获取最大帧索引
     fn max_frame_index(&self) -> u32;
 }
 
+/// 烘焙后的骨骼轨道：按帧号排序的平铺数组（结构体数组布局）
+#[derive(Debug, Clone, Default)]
+struct BakedBoneTrack {
+    frame_indices: Vec<u32>,
+    translations: Vec<Vec3>,
+    orientations: Vec<Quat>,
+    /// 插值参数 [x, y, z, r]
+    interpolations: Vec<[[u8; 4]; 4]>,
+    physics_enabled: Vec<bool>,
+}
+
+impl BakedBoneTrack {
+    fn build(keyframes: &BTreeMap<u32, BoneKeyframe>) -> Self {
+        let n = keyframes.len();
+        let mut baked = Self {
+            frame_indices: Vec::with_capacity(n),
+            translations: Vec::with_capacity(n),
+            orientations: Vec::with_capacity(n),
+            interpolations: Vec::with_capacity(n),
+            physics_enabled: Vec::with_capacity(n),
+        };
+        for (&frame_index, kf) in keyframes {
+            baked.frame_indices.push(frame_index);
+            baked.translations.push(kf.translation);
+            baked.orientations.push(kf.orientation);
+            baked.interpolations.push([
+                kf.interpolation_x,
+                kf.interpolation_y,
+                kf.interpolation_z,
+                kf.interpolation_r,
+            ]);
+            baked.physics_enabled.push(kf.is_physics_simulation_enabled);
+        }
+        baked
+    }
+
+    fn interpolation(&self, i: usize) -> BoneKeyframeInterpolation {
+        let [x, y, z, r] = &self.interpolations[i];
+        BoneKeyframeInterpolation::build(x, y, z, r)
+    }
+
+    /// 直接取第 i 个关键帧的数据
+    fn keyframe_transform(&self, i: usize) -> BoneFrameTransform {
+        BoneFrameTransform {
+            translation: self.translations[i],
+            orientation: self.orientations[i],
+            interpolation: self.interpolation(i),
+            local_transform_mix: None,
+            enable_physics: self.physics_enabled[i],
+            disable_physics: false,
+        }
+    }
+}
+
 /// 骨骼动画轨道
+///
+/// 关键帧以 BTreeMap 存储便于编辑，采样使用首次访问时烘焙的平铺数组（二分查找 + 游标）
 #[derive(Debug, Clone)]
 pub struct BoneMotionTrack {
-    /// 关键帧映射（帧索引 -> 关键帧）
+    /// 关键帧映射（帧索引 -> 关键帧），直接修改后需调用 `invalidate`
     pub keyframes: BTreeMap<u32, BoneKeyframe>,
+    baked: OnceCell<BakedBoneTrack>,
 }
 
 impl BoneMotionTrack {
     pub fn new() -> Self {
         Self {
             keyframes: BTreeMap::new(),
+            baked: OnceCell::new(),
         }
     }
 
     /// 插入关键帧
     pub fn insert_keyframe(&mut self, keyframe: BoneKeyframe) -> Option<BoneKeyframe> {
+        self.baked.take();
         self.keyframes.insert(keyframe.frame_index, keyframe)
     }
 
     /// 移除关键帧
     pub fn remove_keyframe(&mut self, frame_index: u32) -> Option<BoneKeyframe> {
+        self.baked.take();
         self.keyframes.remove(&frame_index)
     }
 
-    /// 查找最近的前后关键帧
-    fn search_closest_keyframes(&self, frame_index: u32) -> (Option<&BoneKeyframe>, Option<&BoneKeyframe>) {
-        let mut prev = None;
-        let mut next = None;
-        
-        for (idx, kf) in &self.keyframes {
-            if *idx <= frame_index {
-                prev = Some(kf);
-            } else {
-                next = Some(kf);
-                break;
-            }
-        }
-        
-        (prev, next)
+    /// 可变遍历所有关键帧（自动使烘焙数据失效）
+    pub fn keyframes_mut(&mut self) -> impl Iterator<Item = &mut BoneKeyframe> {
+        self.baked.take();
+        self.keyframes.values_mut()
     }
-}
 
-impl Default for BoneMotionTrack {
-    fn default() -> Self {
-        Self::new()
+    /// 丢弃烘焙数据（直接修改 `keyframes` 后调用）
+    pub fn invalidate(&mut self) {
+        self.baked.take();
     }
-}
 
-impl MotionTrack for BoneMotionTrack {
-    type Frame = BoneFrameTransform;
+    /// 预先烘焙采样数组（加载时调用，避免首帧构建）
+    pub fn bake(&self) {
+        self.baked();
+    }
 
-    fn find(&self, frame_index: u32) -> Option<Self::Frame> {
-        self.keyframes.get(&frame_index).map(|kf| BoneFrameTransform {
-            translation: kf.translation,
-            orientation: kf.orientation,
-            interpolation: BoneKeyframeInterpolation::build(
-                &kf.interpolation_x,
-                &kf.interpolation_y,
-                &kf.interpolation_z,
-                &kf.interpolation_r,
-            ),
-            local_transform_mix: None,
-            enable_physics: kf.is_physics_simulation_enabled,
-            disable_physics: false,
-        })
+    fn baked(&self) -> &BakedBoneTrack {
+        self.baked.get_or_init(|| BakedBoneTrack::build(&self.keyframes))
     }
 
-    fn search_closest(&self, frame_index: u32) -> (Option<u32>, Option<u32>) {
-        let mut prev = None;
-        let mut next = None;
-        
-        for idx in self.keyframes.keys() {
-            if *idx <= frame_index {
-                prev = Some(*idx);
-            } else {
-                next = Some(*idx);
-                break;
+    /// 使用游标精确求值（播放路径，正常推进时为 O(1) 查找）
+    pub fn seek_precisely_with_cursor(
+        &self,
+        frame_index: u32,
+        amount: f32,
+        cursor: &KeyframeCursor,
+        bezier_factory: &dyn BezierCurveFactory,
+    ) -> BoneFrameTransform {
+        self.seek_precisely_located(frame_index, amount, Some(cursor), bezier_factory)
+    }
+
+    fn seek_precisely_located(
+        &self,
+        frame_index: u32,
+        amount: f32,
+        cursor: Option<&KeyframeCursor>,
+        bezier_factory: &dyn BezierCurveFactory,
+    ) -> BoneFrameTransform {
+        let f0 = self.seek_located(frame_index, cursor, bezier_factory);
+
+        if amount > 0.0 {
+            let f1 = self.seek_located(frame_index.saturating_add(1), cursor, bezier_factory);
+
+            let local_transform_mix = match (f0.local_transform_mix, f1.local_transform_mix) {
+                (Some(a0), Some(a1)) => Some(lerp_f32(a0, a1, amount)),
+                (None, Some(a1)) => Some(amount * a1),
+                (Some(a0), None) => Some((1.0 - amount) * a0),
+                _ => None,
+            };
+
+            BoneFrameTransform {
+                translation: f0.translation.lerp(f1.translation, amount),
+                orientation: f0.orientation.slerp(f1.orientation, amount),
+                interpolation: f0.interpolation.lerp(f1.interpolation, amount),
+                local_transform_mix,
+                enable_physics: f0.enable_physics && f1.enable_physics,
+                disable_physics: f0.disable_physics || f1.disable_physics,
             }
+        } else {
+            f0
         }
-        
-        (prev, next)
     }
 
-    fn seek(&self, frame_index: u32, bezier_factory: &dyn BezierCurveFactory) -> Self::Frame {
+    fn seek_located(
+        &self,
+        frame_index: u32,
+        cursor: Option<&KeyframeCursor>,
+        bezier_factory: &dyn BezierCurveFactory,
+    ) -> BoneFrameTransform {
+        let baked = self.baked();
+        let frames = &baked.frame_indices;
+        let pos = locate(frames, frame_index, cursor);
+
         // 精确匹配
-        if let Some(frame) = self.find(frame_index) {
-            return frame;
+        if pos > 0 && frames[pos - 1] == frame_index {
+            return baked.keyframe_transform(pos - 1);
         }
-        
-        // 查找前后关键帧
-        let (prev_kf, next_kf) = self.search_closest_keyframes(frame_index);
-        
-        match (prev_kf, next_kf) {
+
+        match neighbors(frames.len(), pos) {
             (Some(prev), Some(next)) => {
-                let interval = next.frame_index - prev.frame_index;
-                let coef = coefficient(prev.frame_index, next.frame_index, frame_index);
-                
-                let prev_enabled = prev.is_physics_simulation_enabled;
-                let next_enabled = next.is_physics_simulation_enabled;
-                
+                let prev_frame = frames[prev];
+                let next_frame = frames[next];
+                let interval = next_frame - prev_frame;
+                let coef = coefficient(prev_frame, next_frame, frame_index);
+
+                let prev_enabled = baked.physics_enabled[prev];
+                let next_enabled = baked.physics_enabled[next];
+
                 // 物理状态变化处理
                 if prev_enabled && !next_enabled {
                     BoneFrameTransform {
-                        translation: next.translation,
-                        orientation: next.orientation,
-                        interpolation: BoneKeyframeInterpolation::build(
-                            &next.interpolation_x,
-                            &next.interpolation_y,
-                            &next.interpolation_z,
-                            &next.interpolation_r,
-                        ),
+                        translation: baked.translations[next],
+                        orientation: baked.orientations[next],
+                        interpolation: baked.interpolation(next),
                         local_transform_mix: Some(coef),
                         enable_physics: false,
                         disable_physics: true,
                     }
                 } else {
                     // 正常插值
-                    let translation_interpolation = [
-                        KeyframeInterpolationPoint::new(&next.interpolation_x),
-                        KeyframeInterpolationPoint::new(&next.interpolation_y),
-                        KeyframeInterpolationPoint::new(&next.interpolation_z),
-                    ];
-                    
+                    let [ix, iy, iz, ir] = &baked.interpolations[next];
+
                     let amounts = Vec3::new(
-                        translation_interpolation[0].curve_value(interval, coef, bezier_factory),
-                        translation_interpolation[1].curve_value(interval, coef, bezier_factory),
-                        translation_interpolation[2].curve_value(interval, coef, bezier_factory),
+                        KeyframeInterpolationPoint::new(ix).curve_value(interval, coef, bezier_factory),
+                        KeyframeInterpolationPoint::new(iy).curve_value(interval, coef, bezier_factory),
+                        KeyframeInterpolationPoint::new(iz).curve_value(interval, coef, bezier_factory),
                     );
-                    
-                    let translation = lerp_element_wise(prev.translation, next.translation, amounts);
-                    
-                    let orientation_interpolation = KeyframeInterpolationPoint::new(&next.interpolation_r);
-                    let amount = orientation_interpolation.curve_value(interval, coef, bezier_factory);
-                    let orientation = prev.orientation.slerp(next.orientation, amount);
-                    
+
+                    let translation = lerp_element_wise(baked.translations[prev], baked.translations[next], amounts);
+
+                    let amount = KeyframeInterpolationPoint::new(ir).curve_value(interval, coef, bezier_factory);
+                    let orientation = baked.orientations[prev].slerp(baked.orientations[next], amount);
+
                     BoneFrameTransform {
                         translation,
                         orientation,
-                        interpolation: BoneKeyframeInterpolation::build(
-                            &next.interpolation_x,
-                            &next.interpolation_y,
-                            &next.interpolation_z,
-                            &next.interpolation_r,
-                        ),
+                        interpolation: baked.interpolation(next),
                         local_transform_mix: None,
                         enable_physics: prev_enabled && next_enabled,
                         disable_physics: false,
                     }
                 }
             }
-            (Some(prev), None) => {
-                // 只有前帧，使用前帧数据
-                BoneFrameTransform {
-                    translation: prev.translation,
-                    orientation: prev.orientation,
-                    interpolation: BoneKeyframeInterpolation::build(
-                        &prev.interpolation_x,
-                        &prev.interpolation_y,
-                        &prev.interpolation_z,
-                        &prev.interpolation_r,
-                    ),
-                    local_transform_mix: None,
-                    enable_physics: prev.is_physics_simulation_enabled,
-                    disable_physics: false,
-                }
-            }
-            (None, Some(next)) => {
-                // 只有后帧，使用后帧数据
-                BoneFrameTransform {
-                    translation: next.translation,
-                    orientation: next.orientation,
-                    interpolation: BoneKeyframeInterpolation::build(
-                        &next.interpolation_x,
-                        &next.interpolation_y,
-                        &next.interpolation_z,
-                        &next.interpolation_r,
-                    ),
-                    local_transform_mix: None,
-                    enable_physics: next.is_physics_simulation_enabled,
-                    disable_physics: false,
-                }
-            }
-            (None, None) => {
-                // 无关键帧
-                BoneFrameTransform::default()
-            }
+            // 只有前帧或只有后帧，直接使用该帧数据
+            (Some(only), None) | (None, Some(only)) => baked.keyframe_transform(only),
+            // 无关键帧
+            (None, None) => BoneFrameTransform::default(),
         }
     }
+}
+
+impl Default for BoneMotionTrack {
+    fn default() -> Self {
+        Self::new()
+    }
+}
+
+impl MotionTrack for BoneMotionTrack {
+    type Frame = BoneFrameTransform;
+
+    fn find(&self, frame_index: u32) -> Option<Self::Frame> {
+        let baked = self.baked();
+        baked.frame_indices
+            .binary_search(&frame_index)
+            .ok()
+            .map(|i| baked.keyframe_transform(i))
+    }
+
+    fn search_closest(&self, frame_index: u32) -> (Option<u32>, Option<u32>) {
+        let frames = &self.baked().frame_indices;
+        let (prev, next) = neighbors(frames.len(), upper_bound(frames, frame_index));
+        (prev.map(|i| frames[i]), next.map(|i| frames[i]))
+    }
+
+    fn seek(&self, frame_index: u32, bezier_factory: &dyn BezierCurveFactory) -> Self::Frame {
+        self.seek_located(frame_index, None, bezier_factory)
+    }
 
     fn seek_precisely(
         &self,
@@ -290,29 +402,7 @@ impl MotionTrack for BoneMotionTrack {
         amount: f32,
         bezier_factory: &dyn BezierCurveFactory,
     ) -> Self::Frame {
-        let f0 = self.seek(frame_index, bezier_factory);
-        
-        if amount > 0.0 {
-            let f1 = self.seek(frame_index.saturating_add(1), bezier_factory);
-            
-            let local_transform_mix = match (f0.local_transform_mix, f1.local_transform_mix) {
-                (Some(a0), Some(a1)) => Some(lerp_f32(a0, a1, amount)),
-                (None, Some(a1)) => Some(amount * a1),
-                (Some(a0), None) => Some((1.0 - amount) * a0),
-                _ => None,
-            };
-            
-            BoneFrameTransform {
-                translation: f0.translation.lerp(f1.translation, amount),
-                orientation: f0.orientation.slerp(f1.orientation, amount),
-                interpolation: f0.interpolation.lerp(f1.interpolation, amount),
-                local_transform_mix,
-                enable_physics: f0.enable_physics && f1.enable_physics,
-                disable_physics: f0.disable_physics || f1.disable_physics,
-            }
-        } else {
-            f0
-        }
+        self.seek_precisely_located(frame_index, amount, None, bezier_factory)
     }
 
     fn len(&self) -> usize {
@@ -324,45 +414,99 @@ impl MotionTrack for BoneMotionTrack {
     }
 }
 
+/// 烘焙后的 Morph 轨道
+#[derive(Debug, Clone, Default)]
+struct BakedMorphTrack {
+    frame_indices: Vec<u32>,
+    weights: Vec<f32>,
+}
+
+impl BakedMorphTrack {
+    fn build(keyframes: &BTreeMap<u32, MorphKeyframe>) -> Self {
+        Self {
+            frame_indices: keyframes.keys().copied().collect(),
+            weights: keyframes.values().map(|kf| kf.weight).collect(),
+        }
+    }
+}
+
 /// Morph 动画轨道
 #[derive(Debug, Clone)]
 pub struct MorphMotionTrack {
-    /// 关键帧映射（帧索引 -> 关键帧）
+    /// 关键帧映射（帧索引 -> 关键帧），直接修改后需调用 `invalidate`
     pub keyframes: BTreeMap<u32, MorphKeyframe>,
+    baked: OnceCell<BakedMorphTrack>,
 }
 
 impl MorphMotionTrack {
     pub fn new() -> Self {
         Self {
             keyframes: BTreeMap::new(),
+            baked: OnceCell::new(),
         }
     }
 
     /// 插入关键帧
     pub fn insert_keyframe(&mut self, keyframe: MorphKeyframe) -> Option<MorphKeyframe> {
+        self.baked.take();
         self.keyframes.insert(keyframe.frame_index, keyframe)
     }
 
     /// 移除关键帧
     pub fn remove_keyframe(&mut self, frame_index: u32) -> Option<MorphKeyframe> {
+        self.baked.take();
         self.keyframes.remove(&frame_index)
     }
 
-    /// 查找最近的前后关键帧
-    fn search_closest_keyframes(&self, frame_index: u32) -> (Option<&MorphKeyframe>, Option<&MorphKeyframe>) {
-        let mut prev = None;
-        let mut next = None;
-        
-        for (idx, kf) in &self.keyframes {
-            if *idx <= frame_index {
-                prev = Some(kf);
-            } else {
-                next = Some(kf);
-                break;
+    /// 丢弃烘焙数据（直接修改 `keyframes` 后调用）
+    pub fn invalidate(&mut self) {
+        self.baked.take();
+    }
+
+    /// 预先烘焙采样数组
+    pub fn bake(&self) {
+        self.baked();
+    }
+
+    fn baked(&self) -> &BakedMorphTrack {
+        self.baked.get_or_init(|| BakedMorphTrack::build(&self.keyframes))
+    }
+
+    /// 使用游标精确求值
+    pub fn seek_precisely_with_cursor(&self, frame_index: u32, amount: f32, cursor: &KeyframeCursor) -> f32 {
+        self.seek_precisely_located(frame_index, amount, Some(cursor))
+    }
+
+    fn seek_precisely_located(&self, frame_index: u32, amount: f32, cursor: Option<&KeyframeCursor>) -> f32 {
+        let w0 = self.seek_located(frame_index, cursor);
+
+        if amount > 0.0 {
+            let w1 = self.seek_located(frame_index.saturating_add(1), cursor);
+            lerp_f32(w0, w1, amount)
+        } else {
+            w0
+        }
+    }
+
+    fn seek_located(&self, frame_index: u32, cursor: Option<&KeyframeCursor>) -> f32 {
+        let baked = self.baked();
+        let frames = &baked.frame_indices;
+        let pos = locate(frames, frame_index, cursor);
+
+        // 精确匹配
+        if pos > 0 && frames[pos - 1] == frame_index {
+            return baked.weights[pos - 1];
+        }
+
+        match neighbors(frames.len(), pos) {
+            (Some(prev), Some(next)) => {
+                // Morph 使用线性插值
+                let coef = coefficient(frames[prev], frames[next], frame_index);
+                lerp_f32(baked.weights[prev], baked.weights[next], coef)
             }
+            (Some(only), None) | (None, Some(only)) => baked.weights[only],
+            (None, None) => 0.0,
         }
-        
-        (prev, next)
     }
 }
 
@@ -380,56 +524,22 @@ impl MotionTrack for MorphMotionTrack {
     }
 
     fn search_closest(&self, frame_index: u32) -> (Option<u32>, Option<u32>) {
-        let mut prev = None;
-        let mut next = None;
-        
-        for idx in self.keyframes.keys() {
-            if *idx <= frame_index {
-                prev = Some(*idx);
-            } else {
-                next = Some(*idx);
-                break;
-            }
-        }
-        
-        (prev, next)
+        let frames = &self.baked().frame_indices;
+        let (prev, next) = neighbors(frames.len(), upper_bound(frames, frame_index));
+        (prev.map(|i| frames[i]), next.map(|i| frames[i]))
     }
 
     fn seek(&self, frame_index: u32, _bezier_factory: &dyn BezierCurveFactory) -> Self::Frame {
-        // 精确匹配
-        if let Some(weight) = self.find(frame_index) {
-            return weight;
-        }
-        
-        // 查找前后关键帧
-        let (prev_kf, next_kf) = self.search_closest_keyframes(frame_index);
-        
-        match (prev_kf, next_kf) {
-            (Some(prev), Some(next)) => {
-                // Morph 使用线性插值
-                let coef = coefficient(prev.frame_index, next.frame_index, frame_index);
-                lerp_f32(prev.weight, next.weight, coef)
-            }
-            (Some(prev), None) => prev.weight,
-            (None, Some(next)) => next.weight,
-            (None, None) => 0.0,
-        }
+        self.seek_located(frame_index, None)
     }
 
     fn seek_precisely(
         &self,
         frame_index: u32,
         amount: f32,
-        bezier_factory: &dyn BezierCurveFactory,
+        _bezier_factory: &dyn BezierCurveFactory,
     ) -> Self::Frame {
-        let w0 = self.seek(frame_index, bezier_factory);
-        
-        if amount > 0.0 {
-            let w1 = self.seek(frame_index.saturating_add(1), bezier_factory);
-            lerp_f32(w0, w1, amount)
-        } else {
-            w0
-        }
+        self.seek_precisely_located(frame_index, amount, None)
     }
 
     fn len(&self) -> usize {
@@ -441,36 +551,68 @@ impl MotionTrack for MorphMotionTrack {
     }
 }
 
+/// 烘焙后的 IK 轨道
+#[derive(Debug, Clone, Default)]
+struct BakedIkTrack {
+    frame_indices: Vec<u32>,
+    enabled: Vec<bool>,
+}
+
 /// IK 动画轨道
 #[derive(Debug, Clone)]
 pub struct IkMotionTrack {
-    /// 关键帧映射（帧索引 -> 关键帧）
+    /// 关键帧映射（帧索引 -> 关键帧），直接修改后需调用 `invalidate`
     pub keyframes: BTreeMap<u32, IkKeyframe>,
+    baked: OnceCell<BakedIkTrack>,
 }
 
 impl IkMotionTrack {
     pub fn new() -> Self {
         Self {
             keyframes: BTreeMap::new(),
+            baked: OnceCell::new(),
         }
     }
 
     /// 插入关键帧
     pub fn insert_keyframe(&mut self, keyframe: IkKeyframe) -> Option<IkKeyframe> {
+        self.baked.take();
         self.keyframes.insert(keyframe.frame_index, keyframe)
     }
 
+    /// 丢弃烘焙数据（直接修改 `keyframes` 后调用）
+    pub fn invalidate(&mut self) {
+        self.baked.take();
+    }
+
+    /// 预先烘焙采样数组
+    pub fn bake(&self) {
+        self.baked();
+    }
+
+    fn baked(&self) -> &BakedIkTrack {
+        self.baked.get_or_init(|| BakedIkTrack {
+            frame_indices: self.keyframes.keys().copied().collect(),
+            enabled: self.keyframes.values().map(|kf| kf.enabled).collect(),
+        })
+    }
+
     /// 查找指定帧的 IK 启用状态
     pub fn is_enabled_at(&self, frame_index: u32) -> bool {
-        let mut enabled = true; // 默认启用
-        for (idx, kf) in &self.keyframes {
-            if *idx <= frame_index {
-                enabled = kf.enabled;
-            } else {
-                break;
-            }
+        self.is_enabled_located(frame_index, None)
+    }
+
+    /// 使用游标查找指定帧的 IK 启用状态
+    pub fn is_enabled_at_with_cursor(&self, frame_index: u32, cursor: &KeyframeCursor) -> bool {
+        self.is_enabled_located(frame_index, Some(cursor))
+    }
+
+    fn is_enabled_located(&self, frame_index: u32, cursor: Option<&KeyframeCursor>) -> bool {
+        let baked = self.baked();
+        match locate(&baked.frame_indices, frame_index, cursor).checked_sub(1) {
+            Some(prev) => baked.enabled[prev],
+            None => true, // 默认启用
         }
-        enabled
     }
 
     /// 获取最大帧索引
@@ -537,22 +679,40 @@ use super::keyframe::CameraKeyframe;
 /// 相机动画轨道（单一轨道，不按名称分）
 #[derive(Debug, Clone)]
 pub struct CameraMotionTrack {
-    /// 关键帧映射（帧索引 -> 关键帧）
+    /// 关键帧映射（帧索引 -> 关键帧），直接修改后需调用 `invalidate`
     pub keyframes: BTreeMap<u32, CameraKeyframe>,
+    /// 烘焙后按帧号排序的关键帧数组
+    baked: OnceCell<Vec<CameraKeyframe>>,
 }
 
 impl CameraMotionTrack {
     pub fn new() -> Self {
         Self {
             keyframes: BTreeMap::new(),
+            baked: OnceCell::new(),
         }
     }
 
     /// 插入关键帧
     pub fn insert_keyframe(&mut self, keyframe: CameraKeyframe) -> Option<CameraKeyframe> {
+        self.baked.take();
         self.keyframes.insert(keyframe.frame_index, keyframe)
     }
 
+    /// 丢弃烘焙数据（直接修改 `keyframes` 后调用）
+    pub fn invalidate(&mut self) {
+        self.baked.take();
+    }
+
+    /// 预先烘焙采样数组
+    pub fn bake(&self) {
+        self.baked();
+    }
+
+    fn baked(&self) -> &[CameraKeyframe] {
+        self.baked.get_or_init(|| self.keyframes.values().cloned().collect())
+    }
+
     /// 是否为空
     pub fn is_empty(&self) -> bool {
         self.keyframes.is_empty()
@@ -568,21 +728,12 @@ impl CameraMotionTrack {
         self.keyframes.keys().last().copied().unwrap_or(0)
     }
 
-    /// 查找最近的前后关键帧
+    /// 二分查找最近的前后关键帧
     fn search_closest_keyframes(&self, frame_index: u32) -> (Option<&CameraKeyframe>, Option<&CameraKeyframe>) {
-        let mut prev = None;
-        let mut next = None;
-        
-        for (idx, kf) in &self.keyframes {
-            if *idx <= frame_index {
-                prev = Some(kf);
-            } else {
-                next = Some(kf);
-                break;
-            }
-        }
-        
-        (prev, next)
+        let keyframes = self.baked();
+        let pos = keyframes.partition_point(|kf| kf.frame_index <= frame_index);
+        let (prev, next) = neighbors(keyframes.len(), pos);
+        (prev.map(|i| &keyframes[i]), next.map(|i| &keyframes[i]))
     }
 
     /// 从 CameraKeyframe 计算相机位置
@@ -640,27 +791,17 @@ impl CameraMotionTrack {
             return CameraRawFrame::default();
         }
 
-        // 精确匹配
-        if let Some(kf) = self.keyframes.get(&frame_index) {
-            return CameraRawFrame {
-                look_at: kf.look_at,
-                angle: kf.angle,
-                distance: kf.distance,
-                fov: kf.fov,
-                is_perspective: kf.is_perspective,
-            };
-        }
-
         // 查找前后关键帧
         let (prev_kf, next_kf) = self.search_closest_keyframes(frame_index);
 
         match (prev_kf, next_kf) {
-            (Some(prev), Some(next)) => {
+            // 精确匹配时直接使用该帧
+            (Some(prev), Some(next)) if prev.frame_index != frame_index => {
                 let interval = next.frame_index - prev.frame_index;
                 let coef = coefficient(prev.frame_index, next.frame_index, frame_index);
                 Self::interpolate_keyframes_raw(prev, next, interval, coef, bezier_factory)
             }
-            (Some(kf), None) | (None, Some(kf)) => {
+            (Some(kf), _) | (None, Some(kf)) => {
                 CameraRawFrame {
                     look_at: kf.look_at,
                     angle: kf.angle,
@@ -765,3 +906,41 @@ impl Default for CameraMotionTrack {
         Self::new()
     }
 }
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_cursor_matches_binary_search() {
+        let frames = [0u32, 10, 20, 35, 60];
+        let cursor = KeyframeCursor::new();
+
+        // 顺序推进
+        for f in 0..80 {
+            assert_eq!(cursor.locate(&frames, f), upper_bound(&frames, f));
+        }
+        // 循环回到开头与随机跳转
+        for &f in &[5u32, 59, 0, 100, 20, 19] {
+            assert_eq!(cursor.locate(&frames, f), upper_bound(&frames, f));
+        }
+        assert_eq!(cursor.locate(&[], 7), 0);
+    }
+
+    #[test]
+    fn test_morph_seek_with_cursor() {
+        let mut track = MorphMotionTrack::new();
+        track.insert_keyframe(MorphKeyframe::new(10, 0.0));
+        track.insert_keyframe(MorphKeyframe::new(20, 1.0));
+        let cursor = KeyframeCursor::new();
+
+        assert_eq!(track.seek_precisely_with_cursor(0, 0.0, &cursor), 0.0);
+        assert!((track.seek_precisely_with_cursor(15, 0.0, &cursor) - 0.5).abs() < 1e-6);
+        assert!((track.seek_precisely_with_cursor(15, 0.5, &cursor) - 0.55).abs() < 1e-6);
+        assert_eq!(track.seek_precisely_with_cursor(30, 0.0, &cursor), 1.0);
+
+        // 插入关键帧后烘焙数据失效并重建
+        track.insert_keyframe(MorphKeyframe::new(30, 0.25));
+        assert_eq!(track.seek_precisely_with_cursor(30, 0.0, &cursor), 0.25);
+    }
+}
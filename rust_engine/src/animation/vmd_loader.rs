@@ -15,7 +15,7 @@ use crate::morph::MorphManager;
 
 use super::motion::Motion;
 use super::keyframe::{BoneKeyframe, MorphKeyframe, IkKeyframe, CameraKeyframe, CameraInterpolation};
-use super::motion_track::{BoneFrameTransform, CameraFrameTransform};
+use super::motion_track::{BoneFrameTransform, CameraFrameTransform, KeyframeCursor};
 
 /// VMD 文件头
 const VMD_HEADER_V1: &[u8] = b"Vocaloid Motion Data file";
@@ -341,6 +341,23 @@ fn decode_shift_jis(bytes: &[u8]) -> String {
     decoded.into_owned()
 }
 
+/// 动画与具体模型的绑定表
+///
+/// VmdAnimation 创建后不可变，并以 Arc 在模型之间共享；绑定表按 Motion 中各轨道的遍历顺序
+/// 记录对应的骨骼 / Morph / IK 解算器索引（模型中不存在时为 None），每模型每层构建一次，
+/// 之后的逐帧评估不再按名称查找。
+///
+/// 每条轨道同时携带一个关键帧游标，顺序播放时关键帧定位为 O(1)。
+#[derive(Debug, Default)]
+pub struct AnimationBinding {
+    bones: Vec<Option<usize>>,
+    morphs: Vec<Option<usize>>,
+    ik_solvers: Vec<Option<usize>>,
+    bone_cursors: Vec<KeyframeCursor>,
+    morph_cursors: Vec<KeyframeCursor>,
+    ik_cursors: Vec<KeyframeCursor>,
+}
+
 /// VMD 动画（运行时使用）
 #[derive(Debug, Clone)]
 pub struct VmdAnimation {
@@ -351,13 +368,12 @@ pub struct VmdAnimation {
 impl VmdAnimation {
     /// 从 VmdFile 创建
     pub fn from_vmd_file(vmd: VmdFile) -> Self {
-        Self {
-            motion: vmd.motion,
-        }
+        Self::from_motion(vmd.motion)
     }
 
     /// 从 Motion 数据直接创建（供 FBX 等外部格式使用）
     pub fn from_motion(motion: Motion) -> Self {
+        motion.bake();
         Self { motion }
     }
 
@@ -384,6 +400,7 @@ impl VmdAnimation {
     /// 合并另一个动画的骨骼和 Morph 数据
     pub fn merge(&mut self, other: &VmdAnimation) {
         self.motion.merge(&other.motion);
+        self.motion.bake();
     }
 
     /// 获取相机帧变换
@@ -454,53 +471,88 @@ impl VmdAnimation {
         weight: f32,
         bone_manager: &mut BoneManager,
         morph_manager: &mut MorphManager,
+    ) {
+        let binding = self.bind(bone_manager, morph_manager);
+        self.evaluate_bound(&binding, frame, weight, bone_manager, morph_manager);
+    }
+
+    /// 构建本动画到指定模型的绑定表（骨骼 / Morph / IK 名称只在此处查找一次）
+    pub fn bind(&self, bone_manager: &BoneManager, morph_manager: &MorphManager) -> AnimationBinding {
+        AnimationBinding {
+            bones: self.motion.bone_tracks.keys()
+                .map(|name| bone_manager.find_bone_by_name(name))
+                .collect(),
+            morphs: self.motion.morph_tracks.keys()
+                .map(|name| morph_manager.find_morph_by_name(name))
+                .collect(),
+            ik_solvers: self.motion.ik_tracks.keys()
+                .map(|name| bone_manager.find_ik_solver_by_name(name))
+                .collect(),
+            bone_cursors: self.motion.bone_tracks.keys().map(|_| KeyframeCursor::new()).collect(),
+            morph_cursors: self.motion.morph_tracks.keys().map(|_| KeyframeCursor::new()).collect(),
+            ik_cursors: self.motion.ik_tracks.keys().map(|_| KeyframeCursor::new()).collect(),
+        }
+    }
+
+    /// 使用已构建的绑定表带权重评估动画
+    ///
+    /// `binding` 必须由本动画的 `bind` 对同一模型构建
+    pub fn evaluate_bound(
+        &self,
+        binding: &AnimationBinding,
+        frame: f32,
+        weight: f32,
+        bone_manager: &mut BoneManager,
+        morph_manager: &mut MorphManager,
     ) {
         let frame = frame.max(0.0);
         let frame_index = frame.floor() as u32;
         let amount = frame.fract();
 
         // 应用骨骼动画
-        for bone_name in self.motion.bone_track_names() {
-            if let Some(bone_idx) = bone_manager.find_bone_by_name(bone_name) {
-                let raw = self.motion.find_bone_transform(bone_name, frame_index, amount);
-                // VMD 数据经过左手→右手转换，VRM 需要额外做 Y 轴 180° 镜像
-                let translation = bone_manager.convert_vmd_translation(raw.translation);
-                let orientation = bone_manager.convert_vmd_rotation(raw.orientation);
-                
-                if weight >= 1.0 {
-                    bone_manager.set_bone_translation(bone_idx, translation);
-                    bone_manager.set_bone_rotation(bone_idx, orientation);
-                } else if weight > 0.0 {
-                    if let Some(bone) = bone_manager.get_bone(bone_idx) {
-                        let blended_translation = bone.animation_translate.lerp(translation, weight);
-                        let blended_rotation = bone.animation_rotate.slerp(orientation, weight);
-                        bone_manager.set_bone_translation(bone_idx, blended_translation);
-                        bone_manager.set_bone_rotation(bone_idx, blended_rotation);
-                    }
+        let bone_slots = binding.bones.iter().zip(&binding.bone_cursors);
+        for (track, (&slot, cursor)) in self.motion.bone_tracks.values().zip(bone_slots) {
+            let Some(bone_idx) = slot else { continue };
+            let raw = self.motion.seek_bone_track(track, frame_index, amount, cursor);
+            // VMD 数据经过左手→右手转换，VRM 需要额外做 Y 轴 180° 镜像
+            let translation = bone_manager.convert_vmd_translation(raw.translation);
+            let orientation = bone_manager.convert_vmd_rotation(raw.orientation);
+            
+            if weight >= 1.0 {
+                bone_manager.set_bone_translation(bone_idx, translation);
+                bone_manager.set_bone_rotation(bone_idx, orientation);
+            } else if weight > 0.0 {
+                if let Some(bone) = bone_manager.get_bone(bone_idx) {
+                    let blended_translation = bone.animation_translate.lerp(translation, weight);
+                    let blended_rotation = bone.animation_rotate.slerp(orientation, weight);
+                    bone_manager.set_bone_translation(bone_idx, blended_translation);
+                    bone_manager.set_bone_rotation(bone_idx, blended_rotation);
                 }
             }
         }
 
         // 应用 Morph 动画
-        for morph_name in self.motion.morph_track_names() {
-            if let Some(morph_idx) = morph_manager.find_morph_by_name(morph_name) {
-                let morph_weight = self.motion.find_morph_weight(morph_name, frame_index, amount);
-                
-                if weight >= 1.0 {
-                    morph_manager.set_morph_weight(morph_idx, morph_weight);
-                } else if weight > 0.0 {
-                    let current = morph_manager.get_morph_weight(morph_idx);
-                    let blended = current + (morph_weight - current) * weight;
-                    morph_manager.set_morph_weight(morph_idx, blended);
-                }
+        let morph_slots = binding.morphs.iter().zip(&binding.morph_cursors);
+        for (track, (&slot, cursor)) in self.motion.morph_tracks.values().zip(morph_slots) {
+            let Some(morph_idx) = slot else { continue };
+            let morph_weight = self.motion.seek_morph_track(track, frame_index, amount, cursor);
+            
+            if weight >= 1.0 {
+                morph_manager.set_morph_weight(morph_idx, morph_weight);
+            } else if weight > 0.0 {
+                let current = morph_manager.get_morph_weight(morph_idx);
+                let blended = current + (morph_weight - current) * weight;
+                morph_manager.set_morph_weight(morph_idx, blended);
             }
         }
         
         // 应用 IK 启用/禁用状态
-        for ik_name in self.motion.ik_track_names() {
-            let enabled = self.motion.is_ik_enabled(ik_name, frame_index);
-            if weight >= 1.0 {
-                bone_manager.set_ik_enabled_by_name(ik_name, enabled);
+        if weight >= 1.0 {
+            let ik_slots = binding.ik_solvers.iter().zip(&binding.ik_cursors);
+            for (track, (&slot, cursor)) in self.motion.ik_tracks.values().zip(ik_slots) {
+                if let Some(solver_idx) = slot {
+                    bone_manager.set_ik_enabled(solver_idx, track.is_enabled_at_with_cursor(frame_index, cursor));
+                }
             }
         }
     }
@@ -0,0 +1,266 @@
+//! 分代句柄表
+//!
+//! 为 JNI 层的模型 / 动画 / 纹理 / 矩阵提供无锁查找：
+//! - 句柄 = 代数（高 32 位）+ 槽位索引（低 32 位），打包进 Java 的 `long`；代数从 1 开始，句柄永不为 0
+//! - 槽位按倍增分段分配，分配后地址不变，查找只需几次原子操作，不经过任何全局锁
+//! - 槽位删除后代数递增，已删除的旧句柄即使槽位被复用也查找失败
+//! - 只有插入/删除需要短暂持有空闲列表锁（频率远低于查找）
+//!
+//! 值以 `Arc` 持有；读者在 pin 计数保护下读取指针并增加引用计数，
+//! 写者（删除 / 替换）交换指针后等待 pin 归零再释放旧值，因此查找与替换可以并发。
+
+use std::ptr;
+use std::sync::atomic::{AtomicPtr, AtomicU32, AtomicUsize, Ordering};
+use std::sync::{Arc, Mutex};
+
+use once_cell::sync::OnceCell;
+
+/// 首段槽位数（第 k 段为 FIRST_SEGMENT << k）
+const FIRST_SEGMENT_BITS: u32 = 6;
+const FIRST_SEGMENT: usize = 1 << FIRST_SEGMENT_BITS;
+/// 段数上限（总容量约 2^26 个槽位）
+const SEGMENT_COUNT: usize = 20;
+
+/// 槽位状态：代数 << 1 | 占用位
+const OCCUPIED: u32 = 1;
+/// 代数上限（保证打包后的句柄为正数）
+const MAX_GENERATION: u32 = i32::MAX as u32;
+
+struct Slot<T> {
+    state: AtomicU32,
+    pins: AtomicU32,
+    value: AtomicPtr<T>,
+}
+
+impl<T> Slot<T> {
+    fn new() -> Self {
+        Self {
+            state: AtomicU32::new(1 << 1),
+            pins: AtomicU32::new(0),
+            value: AtomicPtr::new(ptr::null_mut()),
+        }
+    }
+
+    /// 在 pin 保护下读取值（代数不匹配或已删除时返回 None）
+    fn load(&self, generation: u32) -> Option<Arc<T>> {
+        self.pins.fetch_add(1, Ordering::SeqCst);
+        let result = if self.state.load(Ordering::SeqCst) == (generation << 1) | OCCUPIED {
+            let p = self.value.load(Ordering::SeqCst);
+            if p.is_null() {
+                None
+            } else {
+                // SAFETY: p 来自 Arc::into_raw；持有 pin 期间写者不会释放旧值
+                unsafe {
+                    Arc::increment_strong_count(p);
+                    Some(Arc::from_raw(p))
+                }
+            }
+        } else {
+            None
+        };
+        self.pins.fetch_sub(1, Ordering::SeqCst);
+        result
+    }
+
+    /// 交换值指针，等待所有在途读者离开后返回旧值
+    fn swap(&self, new: *mut T) -> Option<Arc<T>> {
+        let old = self.value.swap(new, Ordering::SeqCst);
+        while self.pins.load(Ordering::SeqCst) != 0 {
+            std::hint::spin_loop();
+        }
+        if old.is_null() {
+            None
+        } else {
+            // SAFETY: old 来自 Arc::into_raw，且已无读者持有该指针
+            Some(unsafe { Arc::from_raw(old) })
+        }
+    }
+}
+
+/// 分代句柄表
+pub struct HandleTable<T> {
+    segments: [OnceCell<Box<[Slot<T>]>>; SEGMENT_COUNT],
+    /// 从未使用过的下一个槽位
+    next_index: AtomicUsize,
+    /// 已释放可复用的槽位
+    free: Mutex<Vec<u32>>,
+    len: AtomicUsize,
+}
+
+// SAFETY: 值只以 Arc<T> 形式跨线程共享
+unsafe impl<T: Send + Sync> Send for HandleTable<T> {}
+unsafe impl<T: Send + Sync> Sync for HandleTable<T> {}
+
+impl<T> HandleTable<T> {
+    pub fn new() -> Self {
+        Self {
+            segments: std::array::from_fn(|_| OnceCell::new()),
+            next_index: AtomicUsize::new(0),
+            free: Mutex::new(Vec::new()),
+            len: AtomicUsize::new(0),
+        }
+    }
+
+    /// 槽位索引 → (段号, 段内偏移)
+    #[inline]
+    fn locate(index: usize) -> (usize, usize) {
+        let biased = index + FIRST_SEGMENT;
+        let segment = (usize::BITS - 1 - biased.leading_zeros() - FIRST_SEGMENT_BITS) as usize;
+        (segment, biased - (FIRST_SEGMENT << segment))
+    }
+
+    #[inline]
+    fn slot(&self, index: usize) -> Option<&Slot<T>> {
+        let (segment, offset) = Self::locate(index);
+        self.segments.get(segment)?.get().map(|s| &s[offset])
+    }
+
+    fn slot_or_alloc(&self, index: usize) -> Option<&Slot<T>> {
+        let (segment, offset) = Self::locate(index);
+        let slots = self.segments.get(segment)?.get_or_init(|| {
+            (0..FIRST_SEGMENT << segment).map(|_| Slot::new()).collect()
+        });
+        Some(&slots[offset])
+    }
+
+    #[inline]
+    fn unpack(handle: i64) -> (usize, u32) {
+        ((handle as u64 & 0xFFFF_FFFF) as usize, (handle as u64 >> 32) as u32)
+    }
+
+    #[inline]
+    fn pack(index: usize, generation: u32) -> i64 {
+        ((generation as i64) << 32) | index as i64
+    }
+
+    /// 插入值并返回句柄（容量耗尽时返回 0）
+    pub fn insert(&self, value: T) -> i64 {
+        self.insert_arc(Arc::new(value))
+    }
+
+    /// 插入已共享的值并返回句柄（容量耗尽时返回 0）
+    pub fn insert_arc(&self, value: Arc<T>) -> i64 {
+        let mut free = self.free.lock().unwrap_or_else(|e| e.into_inner());
+        let index = match free.pop() {
+            Some(i) => i as usize,
+            None => self.next_index.fetch_add(1, Ordering::Relaxed),
+        };
+        let Some(slot) = self.slot_or_alloc(index) else {
+            log::error!("句柄表容量耗尽");
+            return 0;
+        };
+        drop(free);
+
+        let generation = slot.state.load(Ordering::SeqCst) >> 1;
+        slot.swap(Arc::into_raw(value) as *mut T);
+        slot.state.store((generation << 1) | OCCUPIED, Ordering::SeqCst);
+        self.len.fetch_add(1, Ordering::Relaxed);
+        Self::pack(index, generation)
+    }
+
+    /// 无锁查找
+    #[inline]
+    pub fn get(&self, handle: i64) -> Option<Arc<T>> {
+        let (index, generation) = Self::unpack(handle);
+        self.slot(index)?.load(generation)
+    }
+
+    /// 替换句柄对应的值（句柄不变，已取出的旧 Arc 不受影响）
+    pub fn replace(&self, handle: i64, value: Arc<T>) -> Option<Arc<T>> {
+        let (index, generation) = Self::unpack(handle);
+        let slot = self.slot(index)?;
+        if slot.state.load(Ordering::SeqCst) != (generation << 1) | OCCUPIED {
+            return None;
+        }
+        slot.swap(Arc::into_raw(value) as *mut T)
+    }
+
+    /// 删除句柄并返回其值（句柄无效或已删除时返回 None）
+    pub fn remove(&self, handle: i64) -> Option<Arc<T>> {
+        let (index, generation) = Self::unpack(handle);
+        let slot = self.slot(index)?;
+        let next_generation = if generation >= MAX_GENERATION { 1 } else { generation + 1 };
+        slot.state
+            .compare_exchange(
+                (generation << 1) | OCCUPIED,
+                next_generation << 1,
+                Ordering::SeqCst,
+                Ordering::SeqCst,
+            )
+            .ok()?;
+        let value = slot.swap(ptr::null_mut());
+        self.len.fetch_sub(1, Ordering::Relaxed);
+        self.free.lock().unwrap_or_else(|e| e.into_inner()).push(index as u32);
+        value
+    }
+
+    /// 当前存活的句柄数量
+    pub fn len(&self) -> usize {
+        self.len.load(Ordering::Relaxed)
+    }
+
+    pub fn is_empty(&self) -> bool {
+        self.len() == 0
+    }
+}
+
+impl<T> Default for HandleTable<T> {
+    fn default() -> Self {
+        Self::new()
+    }
+}
+
+impl<T> Drop for HandleTable<T> {
+    fn drop(&mut self) {
+        for segment in self.segments.iter_mut() {
+            if let Some(slots) = segment.get_mut() {
+                for slot in slots.iter() {
+                    slot.swap(ptr::null_mut());
+                }
+            }
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_segment_locate() {
+        assert_eq!(HandleTable::<u8>::locate(0), (0, 0));
+        assert_eq!(HandleTable::<u8>::locate(FIRST_SEGMENT - 1), (0, FIRST_SEGMENT - 1));
+        assert_eq!(HandleTable::<u8>::locate(FIRST_SEGMENT), (1, 0));
+        assert_eq!(HandleTable::<u8>::locate(FIRST_SEGMENT * 3), (2, 0));
+    }
+
+    #[test]
+    fn test_stale_handle_rejected() {
+        let table = HandleTable::new();
+        let a = table.insert(1u32);
+        assert_ne!(a, 0);
+        assert_eq!(table.get(a).as_deref(), Some(&1));
+
+        assert_eq!(table.remove(a).as_deref(), Some(&1));
+        assert!(table.get(a).is_none());
+        assert!(table.remove(a).is_none());
+
+        // 槽位复用后旧句柄仍然无效
+        let b = table.insert(2u32);
+        assert_ne!(a, b);
+        assert!(table.get(a).is_none());
+        assert_eq!(table.get(b).as_deref(), Some(&2));
+        assert_eq!(table.len(), 1);
+    }
+
+    #[test]
+    fn test_replace_keeps_handle() {
+        let table = HandleTable::new();
+        let h = table.insert(String::from("old"));
+        let held = table.get(h).unwrap();
+        table.replace(h, Arc::new(String::from("new")));
+        assert_eq!(held.as_str(), "old");
+        assert_eq!(table.get(h).unwrap().as_str(), "new");
+        assert!(table.get(0).is_none());
+    }
+}
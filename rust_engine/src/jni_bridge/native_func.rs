@@ -6,13 +6,14 @@
 use jni::objects::{JByteBuffer, JClass, JString};
 use jni::sys::{jboolean, jbyte, jfloat, jint, jlong, jstring};
 use jni::JNIEnv;
+use std::path::Path;
 use std::ptr;
 use std::sync::Arc;
 
 use crate::animation::{VmdAnimation, VmdFile};
 use crate::animation::fbx_loader;
-use crate::model::{load_pmx, load_vrm};
-use crate::texture::load_texture;
+use crate::model::{load_pmx, load_shared, load_vrm, set_cache_dir, MmdModel, SourceKind};
+use crate::texture::{load_texture, load_texture_compressed};
 
 use super::{register_animation, register_model, register_texture, ANIMATIONS, MODELS, TEXTURES};
 
@@ -108,12 +109,13 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadModelPMX(
         Err(_) => return 0,
     };
 
-    match load_pmx(&filename_str) {
-        Ok(mut model) => {
+    match load_shared(Path::new(&filename_str), SourceKind::Pmx, || load_pmx(&filename_str)) {
+        Ok(asset) => {
+            let mut model = MmdModel::from_asset(asset);
             // 自动初始化物理系统
-            if !model.rigid_bodies.is_empty() {
+            if !model.asset().rigid_bodies.is_empty() {
                 log::info!("模型包含 {} 个刚体, {} 个关节, 自动初始化物理", 
-                    model.rigid_bodies.len(), model.joints.len());
+                    model.asset().rigid_bodies.len(), model.asset().joints.len());
                 model.init_physics();
             }
             register_model(model)
@@ -125,6 +127,24 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadModelPMX(
     }
 }
 
+/// 设置解析模型磁盘缓存目录（空字符串关闭缓存）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetModelCacheDir(
+    mut env: JNIEnv,
+    _class: JClass,
+    dir: JString,
+) {
+    let dir_str: String = match env.get_string(&dir) {
+        Ok(s) => s.into(),
+        Err(_) => return,
+    };
+    if dir_str.is_empty() {
+        set_cache_dir(None);
+    } else {
+        set_cache_dir(Some(dir_str.into()));
+    }
+}
+
 /// 加载 PMD 模型（暂不支持）
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadModelPMD(
@@ -145,11 +165,12 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteModel(
     _class: JClass,
     model: jlong,
 ) {
-    let mut models = MODELS.write().unwrap_or_else(|e| e.into_inner());
-    models.remove(&model);
+    MODELS.remove(model);
 }
 
 /// 更新模型
+///
+/// 可在 Java 工作线程上对不同句柄并行调用（见 `MmdModel` 线程安全约定）。
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateModel(
     _env: JNIEnv,
@@ -157,11 +178,54 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateModel(
     model: jlong,
     delta_time: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
-        // 更新动画（内部已包含物理更新）
+    let Some(model_arc) = MODELS.get(model) else {
+        return;
+    };
+    let mut model = model_arc.lock().unwrap();
+    // 更新动画（内部已包含物理更新）
+    model.tick_animation(delta_time);
+}
+
+/// 更新模型并将蒙皮后的位置/法线直接写入持久映射缓冲区（零拷贝流式上传）
+///
+/// 返回 true 表示已写入外部缓冲区；false 表示参数无效或容量不足，
+/// 此时蒙皮结果仍写入内部缓冲区，Java 侧应回退到 GetPoss/GetNormals 路径。
+/// # Safety
+/// Java 侧必须保证 pos_addr / nor_addr 指向至少 vertex_capacity * 12 字节的可写内存
+/// （glMapBufferRange 返回的持久映射地址），且 GPU 在调用期间不读取该区域（由 fence 保证）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateModelToMappedBuffer(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    delta_time: jfloat,
+    pos_addr: jlong,
+    nor_addr: jlong,
+    vertex_capacity: jint,
+) -> jboolean {
+    let Some(model_arc) = MODELS.get(model) else {
+        return 0;
+    };
+    let mut model = model_arc.lock().unwrap();
+    if pos_addr == 0 || nor_addr == 0 || vertex_capacity <= 0 {
         model.tick_animation(delta_time);
+        return 0;
+    }
+    let len = vertex_capacity as usize * 3;
+    let (pos_out, nor_out) = unsafe {
+        (
+            std::slice::from_raw_parts_mut(pos_addr as *mut f32, len),
+            std::slice::from_raw_parts_mut(nor_addr as *mut f32, len),
+        )
+    };
+    if model.tick_animation_into(delta_time, pos_out, nor_out) {
+        1
+    } else {
+        log::error!(
+            "UpdateModelToMappedBuffer: 映射容量 {} 顶点 < 模型顶点数 {}，已回退内部缓冲区",
+            vertex_capacity, model.vertex_count()
+        );
+        0
     }
 }
 
@@ -176,9 +240,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetVertexCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().vertex_count() as jlong)
         .unwrap_or(0)
 }
@@ -192,9 +255,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPoss(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| {
             let mg = m.lock().unwrap();
             if mg.update_positions_raw.is_empty() { 0 } else { mg.get_positions_ptr() as jlong }
@@ -209,9 +271,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetNormals(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| {
             let mg = m.lock().unwrap();
             if mg.update_normals_raw.is_empty() { 0 } else { mg.get_normals_ptr() as jlong }
@@ -226,9 +287,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetUVs(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| {
             let mg = m.lock().unwrap();
             if mg.update_uvs_raw.is_empty() { 0 } else { mg.get_uvs_ptr() as jlong }
@@ -257,9 +317,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetIndexCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().index_count() as jlong)
         .unwrap_or(0)
 }
@@ -271,9 +330,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetIndices(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().get_indices_ptr() as jlong)
         .unwrap_or(0)
 }
@@ -289,9 +347,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().material_count() as jlong)
         .unwrap_or(0)
 }
@@ -304,14 +361,13 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialTex(
     model: jlong,
     pos: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.materials.len() {
-            let tex_idx = model.materials[idx].texture_index;
-            if tex_idx >= 0 && (tex_idx as usize) < model.texture_paths.len() {
-                if let Ok(s) = env.new_string(&model.texture_paths[tex_idx as usize]) {
+        if idx < model.asset().materials.len() {
+            let tex_idx = model.asset().materials[idx].texture_index;
+            if tex_idx >= 0 && (tex_idx as usize) < model.asset().texture_paths.len() {
+                if let Ok(s) = env.new_string(&model.asset().texture_paths[tex_idx as usize]) {
                     return s.into_raw();
                 }
             }
@@ -330,14 +386,13 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialSpTex(
     model: jlong,
     pos: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.materials.len() {
-            let env_idx = model.materials[idx].environment_index;
-            if env_idx >= 0 && (env_idx as usize) < model.texture_paths.len() {
-                if let Ok(s) = env.new_string(&model.texture_paths[env_idx as usize]) {
+        if idx < model.asset().materials.len() {
+            let env_idx = model.asset().materials[idx].environment_index;
+            if env_idx >= 0 && (env_idx as usize) < model.asset().texture_paths.len() {
+                if let Ok(s) = env.new_string(&model.asset().texture_paths[env_idx as usize]) {
                     return s.into_raw();
                 }
             }
@@ -356,14 +411,13 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialToonTex(
     model: jlong,
     pos: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.materials.len() {
-            let toon_idx = model.materials[idx].toon_index;
-            if toon_idx >= 0 && (toon_idx as usize) < model.texture_paths.len() {
-                if let Ok(s) = env.new_string(&model.texture_paths[toon_idx as usize]) {
+        if idx < model.asset().materials.len() {
+            let toon_idx = model.asset().materials[idx].toon_index;
+            if toon_idx >= 0 && (toon_idx as usize) < model.asset().texture_paths.len() {
+                if let Ok(s) = env.new_string(&model.asset().texture_paths[toon_idx as usize]) {
                     return s.into_raw();
                 }
             }
@@ -389,12 +443,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialAmbient(
     model: jlong,
     pos: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.materials.len() {
-            let ambient = model.materials[idx].ambient;
+        if idx < model.asset().materials.len() {
+            let ambient = model.asset().materials[idx].ambient;
             AMBIENT_BUFFER.with(|buf| {
                 let mut b = buf.borrow_mut();
                 b[0] = ambient.x;
@@ -419,12 +472,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialDiffuse(
     model: jlong,
     pos: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.materials.len() {
-            let diffuse = model.materials[idx].diffuse;
+        if idx < model.asset().materials.len() {
+            let diffuse = model.asset().materials[idx].diffuse;
             DIFFUSE_BUFFER.with(|buf| {
                 let mut b = buf.borrow_mut();
                 b[0] = diffuse.x;
@@ -449,12 +501,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialSpecular(
     model: jlong,
     pos: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.materials.len() {
-            let specular = model.materials[idx].specular;
+        if idx < model.asset().materials.len() {
+            let specular = model.asset().materials[idx].specular;
             SPECULAR_BUFFER.with(|buf| {
                 let mut b = buf.borrow_mut();
                 b[0] = specular.x;
@@ -479,9 +530,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialSpecularPo
     model: jlong,
     pos: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .and_then(|m| {
             let model = m.lock().unwrap();
             model
@@ -500,12 +550,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialAlpha(
     model: jlong,
     pos: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .and_then(|m| {
             let model = m.lock().unwrap();
-            model.materials.get(pos as usize).map(|mat| mat.diffuse.w)
+            model.asset().materials.get(pos as usize).map(|mat| mat.diffuse.w)
         })
         .unwrap_or(1.0)
 }
@@ -602,9 +651,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialBothFace(
     model: jlong,
     pos: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .and_then(|m| {
             let model = m.lock().unwrap();
             model
@@ -627,9 +675,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().submesh_count() as jlong)
         .unwrap_or(0)
 }
@@ -642,12 +689,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshMaterialID(
     model: jlong,
     pos: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.submeshes.len() {
-            return model.submeshes[idx].material_id;
+        if idx < model.asset().submeshes.len() {
+            return model.asset().submeshes[idx].material_id;
         }
     }
     0
@@ -661,12 +707,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshBeginIndex(
     model: jlong,
     pos: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.submeshes.len() {
-            return model.submeshes[idx].begin_index as jint;
+        if idx < model.asset().submeshes.len() {
+            return model.asset().submeshes[idx].begin_index as jint;
         }
     }
     0
@@ -680,12 +725,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshVertexCount
     model: jlong,
     pos: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let idx = pos as usize;
-        if idx < model.submeshes.len() {
-            return model.submeshes[idx].index_count as jint;
+        if idx < model.asset().submeshes.len() {
+            return model.asset().submeshes[idx].index_count as jint;
         }
     }
     0
@@ -707,11 +751,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ChangeModelAnim(
 ) {
     // 先读取动画并释放锁，避免同时持有 MODELS+ANIMATIONS 双锁
     let anim_opt = {
-        let animations = ANIMATIONS.read().unwrap();
-        animations.get(&anim).cloned()
+        ANIMATIONS.get(anim)
     };
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         let layer_id = layer as usize;
         model.set_layer_animation(layer_id, anim_opt);
@@ -726,8 +768,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetModelPhysics(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.reset_physics();
     }
@@ -782,8 +823,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteAnimation(
     _class: JClass,
     anim: jlong,
 ) {
-    let mut animations = ANIMATIONS.write().unwrap_or_else(|e| e.into_inner());
-    animations.remove(&anim);
+    ANIMATIONS.remove(anim);
 }
 
 /// 查询动画是否包含相机数据
@@ -793,8 +833,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasCameraData(
     _class: JClass,
     anim: jlong,
 ) -> jboolean {
-    let animations = ANIMATIONS.read().unwrap();
-    if let Some(animation) = animations.get(&anim) {
+    if let Some(animation) = ANIMATIONS.get(anim) {
         if animation.has_camera() { 1u8 } else { 0u8 }
     } else {
         0u8
@@ -808,8 +847,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetAnimMaxFrame(
     _class: JClass,
     anim: jlong,
 ) -> jfloat {
-    let animations = ANIMATIONS.read().unwrap();
-    if let Some(animation) = animations.get(&anim) {
+    if let Some(animation) = ANIMATIONS.get(anim) {
         animation.max_frame() as jfloat
     } else {
         0.0
@@ -826,8 +864,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetCameraTransform(
     frame: jfloat,
     buffer: JByteBuffer,
 ) {
-    let animations = ANIMATIONS.read().unwrap();
-    if let Some(animation) = animations.get(&anim) {
+    if let Some(animation) = ANIMATIONS.get(anim) {
         let transform = animation.get_camera_transform(frame);
         
         let dst = match env.get_direct_buffer_address(&buffer) {
@@ -865,8 +902,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasBoneData(
     _class: JClass,
     anim: jlong,
 ) -> jboolean {
-    let animations = ANIMATIONS.read().unwrap();
-    if let Some(animation) = animations.get(&anim) {
+    if let Some(animation) = ANIMATIONS.get(anim) {
         if animation.has_bones() { 1u8 } else { 0u8 }
     } else {
         0u8
@@ -880,8 +916,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasMorphData(
     _class: JClass,
     anim: jlong,
 ) -> jboolean {
-    let animations = ANIMATIONS.read().unwrap();
-    if let Some(animation) = animations.get(&anim) {
+    if let Some(animation) = ANIMATIONS.get(anim) {
         if animation.has_morphs() { 1u8 } else { 0u8 }
     } else {
         0u8
@@ -889,7 +924,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasMorphData(
 }
 
 /// 将 source 动画的骨骼和 Morph 数据合并到 target 动画中
-/// 实现方式：克隆 target → 合并 source → 替换回 HashMap
+/// 实现方式：克隆 target → 合并 source → 替换回句柄表
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_MergeAnimation(
     _env: JNIEnv,
@@ -897,20 +932,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_MergeAnimation(
     target: jlong,
     source: jlong,
 ) {
-    // 先读取并克隆两个动画，避免借用冲突
-    let (target_clone, source_ref) = {
-        let animations = ANIMATIONS.read().unwrap();
-        let t = animations.get(&target).cloned();
-        let s = animations.get(&source).cloned();
-        (t, s)
-    };
-
-    if let (Some(target_arc), Some(source_arc)) = (target_clone, source_ref) {
+    if let (Some(target_arc), Some(source_arc)) = (ANIMATIONS.get(target), ANIMATIONS.get(source)) {
         let mut merged = (*target_arc).clone();
         merged.merge(&source_arc);
-        // 写回 HashMap，替换原 target
-        let mut animations = ANIMATIONS.write().unwrap();
-        animations.insert(target, Arc::new(merged));
+        // 写回句柄表，替换原 target（句柄不变）
+        ANIMATIONS.replace(target, Arc::new(merged));
     }
 }
 
@@ -926,8 +952,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetModelTransform(
     m20: jfloat, m21: jfloat, m22: jfloat, m23: jfloat,
     m30: jfloat, m31: jfloat, m32: jfloat, m33: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         let transform = glam::Mat4::from_cols_array(&[
             m00, m01, m02, m03,
@@ -952,8 +977,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetModelPositionAndYa
     pos_z: jfloat,
     yaw: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_model_position_and_yaw(pos_x, pos_y, pos_z, yaw);
     }
@@ -970,8 +994,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetHeadAngle(
     head_z: jfloat,
     _is_head_in_sync: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_head_angle(head_x, head_y, head_z);
     }
@@ -988,8 +1011,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetEyeAngle(
     eye_x: jfloat,
     eye_y: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_eye_angle(eye_x, eye_y);
     }
@@ -1004,8 +1026,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetEyeMaxAngle(
     model: jlong,
     max_angle: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_eye_max_angle(max_angle);
     }
@@ -1019,8 +1040,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetEyeTrackingEnabled
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_eye_tracking_enabled(enabled != 0);
     }
@@ -1033,9 +1053,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsEyeTrackingEnabled(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| {
             let model = m.lock().unwrap();
             if model.is_eye_tracking_enabled() { 1u8 } else { 0u8 }
@@ -1051,8 +1070,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetAutoBlinkEnabled(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_auto_blink_enabled(enabled != 0);
     }
@@ -1065,9 +1083,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsAutoBlinkEnabled(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| {
             let model = m.lock().unwrap();
             if model.is_auto_blink_enabled() { 1u8 } else { 0u8 }
@@ -1086,8 +1103,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetBlinkParams(
     interval: jfloat,
     duration: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_blink_params(interval, duration);
     }
@@ -1106,8 +1122,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_PlayLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.play_layer(layer as usize);
     }
@@ -1122,8 +1137,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_StopLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.stop_layer(layer as usize);
     }
@@ -1138,8 +1152,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_PauseLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.pause_layer(layer as usize);
     }
@@ -1154,8 +1167,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResumeLayer(
     model: jlong,
     layer: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.resume_layer(layer as usize);
     }
@@ -1172,8 +1184,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerWeight(
     layer: jlong,
     weight: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_layer_weight(layer as usize, weight);
     }
@@ -1190,8 +1201,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerSpeed(
     layer: jlong,
     speed: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_layer_speed(layer as usize, speed);
     }
@@ -1208,8 +1218,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SeekLayer(
     layer: jlong,
     frame: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.seek_layer(layer as usize, frame);
     }
@@ -1228,8 +1237,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerFadeTimes(
     fade_in: jfloat,
     fade_out: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_layer_fade_times(layer as usize, fade_in, fade_out);
     }
@@ -1254,13 +1262,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_TransitionLayerTo(
     transition_time: jfloat,
 ) {
     let anim = if animation != 0 {
-        let animations = ANIMATIONS.read().unwrap();
-        animations.get(&animation).cloned()
+        ANIMATIONS.get(animation)
     } else {
         None
     };
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.transition_layer_to(layer as usize, anim, transition_time);
     }
@@ -1275,8 +1281,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetLayerMaxFrame(
     model: jlong,
     layer: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         return model.get_layer_max_frame(layer as usize) as jfloat;
     }
@@ -1293,8 +1298,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetLayerLoop(
     layer: jlong,
     loop_play: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_layer_loop(layer as usize, loop_play != 0);
     }
@@ -1332,8 +1336,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteTexture(
     _class: JClass,
     tex: jlong,
 ) {
-    let mut textures = TEXTURES.write().unwrap_or_else(|e| e.into_inner());
-    textures.remove(&tex);
+    TEXTURES.remove(tex);
 }
 
 /// 获取纹理宽度
@@ -1343,8 +1346,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetTextureX(
     _class: JClass,
     tex: jlong,
 ) -> jint {
-    let textures = TEXTURES.read().unwrap();
-    textures.get(&tex).map(|t| t.width as jint).unwrap_or(0)
+    TEXTURES.get(tex).map(|t| t.width as jint).unwrap_or(0)
 }
 
 /// 获取纹理高度
@@ -1354,8 +1356,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetTextureY(
     _class: JClass,
     tex: jlong,
 ) -> jint {
-    let textures = TEXTURES.read().unwrap();
-    textures.get(&tex).map(|t| t.height as jint).unwrap_or(0)
+    TEXTURES.get(tex).map(|t| t.height as jint).unwrap_or(0)
 }
 
 /// 获取纹理数据指针
@@ -1365,9 +1366,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetTextureData(
     _class: JClass,
     tex: jlong,
 ) -> jlong {
-    let textures = TEXTURES.read().unwrap();
-    textures
-        .get(&tex)
+    TEXTURES
+        .get(tex)
         .map(|t| t.data.as_ptr() as jlong)
         .unwrap_or(0)
 }
@@ -1379,13 +1379,68 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_TextureHasAlpha(
     _class: JClass,
     tex: jlong,
 ) -> jboolean {
-    let textures = TEXTURES.read().unwrap();
-    textures
-        .get(&tex)
+    TEXTURES
+        .get(tex)
         .map(|t| if t.has_alpha { 1u8 } else { 0u8 })
         .unwrap_or(0u8)
 }
 
+/// 加载纹理并压缩为带 Mip 链的 BC1 / BC3（命中磁盘缓存时跳过解码与压缩）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadTextureCompressed(
+    mut env: JNIEnv,
+    _class: JClass,
+    filename: JString,
+) -> jlong {
+    let filename_str: String = match env.get_string(&filename) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+
+    match load_texture_compressed(&filename_str) {
+        Ok(texture) => register_texture(texture),
+        Err(e) => {
+            log::error!("Failed to load compressed texture: {}", e);
+            0
+        }
+    }
+}
+
+/// 获取纹理格式（0=未压缩 RGB/RGBA, 1=BC1, 3=BC3）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetTextureFormat(
+    _env: JNIEnv,
+    _class: JClass,
+    tex: jlong,
+) -> jint {
+    TEXTURES.get(tex).map(|t| t.format as jint).unwrap_or(0)
+}
+
+/// 获取纹理 Mip 层级数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetTextureMipCount(
+    _env: JNIEnv,
+    _class: JClass,
+    tex: jlong,
+) -> jint {
+    TEXTURES.get(tex).map(|t| t.mips.len() as jint).unwrap_or(0)
+}
+
+/// 获取指定 Mip 层级的数据字节数（层级数据按顺序紧密排列在纹理数据中）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetTextureMipSize(
+    _env: JNIEnv,
+    _class: JClass,
+    tex: jlong,
+    level: jint,
+) -> jint {
+    TEXTURES
+        .get(tex)
+        .and_then(|t| t.mips.get(level as usize))
+        .map(|m| m.size as jint)
+        .unwrap_or(0)
+}
+
 // ============================================================================
 // 矩阵相关函数
 // ============================================================================
@@ -1393,15 +1448,10 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_TextureHasAlpha(
 use once_cell::sync::Lazy;
 use std::sync::Mutex;
 
-/// 矩阵存储（使用 HashMap + ID，避免 Vec 扩容导致指针失效）
-static MATRICES: Lazy<Mutex<std::collections::HashMap<i64, glam::Mat4>>> = Lazy::new(|| Mutex::new(std::collections::HashMap::new()));
+use super::HandleTable;
 
-/// 矩阵 ID 计数器
-fn next_matrix_id() -> i64 {
-    use std::sync::atomic::{AtomicI64, Ordering};
-    static MAT_COUNTER: AtomicI64 = AtomicI64::new(1);
-    MAT_COUNTER.fetch_add(1, Ordering::SeqCst)
-}
+/// 矩阵存储（分代句柄表，查找无锁，每个矩阵独立加锁）
+static MATRICES: Lazy<HandleTable<Mutex<glam::Mat4>>> = Lazy::new(HandleTable::new);
 
 /// 创建矩阵
 #[no_mangle]
@@ -1409,10 +1459,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CreateMat(
     _env: JNIEnv,
     _class: JClass,
 ) -> jlong {
-    let id = next_matrix_id();
-    let mut matrices = MATRICES.lock().unwrap();
-    matrices.insert(id, glam::Mat4::IDENTITY);
-    id
+    MATRICES.insert(Mutex::new(glam::Mat4::IDENTITY))
 }
 
 /// 删除矩阵
@@ -1422,8 +1469,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_DeleteMat(
     _class: JClass,
     mat: jlong,
 ) {
-    let mut matrices = MATRICES.lock().unwrap_or_else(|e| e.into_inner());
-    matrices.remove(&mat);
+    MATRICES.remove(mat);
 }
 
 /// 将矩阵数据复制到 ByteBuffer（64 字节 = 16 floats）
@@ -1434,8 +1480,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMatToBuffer(
     mat: jlong,
     buffer: JByteBuffer,
 ) -> jboolean {
-    let matrices = MATRICES.lock().unwrap();
-    if let Some(m) = matrices.get(&mat) {
+    if let Some(m_arc) = MATRICES.get(mat) {
+        let m = *m_arc.lock().unwrap();
         let dst = match env.get_direct_buffer_address(&buffer) {
             Ok(p) => p,
             Err(_) => return 0,
@@ -1446,7 +1492,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMatToBuffer(
             return 0;
         }
         unsafe {
-            let src = m as *const glam::Mat4 as *const u8;
+            let src = &m as *const glam::Mat4 as *const u8;
             ptr::copy_nonoverlapping(src, dst, 64);
         }
         return 1;
@@ -1462,15 +1508,12 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetRightHandMat(
     model: jlong,
     mat: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model_guard = model_arc.lock().unwrap();
         let hand_mat = model_guard.get_right_hand_matrix();
         drop(model_guard);
-        drop(models);
-        let mut matrices = MATRICES.lock().unwrap();
-        if let Some(m) = matrices.get_mut(&mat) {
-            *m = hand_mat;
+        if let Some(m) = MATRICES.get(mat) {
+            *m.lock().unwrap() = hand_mat;
         }
     }
 }
@@ -1483,15 +1526,12 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetLeftHandMat(
     model: jlong,
     mat: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model_guard = model_arc.lock().unwrap();
         let hand_mat = model_guard.get_left_hand_matrix();
         drop(model_guard);
-        drop(models);
-        let mut matrices = MATRICES.lock().unwrap();
-        if let Some(m) = matrices.get_mut(&mat) {
-            *m = hand_mat;
+        if let Some(m) = MATRICES.get(mat) {
+            *m.lock().unwrap() = hand_mat;
         }
     }
 }
@@ -1507,8 +1547,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitPhysics(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         if model.init_physics() {
             return 1;
@@ -1524,8 +1563,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetPhysics(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.reset_physics();
     }
@@ -1539,13 +1577,108 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsEnabled(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_physics_enabled(enabled != 0);
     }
 }
 
+/// 设置动画 LOD 降级（跳过物理、冻结 Morph 与自动眨眼）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetUpdateLodReduced(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    reduced: jboolean,
+) {
+    if let Some(model_arc) = MODELS.get(model) {
+        let mut model = model_arc.lock().unwrap();
+        model.set_lod_reduced(reduced != 0);
+    }
+}
+
+/// 只推进动画时钟（未绘制的模型，不评估姿态、不蒙皮、不步进物理）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_AdvanceAnimationClock(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    delta_time: jfloat,
+) {
+    if let Some(model_arc) = MODELS.get(model) {
+        let mut model = model_arc.lock().unwrap();
+        model.advance_clock(delta_time);
+    }
+}
+
+/// 设置模型到相机的距离（方块，负数表示固定全速物理），用于选择物理质量等级
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsCameraDistance(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    distance: jfloat,
+) {
+    if let Some(model_arc) = MODELS.get(model) {
+        let mut model = model_arc.lock().unwrap();
+        model.set_physics_camera_distance(distance);
+    }
+}
+
+/// 获取模型当前物理质量等级（0=全速, 1=减少子步, 2=半频, 3=冻结）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsTier(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jint {
+    match MODELS.get(model) {
+        Some(model_arc) => model_arc.lock().unwrap().physics_tier() as jint,
+        None => 0,
+    }
+}
+
+/// 获取模型最近一次物理更新耗时（微秒）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsStepMicros(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jint {
+    match MODELS.get(model) {
+        Some(model_arc) => model_arc.lock().unwrap().physics_step_micros().min(i32::MAX as u32) as jint,
+        None => 0,
+    }
+}
+
+/// 帧开始：结算上一帧物理耗时并按预算调整全局物理等级压力，然后步进共享物理世界（若存在）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BeginPhysicsFrame(
+    _env: JNIEnv,
+    _class: JClass,
+) {
+    crate::physics::tier::begin_frame(crate::physics::config::get_config().frame_budget_ms);
+    crate::physics::shared_world::step_frame();
+}
+
+/// 获取上一帧所有模型物理耗时之和（微秒）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsFrameMicros(
+    _env: JNIEnv,
+    _class: JClass,
+) -> jlong {
+    crate::physics::tier::last_frame_micros().min(i64::MAX as u64) as jlong
+}
+
+/// 获取当前物理预算压力（所有非固定模型整体降级的级数）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsBudgetPressure(
+    _env: JNIEnv,
+    _class: JClass,
+) -> jint {
+    crate::physics::tier::pressure() as jint
+}
+
 /// 获取物理是否启用
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsPhysicsEnabled(
@@ -1553,8 +1686,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsPhysicsEnabled(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if model.is_physics_enabled() {
             return 1;
@@ -1570,8 +1702,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_HasPhysics(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if model.has_physics() {
             return 1;
@@ -1587,8 +1718,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsDebugInfo(
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let debug_info = model.get_physics_debug_info();
         if let Ok(s) = env.new_string(&debug_info) {
@@ -1612,8 +1742,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsMaterialVisible(
     model: jlong,
     index: jint,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if model.is_material_visible(index as usize) { 1 } else { 0 }
     } else {
@@ -1630,8 +1759,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMaterialVisible(
     index: jint,
     visible: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_material_visible(index as usize, visible != 0);
     }
@@ -1650,8 +1778,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMaterialVisibleByN
         Ok(s) => s.into(),
         Err(_) => return 0,
     };
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_material_visible_by_name(&name_str, visible != 0) as jint
     } else {
@@ -1667,8 +1794,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetAllMaterialsVisibl
     model: jlong,
     visible: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_all_materials_visible(visible != 0);
     }
@@ -1682,8 +1808,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialName(
     model: jlong,
     index: jint,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if let Some(name) = model.get_material_name(index as usize) {
             if let Ok(s) = env.new_string(name) {
@@ -1703,8 +1828,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialNames(
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let names = model.get_material_names();
         // 构建简单的 JSON 数组
@@ -1734,9 +1858,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneCount(
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().bone_manager.bone_count() as jint)
         .unwrap_or(0)
 }
@@ -1749,8 +1872,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSkinningMatrices(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let matrices = model.bone_manager.get_skinning_matrices();
         if !matrices.is_empty() {
@@ -1768,8 +1890,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopySkinningMatricesT
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let matrices = model.bone_manager.get_skinning_matrices();
         if matrices.is_empty() {
@@ -1796,6 +1917,32 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopySkinningMatricesT
     0
 }
 
+/// 复制 LOD 跳帧插值后的蒙皮矩阵到 ByteBuffer（上一次与本次更新按 alpha 线性插值）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyLodBlendedSkinningMatricesToBuffer(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    buffer: JByteBuffer,
+    alpha: jfloat,
+) -> jint {
+    let Some(model_arc) = MODELS.get(model) else {
+        return 0;
+    };
+    let model = model_arc.lock().unwrap();
+    let dst = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return 0,
+    };
+    let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+    let dst = unsafe { std::slice::from_raw_parts_mut(dst, capacity) };
+    let copied = model.write_lod_blended_skinning(alpha, dst);
+    if copied == 0 && !model.bone_manager.get_skinning_matrices().is_empty() {
+        log::error!("CopyLodBlendedSkinningMatricesToBuffer: 容量 {} 不足", capacity);
+    }
+    copied as jint
+}
+
 /// 获取顶点骨骼索引数据指针（ivec4 格式，用于 GPU 蒙皮）
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneIndices(
@@ -1803,8 +1950,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneIndices(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_bone_indices_ptr();
         if ptr.is_null() { return 0; }
@@ -1822,8 +1968,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBoneIndicesToBuff
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_bone_indices_ptr();
         if ptr.is_null() {
@@ -1856,8 +2001,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneWeights(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_bone_weights_ptr();
         if ptr.is_null() { return 0; }
@@ -1875,8 +2019,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBoneWeightsToBuff
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_bone_weights_ptr();
         if ptr.is_null() {
@@ -1909,8 +2052,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetOriginalPositions(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_original_positions_ptr();
         if ptr.is_null() { return 0; }
@@ -1928,8 +2070,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyOriginalPositions
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_original_positions_ptr();
         if ptr.is_null() {
@@ -1962,8 +2103,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetOriginalNormals(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_original_normals_ptr();
         if ptr.is_null() { return 0; }
@@ -1981,8 +2121,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyOriginalNormalsTo
     buffer: JByteBuffer,
     vertex_count: jint,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let ptr = model.get_original_normals_ptr();
         if ptr.is_null() {
@@ -2015,11 +2154,10 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuSkinningDebugIn
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         
-        let vertex_count = model.vertices.len();
+        let vertex_count = model.asset().vertices.len();
         let bone_count = model.bone_manager.bone_count();
         let bone_indices = model.get_bone_indices();
         let bone_weights = model.get_bone_weights();
@@ -2094,11 +2232,11 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateAnimationOnly(
     model: jlong,
     delta_time: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
-        let mut model = model_arc.lock().unwrap();
-        model.tick_animation_no_skinning(delta_time);
-    }
+    let Some(model_arc) = MODELS.get(model) else {
+        return;
+    };
+    let mut model = model_arc.lock().unwrap();
+    model.tick_animation_no_skinning(delta_time);
 }
 
 /// 初始化 GPU 蒙皮数据
@@ -2108,8 +2246,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuSkinningData(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.init_gpu_skinning_data();
     }
@@ -2126,8 +2263,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuMorphData(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.init_gpu_morph_data();
     }
@@ -2140,22 +2276,20 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetVertexMorphCount(
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().get_vertex_morph_count() as jint)
         .unwrap_or(0)
 }
 
-/// 获取 GPU Morph 偏移数据指针
+/// 获取 GPU Morph 稀疏偏移数据指针（CSR 格式，见 ModelAsset::gpu_morphs）
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphOffsets(
     _env: JNIEnv,
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         return model.get_gpu_morph_offsets_ptr() as jlong;
     }
@@ -2169,9 +2303,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphOffsetsSiz
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().get_gpu_morph_offsets_size() as jlong)
         .unwrap_or(0)
 }
@@ -2183,8 +2316,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphWeights(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         return model.get_gpu_morph_weights_ptr() as jlong;
     }
@@ -2198,8 +2330,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SyncGpuMorphWeights(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.sync_gpu_morph_weights();
     }
@@ -2213,8 +2344,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphOffsetsTo
     model: jlong,
     buffer: JByteBuffer,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let size = model.get_gpu_morph_offsets_size();
         if size == 0 {
@@ -2239,7 +2369,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphOffsetsTo
     0
 }
 
-/// 复制 GPU Morph 权重数据到 ByteBuffer
+/// 复制 GPU Morph 权重数据到 ByteBuffer，返回当前非零权重的 Morph 数量
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphWeightsToBuffer(
     env: JNIEnv,
@@ -2247,8 +2377,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphWeightsTo
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let morph_count = model.get_vertex_morph_count();
         if morph_count == 0 {
@@ -2269,7 +2398,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphWeightsTo
             let src = model.get_gpu_morph_weights_ptr() as *const u8;
             ptr::copy_nonoverlapping(src, dst, byte_size);
         }
-        return morph_count as jint;
+        return model.get_active_vertex_morph_count() as jint;
     }
     0
 }
@@ -2281,8 +2410,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsGpuMorphInitialized
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if model.is_gpu_morph_initialized() {
             return 1;
@@ -2317,8 +2445,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ApplyVpdMorph(
         Err(_) => return -1,
     };
     
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         
         match VpdFile::load(&filename_str) {
@@ -2364,8 +2491,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetAllMorphs(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.morph_manager.reset_all_weights();
         model.clear_vpd_bone_overrides();
@@ -2387,8 +2513,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMorphWeightByName(
         Err(_) => return 0,
     };
     
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         if let Some(idx) = model.morph_manager.find_morph_by_name(&name_str) {
             model.morph_manager.set_morph_weight(idx, weight);
@@ -2406,8 +2531,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMorphCount(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         return model.morph_manager.morph_count() as jlong;
     }
@@ -2422,8 +2546,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMorphName(
     model: jlong,
     index: jint,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if let Some(morph) = model.morph_manager.get_morph(index as usize) {
             if let Ok(s) = env.new_string(&morph.name) {
@@ -2444,12 +2567,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMorphWeight(
     model: jlong,
     index: jint,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
-        if let Some(morph) = model.morph_manager.get_morph(index as usize) {
-            return morph.weight;
-        }
+        return model.morph_manager.get_morph_weight(index as usize);
     }
     0.0
 }
@@ -2463,8 +2583,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMorphWeight(
     index: jint,
     weight: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.morph_manager.set_morph_weight(index as usize, weight);
     }
@@ -2481,8 +2600,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuUvMorphData(
     _class: JClass,
     model: jlong,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.init_gpu_uv_morph_data();
     }
@@ -2495,9 +2613,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetUvMorphCount(
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().get_uv_morph_count() as jint)
         .unwrap_or(0)
 }
@@ -2509,9 +2626,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuUvMorphOffsetsS
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    models
-        .get(&model)
+    MODELS
+        .get(model)
         .map(|m| m.lock().unwrap().get_gpu_uv_morph_offsets_size() as jlong)
         .unwrap_or(0)
 }
@@ -2524,8 +2640,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuUvMorphOffsets
     model: jlong,
     buffer: JByteBuffer,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let size = model.get_gpu_uv_morph_offsets_size();
         if size == 0 {
@@ -2558,8 +2673,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuUvMorphWeights
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let morph_count = model.get_uv_morph_count();
         if morph_count == 0 {
@@ -2596,8 +2710,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMaterialMorphResul
     _class: JClass,
     model: jlong,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         return model.get_material_morph_result_count() as jint;
     }
@@ -2617,8 +2730,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMaterialMorphResu
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         let result_count = model.get_material_morph_result_count();
         let flat = model.get_material_morph_results_flat();
@@ -2662,6 +2774,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
     joints_enabled: jboolean,
     kinematic_filter: jboolean,
     debug_log: jboolean,
+    frame_budget_ms: jfloat,
+    tier_distance: jfloat,
+    shared_world: jboolean,
 ) {
     use crate::physics::config::{PhysicsConfig, set_config};
 
@@ -2676,6 +2791,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
         joints_enabled: joints_enabled != 0,
         kinematic_filter: kinematic_filter != 0,
         debug_log: debug_log != 0,
+        frame_budget_ms,
+        tier_distance,
+        shared_world: shared_world != 0,
     };
 
     set_config(config);
@@ -2696,8 +2814,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetFirstPersonMode(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.set_first_person_mode(enabled != 0);
     }
@@ -2710,8 +2827,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsFirstPersonMode(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         if model.is_first_person_enabled() { 1 } else { 0 }
     } else {
@@ -2726,8 +2842,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetHeadBonePositionY(
     _class: JClass,
     model: jlong,
 ) -> jfloat {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         model.get_head_bone_rest_position_y()
     } else {
@@ -2746,8 +2861,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetEyeBonePosition(
     model: jlong,
     out: jni::objects::JFloatArray,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut model = model_arc.lock().unwrap();
         let pos = model.get_eye_bone_animated_position();
         let buf: [f32; 3] = [pos.x, pos.y, pos.z];
@@ -2780,8 +2894,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BatchGetSubMeshData(
         std::slice::from_raw_parts_mut(out_ptr, out_cap)
     };
     
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         model.batch_get_sub_mesh_data(output) as jint
     } else {
@@ -2789,6 +2902,36 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BatchGetSubMeshData(
     }
 }
 
+/// 获取子网格绘制掩码（每子网格 1 字节），版本号与 knownVersion 相同时不写入缓冲区
+/// 返回当前版本号；模型不存在或缓冲区无效时返回 knownVersion
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetSubMeshDrawMask(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    buffer: JByteBuffer,
+    known_version: jint,
+) -> jint {
+    let out_ptr = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return known_version,
+    };
+    let out_cap = match env.get_direct_buffer_capacity(&buffer) {
+        Ok(c) => c,
+        Err(_) => return known_version,
+    };
+    let output = unsafe {
+        std::slice::from_raw_parts_mut(out_ptr, out_cap)
+    };
+    
+    if let Some(model_arc) = MODELS.get(model) {
+        let mut model = model_arc.lock().unwrap();
+        model.sub_mesh_draw_mask(known_version as u32, output) as jint
+    } else {
+        known_version
+    }
+}
+
 // ============================================================================
 // 公共 API 相关
 // ============================================================================
@@ -2800,8 +2943,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBoneNames(
     _class: JClass,
     model: jlong,
 ) -> jstring {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let bone_count = model.bone_manager.bone_count();
         let mut names = Vec::with_capacity(bone_count);
@@ -2829,8 +2971,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBonePositionsToBu
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let bone_count = model.bone_manager.bone_count();
         if bone_count == 0 {
@@ -2863,6 +3004,55 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBonePositionsToBu
     0
 }
 
+/// 复制骨骼动画输入姿势到 ByteBuffer（骨骼同步发送端）
+/// 每骨骼 7 个 float（平移 xyz + 旋转 xyzw），共 boneCount * 28 字节
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBonePoseToBuffer(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    buffer: JByteBuffer,
+) -> jint {
+    let dst = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return 0,
+    };
+    let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+    if let Some(model_arc) = MODELS.get(model) {
+        let model = model_arc.lock().unwrap();
+        let dst_floats = unsafe { std::slice::from_raw_parts_mut(dst as *mut f32, capacity / 4) };
+        return model.copy_animation_pose(dst_floats) as jint;
+    }
+    0
+}
+
+/// 设置网络同步骨骼姿势（骨骼同步接收端），布局同 CopyBonePoseToBuffer；boneCount <= 0 时恢复本地动画
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetNetworkBonePose(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    buffer: JByteBuffer,
+    bone_count: jint,
+) {
+    let model_arc = match MODELS.get(model) {
+        Some(m) => m,
+        None => return,
+    };
+    if bone_count <= 0 {
+        model_arc.lock().unwrap().clear_network_pose();
+        return;
+    }
+    let src = match env.get_direct_buffer_address(&buffer) {
+        Ok(p) => p,
+        Err(_) => return,
+    };
+    let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+    let float_count = (bone_count as usize * 7).min(capacity / 4);
+    let src_floats = unsafe { std::slice::from_raw_parts(src as *const f32, float_count) };
+    model_arc.lock().unwrap().set_network_pose(src_floats);
+}
+
 /// 复制实时 UV 数据到 ByteBuffer（经过 UV Morph 变形后）
 /// 每个顶点 2 个 float (u, v)，共 vertexCount * 8 字节
 #[no_mangle]
@@ -2872,8 +3062,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyRealtimeUVsToBuff
     model: jlong,
     buffer: JByteBuffer,
 ) -> jint {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let model = model_arc.lock().unwrap();
         let uv_raw = &model.update_uvs_raw;
         if uv_raw.is_empty() {
@@ -2912,8 +3101,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetModelMemoryUsage(
     _class: JClass,
     model: jlong,
 ) -> jlong {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let m = model_arc.lock().unwrap();
         m.memory_usage() as jlong
     } else {
@@ -2937,8 +3125,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetVRTrackingData(
     if env.get_float_array_region(&tracking_data, 0, &mut buf).is_err() {
         return;
     }
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut m = model_arc.lock().unwrap();
         m.set_vr_tracking_data(&buf);
     }
@@ -2952,8 +3139,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetVREnabled(
     model: jlong,
     enabled: jboolean,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut m = model_arc.lock().unwrap();
         m.set_vr_enabled(enabled != 0);
     }
@@ -2967,8 +3153,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetVRIKParams(
     model: jlong,
     arm_ik_strength: jfloat,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut m = model_arc.lock().unwrap();
         m.set_vr_ik_strength(arm_ik_strength);
     }
@@ -2982,8 +3167,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetVRHandMode(
     model: jlong,
     mode: jint,
 ) {
-    let models = MODELS.read().unwrap();
-    if let Some(model_arc) = models.get(&model) {
+    if let Some(model_arc) = MODELS.get(model) {
         let mut m = model_arc.lock().unwrap();
         m.set_vr_hand_mode(mode as u8);
     }
@@ -3003,8 +3187,8 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadModelVRM(
         Err(_) => return 0,
     };
 
-    match load_vrm(&filename_str) {
-        Ok(model) => register_model(model),
+    match load_shared(Path::new(&filename_str), SourceKind::Vrm, || load_vrm(&filename_str)) {
+        Ok(asset) => register_model(MmdModel::from_asset(asset)),
         Err(e) => {
             log::error!("Failed to load VRM: {}", e);
             0
@@ -3012,6 +3196,21 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadModelVRM(
     }
 }
 
+/// 查询模型共享资产编号（同一模型文件的实例相同，Java 侧据此共享静态 GL 缓冲区；无效句柄返回 0）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetModelAssetId(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jlong {
+    if let Some(m) = MODELS.get(model) {
+        let m = m.lock().unwrap();
+        m.asset().id() as jlong
+    } else {
+        0
+    }
+}
+
 /// 查询模型是否为 VRM 格式
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsVrmModel(
@@ -3019,8 +3218,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsVrmModel(
     _class: JClass,
     model: jlong,
 ) -> jboolean {
-    let models = MODELS.read().unwrap();
-    if let Some(m) = models.get(&model) {
+    if let Some(m) = MODELS.get(model) {
         let m = m.lock().unwrap();
         if m.is_vrm() { 1 } else { 0 }
     } else {
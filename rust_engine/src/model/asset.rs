@@ -0,0 +1,543 @@
+//! 模型资产（加载后不可变、多实例共享）
+//!
+//! 同一模型文件被多个实体同时使用时（多个玩家穿同一皮肤、同款女仆），几何、材质、
+//! Morph 定义、刚体/关节描述以及由它们派生的 GPU 静态表只保存一份，由 `Arc<ModelAsset>` 共享；
+//! 每个 `MmdModel` 实例只持有姿态、动画层、物理世界与蒙皮输出等可变状态。
+//!
+//! 资产表按 (源文件路径, 源类型, 文件长度, 修改时间) 记录弱引用：
+//! - 已有存活资产时直接创建新实例，跳过解析与磁盘缓存读取
+//! - 最后一个实例释放后资产随之释放；源文件被修改后指纹变化，下次加载重新解析
+//!
+//! 派生表（GPU 蒙皮输入、GPU Morph 偏移表、CPU 蒙皮批次）在第一个需要它的实例上构建一次。
+
+use std::collections::HashMap;
+use std::path::{Path, PathBuf};
+use std::sync::atomic::{AtomicU64, Ordering};
+use std::sync::{Arc, Mutex, Weak};
+use std::time::SystemTime;
+
+use glam::Vec3;
+use once_cell::sync::{Lazy, OnceCell};
+
+use crate::morph::{MorphManager, MorphType};
+use crate::skeleton::BoneManager;
+use crate::skinning::SkinningBatches;
+use crate::texture::EmbeddedTextures;
+use crate::Result;
+
+use super::cache::{load_with_cache, SourceKind};
+use super::{MmdMaterial, RuntimeVertex, SubMesh, VertexWeight};
+
+static NEXT_ASSET_ID: AtomicU64 = AtomicU64::new(1);
+
+/// GPU 蒙皮静态输入
+pub struct GpuSkinningData {
+    /// 骨骼索引（ivec4 格式，每顶点 4 个索引）
+    pub bone_indices: Vec<i32>,
+    /// 骨骼权重（vec4 格式，每顶点 4 个权重）
+    pub bone_weights: Vec<f32>,
+    /// 原始顶点位置（未蒙皮）
+    pub original_positions: Vec<f32>,
+    /// 原始法线（未蒙皮）
+    pub original_normals: Vec<f32>,
+}
+
+/// GPU 顶点 Morph 偏移表
+pub struct GpuMorphTable {
+    /// GPU Morph 索引 -> MorphManager 索引
+    pub morph_indices: Vec<usize>,
+    /// 按顶点的 CSR 稀疏格式（布局见 `ModelAsset::gpu_morphs`）
+    pub offsets: Vec<u32>,
+}
+
+/// GPU UV Morph 偏移表
+pub struct GpuUvMorphTable {
+    /// GPU UV Morph 索引 -> MorphManager 索引
+    pub morph_indices: Vec<usize>,
+    /// 密集格式：uv_morph_count * vertex_count * 2
+    pub offsets: Vec<f32>,
+}
+
+/// 模型资产
+pub struct ModelAsset {
+    id: u64,
+    pub name: String,
+    pub is_vrm: bool,
+    pub vertices: Vec<RuntimeVertex>,
+    pub indices: Vec<u32>,
+    pub weights: Vec<VertexWeight>,
+    pub materials: Vec<MmdMaterial>,
+    pub submeshes: Vec<SubMesh>,
+    pub texture_paths: Vec<String>,
+    /// 内嵌纹理（VRM）尚未交给渲染层的已解码像素，随资产释放
+    pub embedded_textures: EmbeddedTextures,
+    pub rigid_bodies: Vec<mmd::pmx::rigid_body::RigidBody>,
+    pub joints: Vec<mmd::pmx::joint::Joint>,
+    /// 绑定姿态骨骼（实例创建时克隆）
+    pub bones: BoneManager,
+    /// Morph 定义（实例克隆时偏移表按 Arc 共享，只复制权重）
+    pub morphs: MorphManager,
+
+    gpu_skinning: OnceCell<GpuSkinningData>,
+    gpu_morphs: OnceCell<GpuMorphTable>,
+    gpu_uv_morphs: OnceCell<GpuUvMorphTable>,
+    skin_batches: OnceCell<SkinningBatches>,
+}
+
+impl ModelAsset {
+    /// 创建空资产（由加载器填充字段）
+    pub fn new() -> Self {
+        Self {
+            id: NEXT_ASSET_ID.fetch_add(1, Ordering::Relaxed),
+            name: String::new(),
+            is_vrm: false,
+            vertices: Vec::new(),
+            indices: Vec::new(),
+            weights: Vec::new(),
+            materials: Vec::new(),
+            submeshes: Vec::new(),
+            texture_paths: Vec::new(),
+            embedded_textures: EmbeddedTextures::default(),
+            rigid_bodies: Vec::new(),
+            joints: Vec::new(),
+            bones: BoneManager::new(),
+            morphs: MorphManager::new(),
+            gpu_skinning: OnceCell::new(),
+            gpu_morphs: OnceCell::new(),
+            gpu_uv_morphs: OnceCell::new(),
+            skin_batches: OnceCell::new(),
+        }
+    }
+
+    /// 进程内唯一编号（Java 侧按此共享静态 GL 缓冲区）
+    pub fn id(&self) -> u64 {
+        self.id
+    }
+
+    /// CPU 蒙皮批次
+    pub fn skin_batches(&self) -> &SkinningBatches {
+        self.skin_batches.get_or_init(|| {
+            let count = self.vertices.len().min(self.weights.len());
+            let rest_normals: Vec<Vec3> = self.vertices[..count].iter().map(|v| v.normal).collect();
+            SkinningBatches::build(
+                &self.weights[..count],
+                &rest_normals,
+                self.bones.get_skinning_matrices().len(),
+            )
+        })
+    }
+
+    /// GPU 蒙皮静态输入
+    pub fn gpu_skinning(&self) -> &GpuSkinningData {
+        self.gpu_skinning.get_or_init(|| self.build_gpu_skinning())
+    }
+
+    fn build_gpu_skinning(&self) -> GpuSkinningData {
+        let vertex_count = self.vertices.len();
+
+        // 初始化骨骼索引和权重缓冲区（每顶点 4 个）
+        let mut bone_indices = vec![-1; vertex_count * 4];
+        let mut bone_weights = vec![0.0; vertex_count * 4];
+
+        // 从权重数据填充
+        for (i, weight) in self.weights.iter().take(vertex_count).enumerate() {
+            let base = i * 4;
+            match weight {
+                VertexWeight::Bdef1 { bone } => {
+                    bone_indices[base] = *bone;
+                    bone_weights[base] = 1.0;
+                }
+                VertexWeight::Bdef2 { bones, weight } => {
+                    bone_indices[base] = bones[0];
+                    bone_indices[base + 1] = bones[1];
+                    bone_weights[base] = *weight;
+                    bone_weights[base + 1] = 1.0 - *weight;
+                }
+                VertexWeight::Bdef4 { bones, weights } => {
+                    for j in 0..4 {
+                        bone_indices[base + j] = bones[j];
+                        bone_weights[base + j] = weights[j];
+                    }
+                }
+                VertexWeight::Sdef { bones, weight, .. } => {
+                    // SDEF 退化为 BDEF2
+                    bone_indices[base] = bones[0];
+                    bone_indices[base + 1] = bones[1];
+                    bone_weights[base] = *weight;
+                    bone_weights[base + 1] = 1.0 - *weight;
+                }
+                VertexWeight::Qdef { bones, weights } => {
+                    for j in 0..4 {
+                        bone_indices[base + j] = bones[j];
+                        bone_weights[base + j] = weights[j];
+                    }
+                }
+            }
+        }
+
+        // 原始顶点数据（未蒙皮）
+        let mut original_positions = Vec::with_capacity(vertex_count * 3);
+        let mut original_normals = Vec::with_capacity(vertex_count * 3);
+        for vertex in &self.vertices {
+            original_positions.extend_from_slice(&[vertex.position.x, vertex.position.y, vertex.position.z]);
+            original_normals.extend_from_slice(&[vertex.normal.x, vertex.normal.y, vertex.normal.z]);
+        }
+
+        // 调试：检查骨骼索引范围和权重
+        let bone_count = self.bones.bone_count();
+        let mut max_bone_idx = -1i32;
+        let mut invalid_idx_count = 0usize;
+        let mut zero_weight_count = 0usize;
+
+        for i in 0..vertex_count {
+            let base = i * 4;
+            let mut total_weight = 0.0f32;
+            let mut valid_bones = 0;
+
+            for j in 0..4 {
+                let idx = bone_indices[base + j];
+                let weight = bone_weights[base + j];
+
+                if idx > max_bone_idx {
+                    max_bone_idx = idx;
+                }
+                if idx >= 0 && idx < bone_count as i32 {
+                    valid_bones += 1;
+                    total_weight += weight;
+                } else if idx >= bone_count as i32 {
+                    invalid_idx_count += 1;
+                }
+            }
+
+            if valid_bones > 0 && total_weight < 0.001 {
+                zero_weight_count += 1;
+            }
+        }
+
+        if invalid_idx_count > 0 {
+            log::warn!("GPU 蒙皮: 发现 {} 个无效骨骼索引 (>= {})", invalid_idx_count, bone_count);
+        }
+        if zero_weight_count > 0 {
+            log::warn!("GPU 蒙皮: 发现 {} 个顶点权重为0", zero_weight_count);
+        }
+
+        log::info!("GPU 蒙皮数据初始化完成: {} 顶点, {} 骨骼, 最大骨骼索引: {}",
+            vertex_count, bone_count, max_bone_idx);
+
+        GpuSkinningData { bone_indices, bone_weights, original_positions, original_normals }
+    }
+
+    /// GPU 顶点 Morph 偏移表（按顶点的 CSR 稀疏格式）
+    ///
+    /// 布局（u32 数组，浮点以位模式存储）：
+    /// - [0, vertex_count]：每顶点条目起始下标（row_starts，共 vertex_count + 1 项）
+    /// - 之后每条目 4 个 u32：Morph 索引、偏移 x/y/z
+    ///
+    /// 同一顶点的条目按 Morph 索引升序排列；未被任何 Morph 影响的顶点条目为空，
+    /// 数据量与实际偏移数成正比，而不是 morph_count * vertex_count。
+    /// 没有顶点 Morph 时 `offsets` 为空。
+    pub fn gpu_morphs(&self) -> &GpuMorphTable {
+        self.gpu_morphs.get_or_init(|| self.build_gpu_morphs())
+    }
+
+    fn build_gpu_morphs(&self) -> GpuMorphTable {
+        let vertex_count = self.vertices.len();
+
+        // 收集所有顶点类型的 Morph 索引
+        let morph_indices: Vec<usize> = (0..self.morphs.morph_count())
+            .filter_map(|i| {
+                let morph = self.morphs.get_morph(i)?;
+                if morph.morph_type == MorphType::Vertex && !morph.vertex_offsets.is_empty() {
+                    Some(i)
+                } else {
+                    None
+                }
+            })
+            .collect();
+
+        if morph_indices.is_empty() {
+            log::info!("模型没有顶点 Morph，跳过 GPU Morph 初始化");
+            return GpuMorphTable { morph_indices, offsets: Vec::new() };
+        }
+
+        let is_effective = |vid: usize, offset: Vec3| vid < vertex_count && offset != Vec3::ZERO;
+
+        // 1. 统计每顶点条目数
+        let mut row_starts = vec![0u32; vertex_count + 1];
+        for &global_morph_idx in &morph_indices {
+            if let Some(morph) = self.morphs.get_morph(global_morph_idx) {
+                for offset in &morph.vertex_offsets {
+                    let vid = offset.vertex_index as usize;
+                    if is_effective(vid, offset.offset) {
+                        row_starts[vid + 1] += 1;
+                    }
+                }
+            }
+        }
+        for v in 0..vertex_count {
+            row_starts[v + 1] += row_starts[v];
+        }
+        let entry_count = row_starts[vertex_count] as usize;
+
+        // 2. 按 Morph 顺序填充条目（每行内自然按 Morph 索引升序）
+        let entries_base = vertex_count + 1;
+        let mut data = vec![0u32; entries_base + entry_count * 4];
+        data[..entries_base].copy_from_slice(&row_starts);
+        let mut cursor: Vec<u32> = row_starts[..vertex_count].to_vec();
+        for (morph_idx, &global_morph_idx) in morph_indices.iter().enumerate() {
+            if let Some(morph) = self.morphs.get_morph(global_morph_idx) {
+                for offset in &morph.vertex_offsets {
+                    let vid = offset.vertex_index as usize;
+                    if !is_effective(vid, offset.offset) {
+                        continue;
+                    }
+                    let e = entries_base + cursor[vid] as usize * 4;
+                    cursor[vid] += 1;
+                    data[e] = morph_idx as u32;
+                    data[e + 1] = offset.offset.x.to_bits();
+                    data[e + 2] = offset.offset.y.to_bits();
+                    data[e + 3] = offset.offset.z.to_bits();
+                }
+            }
+        }
+
+        let dense_bytes = morph_indices.len() * vertex_count * 12;
+        log::info!(
+            "GPU Morph 数据初始化完成: {} 个顶点 Morph, {} 个偏移, 数据大小 {:.2} MB（密集格式需 {:.2} MB）",
+            morph_indices.len(),
+            entry_count,
+            (data.len() * 4) as f64 / 1024.0 / 1024.0,
+            dense_bytes as f64 / 1024.0 / 1024.0
+        );
+        GpuMorphTable { morph_indices, offsets: data }
+    }
+
+    /// GPU UV Morph 偏移表（稀疏→密集格式）
+    pub fn gpu_uv_morphs(&self) -> &GpuUvMorphTable {
+        self.gpu_uv_morphs.get_or_init(|| self.build_gpu_uv_morphs())
+    }
+
+    fn build_gpu_uv_morphs(&self) -> GpuUvMorphTable {
+        let vertex_count = self.vertices.len();
+
+        // 收集所有 UV 类型的 Morph 索引
+        let morph_indices: Vec<usize> = (0..self.morphs.morph_count())
+            .filter_map(|i| {
+                let morph = self.morphs.get_morph(i)?;
+                if (morph.morph_type == MorphType::Uv || morph.morph_type == MorphType::AdditionalUv1)
+                    && !morph.uv_offsets.is_empty()
+                {
+                    Some(i)
+                } else {
+                    None
+                }
+            })
+            .collect();
+
+        if morph_indices.is_empty() {
+            log::info!("模型没有 UV Morph，跳过 GPU UV Morph 初始化");
+            return GpuUvMorphTable { morph_indices, offsets: Vec::new() };
+        }
+
+        // 分配密集格式的偏移数据并填充稀疏数据
+        let total_floats = morph_indices.len() * vertex_count * 2;
+        let mut offsets = vec![0.0f32; total_floats];
+        for (morph_idx, &global_morph_idx) in morph_indices.iter().enumerate() {
+            if let Some(morph) = self.morphs.get_morph(global_morph_idx) {
+                let base_offset = morph_idx * vertex_count * 2;
+                for offset in &morph.uv_offsets {
+                    let vid = offset.vertex_index as usize;
+                    if vid < vertex_count {
+                        let idx = base_offset + vid * 2;
+                        offsets[idx] = offset.offset.x;
+                        offsets[idx + 1] = offset.offset.y;
+                    }
+                }
+            }
+        }
+
+        log::info!(
+            "GPU UV Morph 数据初始化完成: {} 个 UV Morph, 数据大小 {:.2} KB",
+            morph_indices.len(),
+            (total_floats * 4) as f64 / 1024.0
+        );
+        GpuUvMorphTable { morph_indices, offsets }
+    }
+
+    /// 资产在 Rust 堆上的内存占用（字节，含已构建的派生表）
+    pub fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        let mut total: u64 = 0;
+
+        total += (self.vertices.capacity() * size_of::<RuntimeVertex>()) as u64;
+        total += (self.indices.capacity() * size_of::<u32>()) as u64;
+        total += (self.weights.capacity() * size_of::<VertexWeight>()) as u64;
+        total += (self.materials.capacity() * size_of::<MmdMaterial>()) as u64;
+        total += (self.submeshes.capacity() * size_of::<SubMesh>()) as u64;
+        // texture_paths: 每个 String 有堆分配
+        for s in &self.texture_paths {
+            total += s.capacity() as u64;
+        }
+        total += (self.texture_paths.capacity() * size_of::<String>()) as u64;
+        total += self.embedded_textures.pending_bytes() as u64;
+
+        // PMX 原始数据（刚体/关节）
+        total += (self.rigid_bodies.capacity() * size_of::<mmd::pmx::rigid_body::RigidBody>()) as u64;
+        total += (self.joints.capacity() * size_of::<mmd::pmx::joint::Joint>()) as u64;
+
+        total += self.bones.memory_usage();
+        total += self.morphs.definitions_memory_usage();
+
+        if let Some(g) = self.gpu_skinning.get() {
+            total += (g.bone_indices.capacity() * size_of::<i32>()) as u64;
+            total += (g.bone_weights.capacity() * size_of::<f32>()) as u64;
+            total += (g.original_positions.capacity() * size_of::<f32>()) as u64;
+            total += (g.original_normals.capacity() * size_of::<f32>()) as u64;
+        }
+        if let Some(t) = self.gpu_morphs.get() {
+            total += (t.offsets.capacity() * size_of::<u32>()) as u64;
+            total += (t.morph_indices.capacity() * size_of::<usize>()) as u64;
+        }
+        if let Some(t) = self.gpu_uv_morphs.get() {
+            total += (t.offsets.capacity() * size_of::<f32>()) as u64;
+            total += (t.morph_indices.capacity() * size_of::<usize>()) as u64;
+        }
+        total
+    }
+}
+
+impl Default for ModelAsset {
+    fn default() -> Self {
+        Self::new()
+    }
+}
+
+// ============================================================================
+// 资产表
+// ============================================================================
+
+#[derive(Clone, PartialEq, Eq, Hash)]
+struct AssetKey {
+    path: PathBuf,
+    kind: u32,
+    len: u64,
+    modified: Option<SystemTime>,
+}
+
+impl AssetKey {
+    fn of(path: &Path, kind: SourceKind) -> Option<Self> {
+        let meta = std::fs::metadata(path).ok()?;
+        Some(Self {
+            path: path.canonicalize().unwrap_or_else(|_| path.to_path_buf()),
+            kind: kind as u32,
+            len: meta.len(),
+            modified: meta.modified().ok(),
+        })
+    }
+}
+
+static ASSETS: Lazy<Mutex<HashMap<AssetKey, Weak<ModelAsset>>>> = Lazy::new(|| Mutex::new(HashMap::new()));
+
+/// 获取共享资产：已有存活资产时直接返回，否则经磁盘缓存加载（`parse` 为缓存未命中时的解析器）
+///
+/// 两个线程同时首次加载同一文件时可能各解析一次，登记时以先完成者为准。
+pub fn load_shared<F>(path: &Path, kind: SourceKind, parse: F) -> Result<Arc<ModelAsset>>
+where
+    F: FnOnce() -> Result<ModelAsset>,
+{
+    let key = AssetKey::of(path, kind);
+    if let Some(ref key) = key {
+        let assets = ASSETS.lock().unwrap_or_else(|e| e.into_inner());
+        if let Some(asset) = assets.get(key).and_then(Weak::upgrade) {
+            log::info!("模型资产复用: {} (已有 {} 个实例)", path.display(), Arc::strong_count(&asset) - 1);
+            return Ok(asset);
+        }
+    }
+
+    let asset = Arc::new(load_with_cache(path, kind, parse)?);
+
+    if let Some(key) = key {
+        let mut assets = ASSETS.lock().unwrap_or_else(|e| e.into_inner());
+        assets.retain(|_, w| w.strong_count() > 0);
+        if let Some(existing) = assets.get(&key).and_then(Weak::upgrade) {
+            return Ok(existing);
+        }
+        assets.insert(key, Arc::downgrade(&asset));
+    }
+    Ok(asset)
+}
+
+#[cfg(test)]
+mod tests {
+    use glam::{Vec2, Vec3};
+
+    use super::*;
+    use crate::morph::{Morph, VertexMorphOffset};
+
+    fn vertex_morph(name: &str, offsets: &[(u32, Vec3)]) -> Morph {
+        let mut morph = Morph::new(name.to_string(), MorphType::Vertex);
+        morph.vertex_offsets = offsets
+            .iter()
+            .map(|&(vertex_index, offset)| VertexMorphOffset { vertex_index, offset })
+            .collect();
+        morph
+    }
+
+    fn asset_with_vertices(count: usize) -> ModelAsset {
+        let mut asset = ModelAsset::new();
+        asset.vertices = (0..count)
+            .map(|i| RuntimeVertex { position: Vec3::splat(i as f32), normal: Vec3::Y, uv: Vec2::ZERO })
+            .collect();
+        asset
+    }
+
+    fn entry(morph: u32, offset: Vec3) -> [u32; 4] {
+        [morph, offset.x.to_bits(), offset.y.to_bits(), offset.z.to_bits()]
+    }
+
+    #[test]
+    fn csr_merges_overlapping_morphs_per_vertex() {
+        let mut asset = asset_with_vertices(4);
+        // 顶点 0 的零偏移与越界顶点 9 都不应产生条目
+        asset.morphs.add_morph(vertex_morph("a", &[
+            (1, Vec3::new(1.0, 0.0, 0.0)),
+            (2, Vec3::new(0.0, 2.0, 0.0)),
+            (0, Vec3::ZERO),
+            (9, Vec3::ONE),
+        ]));
+        asset.morphs.add_morph(Morph::new("group".to_string(), MorphType::Group));
+        asset.morphs.add_morph(vertex_morph("b", &[
+            (3, Vec3::new(4.0, 0.0, 0.0)),
+            (2, Vec3::new(0.0, 0.0, 3.0)),
+        ]));
+        asset.morphs.add_morph(vertex_morph("empty", &[]));
+
+        let table = asset.gpu_morphs();
+        assert_eq!(table.morph_indices, vec![0, 2]);
+
+        let row_starts = &table.offsets[..5];
+        assert_eq!(row_starts, &[0, 0, 1, 3, 4]);
+
+        let entries: Vec<[u32; 4]> = table.offsets[5..]
+            .chunks_exact(4)
+            .map(|c| [c[0], c[1], c[2], c[3]])
+            .collect();
+        assert_eq!(entries, vec![
+            entry(0, Vec3::new(1.0, 0.0, 0.0)),
+            // 顶点 2 被两个 Morph 共享：行内按 GPU Morph 索引升序
+            entry(0, Vec3::new(0.0, 2.0, 0.0)),
+            entry(1, Vec3::new(0.0, 0.0, 3.0)),
+            entry(1, Vec3::new(4.0, 0.0, 0.0)),
+        ]);
+    }
+
+    #[test]
+    fn csr_is_empty_without_vertex_morphs() {
+        let mut asset = asset_with_vertices(2);
+        asset.morphs.add_morph(Morph::new("group".to_string(), MorphType::Group));
+
+        let table = asset.gpu_morphs();
+        assert!(table.morph_indices.is_empty());
+        assert!(table.offsets.is_empty());
+    }
+}
@@ -0,0 +1,1157 @@
+//! 解析模型磁盘缓存
+//!
+//! PMX / VRM 的解析结果以版本化二进制格式保存在 Java 指定的缓存目录中，
+//! 文件名由源文件内容哈希、源类型和格式版本组成。命中时通过 mmap 读取缓存并直接重建 ModelAsset，
+//! 完全跳过 PMX 读取器、glTF 导入与 VRM 纹理提取。
+//!
+//! 文件布局（小端）：
+//! - 头部：魔数 `MMDC`、格式版本、源类型、源文件长度、源内容哈希
+//! - 依次为：模型名、顶点、索引、权重、材质、子网格、纹理路径、骨骼、Morph、刚体、关节
+//! - 顶点 / 索引 / 权重 / 顶点与 UV Morph 偏移为 16 字节对齐的定长记录块，按切片顺序解码
+//!
+//! 缓存只保存静态数据；GPU 蒙皮/Morph 表由资产按需派生，蒙皮结果等实例状态在 `MmdModel::from_asset` 中初始化。
+//! 缓存文件先写入临时文件再重命名，已发布的文件不会被原地修改（mmap 读取的前提）。
+
+use std::fs::{self, File};
+use std::io::Write;
+use std::path::{Path, PathBuf};
+use std::sync::atomic::{AtomicU64, Ordering};
+use std::sync::RwLock;
+
+use glam::{Quat, Vec2, Vec3, Vec4};
+use memmap2::Mmap;
+use mmd::pmx::joint::{Joint, JointType};
+use mmd::pmx::rigid_body::{RigidBody, RigidBodyMode, RigidBodyShape};
+use once_cell::sync::Lazy;
+
+use crate::morph::{
+    BoneMorphOffset, GroupMorphOffset, MaterialMorphOffset, Morph, MorphManager, MorphType,
+    UvMorphOffset, VertexMorphOffset,
+};
+use crate::skeleton::{AppendConfig, BoneFlags, BoneLink, BoneSet, IkConfig, IkLink};
+use crate::texture;
+use crate::Result;
+
+use super::{MmdMaterial, ModelAsset, RuntimeVertex, SubMesh, VertexWeight};
+
+const MAGIC: &[u8; 4] = b"MMDC";
+/// 格式版本：布局或加载器转换逻辑（坐标翻转、缩放等）变化时必须递增
+const CACHE_VERSION: u32 = 2;
+const CACHE_EXTENSION: &str = "mmdc";
+
+/// 定长记录大小（字节）
+const VERTEX_RECORD: usize = 32;
+const WEIGHT_RECORD: usize = 72;
+const VERTEX_MORPH_RECORD: usize = 16;
+const UV_MORPH_RECORD: usize = 20;
+
+/// 源模型类型
+#[derive(Clone, Copy, Debug, PartialEq, Eq)]
+pub enum SourceKind {
+    Pmx = 1,
+    Vrm = 2,
+}
+
+static CACHE_DIR: Lazy<RwLock<Option<PathBuf>>> = Lazy::new(|| RwLock::new(None));
+static TEMP_COUNTER: AtomicU64 = AtomicU64::new(0);
+
+/// 设置缓存目录（None 关闭缓存），并清理旧版本缓存与残留临时文件
+pub fn set_cache_dir(dir: Option<PathBuf>) {
+    let dir = dir.and_then(|d| match fs::create_dir_all(&d) {
+        Ok(_) => {
+            remove_stale_files(&d);
+            Some(d)
+        }
+        Err(e) => {
+            log::warn!("模型缓存目录不可用 {}: {}", d.display(), e);
+            None
+        }
+    });
+    *CACHE_DIR.write().unwrap_or_else(|e| e.into_inner()) = dir;
+}
+
+/// 当前缓存目录（未设置或已关闭时为 None），纹理压缩缓存与模型缓存共用
+pub(crate) fn cache_dir() -> Option<PathBuf> {
+    CACHE_DIR.read().unwrap_or_else(|e| e.into_inner()).clone()
+}
+
+/// 带缓存加载：命中则从缓存重建，否则调用 `parse` 解析并写入缓存
+pub fn load_with_cache<F>(path: &Path, kind: SourceKind, parse: F) -> Result<ModelAsset>
+where
+    F: FnOnce() -> Result<ModelAsset>,
+{
+    let dir = match cache_dir() {
+        Some(d) => d,
+        None => return parse(),
+    };
+    let source = match SourceInfo::read(path) {
+        Some(s) => s,
+        None => return parse(),
+    };
+    let cache_path = dir.join(format!(
+        "{:016x}_{}.v{}.{}",
+        source.hash, kind as u32, CACHE_VERSION, CACHE_EXTENSION
+    ));
+    let model_dir = normalized_parent(path);
+
+    if let Some(mut model) = read_cache(&cache_path, kind, &source, &model_dir) {
+        // VRM 纹理为内嵌纹理虚拟路径，加载时从源文件按需解码，无需重新解析
+        if kind == SourceKind::Vrm {
+            if let Some(stem) = path.file_stem().and_then(|s| s.to_str()) {
+                model.name = stem.to_string();
+            }
+            for p in &mut model.texture_paths {
+                if let Some(rebased) = texture::rebase_embedded(p, path) {
+                    *p = rebased;
+                }
+            }
+        }
+        log::info!("模型缓存命中: {} ({})", path.display(), cache_path.display());
+        return Ok(model);
+    }
+
+    let model = parse()?;
+    if let Err(e) = write_cache(&cache_path, kind, &source, &model_dir, &model) {
+        log::warn!("写入模型缓存失败 {}: {}", cache_path.display(), e);
+    }
+    Ok(model)
+}
+
+// ============================================================================
+// 源文件指纹
+// ============================================================================
+
+struct SourceInfo {
+    len: u64,
+    hash: u64,
+}
+
+impl SourceInfo {
+    fn read(path: &Path) -> Option<Self> {
+        let file = File::open(path).ok()?;
+        // 安全性：源文件只读映射，加载期间被外部修改最多导致哈希不匹配
+        let map = unsafe { Mmap::map(&file) }.ok()?;
+        Some(Self {
+            len: map.len() as u64,
+            hash: content_hash(&map),
+        })
+    }
+}
+
+/// 64 位内容哈希（按 8 字节字混合，仅用于缓存键，不要求密码学强度）
+pub(crate) fn content_hash(data: &[u8]) -> u64 {
+    const K0: u64 = 0x9E37_79B9_7F4A_7C15;
+    const K1: u64 = 0xBF58_476D_1CE4_E5B9;
+    const K2: u64 = 0x94D0_49BB_1331_11EB;
+
+    let mut h = 0xCBF2_9CE4_8422_2325u64 ^ (data.len() as u64).wrapping_mul(K0);
+    let mut chunks = data.chunks_exact(8);
+    for c in &mut chunks {
+        let v = u64::from_le_bytes([c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7]]);
+        h = (h ^ v.wrapping_mul(K0)).rotate_left(29).wrapping_mul(K1);
+    }
+    for &b in chunks.remainder() {
+        h = (h ^ b as u64).wrapping_mul(K1);
+    }
+    h ^= h >> 31;
+    h = h.wrapping_mul(K2);
+    h ^ (h >> 29)
+}
+
+fn normalized_parent(path: &Path) -> String {
+    path.parent()
+        .map(|p| p.to_string_lossy().replace('\\', "/"))
+        .unwrap_or_default()
+}
+
+fn remove_stale_files(dir: &Path) {
+    let current = format!(".v{}.{}", CACHE_VERSION, CACHE_EXTENSION);
+    let entries = match fs::read_dir(dir) {
+        Ok(e) => e,
+        Err(_) => return,
+    };
+    for entry in entries.flatten() {
+        let name = entry.file_name().to_string_lossy().into_owned();
+        let stale_version = (name.ends_with(CACHE_EXTENSION) && !name.ends_with(&current))
+            || crate::texture::is_stale_cache_file(&name);
+        if stale_version || name.ends_with(".tmp") {
+            let _ = fs::remove_file(entry.path());
+        }
+    }
+}
+
+// ============================================================================
+// 写入
+// ============================================================================
+
+fn write_cache(
+    cache_path: &Path,
+    kind: SourceKind,
+    source: &SourceInfo,
+    model_dir: &str,
+    model: &ModelAsset,
+) -> std::io::Result<()> {
+    let mut w = CacheWriter::default();
+    w.buf.extend_from_slice(MAGIC);
+    w.u32(CACHE_VERSION);
+    w.u32(kind as u32);
+    w.u64(source.len);
+    w.u64(source.hash);
+
+    w.string(&model.name);
+    w.u8(model.is_vrm as u8);
+
+    // 顶点：position(3) normal(3) uv(2)
+    w.count(model.vertices.len());
+    w.align();
+    for v in &model.vertices {
+        w.vec3(v.position);
+        w.vec3(v.normal);
+        w.f32(v.uv.x);
+        w.f32(v.uv.y);
+    }
+
+    w.count(model.indices.len());
+    w.align();
+    for &i in &model.indices {
+        w.u32(i);
+    }
+
+    // 权重：kind | bones[4] | weights[4] | sdef c/r0/r1
+    w.count(model.weights.len());
+    w.align();
+    for weight in &model.weights {
+        write_weight(&mut w, weight);
+    }
+
+    w.count(model.materials.len());
+    for m in &model.materials {
+        w.string(&m.name);
+        w.vec4(m.diffuse);
+        w.vec3(m.specular);
+        w.f32(m.specular_strength);
+        w.vec3(m.ambient);
+        w.vec4(m.edge_color);
+        w.f32(m.edge_scale);
+        w.i32(m.texture_index);
+        w.i32(m.environment_index);
+        w.i32(m.toon_index);
+        w.u8(m.draw_flags);
+    }
+
+    w.count(model.submeshes.len());
+    for s in &model.submeshes {
+        w.u32(s.begin_index);
+        w.u32(s.index_count);
+        w.i32(s.material_id);
+    }
+
+    // 纹理路径相对模型目录保存，同一文件位于不同目录时也能共享缓存
+    let prefix = format!("{}/", model_dir);
+    w.count(model.texture_paths.len());
+    for p in &model.texture_paths {
+        match p.strip_prefix(&prefix) {
+            Some(rel) if !model_dir.is_empty() => {
+                w.u8(1);
+                w.string(rel);
+            }
+            _ => {
+                w.u8(0);
+                w.string(p);
+            }
+        }
+    }
+
+    let bones = &model.bones;
+    w.count(bones.bone_count());
+    for bone in bones.links() {
+        write_bone(&mut w, bone);
+    }
+
+    let morphs = &model.morphs;
+    w.count(morphs.morph_count());
+    for i in 0..morphs.morph_count() {
+        if let Some(morph) = morphs.get_morph(i) {
+            write_morph(&mut w, morph);
+        }
+    }
+
+    w.count(model.rigid_bodies.len());
+    for rb in &model.rigid_bodies {
+        w.string(&rb.local_name);
+        w.string(&rb.universal_name);
+        w.i32(rb.bone_index);
+        w.u8(rb.group);
+        w.u16(rb.un_collision_group_flag);
+        w.u8(rb.shape as u8);
+        w.f32x3(rb.size);
+        w.f32x3(rb.position);
+        w.f32x3(rb.rotation);
+        w.f32(rb.mass);
+        w.f32(rb.move_attenuation);
+        w.f32(rb.rotation_attenuation);
+        w.f32(rb.repulsion);
+        w.f32(rb.friction);
+        w.u8(rb.mode as u8);
+    }
+
+    w.count(model.joints.len());
+    for j in &model.joints {
+        w.string(&j.local_name);
+        w.string(&j.universal_name);
+        w.u8(j.type_ as u8);
+        w.i32(j.rigid_body_a_index);
+        w.i32(j.rigid_body_b_index);
+        w.f32x3(j.position);
+        w.f32x3(j.rotation);
+        w.f32x3(j.position_min);
+        w.f32x3(j.position_max);
+        w.f32x3(j.rotation_min);
+        w.f32x3(j.rotation_max);
+        w.f32x3(j.position_spring);
+        w.f32x3(j.rotation_spring);
+    }
+
+    write_atomic(cache_path, &w.buf)?;
+    log::info!("模型缓存已写入: {} ({} 字节)", cache_path.display(), w.buf.len());
+    Ok(())
+}
+
+/// 原子写入缓存文件：先写临时文件再重命名，并发加载同一文件时不会读到写了一半的缓存
+pub(crate) fn write_atomic(cache_path: &Path, bytes: &[u8]) -> std::io::Result<()> {
+    let file_name = cache_path
+        .file_name()
+        .map(|n| n.to_string_lossy().into_owned())
+        .unwrap_or_default();
+    let temp_path = cache_path.with_file_name(format!(
+        "{}.{}.{}.tmp",
+        file_name,
+        std::process::id(),
+        TEMP_COUNTER.fetch_add(1, Ordering::Relaxed)
+    ));
+    let result = (|| {
+        let mut file = File::create(&temp_path)?;
+        file.write_all(bytes)?;
+        file.sync_all()?;
+        drop(file);
+        fs::rename(&temp_path, cache_path)
+    })();
+    if result.is_err() {
+        let _ = fs::remove_file(&temp_path);
+    }
+    result
+}
+
+fn write_weight(w: &mut CacheWriter, weight: &VertexWeight) {
+    let (kind, bones, weights, sdef) = match *weight {
+        VertexWeight::Bdef1 { bone } => (0u32, [bone, -1, -1, -1], [1.0, 0.0, 0.0, 0.0], None),
+        VertexWeight::Bdef2 { bones, weight } => {
+            (1, [bones[0], bones[1], -1, -1], [weight, 0.0, 0.0, 0.0], None)
+        }
+        VertexWeight::Bdef4 { bones, weights } => (2, bones, weights, None),
+        VertexWeight::Sdef { bones, weight, c, r0, r1 } => {
+            (3, [bones[0], bones[1], -1, -1], [weight, 0.0, 0.0, 0.0], Some((c, r0, r1)))
+        }
+        VertexWeight::Qdef { bones, weights } => (4, bones, weights, None),
+    };
+    w.u32(kind);
+    for b in bones {
+        w.i32(b);
+    }
+    for x in weights {
+        w.f32(x);
+    }
+    let (c, r0, r1) = sdef.unwrap_or((Vec3::ZERO, Vec3::ZERO, Vec3::ZERO));
+    w.vec3(c);
+    w.vec3(r0);
+    w.vec3(r1);
+}
+
+fn write_bone(w: &mut CacheWriter, bone: &BoneLink) {
+    w.string(&bone.name);
+    w.i32(bone.parent_index);
+    w.i32(bone.transform_level);
+    w.u32(bone.flags.bits());
+    w.vec3(bone.initial_position);
+    w.vec3(bone.fixed_axis);
+    w.vec3(bone.local_axis_x);
+    w.vec3(bone.local_axis_z);
+    w.quat(bone.rest_rotation);
+    w.quat(bone.parent_rest_rotation);
+
+    match bone.append_config {
+        Some(ref a) => {
+            w.u8(1);
+            w.i32(a.parent);
+            w.f32(a.rate);
+        }
+        None => w.u8(0),
+    }
+
+    match bone.ik_config {
+        Some(ref ik) => {
+            w.u8(1);
+            w.i32(ik.target_bone);
+            w.u32(ik.iterations);
+            w.f32(ik.limit_angle);
+            w.count(ik.links.len());
+            for link in &ik.links {
+                w.i32(link.bone_index);
+                w.u8(link.has_limits as u8);
+                w.vec3(link.limit_min);
+                w.vec3(link.limit_max);
+            }
+        }
+        None => w.u8(0),
+    }
+}
+
+fn write_morph(w: &mut CacheWriter, morph: &Morph) {
+    w.string(&morph.name);
+    w.u8(morph_type_to_u8(&morph.morph_type));
+
+    w.count(morph.vertex_offsets.len());
+    w.align();
+    for o in &morph.vertex_offsets {
+        w.u32(o.vertex_index);
+        w.vec3(o.offset);
+    }
+
+    w.count(morph.bone_offsets.len());
+    for o in &morph.bone_offsets {
+        w.u32(o.bone_index);
+        w.vec3(o.translation);
+        w.vec4(o.rotation);
+    }
+
+    w.count(morph.material_offsets.len());
+    for o in &morph.material_offsets {
+        w.i32(o.material_index);
+        w.u8(o.operation);
+        w.vec4(o.diffuse);
+        w.vec3(o.specular);
+        w.f32(o.specular_strength);
+        w.vec3(o.ambient);
+        w.vec4(o.edge_color);
+        w.f32(o.edge_size);
+        w.vec4(o.texture_tint);
+        w.vec4(o.environment_tint);
+        w.vec4(o.toon_tint);
+    }
+
+    w.count(morph.uv_offsets.len());
+    w.align();
+    for o in &morph.uv_offsets {
+        w.u32(o.vertex_index);
+        w.vec4(o.offset);
+    }
+
+    w.count(morph.group_offsets.len());
+    for o in &morph.group_offsets {
+        w.u32(o.morph_index);
+        w.f32(o.influence);
+    }
+}
+
+#[derive(Default)]
+struct CacheWriter {
+    buf: Vec<u8>,
+}
+
+impl CacheWriter {
+    fn u8(&mut self, v: u8) {
+        self.buf.push(v);
+    }
+
+    fn u16(&mut self, v: u16) {
+        self.buf.extend_from_slice(&v.to_le_bytes());
+    }
+
+    fn u32(&mut self, v: u32) {
+        self.buf.extend_from_slice(&v.to_le_bytes());
+    }
+
+    fn i32(&mut self, v: i32) {
+        self.buf.extend_from_slice(&v.to_le_bytes());
+    }
+
+    fn u64(&mut self, v: u64) {
+        self.buf.extend_from_slice(&v.to_le_bytes());
+    }
+
+    fn f32(&mut self, v: f32) {
+        self.buf.extend_from_slice(&v.to_le_bytes());
+    }
+
+    fn f32x3(&mut self, v: [f32; 3]) {
+        for x in v {
+            self.f32(x);
+        }
+    }
+
+    fn vec3(&mut self, v: Vec3) {
+        self.f32x3(v.to_array());
+    }
+
+    fn vec4(&mut self, v: Vec4) {
+        for x in v.to_array() {
+            self.f32(x);
+        }
+    }
+
+    fn quat(&mut self, q: Quat) {
+        self.vec4(Vec4::from(q));
+    }
+
+    fn count(&mut self, n: usize) {
+        self.u64(n as u64);
+    }
+
+    fn string(&mut self, s: &str) {
+        self.u32(s.len() as u32);
+        self.buf.extend_from_slice(s.as_bytes());
+    }
+
+    /// 记录块起始按 16 字节对齐
+    fn align(&mut self) {
+        while self.buf.len() % 16 != 0 {
+            self.buf.push(0);
+        }
+    }
+}
+
+// ============================================================================
+// 读取
+// ============================================================================
+
+fn read_cache(
+    cache_path: &Path,
+    kind: SourceKind,
+    source: &SourceInfo,
+    model_dir: &str,
+) -> Option<ModelAsset> {
+    let file = File::open(cache_path).ok()?;
+    // 安全性：缓存文件只通过重命名整体替换，不会被原地修改
+    let map = unsafe { Mmap::map(&file) }.ok()?;
+    let mut r = CacheReader { data: &map, pos: 0 };
+
+    if r.bytes(4)? != MAGIC
+        || r.u32()? != CACHE_VERSION
+        || r.u32()? != kind as u32
+        || r.u64()? != source.len
+        || r.u64()? != source.hash
+    {
+        return None;
+    }
+
+    let model = decode_model(&mut r, model_dir);
+    if model.is_none() {
+        log::warn!("模型缓存已损坏，将重新解析: {}", cache_path.display());
+    }
+    model
+}
+
+fn decode_model(r: &mut CacheReader, model_dir: &str) -> Option<ModelAsset> {
+    let name = r.string()?;
+    let is_vrm = r.u8()? != 0;
+
+    let n = r.count()?;
+    let vertices: Vec<RuntimeVertex> = r
+        .records(n, VERTEX_RECORD)?
+        .chunks_exact(VERTEX_RECORD)
+        .map(|c| RuntimeVertex {
+            position: vec3_at(c, 0),
+            normal: vec3_at(c, 12),
+            uv: Vec2::new(f32_at(c, 24), f32_at(c, 28)),
+        })
+        .collect();
+
+    let n = r.count()?;
+    let indices: Vec<u32> = r.records(n, 4)?.chunks_exact(4).map(|c| u32_at(c, 0)).collect();
+
+    let n = r.count()?;
+    let weights = r
+        .records(n, WEIGHT_RECORD)?
+        .chunks_exact(WEIGHT_RECORD)
+        .map(read_weight)
+        .collect::<Option<Vec<_>>>()?;
+
+    let n = r.count()?;
+    let mut materials = Vec::with_capacity(n);
+    for _ in 0..n {
+        materials.push(MmdMaterial {
+            name: r.string()?,
+            diffuse: r.vec4()?,
+            specular: r.vec3()?,
+            specular_strength: r.f32()?,
+            ambient: r.vec3()?,
+            edge_color: r.vec4()?,
+            edge_scale: r.f32()?,
+            texture_index: r.i32()?,
+            environment_index: r.i32()?,
+            toon_index: r.i32()?,
+            draw_flags: r.u8()?,
+        });
+    }
+
+    let n = r.count()?;
+    let mut submeshes = Vec::with_capacity(n);
+    for _ in 0..n {
+        submeshes.push(SubMesh::new(r.u32()?, r.u32()?, r.i32()?));
+    }
+
+    let n = r.count()?;
+    let mut texture_paths = Vec::with_capacity(n);
+    for _ in 0..n {
+        let relative = r.u8()? != 0;
+        let p = r.string()?;
+        texture_paths.push(if relative { format!("{}/{}", model_dir, p) } else { p });
+    }
+
+    let n = r.count()?;
+    let mut bone_manager = BoneSet::new();
+    bone_manager.set_vrm(is_vrm);
+    for _ in 0..n {
+        bone_manager.add_bone(read_bone(r)?);
+    }
+    bone_manager.build_hierarchy();
+
+    let n = r.count()?;
+    let mut morph_manager = MorphManager::new();
+    for _ in 0..n {
+        morph_manager.add_morph(read_morph(r)?);
+    }
+
+    let n = r.count()?;
+    let mut rigid_bodies = Vec::with_capacity(n);
+    for _ in 0..n {
+        rigid_bodies.push(RigidBody {
+            local_name: r.string()?,
+            universal_name: r.string()?,
+            bone_index: r.i32()?,
+            group: r.u8()?,
+            un_collision_group_flag: r.u16()?,
+            shape: match r.u8()? {
+                0 => RigidBodyShape::Sphere,
+                1 => RigidBodyShape::Box,
+                2 => RigidBodyShape::Capsule,
+                _ => return None,
+            },
+            size: r.f32x3()?,
+            position: r.f32x3()?,
+            rotation: r.f32x3()?,
+            mass: r.f32()?,
+            move_attenuation: r.f32()?,
+            rotation_attenuation: r.f32()?,
+            repulsion: r.f32()?,
+            friction: r.f32()?,
+            mode: match r.u8()? {
+                0 => RigidBodyMode::Static,
+                1 => RigidBodyMode::Dynamic,
+                2 => RigidBodyMode::DynamicWithBonePosition,
+                _ => return None,
+            },
+        });
+    }
+
+    let n = r.count()?;
+    let mut joints = Vec::with_capacity(n);
+    for _ in 0..n {
+        joints.push(Joint {
+            local_name: r.string()?,
+            universal_name: r.string()?,
+            type_: match r.u8()? {
+                0 => JointType::Spring6DOF,
+                1 => JointType::SixDof,
+                2 => JointType::P2p,
+                3 => JointType::ConeTwist,
+                4 => JointType::Slider,
+                5 => JointType::Hinge,
+                _ => return None,
+            },
+            rigid_body_a_index: r.i32()?,
+            rigid_body_b_index: r.i32()?,
+            position: r.f32x3()?,
+            rotation: r.f32x3()?,
+            position_min: r.f32x3()?,
+            position_max: r.f32x3()?,
+            rotation_min: r.f32x3()?,
+            rotation_max: r.f32x3()?,
+            position_spring: r.f32x3()?,
+            rotation_spring: r.f32x3()?,
+        });
+    }
+
+    if weights.len() != vertices.len() {
+        return None;
+    }
+
+    // 与 load_pmx / load_vrm 相同的收尾流程
+    let mut model = ModelAsset::new();
+    model.name = name;
+    model.is_vrm = is_vrm;
+    model.vertices = vertices;
+    model.indices = indices;
+    model.weights = weights;
+    model.materials = materials;
+    model.submeshes = submeshes;
+    model.texture_paths = texture_paths;
+    model.rigid_bodies = rigid_bodies;
+    model.joints = joints;
+    model.bones = bone_manager;
+    model.morphs = morph_manager;
+
+    model.morphs.set_material_count(model.materials.len());
+    model.morphs.set_vertex_count(model.vertices.len());
+
+    Some(model)
+}
+
+fn read_weight(c: &[u8]) -> Option<VertexWeight> {
+    let bones = [i32_at(c, 4), i32_at(c, 8), i32_at(c, 12), i32_at(c, 16)];
+    let weights = [f32_at(c, 20), f32_at(c, 24), f32_at(c, 28), f32_at(c, 32)];
+    Some(match u32_at(c, 0) {
+        0 => VertexWeight::Bdef1 { bone: bones[0] },
+        1 => VertexWeight::Bdef2 { bones: [bones[0], bones[1]], weight: weights[0] },
+        2 => VertexWeight::Bdef4 { bones, weights },
+        3 => VertexWeight::Sdef {
+            bones: [bones[0], bones[1]],
+            weight: weights[0],
+            c: vec3_at(c, 36),
+            r0: vec3_at(c, 48),
+            r1: vec3_at(c, 60),
+        },
+        4 => VertexWeight::Qdef { bones, weights },
+        _ => return None,
+    })
+}
+
+fn read_bone(r: &mut CacheReader) -> Option<BoneLink> {
+    let mut bone = BoneLink::new(r.string()?);
+    bone.parent_index = r.i32()?;
+    bone.transform_level = r.i32()?;
+    bone.flags = BoneFlags::from_bits_truncate(r.u32()?);
+    bone.initial_position = r.vec3()?;
+    bone.fixed_axis = r.vec3()?;
+    bone.local_axis_x = r.vec3()?;
+    bone.local_axis_z = r.vec3()?;
+    bone.rest_rotation = r.quat()?;
+    bone.parent_rest_rotation = r.quat()?;
+
+    if r.u8()? != 0 {
+        bone.append_config = Some(AppendConfig {
+            parent: r.i32()?,
+            rate: r.f32()?,
+        });
+    }
+
+    if r.u8()? != 0 {
+        let target_bone = r.i32()?;
+        let iterations = r.u32()?;
+        let limit_angle = r.f32()?;
+        let n = r.count()?;
+        let mut links = Vec::with_capacity(n);
+        for _ in 0..n {
+            links.push(IkLink {
+                bone_index: r.i32()?,
+                has_limits: r.u8()? != 0,
+                limit_min: r.vec3()?,
+                limit_max: r.vec3()?,
+            });
+        }
+        bone.ik_config = Some(IkConfig {
+            target_bone,
+            iterations,
+            limit_angle,
+            links,
+        });
+    }
+
+    Some(bone)
+}
+
+fn read_morph(r: &mut CacheReader) -> Option<Morph> {
+    let name = r.string()?;
+    let morph_type = morph_type_from_u8(r.u8()?)?;
+    let mut morph = Morph::new(name, morph_type);
+
+    let n = r.count()?;
+    morph.vertex_offsets = r
+        .records(n, VERTEX_MORPH_RECORD)?
+        .chunks_exact(VERTEX_MORPH_RECORD)
+        .map(|c| VertexMorphOffset {
+            vertex_index: u32_at(c, 0),
+            offset: vec3_at(c, 4),
+        })
+        .collect();
+
+    let n = r.count()?;
+    let mut bone_offsets = Vec::with_capacity(n);
+    for _ in 0..n {
+        bone_offsets.push(BoneMorphOffset {
+            bone_index: r.u32()?,
+            translation: r.vec3()?,
+            rotation: r.vec4()?,
+        });
+    }
+    morph.bone_offsets = bone_offsets;
+
+    let n = r.count()?;
+    let mut material_offsets = Vec::with_capacity(n);
+    for _ in 0..n {
+        material_offsets.push(MaterialMorphOffset {
+            material_index: r.i32()?,
+            operation: r.u8()?,
+            diffuse: r.vec4()?,
+            specular: r.vec3()?,
+            specular_strength: r.f32()?,
+            ambient: r.vec3()?,
+            edge_color: r.vec4()?,
+            edge_size: r.f32()?,
+            texture_tint: r.vec4()?,
+            environment_tint: r.vec4()?,
+            toon_tint: r.vec4()?,
+        });
+    }
+    morph.material_offsets = material_offsets;
+
+    let n = r.count()?;
+    morph.uv_offsets = r
+        .records(n, UV_MORPH_RECORD)?
+        .chunks_exact(UV_MORPH_RECORD)
+        .map(|c| UvMorphOffset {
+            vertex_index: u32_at(c, 0),
+            offset: Vec4::new(f32_at(c, 4), f32_at(c, 8), f32_at(c, 12), f32_at(c, 16)),
+        })
+        .collect();
+
+    let n = r.count()?;
+    let mut group_offsets = Vec::with_capacity(n);
+    for _ in 0..n {
+        group_offsets.push(GroupMorphOffset {
+            morph_index: r.u32()?,
+            influence: r.f32()?,
+        });
+    }
+    morph.group_offsets = group_offsets;
+
+    Some(morph)
+}
+
+fn morph_type_to_u8(t: &MorphType) -> u8 {
+    match t {
+        MorphType::Group => 0,
+        MorphType::Vertex => 1,
+        MorphType::Bone => 2,
+        MorphType::Uv => 3,
+        MorphType::AdditionalUv1 => 4,
+        MorphType::AdditionalUv2 => 5,
+        MorphType::AdditionalUv3 => 6,
+        MorphType::AdditionalUv4 => 7,
+        MorphType::Material => 8,
+        MorphType::Flip => 9,
+        MorphType::Impulse => 10,
+    }
+}
+
+fn morph_type_from_u8(v: u8) -> Option<MorphType> {
+    Some(match v {
+        0 => MorphType::Group,
+        1 => MorphType::Vertex,
+        2 => MorphType::Bone,
+        3 => MorphType::Uv,
+        4 => MorphType::AdditionalUv1,
+        5 => MorphType::AdditionalUv2,
+        6 => MorphType::AdditionalUv3,
+        7 => MorphType::AdditionalUv4,
+        8 => MorphType::Material,
+        9 => MorphType::Flip,
+        10 => MorphType::Impulse,
+        _ => return None,
+    })
+}
+
+#[inline]
+fn u32_at(c: &[u8], off: usize) -> u32 {
+    u32::from_le_bytes([c[off], c[off + 1], c[off + 2], c[off + 3]])
+}
+
+#[inline]
+fn i32_at(c: &[u8], off: usize) -> i32 {
+    u32_at(c, off) as i32
+}
+
+#[inline]
+fn f32_at(c: &[u8], off: usize) -> f32 {
+    f32::from_bits(u32_at(c, off))
+}
+
+#[inline]
+fn vec3_at(c: &[u8], off: usize) -> Vec3 {
+    Vec3::new(f32_at(c, off), f32_at(c, off + 4), f32_at(c, off + 8))
+}
+
+/// 缓存读取游标：越界或格式错误时返回 None
+struct CacheReader<'a> {
+    data: &'a [u8],
+    pos: usize,
+}
+
+impl<'a> CacheReader<'a> {
+    fn bytes(&mut self, n: usize) -> Option<&'a [u8]> {
+        let end = self.pos.checked_add(n)?;
+        let slice = self.data.get(self.pos..end)?;
+        self.pos = end;
+        Some(slice)
+    }
+
+    fn u8(&mut self) -> Option<u8> {
+        Some(self.bytes(1)?[0])
+    }
+
+    fn u16(&mut self) -> Option<u16> {
+        let b = self.bytes(2)?;
+        Some(u16::from_le_bytes([b[0], b[1]]))
+    }
+
+    fn u32(&mut self) -> Option<u32> {
+        Some(u32_at(self.bytes(4)?, 0))
+    }
+
+    fn i32(&mut self) -> Option<i32> {
+        Some(self.u32()? as i32)
+    }
+
+    fn u64(&mut self) -> Option<u64> {
+        let b = self.bytes(8)?;
+        Some(u64::from_le_bytes([b[0], b[1], b[2], b[3], b[4], b[5], b[6], b[7]]))
+    }
+
+    fn f32(&mut self) -> Option<f32> {
+        Some(f32::from_bits(self.u32()?))
+    }
+
+    fn f32x3(&mut self) -> Option<[f32; 3]> {
+        Some([self.f32()?, self.f32()?, self.f32()?])
+    }
+
+    fn vec3(&mut self) -> Option<Vec3> {
+        Some(Vec3::from_array(self.f32x3()?))
+    }
+
+    fn vec4(&mut self) -> Option<Vec4> {
+        Some(Vec4::new(self.f32()?, self.f32()?, self.f32()?, self.f32()?))
+    }
+
+    fn quat(&mut self) -> Option<Quat> {
+        Some(Quat::from_vec4(self.vec4()?))
+    }
+
+    /// 元素数量（不可能超过剩余字节数，防止损坏文件导致超大分配）
+    fn count(&mut self) -> Option<usize> {
+        let n = usize::try_from(self.u64()?).ok()?;
+        if n > self.data.len() - self.pos {
+            return None;
+        }
+        Some(n)
+    }
+
+    fn string(&mut self) -> Option<String> {
+        let n = self.u32()? as usize;
+        String::from_utf8(self.bytes(n)?.to_vec()).ok()
+    }
+
+    /// 跳到 16 字节对齐处，读取 n 个定长记录组成的连续块
+    fn records(&mut self, n: usize, size: usize) -> Option<&'a [u8]> {
+        self.pos = (self.pos + 15) & !15;
+        self.bytes(n.checked_mul(size)?)
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    const MODEL_DIR: &str = "C:/models/test";
+
+    fn temp_cache_path(name: &str) -> PathBuf {
+        std::env::temp_dir().join(format!(
+            "mmdc_test_{}_{}.v{}.{}",
+            std::process::id(),
+            name,
+            CACHE_VERSION,
+            CACHE_EXTENSION
+        ))
+    }
+
+    fn source() -> SourceInfo {
+        SourceInfo { len: 1234, hash: 0xDEAD_BEEF_0123_4567 }
+    }
+
+    /// 覆盖全部记录块与可选字段的最小模型
+    fn sample_model() -> ModelAsset {
+        let mut model = ModelAsset::new();
+        model.name = "测试模型".to_string();
+        model.vertices = (0..3)
+            .map(|i| RuntimeVertex {
+                position: Vec3::new(i as f32, 1.0, -2.0),
+                normal: Vec3::Y,
+                uv: Vec2::new(0.25 * i as f32, 0.5),
+            })
+            .collect();
+        model.indices = vec![0, 1, 2, 2, 1, 0];
+        model.weights = vec![
+            VertexWeight::Bdef1 { bone: 0 },
+            VertexWeight::Bdef2 { bones: [0, 1], weight: 0.75 },
+            VertexWeight::Sdef {
+                bones: [0, 1],
+                weight: 0.5,
+                c: Vec3::new(0.0, 1.0, 0.0),
+                r0: Vec3::new(0.1, 0.2, 0.3),
+                r1: Vec3::new(-0.1, -0.2, -0.3),
+            },
+        ];
+        model.materials = vec![MmdMaterial {
+            name: "body".to_string(),
+            diffuse: Vec4::new(1.0, 0.9, 0.8, 0.5),
+            specular: Vec3::new(0.1, 0.2, 0.3),
+            specular_strength: 5.0,
+            ambient: Vec3::splat(0.4),
+            edge_color: Vec4::new(0.0, 0.0, 0.0, 1.0),
+            edge_scale: 1.5,
+            texture_index: 1,
+            environment_index: -1,
+            toon_index: 0,
+            draw_flags: 0x01,
+        }];
+        model.submeshes = vec![SubMesh::new(0, 6, 0)];
+        model.texture_paths = vec![
+            format!("{}/tex/body.png", MODEL_DIR),
+            "D:/shared/toon01.bmp".to_string(),
+        ];
+
+        let mut root = BoneLink::new("センター".to_string());
+        root.initial_position = Vec3::new(0.0, 8.0, 0.0);
+        let mut child = BoneLink::new("左足ＩＫ".to_string());
+        child.parent_index = 0;
+        child.transform_level = 1;
+        child.append_config = Some(AppendConfig { parent: 0, rate: 0.5 });
+        child.ik_config = Some(IkConfig {
+            target_bone: 0,
+            iterations: 40,
+            limit_angle: 0.5,
+            links: vec![IkLink {
+                bone_index: 0,
+                has_limits: true,
+                limit_min: Vec3::new(-3.0, 0.0, 0.0),
+                limit_max: Vec3::new(-0.1, 0.0, 0.0),
+            }],
+        });
+        model.bones.add_bone(root);
+        model.bones.add_bone(child);
+        model.bones.build_hierarchy();
+
+        let mut vertex = Morph::new("あ".to_string(), MorphType::Vertex);
+        vertex.vertex_offsets = vec![
+            VertexMorphOffset { vertex_index: 1, offset: Vec3::new(0.0, 0.1, 0.0) },
+            VertexMorphOffset { vertex_index: 2, offset: Vec3::new(0.2, 0.0, 0.0) },
+        ];
+        let mut uv = Morph::new("uv".to_string(), MorphType::Uv);
+        uv.uv_offsets = vec![UvMorphOffset { vertex_index: 0, offset: Vec4::new(0.5, 0.0, 0.0, 0.0) }];
+        let mut group = Morph::new("group".to_string(), MorphType::Group);
+        group.group_offsets = vec![GroupMorphOffset { morph_index: 0, influence: 0.8 }];
+        model.morphs.add_morph(vertex);
+        model.morphs.add_morph(uv);
+        model.morphs.add_morph(group);
+        model
+    }
+
+    fn write_sample(name: &str) -> PathBuf {
+        let path = temp_cache_path(name);
+        write_cache(&path, SourceKind::Pmx, &source(), MODEL_DIR, &sample_model()).unwrap();
+        path
+    }
+
+    #[test]
+    fn round_trip_preserves_fields() {
+        let path = write_sample("round_trip");
+        let decoded = read_cache(&path, SourceKind::Pmx, &source(), MODEL_DIR).expect("缓存应命中");
+        let _ = fs::remove_file(&path);
+        let original = sample_model();
+
+        assert_eq!(decoded.name, original.name);
+        assert_eq!(decoded.vertices.len(), original.vertices.len());
+        for (a, b) in decoded.vertices.iter().zip(&original.vertices) {
+            assert_eq!((a.position, a.normal, a.uv), (b.position, b.normal, b.uv));
+        }
+        assert_eq!(decoded.indices, original.indices);
+        assert_eq!(format!("{:?}", decoded.weights), format!("{:?}", original.weights));
+        assert_eq!(format!("{:?}", decoded.materials), format!("{:?}", original.materials));
+        assert_eq!(format!("{:?}", decoded.submeshes), format!("{:?}", original.submeshes));
+        // 模型目录内的纹理按相对路径保存，读取时重新拼接
+        assert_eq!(decoded.texture_paths, original.texture_paths);
+
+        assert_eq!(decoded.bones.bone_count(), 2);
+        let child = decoded.bones.get_bone(1).unwrap();
+        assert_eq!(child.name, "左足ＩＫ");
+        assert_eq!(child.parent_index, 0);
+        assert_eq!(child.transform_level, 1);
+        let append = child.append_config.unwrap();
+        assert_eq!((append.parent, append.rate), (0, 0.5));
+        let ik = child.ik_config.as_ref().unwrap();
+        assert_eq!((ik.target_bone, ik.iterations, ik.limit_angle), (0, 40, 0.5));
+        assert_eq!(ik.links.len(), 1);
+        assert!(ik.links[0].has_limits);
+        assert_eq!(ik.links[0].limit_min, Vec3::new(-3.0, 0.0, 0.0));
+        assert_eq!(decoded.bones.get_bone(0).unwrap().initial_position, Vec3::new(0.0, 8.0, 0.0));
+
+        assert_eq!(decoded.morphs.morph_count(), 3);
+        let vertex = decoded.morphs.get_morph(0).unwrap();
+        assert_eq!(vertex.name, "あ");
+        assert_eq!(vertex.morph_type, MorphType::Vertex);
+        let offsets: Vec<_> = vertex.vertex_offsets.iter().map(|o| (o.vertex_index, o.offset)).collect();
+        assert_eq!(offsets, vec![(1, Vec3::new(0.0, 0.1, 0.0)), (2, Vec3::new(0.2, 0.0, 0.0))]);
+        let uv = decoded.morphs.get_morph(1).unwrap();
+        assert_eq!(uv.uv_offsets.len(), 1);
+        assert_eq!(uv.uv_offsets[0].offset, Vec4::new(0.5, 0.0, 0.0, 0.0));
+        let group = decoded.morphs.get_morph(2).unwrap();
+        assert_eq!(group.morph_type, MorphType::Group);
+        assert_eq!((group.group_offsets[0].morph_index, group.group_offsets[0].influence), (0, 0.8));
+    }
+
+    #[test]
+    fn rejects_wrong_version() {
+        let path = write_sample("wrong_version");
+        let mut bytes = fs::read(&path).unwrap();
+        bytes[4..8].copy_from_slice(&(CACHE_VERSION + 1).to_le_bytes());
+        fs::write(&path, &bytes).unwrap();
+        let decoded = read_cache(&path, SourceKind::Pmx, &source(), MODEL_DIR);
+        let _ = fs::remove_file(&path);
+        assert!(decoded.is_none());
+    }
+
+    #[test]
+    fn rejects_mismatched_source() {
+        let path = write_sample("mismatched_source");
+        let other = SourceInfo { len: 1234, hash: 1 };
+        assert!(read_cache(&path, SourceKind::Pmx, &other, MODEL_DIR).is_none());
+        assert!(read_cache(&path, SourceKind::Vrm, &source(), MODEL_DIR).is_none());
+        let _ = fs::remove_file(&path);
+    }
+
+    #[test]
+    fn rejects_truncated_file() {
+        let path = write_sample("truncated");
+        let bytes = fs::read(&path).unwrap();
+        // 头部内、记录块内、末尾少一个字节都不能被误读
+        for len in [10, bytes.len() / 2, bytes.len() - 1] {
+            fs::write(&path, &bytes[..len]).unwrap();
+            assert!(
+                read_cache(&path, SourceKind::Pmx, &source(), MODEL_DIR).is_none(),
+                "截断到 {} 字节时应拒绝",
+                len
+            );
+        }
+        let _ = fs::remove_file(&path);
+    }
+}
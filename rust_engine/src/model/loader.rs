@@ -16,10 +16,10 @@ use mmd::{
 use crate::skeleton::Bone;
 use crate::{MmdError, Result};
 
-use super::{MmdMaterial, MmdModel, RuntimeVertex, SubMesh, VertexWeight};
+use super::{MmdMaterial, ModelAsset, RuntimeVertex, SubMesh, VertexWeight};
 
 /// 从 PMX 文件加载模型
-pub fn load_pmx<P: AsRef<Path>>(path: P) -> Result<MmdModel> {
+pub fn load_pmx<P: AsRef<Path>>(path: P) -> Result<ModelAsset> {
     let file = File::open(path.as_ref()).map_err(|e| MmdError::Io(e))?;
     let mut reader = BufReader::new(file);
 
@@ -191,12 +191,7 @@ pub fn load_pmx<P: AsRef<Path>>(path: P) -> Result<MmdModel> {
         joints.push(j);
     }
 
-    // 初始化更新缓冲区
-    let update_positions: Vec<Vec3> = vertices.iter().map(|v| v.position).collect();
-    let update_normals: Vec<Vec3> = vertices.iter().map(|v| v.normal).collect();
-    let update_uvs: Vec<Vec2> = vertices.iter().map(|v| v.uv).collect();
-
-    let mut model = MmdModel::new();
+    let mut model = ModelAsset::new();
     model.name = model_name;
     model.vertices = vertices;
     model.indices = indices;
@@ -206,21 +201,12 @@ pub fn load_pmx<P: AsRef<Path>>(path: P) -> Result<MmdModel> {
     model.texture_paths = texture_paths;
     model.rigid_bodies = rigid_bodies;
     model.joints = joints;
-    model.update_positions = update_positions;
-    model.update_normals = update_normals;
-    model.update_uvs = update_uvs;
-    model.bone_manager = bone_manager;
-    model.morph_manager = morph_manager;
+    model.bones = bone_manager;
+    model.morphs = morph_manager;
     
     // 初始化 Morph 系统缓冲区（材质 Morph 结果 + UV Morph 偏移）
-    model.morph_manager.set_material_count(model.materials.len());
-    model.morph_manager.set_vertex_count(model.vertices.len());
-    
-    // 初始化材质可见性（默认全部可见）
-    model.init_material_visibility();
-
-    // 初始化后立即计算一次蒙皮，确保顶点位置正确
-    model.update();
+    model.morphs.set_material_count(model.materials.len());
+    model.morphs.set_vertex_count(model.vertices.len());
 
     Ok(model)
 }
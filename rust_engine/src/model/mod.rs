@@ -1,9 +1,11 @@
 //! MMD 模型运行时管理
 
 mod runtime;
+mod asset;
 mod loader;
 mod material;
 mod submesh;
+mod cache;
 
 mod vrm_loader;
 mod vrm_mesh;
@@ -14,10 +16,13 @@ mod vrm_extensions;
 mod bone_mapping;
 
 pub use runtime::MmdModel;
+pub use asset::{load_shared, ModelAsset};
 pub use loader::load_pmx;
 pub use vrm_loader::load_vrm;
 pub use material::MmdMaterial;
 pub use submesh::SubMesh;
+pub use cache::{load_with_cache, set_cache_dir, SourceKind};
+pub(crate) use cache::{cache_dir, content_hash, write_atomic};
 
 use glam::{Vec2, Vec3};
 
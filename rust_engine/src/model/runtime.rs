@@ -2,8 +2,9 @@
 
 use crate::animation::{VmdAnimation, AnimationLayerManager};
 use crate::morph::MorphManager;
-use crate::physics::MMDPhysics;
+use crate::physics::{tier, MMDPhysics, PhysicsTier};
 use crate::skeleton::BoneManager;
+use crate::skinning::SkinningPalette;
 use crate::vr::VrIkSolver;
 use glam::{Mat4, Quat, Vec2, Vec3, Vec4};
 use rayon::prelude::*;
@@ -11,7 +12,16 @@ use std::collections::HashMap;
 use std::sync::Arc;
 use std::time::{SystemTime, UNIX_EPOCH};
 
-use super::{MmdMaterial, RuntimeVertex, SubMesh, VertexWeight};
+use super::{ModelAsset, VertexWeight};
+
+/// GPU 顶点 Morph 权重阈值（不超过该值视为未激活；与原 Compute Shader 的 `w > 0.001` 一致，负权重不生效）
+const GPU_MORPH_WEIGHT_EPSILON: f32 = 0.001;
+
+/// 材质经 Morph 后 alpha 低于该值时不绘制（与 Java 侧逐子网格判定一致）
+const MATERIAL_ALPHA_CULL_EPSILON: f32 = 0.001;
+
+/// 只推进时钟跳过的时间超过该值（秒）时，恢复完整更新前重置物理
+const CLOCK_SKIP_PHYSICS_RESET: f32 = 0.5;
 
 thread_local! {
     /// 线程局部 PRNG 状态（xorshift32），避免多线程竞态
@@ -38,17 +48,19 @@ fn rand_float() -> f32 {
 }
 
 /// MMD 运行时模型
+///
+/// # 线程安全约定
+/// - `MmdModel` 为 `Send`，每个实例只被自身的 `Mutex` 保护（见 `jni_bridge::MODELS`），
+///   不同句柄的 `tick_animation` / `tick_animation_into` 可在不同线程上并行执行。
+/// - 模型不持有跨实例共享的可变状态：物理世界（`MMDPhysics`）、骨骼、Morph 权重与蒙皮缓冲区
+///   均为实例私有；跨实例共享的只有只读数据：`Arc<ModelAsset>`（几何、材质、Morph 定义与
+///   GPU 静态表，派生表经 `OnceCell` 初始化）、`PHYSICS_CONFIG`（`RwLock`）与 `Arc` 动画数据。
+///   随机数使用线程局部 PRNG，蒙皮内部使用全局 rayon 线程池（可被多个调用线程同时进入）。
+/// - 同一句柄的更新与读取（`GetPoss` / `GetNormals` 返回的裸指针）必须串行：
+///   Java 侧在屏障（等待更新完成）之后才可读取缓冲区或对同一模型发起下一次更新。
 pub struct MmdModel {
-    // 静态数据
-    pub name: String,
-    pub vertices: Vec<RuntimeVertex>,
-    pub indices: Vec<u32>,
-    pub weights: Vec<VertexWeight>,
-    pub materials: Vec<MmdMaterial>,
-    pub submeshes: Vec<SubMesh>,
-    pub texture_paths: Vec<String>,
-    pub rigid_bodies: Vec<mmd::pmx::rigid_body::RigidBody>,
-    pub joints: Vec<mmd::pmx::joint::Joint>,
+    /// 静态数据（同一模型文件的所有实例共享，见 model/asset.rs）
+    asset: Arc<ModelAsset>,
 
     // 运行时数据
     pub update_positions: Vec<Vec3>,
@@ -58,6 +70,8 @@ pub struct MmdModel {
     pub update_positions_raw: Vec<f32>,
     pub update_normals_raw: Vec<f32>,
     pub update_uvs_raw: Vec<f32>,
+    /// 每帧骨骼调色板（CPU 蒙皮批次由资产共享）
+    skin_palette: SkinningPalette,
 
     // 子系统
     pub bone_manager: BoneManager,
@@ -92,8 +106,18 @@ pub struct MmdModel {
     
     debug_logged: bool,
     
-    /// VRM 模型标志（影响坐标系处理）
-    is_vrm: bool,
+    /// 动画 LOD 降级：跳过物理、冻结 Morph 与自动眨眼（远处/小屏幕模型）
+    lod_reduced: bool,
+    /// LOD 降级时上一次更新前的蒙皮矩阵，跳帧期间与当前矩阵插值（GPU 蒙皮）
+    lod_prev_skinning: Vec<Mat4>,
+    /// 自上次完整更新以来只推进时钟跳过的时间（秒），超过阈值时下次更新前重置物理
+    clock_skipped: f32,
+    /// 到相机的距离（方块，由 Java 每帧设置），负数表示固定全速物理
+    physics_camera_distance: f32,
+    /// 当前物理质量等级（见 physics/tier.rs）
+    physics_tier: PhysicsTier,
+    /// 最近一次物理更新耗时（微秒）
+    physics_step_micros: u32,
     
     // 模型全局变换
     model_transform: Mat4,
@@ -106,36 +130,24 @@ pub struct MmdModel {
     
     // 材质可见性控制（用于脱外套等功能）
     material_visible: Vec<bool>,
+    /// 材质绘制掩码（可见且 Morph 后 alpha 不低于阈值），见 `sub_mesh_draw_mask`
+    material_draw_mask: Vec<bool>,
+    /// 绘制掩码版本号（掩码变化时递增）
+    material_draw_version: u32,
     
-    // GPU 蒙皮数据缓冲区
-    /// 骨骼索引（ivec4 格式，每顶点 4 个索引）
-    bone_indices: Vec<i32>,
-    /// 骨骼权重（vec4 格式，每顶点 4 个权重）
-    bone_weights: Vec<f32>,
-    /// 原始顶点位置（未蒙皮，用于 GPU 蒙皮）
-    original_positions: Vec<f32>,
-    /// 原始法线（未蒙皮，用于 GPU 蒙皮）
-    original_normals: Vec<f32>,
-    
-    // GPU Morph 数据缓冲区
-    /// 顶点 Morph 偏移数据（密集格式：morph_count * vertex_count * 3）
-    gpu_morph_offsets: Vec<f32>,
-    /// Morph 权重数组（用于 GPU）
+    // GPU Morph 数据缓冲区（偏移表与索引映射由资产共享，见 ModelAsset::gpu_morphs）
+    /// Morph 权重数组（用于 GPU，低于阈值的权重置 0）
     gpu_morph_weights: Vec<f32>,
-    /// 顶点 Morph 索引映射（GPU Morph 索引 -> MorphManager 索引）
-    vertex_morph_indices: Vec<usize>,
+    /// 当前帧非零权重的顶点 Morph 数量
+    gpu_active_morph_count: usize,
     /// 顶点 Morph 数量
     vertex_morph_count: usize,
     /// GPU Morph 数据是否已初始化
     gpu_morph_initialized: bool,
     
-    // GPU UV Morph 数据缓冲区
-    /// UV Morph 偏移数据（密集格式：uv_morph_count * vertex_count * 2）
-    gpu_uv_morph_offsets: Vec<f32>,
+    // GPU UV Morph 数据缓冲区（偏移表由资产共享，见 ModelAsset::gpu_uv_morphs）
     /// UV Morph 权重数组（用于 GPU）
     gpu_uv_morph_weights: Vec<f32>,
-    /// UV Morph 索引映射（GPU UV Morph 索引 -> MorphManager 索引）
-    uv_morph_indices: Vec<usize>,
     /// UV Morph 数量
     uv_morph_count: usize,
     /// GPU UV Morph 数据是否已初始化
@@ -150,6 +162,9 @@ pub struct MmdModel {
     // VPD 骨骼姿势覆盖（骨骼索引 -> (位移, 旋转)）
     vpd_bone_overrides: HashMap<usize, (Vec3, Quat)>,
     
+    /// 网络同步的骨骼姿势（远程玩家，按骨骼索引排列；None 表示未启用）
+    network_pose: Option<Vec<(Vec3, Quat)>>,
+    
     // ======== 第一人称模式 ========
     /// 第一人称模式是否启用
     first_person_enabled: bool,
@@ -200,22 +215,37 @@ pub struct MmdModel {
 impl MmdModel {
     /// 创建空模型
     pub fn new() -> Self {
+        Self::with_asset(Arc::new(ModelAsset::new()))
+    }
+
+    /// 从共享资产创建实例：克隆绑定姿态骨骼与 Morph 权重，初始化实例缓冲区并计算一次蒙皮
+    pub fn from_asset(asset: Arc<ModelAsset>) -> Self {
+        let mut model = Self::with_asset(asset);
+        let asset = model.asset.clone();
+        model.bone_manager = asset.bones.clone();
+        model.morph_manager = asset.morphs.clone();
+        model.update_positions = asset.vertices.iter().map(|v| v.position).collect();
+        model.update_normals = asset.vertices.iter().map(|v| v.normal).collect();
+        model.update_uvs = asset.vertices.iter().map(|v| v.uv).collect();
+
+        // 初始化材质可见性（默认全部可见）
+        model.init_material_visibility();
+
+        // 初始化后立即计算一次蒙皮，确保顶点位置正确
+        model.update();
+        model
+    }
+
+    fn with_asset(asset: Arc<ModelAsset>) -> Self {
         Self {
-            name: String::new(),
-            vertices: Vec::new(),
-            indices: Vec::new(),
-            weights: Vec::new(),
-            materials: Vec::new(),
-            submeshes: Vec::new(),
-            texture_paths: Vec::new(),
-            rigid_bodies: Vec::new(),
-            joints: Vec::new(),
+            asset,
             update_positions: Vec::new(),
             update_normals: Vec::new(),
             update_uvs: Vec::new(),
             update_positions_raw: Vec::new(),
             update_normals_raw: Vec::new(),
             update_uvs_raw: Vec::new(),
+            skin_palette: SkinningPalette::default(),
             bone_manager: BoneManager::new(),
             morph_manager: MorphManager::new(),
             animation_layer_manager: AnimationLayerManager::new(4), // 默认4层
@@ -238,29 +268,30 @@ impl MmdModel {
             is_blinking: false,
             blink_morph_index: None,
             debug_logged: false,
-            is_vrm: false,
+            lod_reduced: false,
+            lod_prev_skinning: Vec::new(),
+            clock_skipped: 0.0,
+            physics_camera_distance: -1.0,
+            physics_tier: PhysicsTier::Full,
+            physics_step_micros: 0,
             model_transform: Mat4::IDENTITY,
             physics: None,
             physics_enabled: false,
             physics_bone_transforms_buf: Vec::new(),
             material_visible: Vec::new(),
-            bone_indices: Vec::new(),
-            bone_weights: Vec::new(),
-            original_positions: Vec::new(),
-            original_normals: Vec::new(),
-            gpu_morph_offsets: Vec::new(),
+            material_draw_mask: Vec::new(),
+            material_draw_version: 0,
             gpu_morph_weights: Vec::new(),
-            vertex_morph_indices: Vec::new(),
+            gpu_active_morph_count: 0,
             vertex_morph_count: 0,
             gpu_morph_initialized: false,
-            gpu_uv_morph_offsets: Vec::new(),
             gpu_uv_morph_weights: Vec::new(),
-            uv_morph_indices: Vec::new(),
             uv_morph_count: 0,
             gpu_uv_morph_initialized: false,
             effective_weights_buf: Vec::new(),
             material_morph_results_flat_cache: Vec::new(),
             vpd_bone_overrides: HashMap::new(),
+            network_pose: None,
             vr_hand_mode: 0,
             hand_submesh_flags: Vec::new(),
             hand_detection_initialized: false,
@@ -283,31 +314,36 @@ impl MmdModel {
         }
     }
 
+    /// 共享的模型资产
+    pub fn asset(&self) -> &Arc<ModelAsset> {
+        &self.asset
+    }
+
     /// 获取顶点数量
     pub fn vertex_count(&self) -> usize {
-        self.vertices.len()
+        self.asset.vertices.len()
     }
 
     /// 获取索引数量
     pub fn index_count(&self) -> usize {
-        self.indices.len()
+        self.asset.indices.len()
     }
 
     /// 获取材质数量
     pub fn material_count(&self) -> usize {
-        self.materials.len()
+        self.asset.materials.len()
     }
 
     /// 获取子网格数量
     pub fn submesh_count(&self) -> usize {
-        self.submeshes.len()
+        self.asset.submeshes.len()
     }
     
     // ========== 材质可见性控制 ==========
     
     /// 初始化材质可见性（默认全部可见）
     pub fn init_material_visibility(&mut self) {
-        self.material_visible = vec![true; self.materials.len()];
+        self.material_visible = vec![true; self.asset.materials.len()];
     }
     
     /// 获取材质是否可见
@@ -325,7 +361,7 @@ impl MmdModel {
     /// 根据材质名称设置可见性（支持部分匹配）
     pub fn set_material_visible_by_name(&mut self, name: &str, visible: bool) -> usize {
         let mut count = 0;
-        for (i, mat) in self.materials.iter().enumerate() {
+        for (i, mat) in self.asset.materials.iter().enumerate() {
             if mat.name.contains(name) {
                 if i < self.material_visible.len() {
                     self.material_visible[i] = visible;
@@ -345,12 +381,12 @@ impl MmdModel {
     
     /// 获取材质名称
     pub fn get_material_name(&self, index: usize) -> Option<&str> {
-        self.materials.get(index).map(|m| m.name.as_str())
+        self.asset.materials.get(index).map(|m| m.name.as_str())
     }
     
     /// 获取所有材质名称列表
     pub fn get_material_names(&self) -> Vec<String> {
-        self.materials.iter().map(|m| m.name.clone()).collect()
+        self.asset.materials.iter().map(|m| m.name.clone()).collect()
     }
     
     // ========== 第一人称模式 ==========
@@ -398,15 +434,15 @@ impl MmdModel {
             Some(y) => y,
             None => {
                 log::warn!("颈部/头部骨骼均未找到，第一人称头部隐藏不可用");
-                self.head_submesh_flags = vec![false; self.submeshes.len()];
+                self.head_submesh_flags = vec![false; self.asset.submeshes.len()];
                 return;
             }
         };
         
         // 3. 对每个子网格，按顶点位置判断是否在脖子以上
-        self.head_submesh_flags = Vec::with_capacity(self.submeshes.len());
+        self.head_submesh_flags = Vec::with_capacity(self.asset.submeshes.len());
         
-        for submesh in &self.submeshes {
+        for submesh in &self.asset.submeshes {
             let begin = submesh.begin_index as usize;
             let count = submesh.index_count as usize;
             
@@ -420,16 +456,16 @@ impl MmdModel {
             
             for idx_offset in 0..count {
                 let index_pos = begin + idx_offset;
-                if index_pos >= self.indices.len() {
+                if index_pos >= self.asset.indices.len() {
                     break;
                 }
-                let vertex_idx = self.indices[index_pos] as usize;
-                if vertex_idx >= self.vertices.len() {
+                let vertex_idx = self.asset.indices[index_pos] as usize;
+                if vertex_idx >= self.asset.vertices.len() {
                     continue;
                 }
                 
                 total_count += 1;
-                if self.vertices[vertex_idx].position.y >= cutoff_y {
+                if self.asset.vertices[vertex_idx].position.y >= cutoff_y {
                     above_count += 1;
                 }
             }
@@ -438,7 +474,7 @@ impl MmdModel {
             let is_head = ratio > 0.5;
             self.head_submesh_flags.push(is_head);
             
-            let mat_name = self.materials.get(submesh.material_id as usize)
+            let mat_name = self.asset.materials.get(submesh.material_id as usize)
                 .map(|m| m.name.as_str())
                 .unwrap_or("?");
             if is_head {
@@ -519,7 +555,7 @@ impl MmdModel {
             
             // 收集非头部子网格使用的材质 ID（共享材质不能隐藏）
             let mut body_material_ids: std::collections::HashSet<usize> = std::collections::HashSet::new();
-            for (i, submesh) in self.submeshes.iter().enumerate() {
+            for (i, submesh) in self.asset.submeshes.iter().enumerate() {
                 let is_head = i < self.head_submesh_flags.len() && self.head_submesh_flags[i];
                 if !is_head {
                     body_material_ids.insert(submesh.material_id as usize);
@@ -528,10 +564,10 @@ impl MmdModel {
             
             // 仅隐藏只被头部子网格使用的材质
             let mut hidden_count = 0;
-            for (i, submesh) in self.submeshes.iter().enumerate() {
+            for (i, submesh) in self.asset.submeshes.iter().enumerate() {
                 if i < self.head_submesh_flags.len() && self.head_submesh_flags[i] {
                     let mat_id = submesh.material_id as usize;
-                    let mat_name = self.materials.get(mat_id)
+                    let mat_name = self.asset.materials.get(mat_id)
                         .map(|m| m.name.as_str()).unwrap_or("?");
                     if mat_id < self.material_visible.len() && !body_material_ids.contains(&mat_id) {
                         self.material_visible[mat_id] = false;
@@ -626,7 +662,7 @@ impl MmdModel {
     /// 更新 Morph 动画
     pub fn update_morph_animation(&mut self) {
         // 先将 update_positions 重置为原始顶点位置（因为 apply_morphs 是累加操作）
-        for (i, vertex) in self.vertices.iter().enumerate() {
+        for (i, vertex) in self.asset.vertices.iter().enumerate() {
             if i < self.update_positions.len() {
                 self.update_positions[i] = vertex.position;
             }
@@ -638,7 +674,7 @@ impl MmdModel {
         // 将 UV Morph 偏移应用到 UV 缓冲区
         let uv_deltas = self.morph_manager.get_uv_morph_deltas();
         if !uv_deltas.is_empty() {
-            for (i, vertex) in self.vertices.iter().enumerate() {
+            for (i, vertex) in self.asset.vertices.iter().enumerate() {
                 if i < self.update_uvs.len() && i < uv_deltas.len() {
                     self.update_uvs[i] = vertex.uv + uv_deltas[i];
                 }
@@ -653,16 +689,43 @@ impl MmdModel {
 
     /// 更新顶点（蒙皮计算）- 使用 rayon 并行加速
     pub fn update(&mut self) {
-        let bone_matrices = self.bone_manager.get_skinning_matrices();
-        let vertex_count = self.vertices.len();
-        let raw_len = vertex_count * 3;
-
+        let raw_len = self.asset.vertices.len() * 3;
         if self.update_positions_raw.len() != raw_len {
             self.update_positions_raw.resize(raw_len, 0.0);
         }
         if self.update_normals_raw.len() != raw_len {
             self.update_normals_raw.resize(raw_len, 0.0);
         }
+
+        // 临时取出平铺缓冲区，避免与 self 的其他字段产生借用冲突
+        let mut pos_raw = std::mem::take(&mut self.update_positions_raw);
+        let mut norm_raw = std::mem::take(&mut self.update_normals_raw);
+        self.skin_vertices_into(&mut pos_raw, &mut norm_raw);
+        self.update_positions_raw = pos_raw;
+        self.update_normals_raw = norm_raw;
+    }
+
+    /// 更新顶点并将蒙皮结果直接写入外部缓冲区（持久映射 GL 缓冲区）
+    ///
+    /// 与 `update()` 相同的蒙皮流程，但跳过内部 `update_positions_raw` /
+    /// `update_normals_raw`，省去 Rust → Java ByteBuffer → GL 的两次中转拷贝。
+    /// 调用后 `GetPoss` / `GetNormals` 返回的数据不再代表当前帧。
+    ///
+    /// 返回 false 表示外部缓冲区容量不足，未写入任何数据。
+    pub fn update_into(&mut self, pos_out: &mut [f32], norm_out: &mut [f32]) -> bool {
+        let raw_len = self.asset.vertices.len() * 3;
+        if pos_out.len() < raw_len || norm_out.len() < raw_len {
+            return false;
+        }
+        self.skin_vertices_into(&mut pos_out[..raw_len], &mut norm_out[..raw_len]);
+        true
+    }
+
+    /// 蒙皮计算核心：输出到给定的平铺缓冲区（每顶点 3 个 f32）
+    fn skin_vertices_into(&mut self, pos_raw: &mut [f32], norm_raw: &mut [f32]) {
+        let bone_matrices = self.bone_manager.get_skinning_matrices();
+        let vertex_count = self.asset.vertices.len();
+
         if self.update_uvs_raw.len() != self.update_uvs.len() * 2 {
             self.update_uvs_raw.resize(self.update_uvs.len() * 2, 0.0);
         }
@@ -676,52 +739,33 @@ impl MmdModel {
                 chunk[1] = uv.y;
             });
 
-        // 并行蒙皮计算
-        let vertices = &self.vertices;
-        let weights = &self.weights;
-        
-        // 将输出切片分块，每个顶点对应 3 个 f32
-        let pos_raw = &mut self.update_positions_raw;
-        let norm_raw = &mut self.update_normals_raw;
-        let positions = &mut self.update_positions;
-        let normals = &mut self.update_normals;
-        
-        // 并行计算所有顶点（使用已应用 Morph 的 update_positions）
-        positions
-            .par_iter_mut()
-            .zip(normals.par_iter_mut())
-            .zip(pos_raw.par_chunks_mut(3))
-            .zip(norm_raw.par_chunks_mut(3))
-            .zip(vertices.par_iter())
-            .zip(weights.par_iter())
-            .for_each(|(((((pos_out, norm_out), pos_chunk), norm_chunk), vertex), weight)| {
-                // 使用 pos_out（即 update_positions，已应用 Morph）作为蒙皮输入
-                let morph_position = *pos_out;
-                let (pos, norm) = compute_vertex_skinning(
-                    morph_position,  // 使用已应用 Morph 的位置
-                    vertex.normal,
-                    weight,
-                    &bone_matrices,
-                );
-                
-                *pos_out = pos;
-                *norm_out = norm;
-                
-                pos_chunk[0] = pos.x;
-                pos_chunk[1] = pos.y;
-                pos_chunk[2] = pos.z;
-                norm_chunk[0] = norm.x;
-                norm_chunk[1] = norm.y;
-                norm_chunk[2] = norm.z;
-            });
+        // 批次按权重类型预分拣，由资产构建一次、所有实例共享
+        let bone_count = bone_matrices.len();
+        let skin_count = vertex_count.min(self.asset.weights.len()).min(self.update_positions.len());
+        let batches = self.asset.skin_batches();
+        if !batches.matches(skin_count, bone_count) {
+            return;
+        }
+
+        // 每帧一次性派生骨骼调色板（仿射矩阵 + SDEF/QDEF 所需的四元数/对偶四元数）
+        self.skin_palette.update(bone_matrices, batches.has_sdef(), batches.has_qdef());
+
+        // 并行蒙皮（输入为已应用 Morph 的 update_positions，原地覆盖为蒙皮结果）
+        batches.skin(
+            &self.skin_palette,
+            &mut self.update_positions[..skin_count],
+            &mut self.update_normals[..skin_count],
+            &mut pos_raw[..skin_count * 3],
+            &mut norm_raw[..skin_count * 3],
+        );
 
         // 调试日志（只在首次执行）
         if !self.debug_logged {
             self.debug_logged = true;
             log::info!(
-                "MMD Debug: vertex_count={}, pos_raw_len={}, uv_raw_len={} (rayon并行蒙皮)",
+                "MMD Debug: vertex_count={}, pos_raw_len={}, uv_raw_len={} (SIMD 分批蒙皮)",
                 vertex_count,
-                self.update_positions_raw.len(),
+                pos_raw.len(),
                 self.update_uvs_raw.len(),
             );
         }
@@ -847,6 +891,27 @@ impl MmdModel {
 
     /// 更新动画（每帧调用）- 多动画层版本（CPU蒙皮模式）
     pub fn tick_animation(&mut self, elapsed: f32) {
+        self.tick_animation_pose(elapsed);
+        self.update();
+    }
+
+    /// 更新动画并将 CPU 蒙皮结果直接写入外部缓冲区（持久映射流式上传）
+    ///
+    /// 外部缓冲区容量不足时回退到内部缓冲区，返回 false。
+    pub fn tick_animation_into(&mut self, elapsed: f32, pos_out: &mut [f32], norm_out: &mut [f32]) -> bool {
+        self.tick_animation_pose(elapsed);
+        if self.update_into(pos_out, norm_out) {
+            true
+        } else {
+            self.update();
+            false
+        }
+    }
+
+    /// 推进动画层并计算骨骼/Morph/物理姿态（不含顶点蒙皮）
+    fn tick_animation_pose(&mut self, elapsed: f32) {
+        self.resume_after_clock_skip();
+
         // 更新所有动画层
         self.animation_layer_manager.update(elapsed);
 
@@ -862,14 +927,20 @@ impl MmdModel {
         // 应用 VPD 骨骼姿势覆盖（在动画评估后）
         self.apply_vpd_bone_overrides();
         
-        // 自动眨眼
-        self.update_auto_blink(elapsed);
+        // 自动眨眼（LOD 降级时冻结）
+        if !self.lod_reduced {
+            self.update_auto_blink(elapsed);
+        }
 
         // VR 模式下跳过普通头部旋转，由 VR IK 接管
         if !self.vr_enabled {
             self.apply_head_rotation();
         }
-        self.update_morph_animation();
+        self.apply_network_pose();
+        // LOD 降级时保留上次的 Morph 结果
+        if !self.lod_reduced {
+            self.update_morph_animation();
+        }
         
         // 骨骼更新（物理前）— 先计算当前帧全局变换
         self.update_node_animation(false);
@@ -881,8 +952,10 @@ impl MmdModel {
             self.vr_ik_solver.solve(&mut self.bone_manager, &tracking, strength);
         }
         
-        // 物理更新
-        self.update_physics(elapsed);
+        // 物理更新（LOD 降级时跳过）
+        if !self.lod_reduced {
+            self.update_physics(elapsed);
+        }
         
         // 骨骼更新（物理后）
         self.update_node_animation(true);
@@ -894,8 +967,6 @@ impl MmdModel {
         
         // 应用矩阵插值过渡
         self.apply_transition_blend(elapsed);
-        
-        self.update();
     }
     
     /// 应用矩阵插值过渡
@@ -1191,14 +1262,9 @@ impl MmdModel {
         self.model_transform
     }
 
-    /// 设置 VRM 模型标志
-    pub fn set_vrm(&mut self, is_vrm: bool) {
-        self.is_vrm = is_vrm;
-    }
-
     /// 是否为 VRM 模型
     pub fn is_vrm(&self) -> bool {
-        self.is_vrm
+        self.asset.is_vrm
     }
 
     /// 获取右手矩阵
@@ -1240,7 +1306,7 @@ impl MmdModel {
 
     /// 获取索引数据指针
     pub fn get_indices_ptr(&self) -> *const u32 {
-        self.indices.as_ptr()
+        self.asset.indices.as_ptr()
     }
     
     // ========== 批量子网格元数据（G3 优化）==========
@@ -1259,20 +1325,20 @@ impl MmdModel {
     /// 返回写入的子网格数量
     pub fn batch_get_sub_mesh_data(&self, output: &mut [u8]) -> usize {
         const STRIDE: usize = 20;
-        let count = self.submeshes.len();
+        let count = self.asset.submeshes.len();
         if output.len() < count * STRIDE {
             return 0;
         }
         
-        for (i, submesh) in self.submeshes.iter().enumerate() {
+        for (i, submesh) in self.asset.submeshes.iter().enumerate() {
             let mat_id = submesh.material_id as i32;
             let begin = submesh.begin_index as i32;
             let vert_count = submesh.index_count as i32;
-            let alpha = self.materials.get(submesh.material_id as usize)
+            let alpha = self.asset.materials.get(submesh.material_id as usize)
                 .map(|m| m.diffuse.w)
                 .unwrap_or(1.0f32);
             let visible: u8 = if self.is_material_visible(submesh.material_id as usize) { 1 } else { 0 };
-            let both_face: u8 = self.materials.get(submesh.material_id as usize)
+            let both_face: u8 = self.asset.materials.get(submesh.material_id as usize)
                 .map(|m| if m.is_double_sided() { 1u8 } else { 0u8 })
                 .unwrap_or(0u8);
             
@@ -1291,125 +1357,78 @@ impl MmdModel {
         count
     }
     
-    // ========== GPU 蒙皮相关方法 ==========
-    
-    /// 初始化 GPU 蒙皮数据（模型加载后调用）
-    pub fn init_gpu_skinning_data(&mut self) {
-        let vertex_count = self.vertices.len();
-        
-        // 初始化骨骼索引和权重缓冲区（每顶点 4 个）
-        self.bone_indices = vec![-1; vertex_count * 4];
-        self.bone_weights = vec![0.0; vertex_count * 4];
-        
-        // 从权重数据填充
-        for (i, weight) in self.weights.iter().enumerate() {
-            let base = i * 4;
-            match weight {
-                VertexWeight::Bdef1 { bone } => {
-                    self.bone_indices[base] = *bone;
-                    self.bone_weights[base] = 1.0;
-                }
-                VertexWeight::Bdef2 { bones, weight } => {
-                    self.bone_indices[base] = bones[0];
-                    self.bone_indices[base + 1] = bones[1];
-                    self.bone_weights[base] = *weight;
-                    self.bone_weights[base + 1] = 1.0 - *weight;
-                }
-                VertexWeight::Bdef4 { bones, weights } => {
-                    for j in 0..4 {
-                        self.bone_indices[base + j] = bones[j];
-                        self.bone_weights[base + j] = weights[j];
-                    }
-                }
-                VertexWeight::Sdef { bones, weight, .. } => {
-                    // SDEF 退化为 BDEF2
-                    self.bone_indices[base] = bones[0];
-                    self.bone_indices[base + 1] = bones[1];
-                    self.bone_weights[base] = *weight;
-                    self.bone_weights[base + 1] = 1.0 - *weight;
-                }
-                VertexWeight::Qdef { bones, weights } => {
-                    for j in 0..4 {
-                        self.bone_indices[base + j] = bones[j];
-                        self.bone_weights[base + j] = weights[j];
-                    }
-                }
+    /// 按子网格输出绘制掩码（每子网格 1 字节：1 绘制 / 0 跳过），仅在版本号变化时写入
+    ///
+    /// 掩码按材质重算（可见性 + 材质 Morph 后的 alpha），覆盖所有可见性来源
+    /// （手动隐藏、第一人称、VR 手部模式）；无变化时版本号不变，Java 侧跳过全部子网格处理。
+    /// 返回当前版本号；输出缓冲区不足时返回 `known_version` 且不写入。
+    pub fn sub_mesh_draw_mask(&mut self, known_version: u32, output: &mut [u8]) -> u32 {
+        let material_count = self.asset.materials.len();
+        let mut changed = false;
+        if self.material_draw_mask.len() != material_count {
+            self.material_draw_mask = vec![false; material_count];
+            changed = true;
+        }
+        let results = self.morph_manager.get_material_morph_results();
+        for (i, mat) in self.asset.materials.iter().enumerate() {
+            let alpha = match results.get(i) {
+                Some(r) => mat.diffuse.w * r.mul.diffuse.w + r.add.diffuse.w,
+                None => mat.diffuse.w,
+            };
+            let visible = self.material_visible.get(i).copied().unwrap_or(true);
+            let draw = visible && alpha >= MATERIAL_ALPHA_CULL_EPSILON;
+            if self.material_draw_mask[i] != draw {
+                self.material_draw_mask[i] = draw;
+                changed = true;
             }
         }
-        
-        // 初始化原始顶点数据（未蒙皮）
-        self.original_positions = Vec::with_capacity(vertex_count * 3);
-        self.original_normals = Vec::with_capacity(vertex_count * 3);
-        
-        for vertex in &self.vertices {
-            self.original_positions.push(vertex.position.x);
-            self.original_positions.push(vertex.position.y);
-            self.original_positions.push(vertex.position.z);
-            self.original_normals.push(vertex.normal.x);
-            self.original_normals.push(vertex.normal.y);
-            self.original_normals.push(vertex.normal.z);
+        if changed {
+            self.material_draw_version = self.material_draw_version.wrapping_add(1);
         }
         
-        // 调试：检查骨骼索引范围和权重
-        let bone_count = self.bone_manager.bone_count();
-        let mut max_bone_idx = -1i32;
-        let mut invalid_idx_count = 0usize;
-        let mut zero_weight_count = 0usize;
-        
-        for i in 0..vertex_count {
-            let base = i * 4;
-            let mut total_weight = 0.0f32;
-            let mut valid_bones = 0;
-            
-            for j in 0..4 {
-                let idx = self.bone_indices[base + j];
-                let weight = self.bone_weights[base + j];
-                
-                if idx > max_bone_idx {
-                    max_bone_idx = idx;
-                }
-                if idx >= 0 && idx < bone_count as i32 {
-                    valid_bones += 1;
-                    total_weight += weight;
-                } else if idx >= bone_count as i32 {
-                    invalid_idx_count += 1;
-                }
-            }
-            
-            if valid_bones > 0 && total_weight < 0.001 {
-                zero_weight_count += 1;
-            }
+        let version = self.material_draw_version;
+        if version == known_version {
+            return version;
         }
-        
-        if invalid_idx_count > 0 {
-            log::warn!("GPU 蒙皮: 发现 {} 个无效骨骼索引 (>= {})", invalid_idx_count, bone_count);
+        let submeshes = &self.asset.submeshes;
+        if output.len() < submeshes.len() {
+            return known_version;
         }
-        if zero_weight_count > 0 {
-            log::warn!("GPU 蒙皮: 发现 {} 个顶点权重为0", zero_weight_count);
+        for (out, submesh) in output.iter_mut().zip(submeshes.iter()) {
+            let draw = self.material_draw_mask
+                .get(submesh.material_id as usize)
+                .copied()
+                .unwrap_or(false);
+            *out = draw as u8;
         }
-        
-        log::info!("GPU 蒙皮数据初始化完成: {} 顶点, {} 骨骼, 最大骨骼索引: {}", 
-            vertex_count, bone_count, max_bone_idx);
+        version
+    }
+    
+    // ========== GPU 蒙皮相关方法 ==========
+    
+    /// 初始化 GPU 蒙皮数据（模型加载后调用；数据由资产构建一次、所有实例共享）
+    pub fn init_gpu_skinning_data(&mut self) {
+        self.asset.gpu_skinning();
     }
     
     /// 获取骨骼索引数据指针
     pub fn get_bone_indices_ptr(&self) -> *const i32 {
-        self.bone_indices.as_ptr()
+        self.asset.gpu_skinning().bone_indices.as_ptr()
     }
     
     /// 获取骨骼索引数据引用
     pub fn get_bone_indices(&self) -> &[i32] {
-        &self.bone_indices
+        &self.asset.gpu_skinning().bone_indices
     }
     
     /// 获取骨骼权重数据指针
     pub fn get_bone_weights_ptr(&self) -> *const f32 {
-        self.bone_weights.as_ptr()
+        self.asset.gpu_skinning().bone_weights.as_ptr()
     }
     
     /// 获取骨骼权重数据引用
     pub fn get_bone_weights(&self) -> &[f32] {
-        &self.bone_weights
+        &self.asset.gpu_skinning().bone_weights
     }
     
     /// 获取物理系统动态骨骼数量
@@ -1423,71 +1442,25 @@ impl MmdModel {
     
     /// 获取原始顶点位置数据指针
     pub fn get_original_positions_ptr(&self) -> *const f32 {
-        self.original_positions.as_ptr()
+        self.asset.gpu_skinning().original_positions.as_ptr()
     }
     
     /// 获取原始法线数据指针
     pub fn get_original_normals_ptr(&self) -> *const f32 {
-        self.original_normals.as_ptr()
+        self.asset.gpu_skinning().original_normals.as_ptr()
     }
     
     // ========== GPU Morph ==========
     
-    /// 初始化 GPU 顶点 Morph 数据（稀疏→密集格式）
+    /// 初始化 GPU 顶点 Morph 数据（偏移表布局见 `ModelAsset::gpu_morphs`，只分配实例权重缓冲区）
     pub fn init_gpu_morph_data(&mut self) {
         if self.gpu_morph_initialized {
             return;
         }
         
-        let vertex_count = self.vertices.len();
-        
-        // 收集所有顶点类型的 Morph 索引
-        self.vertex_morph_indices = (0..self.morph_manager.morph_count())
-            .filter_map(|i| {
-                let morph = self.morph_manager.get_morph(i)?;
-                if morph.morph_type == crate::morph::MorphType::Vertex && !morph.vertex_offsets.is_empty() {
-                    Some(i)
-                } else {
-                    None
-                }
-            })
-            .collect();
-        
-        self.vertex_morph_count = self.vertex_morph_indices.len();
-        
-        if self.vertex_morph_count == 0 {
-            log::info!("模型没有顶点 Morph，跳过 GPU Morph 初始化");
-            self.gpu_morph_initialized = true;
-            return;
-        }
-        
-        // 分配密集格式的偏移数据：morph_count * vertex_count * 3 (xyz)
-        let total_floats = self.vertex_morph_count * vertex_count * 3;
-        self.gpu_morph_offsets = vec![0.0f32; total_floats];
+        self.vertex_morph_count = self.asset.gpu_morphs().morph_indices.len();
         self.gpu_morph_weights = vec![0.0f32; self.vertex_morph_count];
-        
-        // 填充稀疏数据到密集格式
-        for (morph_idx, &global_morph_idx) in self.vertex_morph_indices.iter().enumerate() {
-            if let Some(morph) = self.morph_manager.get_morph(global_morph_idx) {
-                let base_offset = morph_idx * vertex_count * 3;
-                for offset in &morph.vertex_offsets {
-                    let vid = offset.vertex_index as usize;
-                    if vid < vertex_count {
-                        let idx = base_offset + vid * 3;
-                        self.gpu_morph_offsets[idx] = offset.offset.x;
-                        self.gpu_morph_offsets[idx + 1] = offset.offset.y;
-                        self.gpu_morph_offsets[idx + 2] = offset.offset.z;
-                    }
-                }
-            }
-        }
-        
         self.gpu_morph_initialized = true;
-        log::info!(
-            "GPU Morph 数据初始化完成: {} 个顶点 Morph, 数据大小 {:.2} MB",
-            self.vertex_morph_count,
-            (total_floats * 4) as f64 / 1024.0 / 1024.0
-        );
     }
     
     /// 计算并缓存所有 Morph 的有效权重（递归展开 Group/Flip）
@@ -1515,23 +1488,36 @@ impl MmdModel {
         if !self.gpu_morph_initialized || self.vertex_morph_count == 0 {
             return;
         }
-        for (gpu_idx, &morph_idx) in self.vertex_morph_indices.iter().enumerate() {
+        self.gpu_active_morph_count = 0;
+        for (gpu_idx, &morph_idx) in self.asset.gpu_morphs().morph_indices.iter().enumerate() {
             if gpu_idx < self.gpu_morph_weights.len() && morph_idx < self.effective_weights_buf.len() {
-                self.gpu_morph_weights[gpu_idx] = self.effective_weights_buf[morph_idx];
+                let w = self.effective_weights_buf[morph_idx];
+                // 不超过阈值的权重（含负权重）置 0，Compute Shader 中按 0 跳过
+                if w > GPU_MORPH_WEIGHT_EPSILON {
+                    self.gpu_morph_weights[gpu_idx] = w;
+                    self.gpu_active_morph_count += 1;
+                } else {
+                    self.gpu_morph_weights[gpu_idx] = 0.0;
+                }
             }
         }
     }
     
+    /// 当前帧非零权重的顶点 Morph 数量（为 0 时 Compute Shader 可跳过整个 Morph 阶段）
+    pub fn get_active_vertex_morph_count(&self) -> usize {
+        self.gpu_active_morph_count
+    }
+    
     pub fn get_vertex_morph_count(&self) -> usize {
         self.vertex_morph_count
     }
     
-    pub fn get_gpu_morph_offsets_ptr(&self) -> *const f32 {
-        self.gpu_morph_offsets.as_ptr()
+    pub fn get_gpu_morph_offsets_ptr(&self) -> *const u32 {
+        self.asset.gpu_morphs().offsets.as_ptr()
     }
     
     pub fn get_gpu_morph_offsets_size(&self) -> usize {
-        self.gpu_morph_offsets.len() * 4
+        self.asset.gpu_morphs().offsets.len() * 4
     }
     
     pub fn get_gpu_morph_weights_ptr(&self) -> *const f32 {
@@ -1544,63 +1530,15 @@ impl MmdModel {
     
     // ========== GPU UV Morph ==========
     
-    /// 初始化 GPU UV Morph 数据（稀疏→密集格式）
+    /// 初始化 GPU UV Morph 数据（偏移表见 `ModelAsset::gpu_uv_morphs`，只分配实例权重缓冲区）
     pub fn init_gpu_uv_morph_data(&mut self) {
         if self.gpu_uv_morph_initialized {
             return;
         }
         
-        let vertex_count = self.vertices.len();
-        
-        // 收集所有 UV 类型的 Morph 索引
-        self.uv_morph_indices = (0..self.morph_manager.morph_count())
-            .filter_map(|i| {
-                let morph = self.morph_manager.get_morph(i)?;
-                if (morph.morph_type == crate::morph::MorphType::Uv
-                    || morph.morph_type == crate::morph::MorphType::AdditionalUv1)
-                    && !morph.uv_offsets.is_empty()
-                {
-                    Some(i)
-                } else {
-                    None
-                }
-            })
-            .collect();
-        
-        self.uv_morph_count = self.uv_morph_indices.len();
-        
-        if self.uv_morph_count == 0 {
-            log::info!("模型没有 UV Morph，跳过 GPU UV Morph 初始化");
-            self.gpu_uv_morph_initialized = true;
-            return;
-        }
-        
-        // 分配密集格式的偏移数据：uv_morph_count * vertex_count * 2 (uv)
-        let total_floats = self.uv_morph_count * vertex_count * 2;
-        self.gpu_uv_morph_offsets = vec![0.0f32; total_floats];
+        self.uv_morph_count = self.asset.gpu_uv_morphs().morph_indices.len();
         self.gpu_uv_morph_weights = vec![0.0f32; self.uv_morph_count];
-        
-        // 填充稀疏数据到密集格式
-        for (morph_idx, &global_morph_idx) in self.uv_morph_indices.iter().enumerate() {
-            if let Some(morph) = self.morph_manager.get_morph(global_morph_idx) {
-                let base_offset = morph_idx * vertex_count * 2;
-                for offset in &morph.uv_offsets {
-                    let vid = offset.vertex_index as usize;
-                    if vid < vertex_count {
-                        let idx = base_offset + vid * 2;
-                        self.gpu_uv_morph_offsets[idx] = offset.offset.x;
-                        self.gpu_uv_morph_offsets[idx + 1] = offset.offset.y;
-                    }
-                }
-            }
-        }
-        
         self.gpu_uv_morph_initialized = true;
-        log::info!(
-            "GPU UV Morph 数据初始化完成: {} 个 UV Morph, 数据大小 {:.2} KB",
-            self.uv_morph_count,
-            (total_floats * 4) as f64 / 1024.0
-        );
     }
     
     /// 同步 GPU UV Morph 有效权重（从已缓存的有效权重读取）
@@ -1608,7 +1546,7 @@ impl MmdModel {
         if !self.gpu_uv_morph_initialized || self.uv_morph_count == 0 {
             return;
         }
-        for (gpu_idx, &morph_idx) in self.uv_morph_indices.iter().enumerate() {
+        for (gpu_idx, &morph_idx) in self.asset.gpu_uv_morphs().morph_indices.iter().enumerate() {
             if gpu_idx < self.gpu_uv_morph_weights.len() && morph_idx < self.effective_weights_buf.len() {
                 self.gpu_uv_morph_weights[gpu_idx] = self.effective_weights_buf[morph_idx];
             }
@@ -1622,12 +1560,12 @@ impl MmdModel {
     
     /// 获取 GPU UV Morph 偏移数据指针
     pub fn get_gpu_uv_morph_offsets_ptr(&self) -> *const f32 {
-        self.gpu_uv_morph_offsets.as_ptr()
+        self.asset.gpu_uv_morphs().offsets.as_ptr()
     }
     
     /// 获取 GPU UV Morph 偏移数据大小（字节）
     pub fn get_gpu_uv_morph_offsets_size(&self) -> usize {
-        self.gpu_uv_morph_offsets.len() * 4
+        self.asset.gpu_uv_morphs().offsets.len() * 4
     }
     
     /// 获取 GPU UV Morph 权重数据指针
@@ -1683,6 +1621,45 @@ impl MmdModel {
         &self.material_morph_results_flat_cache
     }
     
+    // ========== 网络骨骼同步 ==========
+    
+    /// 导出当前动画输入姿势（动画评估 + VPD + 头部旋转之后，IK / 附加变换 / 物理之前）
+    /// 每骨骼 7 个 float：平移 xyz + 旋转四元数 xyzw；返回写入的骨骼数
+    pub fn copy_animation_pose(&self, out: &mut [f32]) -> usize {
+        let count = self.bone_manager.bone_count().min(out.len() / 7);
+        for (i, bone) in self.bone_manager.links().take(count).enumerate() {
+            let t = bone.animation_translate;
+            let q = bone.animation_rotate;
+            out[i * 7..i * 7 + 7].copy_from_slice(&[t.x, t.y, t.z, q.x, q.y, q.z, q.w]);
+        }
+        count
+    }
+    
+    /// 设置网络同步姿势（布局同 copy_animation_pose），替代本地动画输入；IK、附加变换与物理仍在本地计算
+    pub fn set_network_pose(&mut self, data: &[f32]) {
+        let count = self.bone_manager.bone_count().min(data.len() / 7);
+        let pose = self.network_pose.get_or_insert_with(Vec::new);
+        pose.clear();
+        pose.extend(data.chunks_exact(7).take(count).map(|c| {
+            (Vec3::new(c[0], c[1], c[2]), Quat::from_xyzw(c[3], c[4], c[5], c[6]).normalize())
+        }));
+    }
+    
+    /// 停用网络同步姿势，恢复本地动画
+    pub fn clear_network_pose(&mut self) {
+        self.network_pose = None;
+    }
+    
+    /// 应用网络同步姿势（覆盖本地动画与头部旋转的结果）
+    fn apply_network_pose(&mut self) {
+        if let Some(pose) = &self.network_pose {
+            for (i, &(translation, rotation)) in pose.iter().enumerate() {
+                self.bone_manager.set_bone_translation(i, translation);
+                self.bone_manager.set_bone_rotation(i, rotation);
+            }
+        }
+    }
+    
     // ========== VPD 骨骼姿势覆盖 ==========
     
     /// 设置 VPD 骨骼姿势覆盖
@@ -1707,6 +1684,8 @@ impl MmdModel {
     
     /// 仅更新动画（不执行 CPU 蒙皮，用于 GPU 蒙皮模式）
     pub fn tick_animation_no_skinning(&mut self, elapsed: f32) {
+        self.resume_after_clock_skip();
+        self.capture_lod_previous_pose();
         self.animation_layer_manager.update(elapsed);
         self.begin_animation();
         
@@ -1718,19 +1697,25 @@ impl MmdModel {
         // 应用 VPD 骨骼姿势覆盖（在动画评估后）
         self.apply_vpd_bone_overrides();
         
-        // 自动眨眼
-        self.update_auto_blink(elapsed);
+        // 自动眨眼（LOD 降级时冻结）
+        if !self.lod_reduced {
+            self.update_auto_blink(elapsed);
+        }
         
         // VR 模式下跳过普通头部旋转，由 VR IK 接管
         if !self.vr_enabled {
             self.apply_head_rotation();
         }
-        self.update_morph_animation();
-        
-        // 一次性计算所有 Morph 有效权重，供顶点和 UV Morph 同步使用
-        self.compute_and_cache_effective_weights();
-        self.sync_gpu_morph_weights_from_cache();
-        self.sync_gpu_uv_morph_weights_from_cache();
+        self.apply_network_pose();
+        // LOD 降级时保留上次的 Morph 结果与 GPU 权重
+        if !self.lod_reduced {
+            self.update_morph_animation();
+            
+            // 一次性计算所有 Morph 有效权重，供顶点和 UV Morph 同步使用
+            self.compute_and_cache_effective_weights();
+            self.sync_gpu_morph_weights_from_cache();
+            self.sync_gpu_uv_morph_weights_from_cache();
+        }
         
         // 骨骼更新（物理前）— 先计算当前帧全局变换
         self.update_node_animation(false);
@@ -1745,7 +1730,9 @@ impl MmdModel {
         // 记录物理更新前的动态骨骼数量
         let physics_enabled = self.physics_enabled && self.physics.is_some();
         
-        self.update_physics(elapsed);
+        if !self.lod_reduced {
+            self.update_physics(elapsed);
+        }
         self.update_node_animation(true);
         self.end_physics_update();
         self.end_animation();
@@ -1768,7 +1755,7 @@ impl MmdModel {
     
     /// 初始化物理系统（Bullet3）
     pub fn init_physics(&mut self) -> bool {
-        if self.rigid_bodies.is_empty() {
+        if self.asset.rigid_bodies.is_empty() {
             log::debug!("模型没有刚体数据，跳过物理初始化");
             return false;
         }
@@ -1788,7 +1775,7 @@ impl MmdModel {
             self.physics_bone_transforms_buf[i] = self.bone_manager.get_global_transform(i);
         }
 
-        physics.build_physics(&self.rigid_bodies, &self.joints, &self.physics_bone_transforms_buf);
+        physics.build_physics(&self.asset.rigid_bodies, &self.asset.joints, &self.physics_bone_transforms_buf);
         physics.initialize(&self.physics_bone_transforms_buf);
 
         self.physics = Some(physics);
@@ -1803,6 +1790,101 @@ impl MmdModel {
         }
     }
     
+    /// 设置动画 LOD 降级状态
+    ///
+    /// 降级期间物理不步进，刚体停留在旧位置；恢复时重置物理，避免刚体被瞬间拉回产生爆炸。
+    pub fn set_lod_reduced(&mut self, reduced: bool) {
+        if self.lod_reduced && !reduced {
+            self.reset_physics();
+            self.lod_prev_skinning = Vec::new();
+        }
+        self.lod_reduced = reduced;
+    }
+
+    /// LOD 降级时在更新前保存当前蒙皮矩阵，作为跳帧插值的起点
+    fn capture_lod_previous_pose(&mut self) {
+        if !self.lod_reduced {
+            return;
+        }
+        self.lod_prev_skinning.clear();
+        self.lod_prev_skinning.extend_from_slice(self.bone_manager.get_skinning_matrices());
+    }
+
+    /// 将上一次与本次更新的蒙皮矩阵按 alpha 线性插值后写入 dst（列主序 f32，每骨骼 64 字节）
+    ///
+    /// 尚无上一次结果（刚进入降级）或骨骼数不一致时直接写入当前矩阵。
+    /// dst 容量不足时返回 0，否则返回写入的骨骼数。
+    pub fn write_lod_blended_skinning(&self, alpha: f32, dst: &mut [u8]) -> usize {
+        let current = self.bone_manager.get_skinning_matrices();
+        let bone_count = current.len();
+        if bone_count * 64 > dst.len() {
+            return 0;
+        }
+        let previous = if self.lod_prev_skinning.len() == bone_count {
+            self.lod_prev_skinning.as_slice()
+        } else {
+            current
+        };
+        let alpha = alpha.clamp(0.0, 1.0);
+        for (i, (prev, curr)) in previous.iter().zip(current.iter()).enumerate() {
+            let blended = *prev * (1.0 - alpha) + *curr * alpha;
+            let cols = blended.to_cols_array();
+            for (j, v) in cols.iter().enumerate() {
+                let offset = i * 64 + j * 4;
+                dst[offset..offset + 4].copy_from_slice(&v.to_ne_bytes());
+            }
+        }
+        bone_count
+    }
+    
+    /// 只推进动画时钟（不评估姿态、不蒙皮、不步进物理）
+    ///
+    /// 用于未绘制的模型：重新可见时一次性快进到当前时间，而不是逐帧追赶。
+    /// 动画层帧位置、淡入淡出与过渡进度照常推进；跳过的时间累计超过
+    /// CLOCK_SKIP_PHYSICS_RESET 时，下次完整更新前重置物理，避免刚体从旧姿态被瞬间拉走。
+    pub fn advance_clock(&mut self, elapsed: f32) {
+        if elapsed <= 0.0 {
+            return;
+        }
+        self.animation_layer_manager.update(elapsed);
+
+        if self.is_transitioning {
+            if self.transition_duration > 0.0 {
+                self.transition_progress += elapsed / self.transition_duration;
+            }
+            if self.transition_duration <= 0.0 || self.transition_progress >= 1.0 {
+                self.transition_progress = 1.0;
+                self.is_transitioning = false;
+                self.transition_matrices.clear();
+            }
+        }
+
+        self.clock_skipped += elapsed;
+    }
+
+    /// 完整更新前调用：跳过时间过长时重置物理
+    fn resume_after_clock_skip(&mut self) {
+        if self.clock_skipped > CLOCK_SKIP_PHYSICS_RESET {
+            self.reset_physics();
+        }
+        self.clock_skipped = 0.0;
+    }
+
+    /// 设置到相机的距离（方块），负数表示固定全速物理（本地玩家、GUI 预览）
+    pub fn set_physics_camera_distance(&mut self, distance: f32) {
+        self.physics_camera_distance = distance;
+    }
+
+    /// 当前物理质量等级
+    pub fn physics_tier(&self) -> PhysicsTier {
+        self.physics_tier
+    }
+
+    /// 最近一次物理更新耗时（微秒）
+    pub fn physics_step_micros(&self) -> u32 {
+        self.physics_step_micros
+    }
+
     /// 启用/禁用物理
     pub fn set_physics_enabled(&mut self, enabled: bool) {
         self.physics_enabled = enabled;
@@ -1824,13 +1906,30 @@ impl MmdModel {
     /// 所有中间数据复用预分配缓冲区，零堆分配。
     pub fn update_physics(&mut self, delta_time: f32) {
         // 全局开关 + per-model 开关双重检查
-        if !crate::physics::config::get_config().enabled
+        let config = crate::physics::config::get_config();
+        if !config.enabled
             || !self.physics_enabled
             || self.physics.is_none()
         {
             return;
         }
 
+        // 物理质量等级：相机距离 + 全局预算压力
+        let tier = tier::select(self.physics_camera_distance, config.tier_distance);
+        if tier != self.physics_tier {
+            // 解冻时刚体仍停在冻结前的位置，重置避免被瞬间拉回
+            if self.physics_tier == PhysicsTier::Frozen {
+                self.reset_physics();
+            }
+            // 共享世界中冻结模型不再同步刚体，step_frame 会暂停其动态刚体
+            self.physics_tier = tier;
+        }
+        if tier == PhysicsTier::Frozen {
+            self.physics_step_micros = 0;
+            return;
+        }
+        let started = std::time::Instant::now();
+
         // 收集骨骼变换（复用缓冲区，resize + 索引赋值避免 push 分支开销）
         let bone_count = self.bone_manager.bone_count();
         self.physics_bone_transforms_buf.resize(bone_count, Mat4::IDENTITY);
@@ -1848,8 +1947,8 @@ impl MmdModel {
             &self.physics_bone_transforms_buf, delta_time, model_transform,
         );
 
-        // 2. Bullet3 步进
-        physics.step_simulation(delta_time);
+        // 2. Bullet3 步进（共享世界已在帧开始时统一步进，这里跳过）
+        physics.step_simulation(delta_time, tier);
 
         // 3. 同步物理结果回骨骼（复用内部缓冲区）
         let dynamic_bone_transforms = physics.get_dynamic_bone_transforms(
@@ -1866,6 +1965,10 @@ impl MmdModel {
 
         // 归还所有权
         self.physics = Some(physics);
+
+        let micros = started.elapsed().as_micros() as u64;
+        self.physics_step_micros = micros.min(u32::MAX as u64) as u32;
+        tier::record(micros);
     }
     
     /// 结束物理更新，清除物理骨骼保护
@@ -1985,15 +2088,15 @@ impl MmdModel {
         log::info!("VR 手部检测: 左手骨骼={}, 右手骨骼={}", left_bones.len(), right_bones.len());
         
         if left_bones.is_empty() && right_bones.is_empty() {
-            self.hand_submesh_flags = vec![0u8; self.submeshes.len()];
+            self.hand_submesh_flags = vec![0u8; self.asset.submeshes.len()];
             log::warn!("未找到手部骨骼，手部模式不可用");
             return;
         }
         
         // 对每个子网格，统计顶点的骨骼权重归属
-        self.hand_submesh_flags = Vec::with_capacity(self.submeshes.len());
+        self.hand_submesh_flags = Vec::with_capacity(self.asset.submeshes.len());
         
-        for submesh in &self.submeshes {
+        for submesh in &self.asset.submeshes {
             let begin = submesh.begin_index as usize;
             let count = submesh.index_count as usize;
             let mut left_weight_sum = 0.0f32;
@@ -2002,12 +2105,12 @@ impl MmdModel {
             
             for idx_offset in 0..count {
                 let index_pos = begin + idx_offset;
-                if index_pos >= self.indices.len() { break; }
-                let vi = self.indices[index_pos] as usize;
-                if vi >= self.weights.len() { continue; }
+                if index_pos >= self.asset.indices.len() { break; }
+                let vi = self.asset.indices[index_pos] as usize;
+                if vi >= self.asset.weights.len() { continue; }
                 
                 // 提取该顶点的骨骼索引和权重
-                let pairs: Vec<(i32, f32)> = match &self.weights[vi] {
+                let pairs: Vec<(i32, f32)> = match &self.asset.weights[vi] {
                     VertexWeight::Bdef1 { bone } => vec![(*bone, 1.0)],
                     VertexWeight::Bdef2 { bones, weight } => {
                         vec![(bones[0], *weight), (bones[1], 1.0 - *weight)]
@@ -2042,7 +2145,7 @@ impl MmdModel {
             self.hand_submesh_flags.push(flag);
             
             if flag != 0 {
-                let mat_name = self.materials.get(submesh.material_id as usize)
+                let mat_name = self.asset.materials.get(submesh.material_id as usize)
                     .map(|m| m.name.as_str()).unwrap_or("?");
                 let side = if flag == 1 { "左手" } else { "右手" };
                 log::info!("  [{}] submesh={}, material={}", side, 
@@ -2079,8 +2182,8 @@ impl MmdModel {
             let mut hand_mat_ids = std::collections::HashSet::new();
             for (i, &flag) in self.hand_submesh_flags.iter().enumerate() {
                 if flag == mode {
-                    if i < self.submeshes.len() {
-                        hand_mat_ids.insert(self.submeshes[i].material_id as usize);
+                    if i < self.asset.submeshes.len() {
+                        hand_mat_ids.insert(self.asset.submeshes[i].material_id as usize);
                     }
                 }
             }
@@ -2093,26 +2196,13 @@ impl MmdModel {
     }
     
     /// 计算模型在 Rust 堆上的内存占用（字节）
-    /// 遍历所有 Vec 的 capacity × 元素大小，精度约 95%+
+    /// 遍历所有 Vec 的 capacity × 元素大小，精度约 95%+；共享资产按实例数均摊
     pub fn memory_usage(&self) -> u64 {
         use std::mem::size_of;
         let mut total: u64 = 0;
         
-        // 静态数据
-        total += (self.vertices.capacity() * size_of::<RuntimeVertex>()) as u64;
-        total += (self.indices.capacity() * size_of::<u32>()) as u64;
-        total += (self.weights.capacity() * size_of::<VertexWeight>()) as u64;
-        total += (self.materials.capacity() * size_of::<MmdMaterial>()) as u64;
-        total += (self.submeshes.capacity() * size_of::<SubMesh>()) as u64;
-        // texture_paths: 每个 String 有堆分配
-        for s in &self.texture_paths {
-            total += s.capacity() as u64;
-        }
-        total += (self.texture_paths.capacity() * size_of::<String>()) as u64;
-        
-        // PMX 原始数据（刚体/关节）
-        total += (self.rigid_bodies.capacity() * size_of::<mmd::pmx::rigid_body::RigidBody>()) as u64;
-        total += (self.joints.capacity() * size_of::<mmd::pmx::joint::Joint>()) as u64;
+        // 共享静态数据（均摊）
+        total += self.asset.memory_usage() / Arc::strong_count(&self.asset).max(1) as u64;
         
         // 运行时更新缓冲区
         total += (self.update_positions.capacity() * size_of::<Vec3>()) as u64;
@@ -2122,21 +2212,9 @@ impl MmdModel {
         total += (self.update_normals_raw.capacity() * size_of::<f32>()) as u64;
         total += (self.update_uvs_raw.capacity() * size_of::<f32>()) as u64;
         
-        // GPU 蒙皮缓冲区
-        total += (self.bone_indices.capacity() * size_of::<i32>()) as u64;
-        total += (self.bone_weights.capacity() * size_of::<f32>()) as u64;
-        total += (self.original_positions.capacity() * size_of::<f32>()) as u64;
-        total += (self.original_normals.capacity() * size_of::<f32>()) as u64;
-        
-        // GPU Morph 缓冲区（可能非常大）
-        total += (self.gpu_morph_offsets.capacity() * size_of::<f32>()) as u64;
+        // GPU Morph 权重缓冲区
         total += (self.gpu_morph_weights.capacity() * size_of::<f32>()) as u64;
-        total += (self.vertex_morph_indices.capacity() * size_of::<usize>()) as u64;
-        
-        // GPU UV Morph 缓冲区
-        total += (self.gpu_uv_morph_offsets.capacity() * size_of::<f32>()) as u64;
         total += (self.gpu_uv_morph_weights.capacity() * size_of::<f32>()) as u64;
-        total += (self.uv_morph_indices.capacity() * size_of::<usize>()) as u64;
         
         // 材质 Morph 结果缓存
         total += (self.material_morph_results_flat_cache.capacity() * size_of::<f32>()) as u64;
@@ -2148,9 +2226,10 @@ impl MmdModel {
         // 材质可见性
         total += (self.material_visible.capacity() * size_of::<bool>()) as u64;
         total += (self.material_visible_backup.capacity() * size_of::<bool>()) as u64;
+        total += (self.material_draw_mask.capacity() * size_of::<bool>()) as u64;
         total += (self.head_submesh_flags.capacity() * size_of::<bool>()) as u64;
         
-        // 子系统估算
+        // 子系统估算（Morph 定义计入资产）
         total += self.bone_manager.memory_usage();
         total += self.morph_manager.memory_usage();
         
@@ -2167,97 +2246,3 @@ impl Default for MmdModel {
     }
 }
 
-/// 计算单个顶点的蒙皮
-fn compute_vertex_skinning(
-    position: Vec3,
-    normal: Vec3,
-    weight: &VertexWeight,
-    matrices: &[Mat4],
-) -> (Vec3, Vec3) {
-    match weight {
-        VertexWeight::Bdef1 { bone } => {
-            let m = matrices
-                .get(*bone as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let pos = m.transform_point3(position);
-            let norm = m.transform_vector3(normal).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Bdef2 { bones, weight } => {
-            let m0 = matrices
-                .get(bones[0] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let m1 = matrices
-                .get(bones[1] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let w0 = *weight;
-            let w1 = 1.0 - w0;
-
-            let pos = m0.transform_point3(position) * w0 + m1.transform_point3(position) * w1;
-            let norm =
-                (m0.transform_vector3(normal) * w0 + m1.transform_vector3(normal) * w1).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Bdef4 { bones, weights } => {
-            let mut pos = Vec3::ZERO;
-            let mut norm = Vec3::ZERO;
-
-            for i in 0..4 {
-                let m = matrices
-                    .get(bones[i] as usize)
-                    .copied()
-                    .unwrap_or(Mat4::IDENTITY);
-                let w = weights[i];
-                pos += m.transform_point3(position) * w;
-                norm += m.transform_vector3(normal) * w;
-            }
-
-            (pos, norm.normalize_or_zero())
-        }
-        VertexWeight::Sdef {
-            bones,
-            weight,
-            c: _,
-            r0: _,
-            r1: _,
-        } => {
-            // SDEF 球面变形
-            let m0 = matrices
-                .get(bones[0] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let m1 = matrices
-                .get(bones[1] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let w0 = *weight;
-            let w1 = 1.0 - w0;
-
-            // 简化实现：退化为 BDEF2
-            let pos = m0.transform_point3(position) * w0 + m1.transform_point3(position) * w1;
-            let norm =
-                (m0.transform_vector3(normal) * w0 + m1.transform_vector3(normal) * w1).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Qdef { bones, weights } => {
-            // QDEF 与 BDEF4 相同处理
-            let mut pos = Vec3::ZERO;
-            let mut norm = Vec3::ZERO;
-
-            for i in 0..4 {
-                let m = matrices
-                    .get(bones[i] as usize)
-                    .copied()
-                    .unwrap_or(Mat4::IDENTITY);
-                let w = weights[i];
-                pos += m.transform_point3(position) * w;
-                norm += m.transform_vector3(normal) * w;
-            }
-
-            (pos, norm.normalize_or_zero())
-        }
-    }
-}
@@ -2,8 +2,12 @@
 //!
 //! 实现 MMD Morph 系统：Vertex / Bone / Group / Flip / Material / UV Morph。
 //! 支持 Group/Flip Morph 递归展开，并提供 GPU 蒙皮路径的有效权重计算。
+//!
+//! Morph 定义（偏移表与名称索引）以 `Arc` 保存，同一模型资产的实例克隆管理器时只复制权重
+//! 与每帧结果缓冲区，偏移表在实例之间共享（见 model/asset.rs）。
 
 use std::collections::HashMap;
+use std::sync::Arc;
 use glam::{Vec2, Vec3, Vec4};
 
 use crate::skeleton::BoneManager;
@@ -109,9 +113,13 @@ impl MaterialMorphResult {
 }
 
 /// Morph 管理器
+#[derive(Clone)]
 pub struct MorphManager {
-    morphs: Vec<Morph>,
-    name_to_index: HashMap<String, usize>,
+    /// Morph 定义（加载后只读，实例间共享）
+    morphs: Arc<Vec<Morph>>,
+    name_to_index: Arc<HashMap<String, usize>>,
+    /// 每实例权重（与 morphs 一一对应）
+    weights: Vec<f32>,
     material_morph_results: Vec<MaterialMorphResult>,
     material_count: usize,
     uv_morph_deltas: Vec<Vec2>,
@@ -121,8 +129,9 @@ pub struct MorphManager {
 impl MorphManager {
     pub fn new() -> Self {
         Self {
-            morphs: Vec::new(),
-            name_to_index: HashMap::new(),
+            morphs: Arc::new(Vec::new()),
+            name_to_index: Arc::new(HashMap::new()),
+            weights: Vec::new(),
             material_morph_results: Vec::new(),
             material_count: 0,
             uv_morph_deltas: Vec::new(),
@@ -140,10 +149,12 @@ impl MorphManager {
         self.uv_morph_deltas = vec![Vec2::ZERO; count];
     }
     
+    /// 添加 Morph 定义（仅加载阶段调用；定义已被共享时先复制一份）
     pub fn add_morph(&mut self, morph: Morph) {
         let index = self.morphs.len();
-        self.name_to_index.insert(morph.name.clone(), index);
-        self.morphs.push(morph);
+        Arc::make_mut(&mut self.name_to_index).insert(morph.name.clone(), index);
+        Arc::make_mut(&mut self.morphs).push(morph);
+        self.weights.push(0.0);
     }
     
     pub fn find_morph_by_name(&self, name: &str) -> Option<usize> {
@@ -158,24 +169,18 @@ impl MorphManager {
         self.morphs.get(index)
     }
     
-    pub fn get_morph_mut(&mut self, index: usize) -> Option<&mut Morph> {
-        self.morphs.get_mut(index)
-    }
-    
     pub fn set_morph_weight(&mut self, index: usize, weight: f32) {
-        if let Some(morph) = self.morphs.get_mut(index) {
-            morph.set_weight(weight);
+        if let Some(w) = self.weights.get_mut(index) {
+            *w = weight;
         }
     }
     
     pub fn get_morph_weight(&self, index: usize) -> f32 {
-        self.morphs.get(index).map(|m| m.weight).unwrap_or(0.0)
+        self.weights.get(index).copied().unwrap_or(0.0)
     }
     
     pub fn reset_all_weights(&mut self) {
-        for morph in &mut self.morphs {
-            morph.reset();
-        }
+        self.weights.fill(0.0);
     }
     
     pub fn get_material_morph_result(&self, material_index: usize) -> Option<&MaterialMorphResult> {
@@ -199,13 +204,11 @@ impl MorphManager {
             *delta = Vec2::ZERO;
         }
         
-        let active_morphs: Vec<(usize, f32)> = self.morphs.iter().enumerate()
-            .filter(|(_, m)| m.weight.abs() > MORPH_WEIGHT_EPSILON)
-            .map(|(i, m)| (i, m.weight))
-            .collect();
-        
-        for (morph_idx, weight) in active_morphs {
-            // 拆分借用：morphs 只读，material_morph_results / uv_morph_deltas 可写
+        for (morph_idx, &weight) in self.weights.iter().enumerate() {
+            if weight.abs() <= MORPH_WEIGHT_EPSILON {
+                continue;
+            }
+            // 拆分借用：morphs / weights 只读，material_morph_results / uv_morph_deltas 可写
             apply_single_morph(
                 &self.morphs,
                 &mut self.material_morph_results,
@@ -221,22 +224,38 @@ impl MorphManager {
     
     /// 计算所有 Morph 的有效权重（递归展开 Group/Flip），写入外部缓冲区
     pub fn compute_effective_weights_into(&self, out: &mut [f32]) {
-        for (i, morph) in self.morphs.iter().enumerate() {
-            if morph.weight.abs() > MORPH_WEIGHT_EPSILON {
-                accumulate_effective_weight(&self.morphs, i, morph.weight, out, 0);
+        for (i, &weight) in self.weights.iter().enumerate() {
+            if weight.abs() > MORPH_WEIGHT_EPSILON {
+                accumulate_effective_weight(&self.morphs, i, weight, out, 0);
             }
         }
     }
 
+    /// 每实例内存占用（共享的 Morph 定义计入 `definitions_memory_usage`）
     pub fn memory_usage(&self) -> u64 {
         use std::mem::size_of;
         let mut total: u64 = 0;
-        total += (self.morphs.capacity() * size_of::<Morph>()) as u64;
-        total += (self.name_to_index.capacity() * (size_of::<String>() + size_of::<usize>())) as u64;
+        total += (self.weights.capacity() * size_of::<f32>()) as u64;
         total += (self.material_morph_results.capacity() * size_of::<MaterialMorphResult>()) as u64;
         total += (self.uv_morph_deltas.capacity() * size_of::<Vec2>()) as u64;
         total
     }
+    
+    /// Morph 定义（偏移表与名称索引）的内存占用
+    pub fn definitions_memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        let mut total: u64 = 0;
+        total += (self.morphs.capacity() * size_of::<Morph>()) as u64;
+        for m in self.morphs.iter() {
+            total += (m.vertex_offsets.capacity() * size_of::<super::VertexMorphOffset>()) as u64;
+            total += (m.bone_offsets.capacity() * size_of::<super::BoneMorphOffset>()) as u64;
+            total += (m.material_offsets.capacity() * size_of::<MaterialMorphOffset>()) as u64;
+            total += (m.uv_offsets.capacity() * size_of::<super::UvMorphOffset>()) as u64;
+            total += (m.group_offsets.capacity() * size_of::<super::GroupMorphOffset>()) as u64;
+        }
+        total += (self.name_to_index.capacity() * (size_of::<String>() + size_of::<usize>())) as u64;
+        total
+    }
 }
 
 /// 递归累加有效权重到目标数组
@@ -2,12 +2,11 @@
 
 use super::{MorphType, VertexMorphOffset, BoneMorphOffset, MaterialMorphOffset, UvMorphOffset, GroupMorphOffset};
 
-/// Morph 变形
+/// Morph 变形定义（只读；权重由 MorphManager 按实例保存）
 #[derive(Clone, Debug)]
 pub struct Morph {
     pub name: String,
     pub morph_type: MorphType,
-    pub weight: f32,
     
     // 顶点 Morph
     pub vertex_offsets: Vec<VertexMorphOffset>,
@@ -30,7 +29,6 @@ impl Morph {
         Self {
             name,
             morph_type,
-            weight: 0.0,
             vertex_offsets: Vec::new(),
             bone_offsets: Vec::new(),
             material_offsets: Vec::new(),
@@ -42,18 +40,6 @@ impl Morph {
     pub fn get_name(&self) -> &str {
         &self.name
     }
-    
-    pub fn get_weight(&self) -> f32 {
-        self.weight
-    }
-    
-    pub fn set_weight(&mut self, weight: f32) {
-        self.weight = weight;
-    }
-    
-    pub fn reset(&mut self) {
-        self.weight = 0.0;
-    }
 }
 
 impl Default for Morph {
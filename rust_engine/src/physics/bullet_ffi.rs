@@ -59,6 +59,8 @@ mod ffi {
         pub fn bw_world_add_constraint(world: *mut BW_World, c: *mut BW_Constraint, disable_collision: bool);
         pub fn bw_world_remove_constraint(world: *mut BW_World, c: *mut BW_Constraint);
         pub fn bw_world_set_kinematic_filter(world: *mut BW_World, enabled: bool);
+        pub fn bw_world_set_owner_filter(world: *mut BW_World, enabled: bool);
+        pub fn bw_world_clamp_velocities(world: *mut BW_World, max_linear: c_float, max_angular: c_float);
 
         // 碰撞形状
         pub fn bw_shape_sphere(radius: c_float) -> *mut BW_Shape;
@@ -71,6 +73,9 @@ mod ffi {
         pub fn bw_rigid_body_destroy(rb: *mut BW_RigidBody);
         pub fn bw_rigid_body_get_transform(rb: *mut BW_RigidBody, matrix4x4: *mut c_float);
         pub fn bw_rigid_body_set_transform(rb: *mut BW_RigidBody, matrix4x4: *const c_float);
+        pub fn bw_rigid_bodies_get_transforms(rbs: *const *mut BW_RigidBody, count: c_int, matrices: *mut c_float);
+        pub fn bw_rigid_bodies_set_transforms(rbs: *const *mut BW_RigidBody, count: c_int, matrices: *const c_float);
+        pub fn bw_rigid_body_set_owner(rb: *mut BW_RigidBody, owner: c_int);
         pub fn bw_rigid_body_get_position(rb: *mut BW_RigidBody, x: *mut c_float, y: *mut c_float, z: *mut c_float);
         pub fn bw_rigid_body_get_rotation(rb: *mut BW_RigidBody, x: *mut c_float, y: *mut c_float, z: *mut c_float, w: *mut c_float);
         pub fn bw_rigid_body_set_linear_velocity(rb: *mut BW_RigidBody, x: c_float, y: c_float, z: c_float);
@@ -113,8 +118,8 @@ pub const BT_CONSTRAINT_STOP_ERP: i32 = 2;
 pub const BT_CONSTRAINT_STOP_CFM: i32 = 3;
 
 // 激活状态常量
-#[allow(dead_code)]
 pub const DISABLE_DEACTIVATION: i32 = 4;
+pub const DISABLE_SIMULATION: i32 = 5;
 
 // ===== 安全封装类型 =====
 
@@ -165,6 +170,16 @@ impl BulletWorld {
     pub fn set_kinematic_filter(&self, enabled: bool) {
         unsafe { ffi::bw_world_set_kinematic_filter(self.ptr, enabled) }
     }
+
+    /// 按刚体所属模型过滤碰撞（共享世界中模型之间互不碰撞）
+    pub fn set_owner_filter(&self, enabled: bool) {
+        unsafe { ffi::bw_world_set_owner_filter(self.ptr, enabled) }
+    }
+
+    /// 钳制世界内所有动态刚体的线速度/角速度（一次 FFI 调用）
+    pub fn clamp_velocities(&self, max_linear: f32, max_angular: f32) {
+        unsafe { ffi::bw_world_clamp_velocities(self.ptr, max_linear, max_angular) }
+    }
 }
 
 impl Drop for BulletWorld {
@@ -328,10 +343,32 @@ impl BulletRigidBody {
         unsafe { ffi::bw_rigid_body_force_activation_state(self.ptr, state) }
     }
 
+    /// 设置所属模型编号（加入世界前调用，共享世界按此过滤模型间碰撞）
+    pub fn set_owner(&self, owner: i32) {
+        unsafe { ffi::bw_rigid_body_set_owner(self.ptr, owner) }
+    }
+
     /// 获取原始指针（用于创建约束）
     pub fn as_ptr(&self) -> *mut ffi::BW_RigidBody {
         self.ptr
     }
+
+    /// 不持有所有权的引用（共享世界登记动态刚体用）
+    pub(crate) fn handle(&self) -> RigidBodyRef {
+        RigidBodyRef(self.ptr)
+    }
+}
+
+/// 不持有所有权的刚体引用：刚体释放前必须先注销（见 shared_world::leave）
+#[derive(Clone, Copy)]
+pub(crate) struct RigidBodyRef(*mut ffi::BW_RigidBody);
+
+unsafe impl Send for RigidBodyRef {}
+
+impl RigidBodyRef {
+    pub(crate) fn force_activation_state(&self, state: i32) {
+        unsafe { ffi::bw_rigid_body_force_activation_state(self.0, state) }
+    }
 }
 
 impl Drop for BulletRigidBody {
@@ -419,6 +456,68 @@ impl Drop for BulletConstraint {
     }
 }
 
+/// 刚体批量变换读写
+///
+/// 保存一组刚体指针与连续的列主序矩阵缓冲区，每帧只需一次 FFI 调用即可
+/// 提交或读取整组变换。不拥有刚体：调用方保证刚体存活期覆盖本对象的使用。
+pub struct BodyBatch {
+    ptrs: Vec<*mut ffi::BW_RigidBody>,
+    matrices: Vec<f32>,
+}
+
+unsafe impl Send for BodyBatch {}
+
+impl BodyBatch {
+    pub fn new() -> Self {
+        Self { ptrs: Vec::new(), matrices: Vec::new() }
+    }
+
+    pub fn push(&mut self, rb: &BulletRigidBody) {
+        self.ptrs.push(rb.ptr);
+        self.matrices.extend_from_slice(&[0.0; 16]);
+    }
+
+    pub fn len(&self) -> usize {
+        self.ptrs.len()
+    }
+
+    pub fn is_empty(&self) -> bool {
+        self.ptrs.is_empty()
+    }
+
+    /// 暂存第 i 个刚体的目标变换（commit 时统一写入）
+    #[inline]
+    pub fn stage(&mut self, i: usize, transform: Mat4) {
+        self.matrices[i * 16..i * 16 + 16].copy_from_slice(&mat4_to_col_major(transform));
+    }
+
+    /// 第 i 个刚体的变换（fetch 后有效）
+    #[inline]
+    pub fn transform(&self, i: usize) -> Mat4 {
+        Mat4::from_cols_slice(&self.matrices[i * 16..i * 16 + 16])
+    }
+
+    /// 写入所有暂存变换
+    pub fn commit(&self) {
+        if self.ptrs.is_empty() { return; }
+        unsafe {
+            ffi::bw_rigid_bodies_set_transforms(
+                self.ptrs.as_ptr(), self.ptrs.len() as i32, self.matrices.as_ptr(),
+            )
+        }
+    }
+
+    /// 读取所有刚体的当前变换
+    pub fn fetch(&mut self) {
+        if self.ptrs.is_empty() { return; }
+        unsafe {
+            ffi::bw_rigid_bodies_get_transforms(
+                self.ptrs.as_ptr(), self.ptrs.len() as i32, self.matrices.as_mut_ptr(),
+            )
+        }
+    }
+}
+
 // ===== 分配统计 =====
 
 /// C++ 侧存活对象计数
@@ -29,6 +29,12 @@ pub struct PhysicsConfig {
     pub kinematic_filter: bool,
     /// 调试日志
     pub debug_log: bool,
+    /// 每帧物理耗时预算（毫秒，所有模型合计），超出时整体降低物理等级；0 表示不限制
+    pub frame_budget_ms: f32,
+    /// 物理降级基准距离（方块）：超过 1/2/4 倍分别降为 减少子步/半频/冻结；0 表示不按距离降级
+    pub tier_distance: f32,
+    /// 所有模型共用一个物理世界（每帧统一步进一次，动态骨骼晚一帧；对之后加载的模型生效）
+    pub shared_world: bool,
 }
 
 impl Default for PhysicsConfig {
@@ -44,6 +50,9 @@ impl Default for PhysicsConfig {
             joints_enabled: true,
             kinematic_filter: true,
             debug_log: false,
+            frame_budget_ms: 4.0,
+            tier_distance: 24.0,
+            shared_world: false,
         }
     }
 }
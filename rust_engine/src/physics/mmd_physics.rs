@@ -4,29 +4,41 @@
 //! 实现 commitBodyStates / syncBodies / stepSimulation / syncBones 全套流程。
 
 use std::collections::HashSet;
+use std::sync::RwLockReadGuard;
 
 use glam::{Mat3, Mat4, Vec3};
 
 use mmd::pmx::rigid_body::RigidBody as PmxRigidBody;
 use mmd::pmx::joint::Joint as PmxJoint;
 
-use super::bullet_ffi::{self, BulletWorld};
+use super::bullet_ffi::{self, BodyBatch, BulletWorld};
 use super::mmd_rigid_body::{MmdRigidBodyData, PhysicsMode};
 use super::mmd_joint::MmdJointData;
 use super::config::get_config;
+use super::tier::PhysicsTier;
+use super::shared_world::{self, SharedWorld};
+
+/// 刚体所在的物理世界
+enum PhysicsWorld {
+    /// 模型独占的世界，随模型更新步进
+    Owned(BulletWorld),
+    /// 共享世界（见 shared_world.rs），owner 为本模型编号
+    Shared { owner: i32 },
+}
 
 /// MMD 物理世界管理器（Bullet3 引擎）
 ///
 /// 移植自 babylon-mmd，管理 Bullet3 世界、刚体、关节。
 /// 物理在模型局部空间运行（Minecraft 仅绕 Y 轴旋转，重力方向不变）。
 /// 流程：build_physics → 每帧 [sync_bodies → stepSimulation → sync_bones]
+/// 共享世界模式下 stepSimulation 由 shared_world::step_frame 每帧统一执行一次。
 pub struct MMDPhysics {
     /// MMD 关节数据列表（Drop 顺序：约束先于刚体先于世界）
     joints: Vec<MmdJointData>,
     /// MMD 刚体数据列表
     pub rigid_bodies: Vec<MmdRigidBodyData>,
-    /// Bullet3 物理世界
-    world: BulletWorld,
+    /// Bullet3 物理世界（独占或共享）
+    world: PhysicsWorld,
     /// 物理 FPS
     fps: f32,
     /// 最大子步数
@@ -38,6 +50,12 @@ pub struct MMDPhysics {
     dynamic_bone_indices: HashSet<usize>,
     /// 动态骨骼变换结果缓冲区（复用内存）
     dynamic_bone_buf: Vec<(usize, Mat4)>,
+    /// 运动学刚体批量写入（与 kinematic_slots 一一对应，每帧一次 FFI 调用）
+    kinematic_batch: BodyBatch,
+    kinematic_slots: Vec<usize>,
+    /// 关联骨骼的动态刚体批量读取（与 dynamic_slots 一一对应）
+    dynamic_batch: BodyBatch,
+    dynamic_slots: Vec<usize>,
 
     /// 上一帧模型世界位置（用于计算移动速度实现惯性）
     prev_model_position: Option<Vec3>,
@@ -47,11 +65,15 @@ impl MMDPhysics {
     /// 创建新的物理世界（C++ OOM 时返回 None）
     pub fn new() -> Option<Self> {
         let config = get_config();
-        let world = BulletWorld::new(0.0, config.gravity_y, 0.0)?;
-
-        if config.debug_log {
-            log::info!("[Bullet3] 物理世界创建: FPS={}, 重力Y={}", config.physics_fps, config.gravity_y);
-        }
+        let world = if config.shared_world {
+            PhysicsWorld::Shared { owner: shared_world::join()? }
+        } else {
+            let world = BulletWorld::new(0.0, config.gravity_y, 0.0)?;
+            if config.debug_log {
+                log::info!("[Bullet3] 物理世界创建: FPS={}, 重力Y={}", config.physics_fps, config.gravity_y);
+            }
+            PhysicsWorld::Owned(world)
+        };
 
         Some(Self {
             joints: Vec::new(),
@@ -61,6 +83,10 @@ impl MMDPhysics {
             max_substep_count: config.max_substep_count,
             dynamic_bone_indices: HashSet::new(),
             dynamic_bone_buf: Vec::new(),
+            kinematic_batch: BodyBatch::new(),
+            kinematic_slots: Vec::new(),
+            dynamic_batch: BodyBatch::new(),
+            dynamic_slots: Vec::new(),
             prev_model_position: None,
         })
     }
@@ -104,12 +130,28 @@ impl MMDPhysics {
 
         // 第二步：统一将已存储的刚体添加到世界
         // 此时所有权已在 self.rigid_bodies 中，panic 时 Drop 链会正确清理
-        for rb_data in &self.rigid_bodies {
-            if let Some(ref body) = rb_data.bullet_body {
-                let group = 1i32 << (rb_data.group.min(15) as i32);
-                let mask = rb_data.group_mask as i32;
-                self.world.add_rigid_body(body, group, mask);
+        let owner = match self.world {
+            PhysicsWorld::Shared { owner } => Some(owner),
+            PhysicsWorld::Owned(_) => None,
+        };
+        self.with_world(|world| {
+            for rb_data in &self.rigid_bodies {
+                if let Some(ref body) = rb_data.bullet_body {
+                    if let Some(owner) = owner {
+                        body.set_owner(owner);
+                    }
+                    let group = 1i32 << (rb_data.group.min(15) as i32);
+                    let mask = rb_data.group_mask as i32;
+                    world.add_rigid_body(body, group, mask);
+                }
             }
+        });
+        if let Some(owner) = owner {
+            let dynamic_bodies = self.rigid_bodies.iter()
+                .filter(|rb_data| rb_data.physics_mode != PhysicsMode::FollowBone)
+                .filter_map(|rb_data| rb_data.bullet_body.as_ref().map(|body| body.handle()))
+                .collect();
+            shared_world::register_dynamic_bodies(owner, dynamic_bodies);
         }
 
         // 第三步：创建关节并存入 Vec
@@ -148,11 +190,13 @@ impl MMDPhysics {
             }
 
             // 统一添加约束到世界
-            for joint_data in &self.joints {
-                if let Some(ref constraint) = joint_data.constraint {
-                    self.world.add_constraint(constraint, true);
+            self.with_world(|world| {
+                for joint_data in &self.joints {
+                    if let Some(ref constraint) = joint_data.constraint {
+                        world.add_constraint(constraint, true);
+                    }
                 }
-            }
+            });
         }
 
         // 第四步：预计算动态骨骼索引集合（一次性，避免每帧重算）
@@ -164,7 +208,30 @@ impl MMDPhysics {
         // 预分配动态骨骼缓冲区
         self.dynamic_bone_buf.reserve(self.dynamic_bone_indices.len());
 
-        self.world.set_kinematic_filter(config.kinematic_filter);
+        // 第五步：按模式分组刚体，供每帧批量同步
+        for (slot, rb_data) in self.rigid_bodies.iter().enumerate() {
+            let bone_idx = rb_data.bone_index;
+            if bone_idx < 0 || (bone_idx as usize) >= bone_transforms.len() {
+                continue;
+            }
+            let Some(ref body) = rb_data.bullet_body else {
+                continue;
+            };
+            if rb_data.physics_mode == PhysicsMode::FollowBone {
+                self.kinematic_batch.push(body);
+                self.kinematic_slots.push(slot);
+            } else {
+                self.dynamic_batch.push(body);
+                self.dynamic_slots.push(slot);
+            }
+        }
+        // 暂存区以当前变换初始化，骨骼缺失的帧提交时保持原位
+        self.kinematic_batch.fetch();
+
+        // 共享世界的过滤回调在创建时按全局配置设置
+        if let PhysicsWorld::Owned(ref world) = self.world {
+            world.set_kinematic_filter(config.kinematic_filter);
+        }
 
         let kinematic_count = self.rigid_bodies.iter()
             .filter(|rb| rb.physics_mode == PhysicsMode::FollowBone).count();
@@ -185,22 +252,37 @@ impl MMDPhysics {
     ///
     /// 在每帧物理步进前调用。将 FollowBone 模式的刚体位置
     /// 同步为骨骼变换推导的物理空间（左手）变换。
-    pub fn sync_bodies(&self, bone_transforms: &[Mat4]) {
-        for rb_data in &self.rigid_bodies {
-            if rb_data.physics_mode != PhysicsMode::FollowBone {
-                continue;
+    pub fn sync_bodies(&mut self, bone_transforms: &[Mat4]) {
+        let guard = self.shared_guard();
+        self.resume_if_suspended(guard.as_deref());
+        self.sync_kinematic_bodies(bone_transforms);
+    }
+
+    /// 共享世界：记录本帧已同步；动态刚体因上一帧未更新被暂停时，恢复模拟并重置刚体
+    /// （期间运动学姿态已变化，不重置会被瞬间拉走）
+    fn resume_if_suspended(&mut self, shared: Option<&SharedWorld>) {
+        let PhysicsWorld::Shared { owner } = self.world else {
+            return;
+        };
+        if let Some(shared) = shared {
+            if shared.mark_synced(owner) {
+                self.reset_bodies();
             }
-            let bone_idx = rb_data.bone_index;
-            if bone_idx < 0 || (bone_idx as usize) >= bone_transforms.len() {
+        }
+    }
+
+    /// 计算全部运动学刚体变换后一次性提交（调用方负责共享世界读锁）
+    fn sync_kinematic_bodies(&mut self, bone_transforms: &[Mat4]) {
+        for (i, &slot) in self.kinematic_slots.iter().enumerate() {
+            let rb_data = &self.rigid_bodies[slot];
+            let Some(&bone) = bone_transforms.get(rb_data.bone_index as usize) else {
                 continue;
-            }
-            if let Some(ref body) = rb_data.bullet_body {
-                // 骨骼(右手) → inv_z → 左手，再计算刚体位置
-                let bone_left = super::inv_z(bone_transforms[bone_idx as usize]);
-                let body_matrix = rb_data.compute_body_matrix(bone_left);
-                body.set_transform(body_matrix);
-            }
+            };
+            // 骨骼(右手) → inv_z → 左手，再计算刚体位置
+            let body_matrix = rb_data.compute_body_matrix(super::inv_z(bone));
+            self.kinematic_batch.stage(i, body_matrix);
         }
+        self.kinematic_batch.commit();
     }
 
     /// 同步运动学刚体并传递模型移动速度（实现惯性）
@@ -216,6 +298,8 @@ impl MMDPhysics {
         delta_time: f32,
         model_transform: Mat4,
     ) {
+        let guard = self.shared_guard();
+        self.resume_if_suspended(guard.as_deref());
         let config = get_config();
         let dt = delta_time.max(0.001);
         let curr_pos = model_transform.w_axis.truncate();
@@ -229,7 +313,7 @@ impl MMDPhysics {
         self.prev_model_position = Some(curr_pos);
 
         // 第一步：同步运动学刚体位置
-        self.sync_bodies(bone_transforms);
+        self.sync_kinematic_bodies(bone_transforms);
 
         // 第二步：给动态刚体施加惯性力
         if config.inertia_strength > 0.0 && model_velocity.length_squared() > 1e-8 {
@@ -283,43 +367,26 @@ impl MMDPhysics {
     ///
     /// Bullet3 没有内置全局速度限制，需在每步后手动截断超速刚体，
     /// 防止卡顿帧或极端力导致的物理爆炸。
-    pub fn step_simulation(&self, delta_time: f32) {
-        let fixed_dt = 1.0 / self.fps;
-        self.world.step(delta_time, self.max_substep_count, fixed_dt);
+    /// 步进参数由物理等级决定（见 tier.rs）；Frozen 等级不步进。
+    /// 共享世界不在这里步进（见 shared_world::step_frame）。
+    pub fn step_simulation(&self, delta_time: f32, tier: PhysicsTier) {
+        let PhysicsWorld::Owned(ref world) = self.world else {
+            return;
+        };
+        let Some((fixed_dt, max_substeps)) = tier.step_params(self.fps, self.max_substep_count) else {
+            return;
+        };
+        world.step(delta_time, max_substeps, fixed_dt);
 
-        // 速度钳制
         let config = get_config();
-        let max_lin = config.max_linear_velocity;
-        let max_ang = config.max_angular_velocity;
-        let max_lin_sq = max_lin * max_lin;
-        let max_ang_sq = max_ang * max_ang;
-
-        for rb_data in &self.rigid_bodies {
-            if rb_data.physics_mode == PhysicsMode::FollowBone {
-                continue;
-            }
-            if let Some(ref body) = rb_data.bullet_body {
-                let lin_vel = body.get_linear_velocity();
-                let lin_sq = lin_vel.length_squared();
-                if lin_sq > max_lin_sq {
-                    let clamped = lin_vel * (max_lin / lin_sq.sqrt());
-                    body.set_linear_velocity(clamped.x, clamped.y, clamped.z);
-                }
-
-                let ang_vel = body.get_angular_velocity();
-                let ang_sq = ang_vel.length_squared();
-                if ang_sq > max_ang_sq {
-                    let clamped = ang_vel * (max_ang / ang_sq.sqrt());
-                    body.set_angular_velocity(clamped.x, clamped.y, clamped.z);
-                }
-            }
-        }
+        world.clamp_velocities(config.max_linear_velocity, config.max_angular_velocity);
     }
 
     /// 将动态刚体变换同步回骨骼（babylon-mmd syncBones）
     ///
     /// 从 Bullet3 读取左手空间变换，通过 inv_z 转回右手空间写入骨骼。
     pub fn sync_bones(&self, bone_transforms: &mut [Mat4]) {
+        let _guard = self.shared_guard();
         for rb_data in &self.rigid_bodies {
             if rb_data.physics_mode == PhysicsMode::FollowBone {
                 continue;
@@ -356,6 +423,7 @@ impl MMDPhysics {
     ///
     /// 在骨骼初始姿态确定后调用，将所有刚体设置到正确的初始位置（左手空间）。
     pub fn initialize(&mut self, bone_transforms: &[Mat4]) {
+        let _guard = self.shared_guard();
         for rb_data in &self.rigid_bodies {
             let bone_idx = rb_data.bone_index;
             if bone_idx < 0 || (bone_idx as usize) >= bone_transforms.len() {
@@ -375,6 +443,12 @@ impl MMDPhysics {
 
     /// 重置物理系统
     pub fn reset(&mut self) {
+        let _guard = self.shared_guard();
+        self.reset_bodies();
+    }
+
+    /// 所有刚体回到初始变换并清除速度（调用方负责共享世界读锁）
+    fn reset_bodies(&mut self) {
         self.prev_model_position = None;
         for rb_data in &self.rigid_bodies {
             if let Some(ref body) = rb_data.bullet_body {
@@ -386,9 +460,27 @@ impl MMDPhysics {
         }
     }
 
-    /// 设置重力
+    /// 设置重力（共享世界中影响所有模型）
     pub fn set_gravity(&self, x: f32, y: f32, z: f32) {
-        self.world.set_gravity(x, y, z);
+        self.with_world(|world| world.set_gravity(x, y, z));
+    }
+
+    /// 是否使用共享世界
+    pub fn is_shared(&self) -> bool {
+        matches!(self.world, PhysicsWorld::Shared { .. })
+    }
+
+    /// 访问世界（共享世界持写锁，适用于增删刚体/约束等修改世界结构的操作）
+    fn with_world<R>(&self, f: impl FnOnce(&BulletWorld) -> R) -> Option<R> {
+        match self.world {
+            PhysicsWorld::Owned(ref world) => Some(f(world)),
+            PhysicsWorld::Shared { .. } => shared_world::write(f),
+        }
+    }
+
+    /// 共享世界读锁：持有期间世界不会步进，可安全读写本模型的刚体
+    fn shared_guard(&self) -> Option<RwLockReadGuard<'static, SharedWorld>> {
+        self.is_shared().then(shared_world::read)
     }
 
     pub fn rigid_body_count(&self) -> usize { self.rigid_bodies.len() }
@@ -399,31 +491,31 @@ impl MMDPhysics {
     /// 从 Bullet3 读取左手空间变换，通过 inv_z 转回右手空间返回。
     pub fn get_dynamic_bone_transforms(&mut self, current_bone_transforms: &[Mat4]) -> &[(usize, Mat4)] {
         self.dynamic_bone_buf.clear();
-        for rb_data in &self.rigid_bodies {
-            if rb_data.physics_mode == PhysicsMode::FollowBone {
-                continue;
-            }
-            let bone_idx = rb_data.bone_index;
-            if bone_idx < 0 || (bone_idx as usize) >= current_bone_transforms.len() {
+        {
+            let _guard = self.shared_guard();
+            self.dynamic_batch.fetch();
+        }
+        for (i, &slot) in self.dynamic_slots.iter().enumerate() {
+            let rb_data = &self.rigid_bodies[slot];
+            let bone_idx = rb_data.bone_index as usize;
+            if bone_idx >= current_bone_transforms.len() {
                 continue;
             }
-            if let Some(ref body) = rb_data.bullet_body {
-                let rb_matrix = body.get_transform();
-                let new_bone_left = match rb_data.physics_mode {
-                    PhysicsMode::Physics => rb_data.compute_bone_matrix(rb_matrix),
-                    PhysicsMode::PhysicsWithBone => {
-                        let bone_right = current_bone_transforms[bone_idx as usize];
-                        let pos_left = Vec3::new(
-                            bone_right.w_axis.x,
-                            bone_right.w_axis.y,
-                            -bone_right.w_axis.z,
-                        );
-                        rb_data.compute_bone_matrix_rotation_only(rb_matrix, pos_left)
-                    }
-                    PhysicsMode::FollowBone => unreachable!(),
-                };
-                self.dynamic_bone_buf.push((bone_idx as usize, super::inv_z(new_bone_left)));
-            }
+            let rb_matrix = self.dynamic_batch.transform(i);
+            let new_bone_left = match rb_data.physics_mode {
+                PhysicsMode::Physics => rb_data.compute_bone_matrix(rb_matrix),
+                PhysicsMode::PhysicsWithBone => {
+                    let bone_right = current_bone_transforms[bone_idx];
+                    let pos_left = Vec3::new(
+                        bone_right.w_axis.x,
+                        bone_right.w_axis.y,
+                        -bone_right.w_axis.z,
+                    );
+                    rb_data.compute_bone_matrix_rotation_only(rb_matrix, pos_left)
+                }
+                PhysicsMode::FollowBone => unreachable!(),
+            };
+            self.dynamic_bone_buf.push((bone_idx, super::inv_z(new_bone_left)));
         }
         &self.dynamic_bone_buf
     }
@@ -444,15 +536,24 @@ impl Drop for MMDPhysics {
         // Bullet3 要求：必须在 destroy 对象前先从世界中移除。
         // Rust 默认按声明顺序 drop 字段（joints → rigid_bodies → world），
         // 如果不先移除，bw_world_destroy 会访问已释放的指针导致崩溃。
-        for joint in &self.joints {
-            if let Some(ref constraint) = joint.constraint {
-                self.world.remove_constraint(constraint);
+        // 共享世界同理，且移除必须在写锁内完成，避免与步进并发。
+        let joints = &self.joints;
+        let rigid_bodies = &self.rigid_bodies;
+        let remove = |world: &BulletWorld| {
+            for joint in joints {
+                if let Some(ref constraint) = joint.constraint {
+                    world.remove_constraint(constraint);
+                }
             }
-        }
-        for rb in &self.rigid_bodies {
-            if let Some(ref body) = rb.bullet_body {
-                self.world.remove_rigid_body(body);
+            for rb in rigid_bodies {
+                if let Some(ref body) = rb.bullet_body {
+                    world.remove_rigid_body(body);
+                }
             }
+        };
+        match self.world {
+            PhysicsWorld::Owned(ref world) => remove(world),
+            PhysicsWorld::Shared { owner } => shared_world::leave(owner, remove),
         }
         // 之后 Rust 自动 drop 各字段（约束/刚体/世界），此时世界已为空，安全释放
 
@@ -9,6 +9,8 @@ mod mmd_physics;
 mod mmd_rigid_body;
 mod mmd_joint;
 pub mod config;
+pub mod tier;
+pub mod shared_world;
 
 /// Z 轴翻转变换（左手 ↔ 右手坐标系转换，与 saba InvZ 一致）
 ///
@@ -24,4 +26,5 @@ pub use mmd_physics::MMDPhysics;
 pub use mmd_rigid_body::{MmdRigidBodyData, PhysicsMode};
 pub use mmd_joint::MmdJointData;
 pub use config::{PhysicsConfig, get_config, set_config, reset_config};
+pub use tier::PhysicsTier;
 pub use bullet_ffi::{BulletAllocStats, get_alloc_stats};
@@ -0,0 +1,179 @@
+//! 共享物理世界（可选模式，PhysicsConfig::shared_world）
+//!
+//! 默认每个模型独占一个 Bullet3 世界并各自步进；模型多、每个模型刚体少时，
+//! 宽相/求解器的固定开销与 FFI 往返次数随模型数线性增长。共享模式下：
+//! - 所有模型的刚体加入同一个世界，刚体 userIndex 记录所属模型，
+//!   宽相过滤回调拒绝不同模型之间的刚体对（模型内 16 位碰撞组/掩码保持 PMX 原样）
+//! - Java 每帧开始时（BeginPhysicsFrame）整体步进一次并统一钳制速度
+//! - 各模型更新时只同步运动学刚体并读取上一次步进的结果
+//!
+//! 代价：动态骨骼比动画姿态晚一帧；按距离的 减少子步/半频 等级不再生效。
+//!
+//! 帧内未同步运动学刚体的模型（未绘制、被跳过或冻结）不参与下一次步进：
+//! step_frame 在步进前暂停其动态刚体，既不占求解开销，也不会对着过期的运动学姿态模拟；
+//! 模型下次同步时恢复模拟并重置刚体。
+//!
+//! 锁：模型同步刚体持读锁（不同模型访问各自的刚体，可并行）；
+//! 步进、增删刚体与约束持写锁。
+
+use std::collections::HashMap;
+use std::sync::atomic::{AtomicBool, AtomicU64, Ordering};
+use std::sync::{RwLock, RwLockReadGuard};
+use std::time::Instant;
+
+use once_cell::sync::Lazy;
+
+use super::bullet_ffi::{self, BulletWorld, RigidBodyRef};
+use super::config::get_config;
+use super::tier;
+
+pub(crate) struct SharedWorld {
+    world: Option<BulletWorld>,
+    /// 已加入的模型数，归零时释放世界
+    members: usize,
+    next_owner: i32,
+    last_step: Option<Instant>,
+    /// 模型编号 → 动态刚体与同步状态
+    owners: HashMap<i32, Owner>,
+    /// 已执行的 step_frame 次数（模型同步时记录，用于判断上一帧是否更新过）
+    frame: u64,
+}
+
+/// 共享世界中一个模型的步进状态
+struct Owner {
+    /// 动态刚体（不持有所有权，模型退出时先注销）
+    dynamic_bodies: Vec<RigidBodyRef>,
+    /// 最近一次同步运动学刚体时的帧号（读锁下由模型自己写入）
+    synced_frame: AtomicU64,
+    /// 动态刚体是否已被 step_frame 暂停
+    suspended: AtomicBool,
+}
+
+// 世界指针只在写锁内使用（步进、增删刚体/约束）；读锁持有者只访问各自模型的刚体
+unsafe impl Sync for SharedWorld {}
+
+static SHARED: Lazy<RwLock<SharedWorld>> = Lazy::new(|| {
+    RwLock::new(SharedWorld {
+        world: None,
+        members: 0,
+        next_owner: 0,
+        last_step: None,
+        owners: HashMap::new(),
+        frame: 0,
+    })
+});
+
+/// 加入共享世界（不存在时创建），返回模型编号；C++ OOM 时返回 None
+pub(crate) fn join() -> Option<i32> {
+    let mut shared = SHARED.write().unwrap_or_else(|e| e.into_inner());
+    if shared.world.is_none() {
+        let config = get_config();
+        let world = BulletWorld::new(0.0, config.gravity_y, 0.0)?;
+        world.set_kinematic_filter(config.kinematic_filter);
+        world.set_owner_filter(true);
+        if config.debug_log {
+            log::info!("[Bullet3] 共享物理世界创建: FPS={}, 重力Y={}", config.physics_fps, config.gravity_y);
+        }
+        shared.world = Some(world);
+        shared.last_step = None;
+    }
+    shared.members += 1;
+    let owner = shared.next_owner;
+    // userIndex -1 保留给未归属刚体
+    shared.next_owner = shared.next_owner.wrapping_add(1) & i32::MAX;
+    Some(owner)
+}
+
+/// 登记模型的动态刚体（刚体加入世界后调用）；登记时视为本帧已同步
+pub(crate) fn register_dynamic_bodies(owner: i32, dynamic_bodies: Vec<RigidBodyRef>) {
+    let mut shared = SHARED.write().unwrap_or_else(|e| e.into_inner());
+    let frame = shared.frame;
+    shared.owners.insert(owner, Owner {
+        dynamic_bodies,
+        synced_frame: AtomicU64::new(frame),
+        suspended: AtomicBool::new(false),
+    });
+}
+
+/// 在写锁内注销模型、移除其刚体与约束后退出共享世界，最后一个模型退出时释放世界
+pub(crate) fn leave(owner: i32, remove: impl FnOnce(&BulletWorld)) {
+    let mut shared = SHARED.write().unwrap_or_else(|e| e.into_inner());
+    shared.owners.remove(&owner);
+    if let Some(ref world) = shared.world {
+        remove(world);
+    }
+    shared.members = shared.members.saturating_sub(1);
+    if shared.members == 0 {
+        shared.world = None;
+        shared.last_step = None;
+    }
+}
+
+/// 持写锁访问世界（增删刚体/约束、修改重力）
+pub(crate) fn write<R>(f: impl FnOnce(&BulletWorld) -> R) -> Option<R> {
+    let shared = SHARED.write().unwrap_or_else(|e| e.into_inner());
+    shared.world.as_ref().map(f)
+}
+
+/// 读锁：持有期间世界不会步进，可安全读写本模型的刚体
+pub(crate) fn read() -> RwLockReadGuard<'static, SharedWorld> {
+    SHARED.read().unwrap_or_else(|e| e.into_inner())
+}
+
+impl SharedWorld {
+    /// 记录模型本帧已同步运动学刚体（调用方持读锁）
+    ///
+    /// 动态刚体此前因未更新被暂停时恢复模拟并返回 true，调用方应先重置刚体再同步。
+    pub(crate) fn mark_synced(&self, owner: i32) -> bool {
+        let Some(entry) = self.owners.get(&owner) else {
+            return false;
+        };
+        entry.synced_frame.store(self.frame, Ordering::Relaxed);
+        if !entry.suspended.swap(false, Ordering::Relaxed) {
+            return false;
+        }
+        for body in &entry.dynamic_bodies {
+            body.force_activation_state(bullet_ffi::DISABLE_DEACTIVATION);
+        }
+        true
+    }
+}
+
+/// 帧开始：暂停上一帧未同步的模型，按距上次步进的实际时间整体步进一次并钳制速度
+/// （无共享世界时不做任何事）
+pub fn step_frame() {
+    let mut shared = SHARED.write().unwrap_or_else(|e| e.into_inner());
+    let frame = shared.frame;
+    for entry in shared.owners.values() {
+        if entry.synced_frame.load(Ordering::Relaxed) != frame
+            && !entry.suspended.swap(true, Ordering::Relaxed)
+        {
+            for body in &entry.dynamic_bodies {
+                body.force_activation_state(bullet_ffi::DISABLE_SIMULATION);
+            }
+        }
+    }
+    shared.frame = frame + 1;
+
+    let now = Instant::now();
+    let elapsed = shared.last_step.map(|t| now.duration_since(t).as_secs_f32());
+    let Some(ref world) = shared.world else {
+        return;
+    };
+    let started = Instant::now();
+    if let Some(dt) = elapsed.filter(|&dt| dt > 0.0) {
+        let config = get_config();
+        if config.enabled {
+            let fixed_dt = 1.0 / config.physics_fps.max(1.0);
+            world.step(dt, config.max_substep_count.max(1), fixed_dt);
+            world.clamp_velocities(config.max_linear_velocity, config.max_angular_velocity);
+        }
+    }
+    tier::record(started.elapsed().as_micros() as u64);
+    shared.last_step = Some(now);
+}
+
+/// 共享世界是否存在（调试用）
+pub fn is_active() -> bool {
+    SHARED.read().unwrap_or_else(|e| e.into_inner()).world.is_some()
+}
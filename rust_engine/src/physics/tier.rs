@@ -0,0 +1,153 @@
+//! 物理质量分级与全局每帧预算
+//!
+//! 每个模型按相机距离选出基础等级，再叠加全局预算压力：
+//! - Full：配置的物理 FPS 与最大子步数
+//! - Reduced：每帧最多 1 个子步（卡顿帧不追赶）
+//! - HalfRate：半频固定步长、每帧最多 1 步，Bullet 在步与步之间插值刚体运动状态
+//! - Frozen：不步进，动态骨骼跟随动画姿态；解冻时重置物理
+//!
+//! 预算压力：Java 每帧开始时调用 `begin_frame`，以上一帧所有模型物理耗时之和
+//! （跨线程累加）的滑动平均与预算比较，超出则整体降一级，低于预算的 60% 则回升一级；
+//! 每次调整后冷却若干帧，等待平均值反映新等级的开销。
+//! 相机距离为负的模型（本地玩家、GUI 预览）固定全速，不受距离与预算影响。
+
+use std::sync::atomic::{AtomicU32, AtomicU64, Ordering};
+use std::sync::Mutex;
+
+/// 物理质量等级
+#[derive(Clone, Copy, Debug, PartialEq, Eq, PartialOrd, Ord)]
+#[repr(i32)]
+pub enum PhysicsTier {
+    Full = 0,
+    Reduced = 1,
+    HalfRate = 2,
+    Frozen = 3,
+}
+
+impl PhysicsTier {
+    const MAX_LEVEL: u32 = 3;
+
+    fn from_level(level: u32) -> Self {
+        match level.min(Self::MAX_LEVEL) {
+            0 => PhysicsTier::Full,
+            1 => PhysicsTier::Reduced,
+            2 => PhysicsTier::HalfRate,
+            _ => PhysicsTier::Frozen,
+        }
+    }
+
+    /// 该等级的 (固定时间步, 最大子步数)；Frozen 返回 None
+    pub fn step_params(self, fps: f32, max_substep_count: i32) -> Option<(f32, i32)> {
+        let fixed_dt = 1.0 / fps.max(1.0);
+        match self {
+            PhysicsTier::Full => Some((fixed_dt, max_substep_count.max(1))),
+            PhysicsTier::Reduced => Some((fixed_dt, 1)),
+            PhysicsTier::HalfRate => Some((fixed_dt * 2.0, 1)),
+            PhysicsTier::Frozen => None,
+        }
+    }
+}
+
+/// 预算调整后的冷却帧数
+const ADJUST_COOLDOWN_FRAMES: u32 = 30;
+/// 平均耗时低于预算的该比例时回升一级
+const RELAX_RATIO: f32 = 0.6;
+/// 滑动平均系数
+const AVERAGE_ALPHA: f32 = 0.1;
+
+struct BudgetState {
+    average_micros: f32,
+    cooldown: u32,
+}
+
+/// 本帧累计物理耗时（微秒，所有模型、所有线程）
+static FRAME_MICROS: AtomicU64 = AtomicU64::new(0);
+static LAST_FRAME_MICROS: AtomicU64 = AtomicU64::new(0);
+/// 预算压力（所有非固定模型整体降级的级数）
+static PRESSURE: AtomicU32 = AtomicU32::new(0);
+static BUDGET: Mutex<BudgetState> = Mutex::new(BudgetState { average_micros: 0.0, cooldown: 0 });
+
+/// 帧开始：结算上一帧物理耗时并调整预算压力（`budget_ms <= 0` 表示不限制）
+pub fn begin_frame(budget_ms: f32) {
+    let used = FRAME_MICROS.swap(0, Ordering::Relaxed);
+    LAST_FRAME_MICROS.store(used, Ordering::Relaxed);
+
+    let mut state = BUDGET.lock().unwrap_or_else(|e| e.into_inner());
+    state.average_micros += (used as f32 - state.average_micros) * AVERAGE_ALPHA;
+
+    if budget_ms <= 0.0 {
+        PRESSURE.store(0, Ordering::Relaxed);
+        state.cooldown = 0;
+        return;
+    }
+    if state.cooldown > 0 {
+        state.cooldown -= 1;
+        return;
+    }
+
+    let budget_micros = budget_ms * 1000.0;
+    let pressure = PRESSURE.load(Ordering::Relaxed);
+    if state.average_micros > budget_micros && pressure < PhysicsTier::MAX_LEVEL {
+        PRESSURE.store(pressure + 1, Ordering::Relaxed);
+        state.cooldown = ADJUST_COOLDOWN_FRAMES;
+    } else if state.average_micros < budget_micros * RELAX_RATIO && pressure > 0 {
+        PRESSURE.store(pressure - 1, Ordering::Relaxed);
+        state.cooldown = ADJUST_COOLDOWN_FRAMES;
+    }
+}
+
+/// 记录一次物理步进耗时
+pub fn record(micros: u64) {
+    FRAME_MICROS.fetch_add(micros, Ordering::Relaxed);
+}
+
+/// 按相机距离与当前预算压力选择等级
+///
+/// `camera_distance < 0` 表示固定全速；`tier_distance <= 0` 表示不按距离降级。
+pub fn select(camera_distance: f32, tier_distance: f32) -> PhysicsTier {
+    if camera_distance < 0.0 {
+        return PhysicsTier::Full;
+    }
+    let by_distance = if tier_distance <= 0.0 || camera_distance < tier_distance {
+        0
+    } else if camera_distance < tier_distance * 2.0 {
+        1
+    } else if camera_distance < tier_distance * 4.0 {
+        2
+    } else {
+        3
+    };
+    PhysicsTier::from_level(by_distance + PRESSURE.load(Ordering::Relaxed))
+}
+
+/// 上一帧所有模型的物理耗时（微秒）
+pub fn last_frame_micros() -> u64 {
+    LAST_FRAME_MICROS.load(Ordering::Relaxed)
+}
+
+/// 当前预算压力
+pub fn pressure() -> u32 {
+    PRESSURE.load(Ordering::Relaxed)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_distance_tiers() {
+        assert_eq!(select(-1.0, 24.0), PhysicsTier::Full);
+        assert_eq!(select(10.0, 24.0), PhysicsTier::Full);
+        assert_eq!(select(30.0, 24.0), PhysicsTier::Reduced);
+        assert_eq!(select(60.0, 24.0), PhysicsTier::HalfRate);
+        assert_eq!(select(200.0, 24.0), PhysicsTier::Frozen);
+        assert_eq!(select(200.0, 0.0), PhysicsTier::Full);
+    }
+
+    #[test]
+    fn test_step_params() {
+        assert_eq!(PhysicsTier::Full.step_params(60.0, 5), Some((1.0 / 60.0, 5)));
+        assert_eq!(PhysicsTier::HalfRate.step_params(60.0, 5), Some((2.0 / 60.0, 1)));
+        assert_eq!(PhysicsTier::Frozen.step_params(60.0, 5), None);
+    }
+}
@@ -74,7 +74,7 @@ pub struct IkConfig {
 // ============================================================================
 
 /// 附加变换配置
-#[derive(Clone, Debug, Default)]
+#[derive(Clone, Copy, Debug, Default)]
 pub struct AppendConfig {
     /// 附加变换父骨骼索引
     pub parent: i32,
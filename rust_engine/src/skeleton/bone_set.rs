@@ -10,6 +10,7 @@
 use glam::{Vec3, Quat, Mat4};
 use std::collections::{HashMap, HashSet};
 
+use super::hierarchy::BoneHierarchy;
 use super::{BoneLink, IkSolver};
 
 // ============================================================================
@@ -22,6 +23,7 @@ use super::{BoneLink, IkSolver};
 /// - 所有骨骼存储在连续数组中
 /// - 使用排序索引确保父骨骼先于子骨骼更新
 /// - 变换传播：local_to_world = parent.local_to_world * local_to_parent
+#[derive(Clone)]
 pub struct BoneSet {
     /// 骨骼数组
     links: Vec<BoneLink>,
@@ -44,6 +46,12 @@ pub struct BoneSet {
     /// 子骨骼缓存（parent_index -> children_indices）
     children_cache: Vec<Vec<usize>>,
     
+    /// 扁平层级（深度序 SoA + 先序子树区间），变换传播不分配内存
+    hierarchy: BoneHierarchy,
+    
+    /// 全量传播时宽层是否并行
+    parallel_levels: bool,
+    
     /// 更新标志
     needs_hierarchy_update: bool,
     
@@ -62,6 +70,8 @@ impl BoneSet {
             skinning_matrices: Vec::new(),
             physics_bone_indices: HashSet::new(),
             children_cache: Vec::new(),
+            hierarchy: BoneHierarchy::default(),
+            parallel_levels: true,
             needs_hierarchy_update: true,
             is_vrm: false,
         }
@@ -97,7 +107,7 @@ impl BoneSet {
     /// 2. 计算 body_shift（相对于父骨骼的偏移）
     /// 3. 计算初始全局变换
     /// 4. 计算逆绑定矩阵
-    /// 5. 构建子骨骼缓存
+    /// 5. 构建子骨骼缓存与扁平层级
     /// 6. 创建 IK 求解器
     pub fn build_hierarchy(&mut self) {
         let bone_count = self.links.len();
@@ -136,8 +146,10 @@ impl BoneSet {
             self.links[i].local_to_parent = Mat4::from_translation(body_shift);
         }
         
-        // 3. 构建子骨骼缓存
+        // 3. 构建子骨骼缓存与扁平层级
         self.build_children_cache();
+        self.hierarchy = BoneHierarchy::build(&self.links, &self.children_cache, &self.sorted_indices);
+        self.hierarchy.set_physics_mask(self.physics_bone_indices.iter().copied());
         
         // 4. 创建 IK 求解器
         self.ik_solvers.clear();
@@ -257,17 +269,24 @@ impl BoneSet {
     /// 设置物理骨骼索引集合（接受引用，内部 clone）
     pub fn set_physics_bone_indices(&mut self, indices: &HashSet<usize>) {
         self.physics_bone_indices.clone_from(indices);
+        self.hierarchy.set_physics_mask(indices.iter().copied());
     }
     
     /// 清除物理骨骼索引集合
     pub fn clear_physics_bone_indices(&mut self) {
         self.physics_bone_indices.clear();
+        self.hierarchy.set_physics_mask(std::iter::empty());
     }
     
     /// 检查是否为物理骨骼
     #[inline]
     pub fn is_physics_bone(&self, index: usize) -> bool {
-        self.physics_bone_indices.contains(&index)
+        self.hierarchy.is_physics(index)
+    }
+    
+    /// 设置全量变换传播时是否并行计算宽层（同层骨骼数达到阈值时才实际并行）
+    pub fn set_parallel_levels(&mut self, enabled: bool) {
+        self.parallel_levels = enabled;
     }
     
     // ========================================
@@ -297,31 +316,27 @@ impl BoneSet {
     
     /// 更新骨骼变换
     ///
-    /// 参考 nphysics Multibody::update_kinematics
+    /// 参考 nphysics Multibody::update_kinematics。
+    /// 全局变换由扁平层级逐层传播，附加变换 / IK 只刷新受影响的子树，整个过程不分配内存。
     pub fn update_transforms(&mut self, after_physics: bool) {
         // 1. 更新本地变换（跳过物理骨骼）
-        for &idx in &self.sorted_indices.clone() {
+        for k in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[k];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
-            if self.physics_bone_indices.contains(&idx) {
+            if self.hierarchy.is_physics(idx) {
                 continue;
             }
             self.links[idx].compute_local_transform();
         }
         
-        // 2. 从根骨骼递归更新全局变换
-        for &idx in &self.sorted_indices.clone() {
-            if self.links[idx].deform_after_physics() != after_physics {
-                continue;
-            }
-            if self.links[idx].is_root() {
-                self.update_global_transform_recursive(idx);
-            }
-        }
+        // 2. 从根骨骼逐层更新全局变换
+        self.hierarchy.propagate(&mut self.links, after_physics, self.parallel_levels);
         
         // 3. 处理附加变换和 IK
-        for &idx in &self.sorted_indices.clone() {
+        for k in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[k];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
@@ -331,7 +346,7 @@ impl BoneSet {
             
             if needs_append {
                 self.apply_append_transform(idx);
-                self.update_global_transform_recursive(idx);
+                self.hierarchy.update_subtree(&mut self.links, idx);
             }
             
             if is_ik {
@@ -340,52 +355,13 @@ impl BoneSet {
         }
         
         // 4. 最终更新全局变换
-        for &idx in &self.sorted_indices.clone() {
-            if self.links[idx].deform_after_physics() != after_physics {
-                continue;
-            }
-            if self.links[idx].is_root() {
-                self.update_global_transform_recursive(idx);
-            }
-        }
-    }
-    
-    /// 递归更新全局变换
-    ///
-    /// 类似 nphysics Multibody::update_kinematics
-    fn update_global_transform_recursive(&mut self, index: usize) {
-        // 跳过物理骨骼（它们的变换由物理系统设置）
-        if self.physics_bone_indices.contains(&index) {
-            // 仍需递归更新子骨骼
-            let children = self.children_cache[index].clone();
-            for child_idx in children {
-                self.update_global_transform_recursive(child_idx);
-            }
-            return;
-        }
-        
-        // 计算全局变换：local_to_world = parent.local_to_world * local_to_parent
-        let parent_idx = self.links[index].parent_index;
-        if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
-            let parent_global = self.links[parent_idx as usize].local_to_world;
-            self.links[index].parent_to_world = parent_global;
-            self.links[index].local_to_world = parent_global * self.links[index].local_to_parent;
-        } else {
-            self.links[index].parent_to_world = Mat4::IDENTITY;
-            self.links[index].local_to_world = self.links[index].local_to_parent;
-        }
-        
-        // 递归更新子骨骼
-        let children = self.children_cache[index].clone();
-        for child_idx in children {
-            self.update_global_transform_recursive(child_idx);
-        }
+        self.hierarchy.propagate(&mut self.links, after_physics, self.parallel_levels);
     }
     
     /// 应用附加变换
     fn apply_append_transform(&mut self, index: usize) {
         let append_config = match &self.links[index].append_config {
-            Some(config) => config.clone(),
+            Some(config) => *config,
             None => return,
         };
         
@@ -440,9 +416,8 @@ impl BoneSet {
     fn solve_ik(&mut self, bone_index: usize) {
         let solver_idx = self.ik_solvers.iter().position(|s| s.bone_index == bone_index);
         if let Some(idx) = solver_idx {
-            let solver = self.ik_solvers[idx].clone();
-            solver.solve(&mut self.links, &self.children_cache);
-            self.update_global_transform_recursive(bone_index);
+            self.ik_solvers[idx].solve(&mut self.links, &self.children_cache);
+            self.hierarchy.update_subtree(&mut self.links, bone_index);
         }
     }
     
@@ -473,16 +448,18 @@ impl BoneSet {
     
     /// 按名称设置 IK 启用状态
     pub fn set_ik_enabled_by_name(&mut self, ik_name: &str, enabled: bool) {
-        // 先找到匹配的 IK 解算器索引
-        let solver_idx = self.ik_solvers.iter().position(|solver| {
+        if let Some(idx) = self.find_ik_solver_by_name(ik_name) {
+            self.ik_solvers[idx].enabled = enabled;
+        }
+    }
+    
+    /// 通过 IK 骨骼名称查找 IK 解算器索引
+    pub fn find_ik_solver_by_name(&self, ik_name: &str) -> Option<usize> {
+        self.ik_solvers.iter().position(|solver| {
             self.links.get(solver.bone_index)
                 .map(|bone| bone.name == ik_name)
                 .unwrap_or(false)
-        });
-        
-        if let Some(idx) = solver_idx {
-            self.ik_solvers[idx].enabled = enabled;
-        }
+        })
     }
     
     /// 设置 IK 启用状态（按索引）
@@ -524,7 +501,7 @@ impl BoneSet {
         self.links[index].animation_rotate = p * rotation * self.links[index].rest_rotation.inverse() * p.inverse();
         self.links[index].animation_translate = translation - self.links[index].body_shift;
         
-        self.update_children_global_transform(index);
+        self.hierarchy.update_descendants(&mut self.links, index);
     }
     
     /// 设置全局变换（物理专用，不递归更新子骨骼）
@@ -561,23 +538,13 @@ impl BoneSet {
         } else {
             self.links[index].local_to_world = self.links[index].local_to_parent;
         }
-        self.update_children_global_transform(index);
-    }
-
-    /// 递归更新子骨骼全局变换
-    fn update_children_global_transform(&mut self, parent_index: usize) {
-        let parent_global = self.links[parent_index].local_to_world;
-        let children = self.children_cache[parent_index].clone();
-        
-        for child_idx in children {
-            self.links[child_idx].local_to_world = parent_global * self.links[child_idx].local_to_parent;
-            self.update_children_global_transform(child_idx);
-        }
+        self.hierarchy.update_descendants(&mut self.links, index);
     }
     
     /// 批量更新物理骨骼后，更新非物理骨骼
     pub fn update_non_physics_children(&mut self, physics_bone_indices: &HashSet<usize>) {
-        for &idx in &self.sorted_indices.clone() {
+        for k in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[k];
             if physics_bone_indices.contains(&idx) {
                 continue;
             }
@@ -673,6 +640,7 @@ impl BoneSet {
             total += (children.capacity() * size_of::<usize>()) as u64;
         }
         total += (self.children_cache.capacity() * size_of::<Vec<usize>>()) as u64;
+        total += self.hierarchy.memory_usage();
         total
     }
 }
@@ -0,0 +1,337 @@
+//! 扁平骨骼层级
+//!
+//! 在 `BoneSet::build_hierarchy` 时预计算一次，更新期间不再分配内存：
+//! - 深度序：按层（到根的距离）连续排列的骨骼序列与父位置数组，本地 / 全局变换存于 SoA 缓冲；
+//!   全量全局变换传播逐层进行，同层骨骼互不依赖，宽层可并行
+//! - 先序：深度优先先序序列与子树末尾，子树恰为连续区间，局部刷新（附加变换、IK、物理）按区间顺序遍历
+//!
+//! 父索引越界的骨骼视作子树根，但与原递归实现一致不参与全量传播（只有 parent_index < 0 的根骨骼发起传播）；
+//! 父子关系成环的骨骼无法从任何根到达，同样不参与。
+
+use glam::Mat4;
+use rayon::prelude::*;
+
+use super::BoneLink;
+
+const NONE: u32 = u32::MAX;
+
+/// 同层骨骼数达到此值才并行（典型模型每层远小于此值，并行调度开销大于收益）
+const PARALLEL_MIN_LEVEL: usize = 128;
+
+/// 深度序位置所属根骨骼的更新阶段
+const PHASE_BEFORE_PHYSICS: u8 = 0;
+const PHASE_AFTER_PHYSICS: u8 = 1;
+/// 不参与全量传播（父索引越界或成环）
+const PHASE_NONE: u8 = 2;
+
+#[derive(Clone, Default)]
+pub(super) struct BoneHierarchy {
+    // ---- 深度序（SoA） ----
+    /// 深度序位置 -> 骨骼索引
+    depth_order: Vec<u32>,
+    /// 深度序位置 -> 父骨骼的深度序位置（根为 NONE）
+    depth_parent: Vec<u32>,
+    /// 深度序位置 -> 根骨骼阶段（PHASE_*）
+    depth_phase: Vec<u8>,
+    /// 各层在深度序中的起始位置（末尾附加总数）
+    level_offsets: Vec<u32>,
+    /// 本地变换（local_to_parent，按深度序）
+    locals: Vec<Mat4>,
+    /// 全局变换（local_to_world，按深度序）
+    globals: Vec<Mat4>,
+
+    // ---- 先序 ----
+    /// 先序位置 -> 骨骼索引
+    preorder: Vec<u32>,
+    /// 骨骼索引 -> 先序位置
+    preorder_pos: Vec<u32>,
+    /// 先序位置 -> 子树末尾（不含）
+    subtree_end: Vec<u32>,
+
+    /// 骨骼索引 -> 是否为物理骨骼（与 BoneSet::physics_bone_indices 同步）
+    physics_mask: Vec<bool>,
+}
+
+impl BoneHierarchy {
+    /// 由骨骼父索引与子骨骼缓存构建
+    pub(super) fn build(links: &[BoneLink], children: &[Vec<usize>], sorted_indices: &[usize]) -> Self {
+        let n = links.len();
+        let is_subtree_root = |i: usize| {
+            let p = links[i].parent_index;
+            p < 0 || p as usize >= n
+        };
+
+        // 先序：按变换层级顺序从各子树根出发深度优先
+        let mut preorder = Vec::with_capacity(n);
+        let mut subtree_end = vec![0u32; n];
+        let mut preorder_pos = vec![NONE; n];
+        let mut stack: Vec<(usize, bool)> = Vec::new();
+        for &root in sorted_indices.iter().filter(|&&i| is_subtree_root(i)) {
+            stack.push((root, false));
+            while let Some((i, exiting)) = stack.pop() {
+                if exiting {
+                    subtree_end[preorder_pos[i] as usize] = preorder.len() as u32;
+                    continue;
+                }
+                if preorder_pos[i] != NONE {
+                    continue;
+                }
+                preorder_pos[i] = preorder.len() as u32;
+                preorder.push(i as u32);
+                stack.push((i, true));
+                for &c in children[i].iter().rev() {
+                    stack.push((c, false));
+                }
+            }
+        }
+        // 成环骨骼：各自作为单节点子树
+        for i in 0..n {
+            if preorder_pos[i] == NONE {
+                preorder_pos[i] = preorder.len() as u32;
+                preorder.push(i as u32);
+                subtree_end[preorder_pos[i] as usize] = preorder.len() as u32;
+            }
+        }
+
+        // 深度序：从子树根出发逐层展开
+        let mut depth_order: Vec<u32> = Vec::with_capacity(n);
+        let mut depth_parent: Vec<u32> = Vec::with_capacity(n);
+        let mut depth_phase: Vec<u8> = Vec::with_capacity(n);
+        let mut depth_pos = vec![NONE; n];
+        let mut level_offsets = vec![0u32];
+        for &root in sorted_indices.iter().filter(|&&i| is_subtree_root(i)) {
+            depth_pos[root] = depth_order.len() as u32;
+            depth_order.push(root as u32);
+            depth_parent.push(NONE);
+            depth_phase.push(if links[root].parent_index >= 0 {
+                PHASE_NONE
+            } else if links[root].deform_after_physics() {
+                PHASE_AFTER_PHYSICS
+            } else {
+                PHASE_BEFORE_PHYSICS
+            });
+        }
+        let mut level_start = 0;
+        while level_start < depth_order.len() {
+            let level_end = depth_order.len();
+            level_offsets.push(level_end as u32);
+            for pos in level_start..level_end {
+                let bone = depth_order[pos] as usize;
+                for &c in &children[bone] {
+                    if depth_pos[c] != NONE {
+                        continue;
+                    }
+                    depth_pos[c] = depth_order.len() as u32;
+                    depth_order.push(c as u32);
+                    depth_parent.push(pos as u32);
+                    depth_phase.push(depth_phase[pos]);
+                }
+            }
+            level_start = level_end;
+        }
+        // 成环骨骼：追加为不参与传播的最后一层
+        let reachable = depth_order.len();
+        for i in 0..n {
+            if depth_pos[i] == NONE {
+                depth_order.push(i as u32);
+                depth_parent.push(NONE);
+                depth_phase.push(PHASE_NONE);
+            }
+        }
+        if depth_order.len() > reachable {
+            level_offsets.push(depth_order.len() as u32);
+        }
+
+        Self {
+            depth_order,
+            depth_parent,
+            depth_phase,
+            level_offsets,
+            locals: vec![Mat4::IDENTITY; n],
+            globals: vec![Mat4::IDENTITY; n],
+            preorder,
+            preorder_pos,
+            subtree_end,
+            physics_mask: vec![false; n],
+        }
+    }
+
+    #[inline]
+    pub(super) fn is_physics(&self, index: usize) -> bool {
+        self.physics_mask.get(index).copied().unwrap_or(false)
+    }
+
+    /// 同步物理骨骼标记
+    pub(super) fn set_physics_mask<I: IntoIterator<Item = usize>>(&mut self, indices: I) {
+        self.physics_mask.fill(false);
+        for i in indices {
+            if let Some(m) = self.physics_mask.get_mut(i) {
+                *m = true;
+            }
+        }
+    }
+
+    /// 全量传播全局变换：根骨骼阶段与 `after_physics` 一致的子树，跳过物理骨骼（但继续传播到其子骨骼）
+    ///
+    /// 结果与从每个匹配根骨骼递归 `local_to_world = parent.local_to_world * local_to_parent` 相同。
+    pub(super) fn propagate(&mut self, links: &mut [BoneLink], after_physics: bool, parallel: bool) {
+        let n = self.depth_order.len();
+        if n != links.len() {
+            return;
+        }
+        let phase = if after_physics { PHASE_AFTER_PHYSICS } else { PHASE_BEFORE_PHYSICS };
+
+        // 收集到 SoA（未参与本次传播的骨骼保持原全局变换，供子骨骼读取）
+        for pos in 0..n {
+            let link = &links[self.depth_order[pos] as usize];
+            self.locals[pos] = link.local_to_parent;
+            self.globals[pos] = link.local_to_world;
+        }
+
+        // 逐层计算：父骨骼位于之前的层，当前层只写自身
+        for level in self.level_offsets.windows(2) {
+            let (start, end) = (level[0] as usize, level[1] as usize);
+            let (done, rest) = self.globals.split_at_mut(start);
+            let done: &[Mat4] = done;
+            let current = &mut rest[..end - start];
+            let locals = &self.locals[start..end];
+            let parents = &self.depth_parent[start..end];
+            let phases = &self.depth_phase[start..end];
+            let order = &self.depth_order[start..end];
+            let mask = &self.physics_mask;
+
+            let eval = |k: usize, global: &mut Mat4| {
+                if phases[k] != phase || mask[order[k] as usize] {
+                    return;
+                }
+                *global = match parents[k] {
+                    NONE => locals[k],
+                    p => done[p as usize] * locals[k],
+                };
+            };
+            if parallel && current.len() >= PARALLEL_MIN_LEVEL {
+                current.par_iter_mut().enumerate().for_each(|(k, g)| eval(k, g));
+            } else {
+                current.iter_mut().enumerate().for_each(|(k, g)| eval(k, g));
+            }
+        }
+
+        // 写回
+        for pos in 0..n {
+            let bone = self.depth_order[pos] as usize;
+            if self.depth_phase[pos] != phase || self.physics_mask[bone] {
+                continue;
+            }
+            let link = &mut links[bone];
+            link.local_to_world = self.globals[pos];
+            link.parent_to_world = match self.depth_parent[pos] {
+                NONE => Mat4::IDENTITY,
+                p => self.globals[p as usize],
+            };
+        }
+    }
+
+    /// 刷新以 `index` 为根的子树全局变换（跳过物理骨骼但继续传播）
+    pub(super) fn update_subtree(&self, links: &mut [BoneLink], index: usize) {
+        let Some(&start) = self.preorder_pos.get(index) else { return };
+        let (start, end) = (start as usize, self.subtree_end[start as usize] as usize);
+        for pos in start..end {
+            let bone = self.preorder[pos] as usize;
+            if self.physics_mask[bone] {
+                continue;
+            }
+            let parent = links[bone].parent_index;
+            let parent_global = if parent >= 0 && (parent as usize) < links.len() {
+                links[parent as usize].local_to_world
+            } else {
+                Mat4::IDENTITY
+            };
+            let link = &mut links[bone];
+            link.parent_to_world = parent_global;
+            link.local_to_world = parent_global * link.local_to_parent;
+        }
+    }
+
+    /// 刷新 `index` 的所有后代全局变换（不跳过物理骨骼，不更新 parent_to_world）
+    pub(super) fn update_descendants(&self, links: &mut [BoneLink], index: usize) {
+        let Some(&start) = self.preorder_pos.get(index) else { return };
+        let (start, end) = (start as usize, self.subtree_end[start as usize] as usize);
+        for pos in start + 1..end {
+            let bone = self.preorder[pos] as usize;
+            let parent = links[bone].parent_index as usize;
+            links[bone].local_to_world = links[parent].local_to_world * links[bone].local_to_parent;
+        }
+    }
+
+    /// 堆内存占用（字节）
+    pub(super) fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        let u32s = self.depth_order.capacity()
+            + self.depth_parent.capacity()
+            + self.level_offsets.capacity()
+            + self.preorder.capacity()
+            + self.preorder_pos.capacity()
+            + self.subtree_end.capacity();
+        (u32s * size_of::<u32>()
+            + self.depth_phase.capacity()
+            + self.physics_mask.capacity()
+            + (self.locals.capacity() + self.globals.capacity()) * size_of::<Mat4>()) as u64
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use glam::Vec3;
+
+    /// 0 -> 1 -> 2, 0 -> 3, 4（独立根）
+    fn links() -> Vec<BoneLink> {
+        let parents = [-1, 0, 1, 0, -1];
+        parents
+            .iter()
+            .enumerate()
+            .map(|(i, &p)| {
+                let mut l = BoneLink::new(format!("b{}", i));
+                l.parent_index = p;
+                l.local_to_parent = Mat4::from_translation(Vec3::new(i as f32 + 1.0, 0.0, 0.0));
+                l
+            })
+            .collect()
+    }
+
+    fn children(links: &[BoneLink]) -> Vec<Vec<usize>> {
+        let mut c = vec![Vec::new(); links.len()];
+        for (i, l) in links.iter().enumerate() {
+            if l.parent_index >= 0 {
+                c[l.parent_index as usize].push(i);
+            }
+        }
+        c
+    }
+
+    #[test]
+    fn subtree_is_contiguous_preorder_range() {
+        let links = links();
+        let h = BoneHierarchy::build(&links, &children(&links), &[0, 1, 2, 3, 4]);
+        assert_eq!(h.preorder, vec![0, 1, 2, 3, 4]);
+        assert_eq!(h.subtree_end, vec![4, 3, 3, 4, 5]);
+        assert_eq!(h.level_offsets, vec![0, 2, 4, 5]);
+    }
+
+    #[test]
+    fn propagate_matches_parent_chain() {
+        let mut links = links();
+        let mut h = BoneHierarchy::build(&links, &children(&links), &[0, 1, 2, 3, 4]);
+        h.propagate(&mut links, false, false);
+        let x = |i: usize| links[i].local_to_world.col(3).x;
+        assert_eq!((x(0), x(1), x(2), x(3), x(4)), (1.0, 3.0, 6.0, 5.0, 5.0));
+        assert_eq!(links[2].parent_to_world, links[1].local_to_world);
+
+        // 物理骨骼保持原值，子骨骼基于其当前全局变换
+        links[1].local_to_world = Mat4::from_translation(Vec3::new(10.0, 0.0, 0.0));
+        h.set_physics_mask([1]);
+        h.propagate(&mut links, false, true);
+        assert_eq!(links[1].local_to_world.col(3).x, 10.0);
+        assert_eq!(links[2].local_to_world.col(3).x, 13.0);
+    }
+}
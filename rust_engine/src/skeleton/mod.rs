@@ -7,6 +7,7 @@
 
 mod bone_link;
 mod bone_set;
+mod hierarchy;
 mod ik_solver;
 
 pub use bone_link::{BoneLink, BoneFlags, IkConfig, IkLink, AppendConfig};
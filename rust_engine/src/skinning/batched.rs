@@ -0,0 +1,583 @@
+//! 分批 SIMD 蒙皮内核
+//!
+//! 加载后一次性把顶点按连续区块（CHUNK_VERTICES 个）切分，区块内再按权重类型分拣为同构批次：
+//! - BDEF1 / BDEF2 / BDEF4：骨骼索引、权重、静止法线以 SoA 存放并补齐到 8 的倍数，
+//!   每 8 个顶点一组用 `wide::f32x8` 混合骨骼矩阵并变换位置/法线
+//! - SDEF：使用每帧预计算的骨骼旋转四元数（不再逐顶点 `Quat::from_mat4`）
+//! - QDEF：使用每帧预计算的骨骼对偶四元数做 DQS 混合
+//!
+//! 区块之间用 rayon 并行，区块内只写本区块的输出切片，无需任何同步。
+//! 非法骨骼索引在构建时映射到调色板末尾的单位矩阵。
+
+use glam::{Mat3, Mat4, Quat, Vec3, Vec4};
+use rayon::prelude::*;
+use wide::f32x8;
+
+use crate::model::VertexWeight;
+
+/// 每个并行区块的顶点数
+pub const CHUNK_VERTICES: usize = 4096;
+
+/// SIMD 宽度
+const LANES: usize = 8;
+
+/// 仿射骨骼矩阵（列主序 3x4：x/y/z 轴 + 平移）
+type Affine = [f32; 12];
+
+const IDENTITY_AFFINE: Affine = [1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0];
+
+#[inline]
+fn affine_from_mat4(m: &Mat4) -> Affine {
+    [
+        m.x_axis.x, m.x_axis.y, m.x_axis.z,
+        m.y_axis.x, m.y_axis.y, m.y_axis.z,
+        m.z_axis.x, m.z_axis.y, m.z_axis.z,
+        m.w_axis.x, m.w_axis.y, m.w_axis.z,
+    ]
+}
+
+#[inline]
+fn affine_point(m: &Affine, p: Vec3) -> Vec3 {
+    Vec3::new(
+        m[0] * p.x + m[3] * p.y + m[6] * p.z + m[9],
+        m[1] * p.x + m[4] * p.y + m[7] * p.z + m[10],
+        m[2] * p.x + m[5] * p.y + m[8] * p.z + m[11],
+    )
+}
+
+/// 骨骼矩阵的旋转部分（先去除缩放，保证四元数有效）
+fn rotation_of(m: &Mat4) -> Quat {
+    let axes = Mat3::from_cols(
+        m.x_axis.truncate().normalize_or_zero(),
+        m.y_axis.truncate().normalize_or_zero(),
+        m.z_axis.truncate().normalize_or_zero(),
+    );
+    Quat::from_mat3(&axes).normalize()
+}
+
+/// 刚体变换 → 对偶四元数 (实部, 对偶部)，均为 xyzw
+fn dual_quat_of(rotation: Quat, translation: Vec3) -> (Vec4, Vec4) {
+    let v = Vec3::new(rotation.x, rotation.y, rotation.z);
+    let w = rotation.w;
+    // dual = 0.5 * (0, t) * q
+    let dv = (translation * w + translation.cross(v)) * 0.5;
+    let dw = -0.5 * translation.dot(v);
+    (Vec4::from(rotation), dv.extend(dw))
+}
+
+/// 每帧骨骼调色板（由蒙皮矩阵一次性派生）
+#[derive(Default)]
+pub struct SkinningPalette {
+    affine: Vec<Affine>,
+    rotations: Vec<Quat>,
+    dual_quats: Vec<(Vec4, Vec4)>,
+}
+
+impl SkinningPalette {
+    /// 从蒙皮矩阵重建调色板；旋转/对偶四元数只在存在 SDEF/QDEF 顶点时计算
+    pub fn update(&mut self, matrices: &[Mat4], needs_rotations: bool, needs_dual_quats: bool) {
+        self.affine.clear();
+        self.affine.extend(matrices.iter().map(affine_from_mat4));
+        self.affine.push(IDENTITY_AFFINE);
+
+        self.rotations.clear();
+        self.dual_quats.clear();
+        if !needs_rotations && !needs_dual_quats {
+            return;
+        }
+        self.rotations.extend(matrices.iter().map(rotation_of));
+        self.rotations.push(Quat::IDENTITY);
+
+        if needs_dual_quats {
+            self.dual_quats.extend(
+                matrices
+                    .iter()
+                    .zip(&self.rotations)
+                    .map(|(m, &q)| dual_quat_of(q, m.w_axis.truncate())),
+            );
+            self.dual_quats.push((Vec4::W, Vec4::ZERO));
+        }
+    }
+}
+
+#[derive(Default)]
+struct Bdef1Batch {
+    local: Vec<u32>,
+    bone: Vec<u32>,
+    normals: [Vec<f32>; 3],
+}
+
+#[derive(Default)]
+struct Bdef2Batch {
+    local: Vec<u32>,
+    bones: [Vec<u32>; 2],
+    weight0: Vec<f32>,
+    normals: [Vec<f32>; 3],
+}
+
+#[derive(Default)]
+struct Bdef4Batch {
+    local: Vec<u32>,
+    bones: [Vec<u32>; 4],
+    weights: [Vec<f32>; 4],
+    normals: [Vec<f32>; 3],
+}
+
+struct SdefVertex {
+    local: u32,
+    bones: [u32; 2],
+    weight0: f32,
+    normal: Vec3,
+    c: Vec3,
+    /// 预计算的 (C + R0') / 2 与 (C + R1') / 2（R' 已按权重校正）
+    cr0: Vec3,
+    cr1: Vec3,
+}
+
+struct QdefVertex {
+    local: u32,
+    bones: [u32; 4],
+    weights: [f32; 4],
+    normal: Vec3,
+}
+
+/// 一个连续顶点区块内的同构批次（local 为区块内偏移）
+#[derive(Default)]
+struct ChunkBatches {
+    bdef1: Bdef1Batch,
+    bdef2: Bdef2Batch,
+    bdef4: Bdef4Batch,
+    sdef: Vec<SdefVertex>,
+    qdef: Vec<QdefVertex>,
+}
+
+/// 区块输出切片
+struct ChunkTarget<'a> {
+    positions: &'a mut [Vec3],
+    normals: &'a mut [Vec3],
+    pos_raw: &'a mut [f32],
+    norm_raw: &'a mut [f32],
+}
+
+impl ChunkTarget<'_> {
+    #[inline]
+    fn write(&mut self, i: usize, pos: Vec3, norm: Vec3) {
+        self.positions[i] = pos;
+        self.normals[i] = norm;
+        self.pos_raw[i * 3..i * 3 + 3].copy_from_slice(&pos.to_array());
+        self.norm_raw[i * 3..i * 3 + 3].copy_from_slice(&norm.to_array());
+    }
+}
+
+/// 按权重类型预分拣的蒙皮批次（加载后构建一次）
+pub struct SkinningBatches {
+    chunks: Vec<ChunkBatches>,
+    vertex_count: usize,
+    bone_count: usize,
+    has_sdef: bool,
+    has_qdef: bool,
+}
+
+/// 把尾部补齐到 LANES 的倍数（重复最后一个元素，重复写入同一顶点结果不变）
+fn pad<T: Copy>(v: &mut Vec<T>) {
+    if let Some(&last) = v.last() {
+        while v.len() % LANES != 0 {
+            v.push(last);
+        }
+    }
+}
+
+fn push_normal(normals: &mut [Vec<f32>; 3], n: Vec3) {
+    normals[0].push(n.x);
+    normals[1].push(n.y);
+    normals[2].push(n.z);
+}
+
+fn pad_normals(normals: &mut [Vec<f32>; 3]) {
+    normals.iter_mut().for_each(pad);
+}
+
+impl SkinningBatches {
+    /// 构建批次
+    ///
+    /// `rest_normals` 为静止法线（Morph 不修改法线，因此可以预先存入 SoA）
+    pub fn build(weights: &[VertexWeight], rest_normals: &[Vec3], bone_count: usize) -> Self {
+        let vertex_count = weights.len().min(rest_normals.len());
+        let resolve = |bone: i32| -> u32 {
+            if bone >= 0 && (bone as usize) < bone_count {
+                bone as u32
+            } else {
+                bone_count as u32
+            }
+        };
+
+        let mut chunks = Vec::with_capacity((vertex_count + CHUNK_VERTICES - 1) / CHUNK_VERTICES);
+        let mut has_sdef = false;
+        let mut has_qdef = false;
+
+        for start in (0..vertex_count).step_by(CHUNK_VERTICES) {
+            let end = (start + CHUNK_VERTICES).min(vertex_count);
+            let mut chunk = ChunkBatches::default();
+
+            for i in start..end {
+                let local = (i - start) as u32;
+                let normal = rest_normals[i];
+                match weights[i] {
+                    VertexWeight::Bdef1 { bone } => {
+                        let b = &mut chunk.bdef1;
+                        b.local.push(local);
+                        b.bone.push(resolve(bone));
+                        push_normal(&mut b.normals, normal);
+                    }
+                    VertexWeight::Bdef2 { bones, weight } => {
+                        let b = &mut chunk.bdef2;
+                        b.local.push(local);
+                        b.bones[0].push(resolve(bones[0]));
+                        b.bones[1].push(resolve(bones[1]));
+                        b.weight0.push(weight);
+                        push_normal(&mut b.normals, normal);
+                    }
+                    VertexWeight::Bdef4 { bones, weights } => {
+                        let b = &mut chunk.bdef4;
+                        b.local.push(local);
+                        for k in 0..4 {
+                            b.bones[k].push(resolve(bones[k]));
+                            b.weights[k].push(weights[k]);
+                        }
+                        push_normal(&mut b.normals, normal);
+                    }
+                    VertexWeight::Sdef { bones, weight, c, r0, r1 } => {
+                        has_sdef = true;
+                        let w0 = weight;
+                        let w1 = 1.0 - w0;
+                        let rw = r0 * w0 + r1 * w1;
+                        let r0 = c + r0 - rw;
+                        let r1 = c + r1 - rw;
+                        chunk.sdef.push(SdefVertex {
+                            local,
+                            bones: [resolve(bones[0]), resolve(bones[1])],
+                            weight0: w0,
+                            normal,
+                            c,
+                            cr0: (c + r0) * 0.5,
+                            cr1: (c + r1) * 0.5,
+                        });
+                    }
+                    VertexWeight::Qdef { bones, weights } => {
+                        has_qdef = true;
+                        chunk.qdef.push(QdefVertex {
+                            local,
+                            bones: bones.map(resolve),
+                            weights,
+                            normal,
+                        });
+                    }
+                }
+            }
+
+            let b = &mut chunk.bdef1;
+            pad(&mut b.local);
+            pad(&mut b.bone);
+            pad_normals(&mut b.normals);
+
+            let b = &mut chunk.bdef2;
+            pad(&mut b.local);
+            b.bones.iter_mut().for_each(pad);
+            pad(&mut b.weight0);
+            pad_normals(&mut b.normals);
+
+            let b = &mut chunk.bdef4;
+            pad(&mut b.local);
+            b.bones.iter_mut().for_each(pad);
+            b.weights.iter_mut().for_each(pad);
+            pad_normals(&mut b.normals);
+
+            chunks.push(chunk);
+        }
+
+        Self { chunks, vertex_count, bone_count, has_sdef, has_qdef }
+    }
+
+    /// 顶点数与骨骼数未变化时批次仍然有效
+    pub fn matches(&self, vertex_count: usize, bone_count: usize) -> bool {
+        self.vertex_count == vertex_count && self.bone_count == bone_count
+    }
+
+    pub fn has_sdef(&self) -> bool {
+        self.has_sdef
+    }
+
+    pub fn has_qdef(&self) -> bool {
+        self.has_qdef
+    }
+
+    /// 并行蒙皮
+    ///
+    /// `positions` 输入为已应用 Morph 的位置，输出覆盖为蒙皮结果；
+    /// `pos_raw` / `norm_raw` 为每顶点 3 个 f32 的平铺输出。
+    pub fn skin(
+        &self,
+        palette: &SkinningPalette,
+        positions: &mut [Vec3],
+        normals: &mut [Vec3],
+        pos_raw: &mut [f32],
+        norm_raw: &mut [f32],
+    ) {
+        positions
+            .par_chunks_mut(CHUNK_VERTICES)
+            .zip(normals.par_chunks_mut(CHUNK_VERTICES))
+            .zip(pos_raw.par_chunks_mut(CHUNK_VERTICES * 3))
+            .zip(norm_raw.par_chunks_mut(CHUNK_VERTICES * 3))
+            .zip(self.chunks.par_iter())
+            .for_each(|((((positions, normals), pos_raw), norm_raw), chunk)| {
+                chunk.skin(palette, &mut ChunkTarget { positions, normals, pos_raw, norm_raw });
+            });
+    }
+
+    /// 单线程蒙皮（基准测试用，结果与 `skin` 相同）
+    pub fn skin_serial(
+        &self,
+        palette: &SkinningPalette,
+        positions: &mut [Vec3],
+        normals: &mut [Vec3],
+        pos_raw: &mut [f32],
+        norm_raw: &mut [f32],
+    ) {
+        positions
+            .chunks_mut(CHUNK_VERTICES)
+            .zip(normals.chunks_mut(CHUNK_VERTICES))
+            .zip(pos_raw.chunks_mut(CHUNK_VERTICES * 3))
+            .zip(norm_raw.chunks_mut(CHUNK_VERTICES * 3))
+            .zip(self.chunks.iter())
+            .for_each(|((((positions, normals), pos_raw), norm_raw), chunk)| {
+                chunk.skin(palette, &mut ChunkTarget { positions, normals, pos_raw, norm_raw });
+            });
+    }
+
+    /// 批次占用的堆内存（字节）
+    pub fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        let mut total = 0usize;
+        for c in &self.chunks {
+            let soa = |n: usize| n * size_of::<u32>();
+            total += soa(c.bdef1.local.capacity()) * 5;
+            total += soa(c.bdef2.local.capacity()) * 7;
+            total += soa(c.bdef4.local.capacity()) * 12;
+            total += c.sdef.capacity() * size_of::<SdefVertex>();
+            total += c.qdef.capacity() * size_of::<QdefVertex>();
+        }
+        (total + self.chunks.capacity() * size_of::<ChunkBatches>()) as u64
+    }
+}
+
+#[inline(always)]
+fn load(s: &[f32]) -> f32x8 {
+    let lanes: [f32; LANES] = s.try_into().unwrap();
+    f32x8::from(lanes)
+}
+
+/// 按 8 个顶点的骨骼索引收集调色板矩阵（SoA：每个矩阵元素一个 f32x8）
+#[inline(always)]
+fn gather(palette: &[Affine], bones: &[u32]) -> [f32x8; 12] {
+    let mut cols = [[0.0f32; LANES]; 12];
+    for (lane, &b) in bones.iter().enumerate() {
+        let m = &palette[b as usize];
+        for e in 0..12 {
+            cols[e][lane] = m[e];
+        }
+    }
+    cols.map(f32x8::from)
+}
+
+#[inline(always)]
+fn gather_positions(positions: &[Vec3], local: &[u32]) -> [f32x8; 3] {
+    let mut xyz = [[0.0f32; LANES]; 3];
+    for (lane, &i) in local.iter().enumerate() {
+        let p = positions[i as usize];
+        xyz[0][lane] = p.x;
+        xyz[1][lane] = p.y;
+        xyz[2][lane] = p.z;
+    }
+    xyz.map(f32x8::from)
+}
+
+/// 用混合后的矩阵变换 8 个顶点并写回
+#[inline(always)]
+fn transform_and_store(m: &[f32x8; 12], local: &[u32], normals: &[Vec<f32>; 3], g: usize, out: &mut ChunkTarget) {
+    let [px, py, pz] = gather_positions(out.positions, local);
+    let nx = load(&normals[0][g..g + LANES]);
+    let ny = load(&normals[1][g..g + LANES]);
+    let nz = load(&normals[2][g..g + LANES]);
+
+    let ox = m[0] * px + m[3] * py + m[6] * pz + m[9];
+    let oy = m[1] * px + m[4] * py + m[7] * pz + m[10];
+    let oz = m[2] * px + m[5] * py + m[8] * pz + m[11];
+
+    let vx = m[0] * nx + m[3] * ny + m[6] * nz;
+    let vy = m[1] * nx + m[4] * ny + m[7] * nz;
+    let vz = m[2] * nx + m[5] * ny + m[8] * nz;
+    // normalize_or_zero：零向量乘以有限的大数仍为零
+    let len2 = (vx * vx + vy * vy + vz * vz).max(f32x8::splat(f32::MIN_POSITIVE));
+    let inv = f32x8::splat(1.0) / len2.sqrt();
+
+    let (ox, oy, oz) = (ox.to_array(), oy.to_array(), oz.to_array());
+    let (vx, vy, vz) = ((vx * inv).to_array(), (vy * inv).to_array(), (vz * inv).to_array());
+    for (lane, &i) in local.iter().enumerate() {
+        out.write(
+            i as usize,
+            Vec3::new(ox[lane], oy[lane], oz[lane]),
+            Vec3::new(vx[lane], vy[lane], vz[lane]),
+        );
+    }
+}
+
+impl ChunkBatches {
+    fn skin(&self, palette: &SkinningPalette, out: &mut ChunkTarget) {
+        let affine = palette.affine.as_slice();
+
+        let b = &self.bdef1;
+        for g in (0..b.local.len()).step_by(LANES) {
+            let r = g..g + LANES;
+            let m = gather(affine, &b.bone[r.clone()]);
+            transform_and_store(&m, &b.local[r], &b.normals, g, out);
+        }
+
+        let b = &self.bdef2;
+        for g in (0..b.local.len()).step_by(LANES) {
+            let r = g..g + LANES;
+            let w0 = load(&b.weight0[r.clone()]);
+            let w1 = f32x8::splat(1.0) - w0;
+            let m0 = gather(affine, &b.bones[0][r.clone()]);
+            let m1 = gather(affine, &b.bones[1][r.clone()]);
+            let m: [f32x8; 12] = std::array::from_fn(|e| m0[e] * w0 + m1[e] * w1);
+            transform_and_store(&m, &b.local[r], &b.normals, g, out);
+        }
+
+        let b = &self.bdef4;
+        for g in (0..b.local.len()).step_by(LANES) {
+            let r = g..g + LANES;
+            let mut m = [f32x8::splat(0.0); 12];
+            for k in 0..4 {
+                let w = load(&b.weights[k][r.clone()]);
+                let mk = gather(affine, &b.bones[k][r.clone()]);
+                for e in 0..12 {
+                    m[e] = m[e] + mk[e] * w;
+                }
+            }
+            transform_and_store(&m, &b.local[r], &b.normals, g, out);
+        }
+
+        for v in &self.sdef {
+            let i = v.local as usize;
+            let [b0, b1] = v.bones.map(|b| b as usize);
+            let w0 = v.weight0;
+            let w1 = 1.0 - w0;
+            let q = palette.rotations[b0].slerp(palette.rotations[b1], w1);
+            let pos = q * (out.positions[i] - v.c)
+                + affine_point(&affine[b0], v.cr0) * w0
+                + affine_point(&affine[b1], v.cr1) * w1;
+            out.write(i, pos, (q * v.normal).normalize_or_zero());
+        }
+
+        for v in &self.qdef {
+            let i = v.local as usize;
+            let (pivot, _) = palette.dual_quats[v.bones[0] as usize];
+            let mut real = Vec4::ZERO;
+            let mut dual = Vec4::ZERO;
+            for k in 0..4 {
+                let (r, d) = palette.dual_quats[v.bones[k] as usize];
+                // 与第一根骨骼取同一半球，避免绕远路
+                let w = if r.dot(pivot) < 0.0 { -v.weights[k] } else { v.weights[k] };
+                real += r * w;
+                dual += d * w;
+            }
+            let len = real.length();
+            if len <= f32::EPSILON {
+                out.write(i, out.positions[i], v.normal);
+                continue;
+            }
+            let real = real / len;
+            let dual = dual / len;
+            let rv = real.truncate();
+            let dv = dual.truncate();
+            let translation = (dv * real.w - rv * dual.w + rv.cross(dv)) * 2.0;
+            let q = Quat::from_vec4(real);
+            out.write(i, q * out.positions[i] + translation, (q * v.normal).normalize_or_zero());
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::skinning::{compute_skinning, SkinningInput};
+
+    fn test_matrices() -> Vec<Mat4> {
+        (0..6)
+            .map(|i| {
+                let f = i as f32;
+                Mat4::from_rotation_translation(
+                    Quat::from_euler(glam::EulerRot::YXZ, f * 0.4, f * 0.25, -f * 0.1),
+                    Vec3::new(f, -f * 0.5, f * 0.3),
+                )
+            })
+            .collect()
+    }
+
+    fn run(weights: &[VertexWeight], positions: &[Vec3], normals: &[Vec3], matrices: &[Mat4]) -> (Vec<Vec3>, Vec<Vec3>) {
+        let batches = SkinningBatches::build(weights, normals, matrices.len());
+        let mut palette = SkinningPalette::default();
+        palette.update(matrices, batches.has_sdef(), batches.has_qdef());
+        let mut pos = positions.to_vec();
+        let mut nor = vec![Vec3::ZERO; positions.len()];
+        let mut pos_raw = vec![0.0; positions.len() * 3];
+        let mut nor_raw = vec![0.0; positions.len() * 3];
+        batches.skin(&palette, &mut pos, &mut nor, &mut pos_raw, &mut nor_raw);
+        assert_eq!(pos_raw[..3], pos[0].to_array());
+        (pos, nor)
+    }
+
+    #[test]
+    fn test_linear_blend_matches_reference() {
+        let matrices = test_matrices();
+        let mut weights = Vec::new();
+        for i in 0..(CHUNK_VERTICES + 37) as i32 {
+            weights.push(match i % 3 {
+                0 => VertexWeight::Bdef1 { bone: i % 7 - 1 },
+                1 => VertexWeight::Bdef2 { bones: [i % 6, (i + 2) % 6], weight: 0.3 },
+                _ => VertexWeight::Bdef4 { bones: [i % 6, 1, 2, 5], weights: [0.1, 0.2, 0.3, 0.4] },
+            });
+        }
+        let positions: Vec<Vec3> = (0..weights.len()).map(|i| Vec3::new(i as f32 * 0.01, 1.0, -0.5)).collect();
+        let normals: Vec<Vec3> = (0..weights.len()).map(|i| Vec3::new(0.0, 1.0, i as f32 * 0.001).normalize()).collect();
+
+        let (pos, nor) = run(&weights, &positions, &normals, &matrices);
+        let expected = compute_skinning(&SkinningInput {
+            positions: &positions,
+            normals: &normals,
+            weights: &weights,
+            bone_matrices: &matrices,
+        });
+        for i in 0..weights.len() {
+            assert!(pos[i].abs_diff_eq(expected.positions[i], 1e-4), "pos {}", i);
+            assert!(nor[i].abs_diff_eq(expected.normals[i], 1e-4), "normal {}", i);
+        }
+    }
+
+    #[test]
+    fn test_sdef_and_qdef_rigid_single_bone() {
+        let matrices = test_matrices();
+        let m = matrices[3];
+        let p = Vec3::new(0.5, 2.0, -1.0);
+        let n = Vec3::Y;
+        let weights = vec![
+            VertexWeight::Sdef { bones: [3, 3], weight: 0.6, c: Vec3::new(0.0, 1.5, 0.0), r0: Vec3::X, r1: Vec3::Z },
+            VertexWeight::Qdef { bones: [3, 3, 3, 3], weights: [0.25; 4] },
+        ];
+        let (pos, nor) = run(&weights, &[p, p], &[n, n], &matrices);
+        for i in 0..2 {
+            assert!(pos[i].abs_diff_eq(m.transform_point3(p), 1e-4), "pos {}", i);
+            assert!(nor[i].abs_diff_eq(m.transform_vector3(n), 1e-4), "normal {}", i);
+        }
+    }
+}
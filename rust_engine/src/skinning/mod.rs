@@ -1,7 +1,9 @@
 //! 顶点蒙皮计算
 
+mod batched;
 mod skinning;
 
+pub use batched::{SkinningBatches, SkinningPalette, CHUNK_VERTICES};
 pub use skinning::{compute_skinning, SkinningContext};
 
 use glam::{Vec3, Mat4};
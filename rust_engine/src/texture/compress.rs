@@ -0,0 +1,622 @@
+//! 纹理 Mip 链生成与 BC1 / BC3 块压缩
+//!
+//! 在后台加载线程上执行：解码图片 → 生成完整 Mip 链 → 逐层块压缩。
+//! 不透明纹理编码为 BC1（4 bpp），带透明通道纹理编码为 BC3（8 bpp），
+//! 相比未压缩 RGBA8 显存占用降为 1/8 ~ 1/4（含 Mip 链）。
+//!
+//! 编码器为主轴拟合：协方差幂迭代求主方向，像素投影的两端作为端点，每个像素取最近的调色板项；
+//! 同一层级按块行并行编码。
+//!
+//! 结果按源文件内容哈希缓存在模型缓存目录（见 model::cache），再次加载同一图片时直接读取压缩数据；
+//! 内嵌纹理（见 embedded）按像素哈希缓存。
+
+use std::fs;
+use std::path::Path;
+
+use image::ImageFormat;
+use rayon::prelude::*;
+
+use crate::model::{cache_dir, content_hash, write_atomic};
+use crate::{MmdError, Result};
+
+use super::embedded::{discard_pending, embedded_hash, is_embedded, load_embedded};
+use super::loader::texture_from_image;
+use super::{MipLevel, Texture, TextureFormat};
+
+const MAGIC: &[u8; 4] = b"MMDT";
+/// 格式版本：编码器或文件布局变化时必须递增
+const CACHE_VERSION: u32 = 1;
+const CACHE_EXTENSION: &str = "mmdt";
+/// 头部：魔数、版本、源长度、源哈希、格式、透明、宽、高、Mip 数
+const HEADER_SIZE: usize = 44;
+
+/// 加载纹理并压缩为带 Mip 链的 BC1 / BC3（优先读取磁盘缓存）
+/// 与 load_texture 一致：图像已垂直翻转，has_alpha 基于原始通道数判断
+pub fn load_texture_compressed<P: AsRef<Path>>(path: P) -> Result<Texture> {
+    let path = path.as_ref();
+    if let Some(key) = path.to_str().filter(|p| is_embedded(p)) {
+        return load_embedded_compressed(key);
+    }
+    let bytes = fs::read(path)?;
+    let source_len = bytes.len() as u64;
+    let hash = content_hash(&bytes);
+    let cache_path = cache_dir()
+        .map(|d| d.join(format!("{:016x}.v{}.{}", hash, CACHE_VERSION, CACHE_EXTENSION)));
+
+    if let Some(cache_path) = &cache_path {
+        if let Some(texture) = read_cache(cache_path, source_len, hash) {
+            return Ok(texture);
+        }
+    }
+
+    let raw = decode(path, &bytes)?;
+    drop(bytes);
+    let texture = compress(&raw);
+
+    if let Some(cache_path) = &cache_path {
+        if let Err(e) = write_atomic(cache_path, &encode_cache(&texture, source_len, hash)) {
+            log::warn!("写入纹理缓存失败 {}: {}", cache_path.display(), e);
+        }
+    }
+    Ok(texture)
+}
+
+/// 内嵌纹理：以虚拟路径中的像素哈希作为缓存键（源长度记为 0），命中时无需解码
+fn load_embedded_compressed(key: &str) -> Result<Texture> {
+    let hash = match embedded_hash(key) {
+        Some(h) => h,
+        None => return load_embedded(key),
+    };
+    let cache_path = cache_dir()
+        .map(|d| d.join(format!("{:016x}.v{}.{}", hash, CACHE_VERSION, CACHE_EXTENSION)));
+
+    if let Some(cache_path) = &cache_path {
+        if let Some(texture) = read_cache(cache_path, 0, hash) {
+            discard_pending(key);
+            return Ok(texture);
+        }
+    }
+
+    let raw = load_embedded(key)?;
+    let texture = compress(&raw);
+    drop(raw);
+
+    if let Some(cache_path) = &cache_path {
+        if let Err(e) = write_atomic(cache_path, &encode_cache(&texture, 0, hash)) {
+            log::warn!("写入纹理缓存失败 {}: {}", cache_path.display(), e);
+        }
+    }
+    Ok(texture)
+}
+
+/// 是否为旧版本的纹理缓存文件（设置缓存目录时清理）
+pub(crate) fn is_stale_cache_file(name: &str) -> bool {
+    name.ends_with(&format!(".{}", CACHE_EXTENSION))
+        && !name.ends_with(&format!(".v{}.{}", CACHE_VERSION, CACHE_EXTENSION))
+}
+
+/// 从内存解码；TGA 等没有魔数的格式按扩展名判断
+fn decode(path: &Path, bytes: &[u8]) -> Result<Texture> {
+    let format = image::guess_format(bytes)
+        .or_else(|_| ImageFormat::from_path(path))
+        .map_err(|e| MmdError::Texture(format!("Failed to load texture: {}", e)))?;
+    let img = image::load_from_memory_with_format(bytes, format)
+        .map_err(|e| MmdError::Texture(format!("Failed to load texture: {}", e)))?;
+    Ok(texture_from_image(img))
+}
+
+// ============================================================================
+// Mip 链与压缩
+// ============================================================================
+
+fn block_bytes(format: TextureFormat) -> usize {
+    match format {
+        TextureFormat::Bc1 => 8,
+        TextureFormat::Bc3 => 16,
+        TextureFormat::Raw => 0,
+    }
+}
+
+/// 计算完整 Mip 链（直到 1x1）各层级的尺寸与偏移
+fn mip_chain(width: u32, height: u32, format: TextureFormat) -> Vec<MipLevel> {
+    let block = block_bytes(format);
+    let mut mips = Vec::new();
+    let (mut w, mut h, mut offset) = (width, height, 0usize);
+    loop {
+        let size = ((w as usize + 3) / 4) * ((h as usize + 3) / 4) * block;
+        mips.push(MipLevel { width: w, height: h, offset, size });
+        offset += size;
+        if w == 1 && h == 1 {
+            break;
+        }
+        w = (w / 2).max(1);
+        h = (h / 2).max(1);
+    }
+    mips
+}
+
+fn compress(raw: &Texture) -> Texture {
+    if raw.width == 0 || raw.height == 0 {
+        return raw.clone();
+    }
+    let format = if raw.has_alpha { TextureFormat::Bc3 } else { TextureFormat::Bc1 };
+    let mips = mip_chain(raw.width, raw.height, format);
+    let total = mips.last().map(|m| m.offset + m.size).unwrap_or(0);
+    let mut data = vec![0u8; total];
+
+    let mut level = to_rgba(raw);
+    for (i, mip) in mips.iter().enumerate() {
+        if i > 0 {
+            level = downsample(&level, mips[i - 1].width, mips[i - 1].height);
+        }
+        encode_level(&level, mip.width, mip.height, format, &mut data[mip.offset..mip.offset + mip.size]);
+    }
+
+    Texture {
+        width: raw.width,
+        height: raw.height,
+        data,
+        has_alpha: raw.has_alpha,
+        format,
+        mips,
+    }
+}
+
+fn to_rgba(raw: &Texture) -> Vec<u8> {
+    if raw.has_alpha {
+        return raw.data.clone();
+    }
+    let mut rgba = Vec::with_capacity(raw.data.len() / 3 * 4);
+    for px in raw.data.chunks_exact(3) {
+        rgba.extend_from_slice(&[px[0], px[1], px[2], 255]);
+    }
+    rgba
+}
+
+/// 2x2 盒式滤波降采样（奇数尺寸时最后一行/列复用边缘像素）
+fn downsample(src: &[u8], width: u32, height: u32) -> Vec<u8> {
+    let (w, h) = (width as usize, height as usize);
+    let (nw, nh) = ((w / 2).max(1), (h / 2).max(1));
+    let mut dst = vec![0u8; nw * nh * 4];
+    dst.par_chunks_mut(nw * 4).enumerate().for_each(|(y, row)| {
+        let y0 = (y * 2).min(h - 1);
+        let y1 = (y * 2 + 1).min(h - 1);
+        for x in 0..nw {
+            let x0 = (x * 2).min(w - 1);
+            let x1 = (x * 2 + 1).min(w - 1);
+            for c in 0..4 {
+                let sum = src[(y0 * w + x0) * 4 + c] as u32
+                    + src[(y0 * w + x1) * 4 + c] as u32
+                    + src[(y1 * w + x0) * 4 + c] as u32
+                    + src[(y1 * w + x1) * 4 + c] as u32;
+                row[x * 4 + c] = ((sum + 2) / 4) as u8;
+            }
+        }
+    });
+    dst
+}
+
+/// 编码一个 Mip 层级，按块行并行
+fn encode_level(rgba: &[u8], width: u32, height: u32, format: TextureFormat, out: &mut [u8]) {
+    let (w, h) = (width as usize, height as usize);
+    let blocks_x = (w + 3) / 4;
+    let bytes = block_bytes(format);
+    out.par_chunks_mut(blocks_x * bytes).enumerate().for_each(|(by, row)| {
+        let mut block = [[0u8; 4]; 16];
+        for bx in 0..blocks_x {
+            // 边缘不足 4x4 的块复用边缘像素
+            for py in 0..4 {
+                let y = (by * 4 + py).min(h - 1);
+                for px in 0..4 {
+                    let x = (bx * 4 + px).min(w - 1);
+                    let i = (y * w + x) * 4;
+                    block[py * 4 + px] = [rgba[i], rgba[i + 1], rgba[i + 2], rgba[i + 3]];
+                }
+            }
+            let dst = &mut row[bx * bytes..(bx + 1) * bytes];
+            if format == TextureFormat::Bc3 {
+                encode_alpha_block(&block, &mut dst[..8]);
+                encode_color_block(&block, &mut dst[8..]);
+            } else {
+                encode_color_block(&block, dst);
+            }
+        }
+    });
+}
+
+/// BC1 颜色块（BC3 的颜色部分相同），始终使用 4 色模式
+fn encode_color_block(block: &[[u8; 4]; 16], out: &mut [u8]) {
+    let mut mean = [0f32; 3];
+    for p in block {
+        for c in 0..3 {
+            mean[c] += p[c] as f32;
+        }
+    }
+    for c in &mut mean {
+        *c /= 16.0;
+    }
+
+    // 协方差矩阵（rr rg rb gg gb bb）
+    let mut cov = [0f32; 6];
+    for p in block {
+        let d = [p[0] as f32 - mean[0], p[1] as f32 - mean[1], p[2] as f32 - mean[2]];
+        cov[0] += d[0] * d[0];
+        cov[1] += d[0] * d[1];
+        cov[2] += d[0] * d[2];
+        cov[3] += d[1] * d[1];
+        cov[4] += d[1] * d[2];
+        cov[5] += d[2] * d[2];
+    }
+
+    // 幂迭代求主轴
+    let mut axis = [1.0f32, 1.0, 1.0];
+    for _ in 0..4 {
+        let next = [
+            cov[0] * axis[0] + cov[1] * axis[1] + cov[2] * axis[2],
+            cov[1] * axis[0] + cov[3] * axis[1] + cov[4] * axis[2],
+            cov[2] * axis[0] + cov[4] * axis[1] + cov[5] * axis[2],
+        ];
+        let len = next[0].abs().max(next[1].abs()).max(next[2].abs());
+        if len < 1e-6 {
+            break;
+        }
+        axis = [next[0] / len, next[1] / len, next[2] / len];
+    }
+    let norm = (axis[0] * axis[0] + axis[1] * axis[1] + axis[2] * axis[2]).sqrt();
+    for a in &mut axis {
+        *a /= norm;
+    }
+
+    let (mut min_t, mut max_t) = (f32::MAX, f32::MIN);
+    for p in block {
+        let t = (p[0] as f32 - mean[0]) * axis[0]
+            + (p[1] as f32 - mean[1]) * axis[1]
+            + (p[2] as f32 - mean[2]) * axis[2];
+        min_t = min_t.min(t);
+        max_t = max_t.max(t);
+    }
+
+    let end = |t: f32| [mean[0] + axis[0] * t, mean[1] + axis[1] * t, mean[2] + axis[2] * t];
+    let mut c0 = pack_565(end(max_t));
+    let mut c1 = pack_565(end(min_t));
+    if c0 < c1 {
+        std::mem::swap(&mut c0, &mut c1);
+    }
+
+    let mut indices = 0u32;
+    if c0 != c1 {
+        let p0 = unpack_565(c0);
+        let p1 = unpack_565(c1);
+        let palette = [
+            p0,
+            p1,
+            [(2 * p0[0] + p1[0]) / 3, (2 * p0[1] + p1[1]) / 3, (2 * p0[2] + p1[2]) / 3],
+            [(p0[0] + 2 * p1[0]) / 3, (p0[1] + 2 * p1[1]) / 3, (p0[2] + 2 * p1[2]) / 3],
+        ];
+        for (i, p) in block.iter().enumerate() {
+            let mut best = 0;
+            let mut best_dist = i32::MAX;
+            for (k, c) in palette.iter().enumerate() {
+                let dr = p[0] as i32 - c[0];
+                let dg = p[1] as i32 - c[1];
+                let db = p[2] as i32 - c[2];
+                let dist = dr * dr + dg * dg + db * db;
+                if dist < best_dist {
+                    best_dist = dist;
+                    best = k;
+                }
+            }
+            indices |= (best as u32) << (2 * i);
+        }
+    }
+
+    out[0..2].copy_from_slice(&c0.to_le_bytes());
+    out[2..4].copy_from_slice(&c1.to_le_bytes());
+    out[4..8].copy_from_slice(&indices.to_le_bytes());
+}
+
+/// BC3 透明通道块（8 级插值模式）
+fn encode_alpha_block(block: &[[u8; 4]; 16], out: &mut [u8]) {
+    let (mut a_min, mut a_max) = (255u8, 0u8);
+    for p in block {
+        a_min = a_min.min(p[3]);
+        a_max = a_max.max(p[3]);
+    }
+
+    let mut bits = 0u64;
+    if a_max > a_min {
+        let (a0, a1) = (a_max as i32, a_min as i32);
+        let mut palette = [a0, a1, 0, 0, 0, 0, 0, 0];
+        for k in 1..7 {
+            palette[k + 1] = ((7 - k as i32) * a0 + k as i32 * a1 + 3) / 7;
+        }
+        for (i, p) in block.iter().enumerate() {
+            let a = p[3] as i32;
+            let mut best = 0;
+            for k in 1..8 {
+                if (a - palette[k]).abs() < (a - palette[best]).abs() {
+                    best = k;
+                }
+            }
+            bits |= (best as u64) << (3 * i);
+        }
+    }
+
+    out[0] = a_max;
+    out[1] = a_min;
+    out[2..8].copy_from_slice(&bits.to_le_bytes()[..6]);
+}
+
+fn pack_565(c: [f32; 3]) -> u16 {
+    let q = |v: f32, max: u32| ((v.round().clamp(0.0, 255.0) as u32 * max + 127) / 255) as u16;
+    (q(c[0], 31) << 11) | (q(c[1], 63) << 5) | q(c[2], 31)
+}
+
+fn unpack_565(v: u16) -> [i32; 3] {
+    let r = ((v >> 11) & 31) as i32;
+    let g = ((v >> 5) & 63) as i32;
+    let b = (v & 31) as i32;
+    [(r << 3) | (r >> 2), (g << 2) | (g >> 4), (b << 3) | (b >> 2)]
+}
+
+// ============================================================================
+// 磁盘缓存
+// ============================================================================
+
+fn encode_cache(texture: &Texture, source_len: u64, source_hash: u64) -> Vec<u8> {
+    let mut buf = Vec::with_capacity(HEADER_SIZE + texture.data.len());
+    buf.extend_from_slice(MAGIC);
+    buf.extend_from_slice(&CACHE_VERSION.to_le_bytes());
+    buf.extend_from_slice(&source_len.to_le_bytes());
+    buf.extend_from_slice(&source_hash.to_le_bytes());
+    buf.extend_from_slice(&(texture.format as u32).to_le_bytes());
+    buf.extend_from_slice(&(texture.has_alpha as u32).to_le_bytes());
+    buf.extend_from_slice(&texture.width.to_le_bytes());
+    buf.extend_from_slice(&texture.height.to_le_bytes());
+    buf.extend_from_slice(&(texture.mips.len() as u32).to_le_bytes());
+    buf.extend_from_slice(&texture.data);
+    buf
+}
+
+fn read_cache(path: &Path, source_len: u64, source_hash: u64) -> Option<Texture> {
+    let mut buf = fs::read(path).ok()?;
+    if buf.len() < HEADER_SIZE || &buf[0..4] != MAGIC {
+        return None;
+    }
+    let u32_at = |o: usize| u32::from_le_bytes([buf[o], buf[o + 1], buf[o + 2], buf[o + 3]]);
+    let u64_at = |o: usize| (u32_at(o) as u64) | ((u32_at(o + 4) as u64) << 32);
+    if u32_at(4) != CACHE_VERSION || u64_at(8) != source_len || u64_at(16) != source_hash {
+        return None;
+    }
+    let format = match u32_at(24) {
+        1 => TextureFormat::Bc1,
+        3 => TextureFormat::Bc3,
+        _ => return None,
+    };
+    let has_alpha = u32_at(28) != 0;
+    let (width, height, mip_count) = (u32_at(32), u32_at(36), u32_at(40) as usize);
+    if width == 0 || height == 0 {
+        return None;
+    }
+
+    let mips = mip_chain(width, height, format);
+    let total = mips.last().map(|m| m.offset + m.size).unwrap_or(0);
+    if mips.len() != mip_count || HEADER_SIZE + total != buf.len() {
+        log::warn!("纹理缓存已损坏，将重新压缩: {}", path.display());
+        return None;
+    }
+    buf.drain(..HEADER_SIZE);
+
+    Some(Texture {
+        width,
+        height,
+        data: buf,
+        has_alpha,
+        format,
+        mips,
+    })
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    /// BC1 颜色块解码（参考实现，c0 <= c1 时为 3 色模式）
+    fn decode_color_block(b: &[u8]) -> [[i32; 3]; 16] {
+        let c0 = u16::from_le_bytes([b[0], b[1]]);
+        let c1 = u16::from_le_bytes([b[2], b[3]]);
+        let (p0, p1) = (unpack_565(c0), unpack_565(c1));
+        let mix = |a: i32, b: i32, wa: i32, wb: i32, d: i32| (wa * a + wb * b) / d;
+        let palette = if c0 > c1 {
+            [
+                p0,
+                p1,
+                [mix(p0[0], p1[0], 2, 1, 3), mix(p0[1], p1[1], 2, 1, 3), mix(p0[2], p1[2], 2, 1, 3)],
+                [mix(p0[0], p1[0], 1, 2, 3), mix(p0[1], p1[1], 1, 2, 3), mix(p0[2], p1[2], 1, 2, 3)],
+            ]
+        } else {
+            [
+                p0,
+                p1,
+                [mix(p0[0], p1[0], 1, 1, 2), mix(p0[1], p1[1], 1, 1, 2), mix(p0[2], p1[2], 1, 1, 2)],
+                [0, 0, 0],
+            ]
+        };
+        let indices = u32::from_le_bytes([b[4], b[5], b[6], b[7]]);
+        let mut out = [[0; 3]; 16];
+        for (i, px) in out.iter_mut().enumerate() {
+            *px = palette[((indices >> (2 * i)) & 3) as usize];
+        }
+        out
+    }
+
+    /// BC3 透明通道块解码（参考实现）
+    fn decode_alpha_block(b: &[u8]) -> [i32; 16] {
+        let (a0, a1) = (b[0] as i32, b[1] as i32);
+        let mut palette = [a0, a1, 0, 0, 0, 0, 0, 0];
+        if a0 > a1 {
+            for k in 1..7 {
+                palette[k + 1] = ((7 - k as i32) * a0 + k as i32 * a1) / 7;
+            }
+        } else {
+            for k in 1..5 {
+                palette[k + 1] = ((5 - k as i32) * a0 + k as i32 * a1) / 5;
+            }
+            palette[7] = 255;
+        }
+        let mut bits = [0u8; 8];
+        bits[..6].copy_from_slice(&b[2..8]);
+        let bits = u64::from_le_bytes(bits);
+        let mut out = [0; 16];
+        for (i, a) in out.iter_mut().enumerate() {
+            *a = palette[((bits >> (3 * i)) & 7) as usize];
+        }
+        out
+    }
+
+    fn max_color_error(block: &[[u8; 4]; 16], decoded: &[[i32; 3]; 16]) -> i32 {
+        block
+            .iter()
+            .zip(decoded)
+            .flat_map(|(p, d)| (0..3).map(move |c| (p[c] as i32 - d[c]).abs()))
+            .max()
+            .unwrap()
+    }
+
+    #[test]
+    fn solid_block_round_trips_within_565_precision() {
+        let block = [[200u8, 100, 50, 255]; 16];
+        let mut out = [0u8; 8];
+        encode_color_block(&block, &mut out);
+        // 565 量化误差：红/蓝 ≤ 4，绿 ≤ 2
+        assert!(max_color_error(&block, &decode_color_block(&out)) <= 4);
+
+        let mut alpha = [0u8; 8];
+        encode_alpha_block(&[[0, 0, 0, 77]; 16], &mut alpha);
+        assert!(decode_alpha_block(&alpha).iter().all(|&a| a == 77));
+    }
+
+    #[test]
+    fn gradient_block_stays_within_palette_step() {
+        let mut block = [[0u8; 4]; 16];
+        for (i, p) in block.iter_mut().enumerate() {
+            let v = (i * 17) as u8;
+            *p = [v, v, v, 255 - v];
+        }
+
+        let mut color = [0u8; 8];
+        encode_color_block(&block, &mut color);
+        let decoded = decode_color_block(&color);
+        // 4 色调色板相邻项间隔约 85，最近项误差不超过半个间隔
+        assert!(max_color_error(&block, &decoded) <= 43);
+        // 两端像素落在端点上
+        assert!(decoded[0][0].abs() <= 4);
+        assert!((decoded[15][0] - 255).abs() <= 4);
+
+        let mut alpha = [0u8; 8];
+        encode_alpha_block(&block, &mut alpha);
+        let decoded = decode_alpha_block(&alpha);
+        // 8 级插值相邻项间隔约 36
+        for (p, a) in block.iter().zip(decoded.iter()) {
+            assert!((p[3] as i32 - a).abs() <= 19, "alpha {} -> {}", p[3], a);
+        }
+    }
+
+    #[test]
+    fn mip_chain_for_non_power_of_two() {
+        let mips = mip_chain(13, 7, TextureFormat::Bc1);
+        let dims: Vec<_> = mips.iter().map(|m| (m.width, m.height)).collect();
+        assert_eq!(dims, vec![(13, 7), (6, 3), (3, 1), (1, 1)]);
+        // 不足 4x4 的层级按整块计算
+        let sizes: Vec<_> = mips.iter().map(|m| m.size).collect();
+        assert_eq!(sizes, vec![4 * 2 * 8, 2 * 8, 8, 8]);
+        for pair in mips.windows(2) {
+            assert_eq!(pair[1].offset, pair[0].offset + pair[0].size);
+        }
+
+        let mips = mip_chain(5, 1, TextureFormat::Bc3);
+        let dims: Vec<_> = mips.iter().map(|m| (m.width, m.height)).collect();
+        assert_eq!(dims, vec![(5, 1), (2, 1), (1, 1)]);
+        assert_eq!(mips[0].size, 2 * 16);
+
+        assert_eq!(mip_chain(1, 1, TextureFormat::Bc1).len(), 1);
+    }
+
+    #[test]
+    fn compress_fills_every_level() {
+        let raw = Texture {
+            width: 13,
+            height: 7,
+            data: vec![128; 13 * 7 * 3],
+            has_alpha: false,
+            format: TextureFormat::Raw,
+            mips: Vec::new(),
+        };
+        let bc = compress(&raw);
+        assert_eq!(bc.format, TextureFormat::Bc1);
+        assert_eq!(bc.mips.len(), 4);
+        let last = bc.mips.last().unwrap();
+        assert_eq!(bc.data.len(), last.offset + last.size);
+    }
+
+    fn sample_texture() -> Texture {
+        let (w, h) = (9u32, 5u32);
+        let data = (0..w * h)
+            .flat_map(|i| [(i * 5) as u8, (i * 3) as u8, 255 - i as u8, (i * 7) as u8])
+            .collect();
+        compress(&Texture {
+            width: w,
+            height: h,
+            data,
+            has_alpha: true,
+            format: TextureFormat::Raw,
+            mips: Vec::new(),
+        })
+    }
+
+    fn temp_cache_path(name: &str) -> std::path::PathBuf {
+        std::env::temp_dir().join(format!(
+            "mmdt_test_{}_{}.v{}.{}",
+            std::process::id(),
+            name,
+            CACHE_VERSION,
+            CACHE_EXTENSION
+        ))
+    }
+
+    #[test]
+    fn cache_round_trip() {
+        let texture = sample_texture();
+        let path = temp_cache_path("round_trip");
+        write_atomic(&path, &encode_cache(&texture, 321, 0xABCD)).unwrap();
+
+        let read = read_cache(&path, 321, 0xABCD).expect("缓存应命中");
+        assert_eq!((read.width, read.height), (texture.width, texture.height));
+        assert_eq!(read.format, TextureFormat::Bc3);
+        assert!(read.has_alpha);
+        assert_eq!(read.mips.len(), texture.mips.len());
+        assert_eq!(read.data, texture.data);
+
+        // 源文件指纹不同视为未命中
+        assert!(read_cache(&path, 321, 0xABCE).is_none());
+        assert!(read_cache(&path, 322, 0xABCD).is_none());
+        let _ = fs::remove_file(&path);
+    }
+
+    #[test]
+    fn cache_rejects_truncated_and_wrong_version() {
+        let bytes = encode_cache(&sample_texture(), 321, 0xABCD);
+        let path = temp_cache_path("invalid");
+
+        for len in [HEADER_SIZE - 4, HEADER_SIZE, bytes.len() - 1] {
+            fs::write(&path, &bytes[..len]).unwrap();
+            assert!(read_cache(&path, 321, 0xABCD).is_none(), "截断到 {} 字节时应拒绝", len);
+        }
+
+        let mut wrong_version = bytes.clone();
+        wrong_version[4..8].copy_from_slice(&(CACHE_VERSION + 1).to_le_bytes());
+        fs::write(&path, &wrong_version).unwrap();
+        assert!(read_cache(&path, 321, 0xABCD).is_none());
+        let _ = fs::remove_file(&path);
+    }
+}
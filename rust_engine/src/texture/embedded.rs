@@ -0,0 +1,193 @@
+//! 模型内嵌纹理（VRM / glTF 图片）
+//!
+//! glTF 导入时图片已解码为像素，直接以虚拟路径登记到内存表，经 `load_texture` /
+//! `load_texture_compressed` 交给 Java 侧，不再写出 PNG 再读回。
+//!
+//! 虚拟路径格式：`embedded:<像素哈希>:<图片索引>:<源文件路径>`
+//! - 像素哈希（16 位十六进制）用作 Java 侧 MMDTextureManager 的去重键，不同模型中相同的图片共享同一 GL 纹理
+//! - 图片索引与源文件路径用于内存中没有像素时（模型缓存命中、已被取走）从源文件重新解码该图片
+//!
+//! 登记的像素在首次加载时被取走；剩余未取走的随所属模型资产释放（见 `EmbeddedTextures`）。
+
+use std::collections::HashMap;
+use std::path::Path;
+use std::sync::Mutex;
+
+use image::DynamicImage;
+use once_cell::sync::Lazy;
+
+use crate::model::content_hash;
+use crate::{MmdError, Result};
+
+use super::loader::texture_from_image;
+use super::Texture;
+
+const SCHEME: &str = "embedded:";
+
+/// 已解码、尚未被加载取走的内嵌图片（虚拟路径 -> 纹理）
+static PENDING: Lazy<Mutex<HashMap<String, Texture>>> = Lazy::new(|| Mutex::new(HashMap::new()));
+
+/// 解析后的虚拟路径
+struct EmbeddedPath<'a> {
+    hash: u64,
+    index: usize,
+    source: &'a str,
+}
+
+impl<'a> EmbeddedPath<'a> {
+    fn parse(path: &'a str) -> Option<Self> {
+        let rest = path.strip_prefix(SCHEME)?;
+        // 源文件路径可能含有 ':'（Windows 盘符），只切分前两段
+        let mut parts = rest.splitn(3, ':');
+        let hash = u64::from_str_radix(parts.next()?, 16).ok()?;
+        let index = parts.next()?.parse().ok()?;
+        let source = parts.next()?;
+        Some(Self { hash, index, source })
+    }
+}
+
+/// 是否为内嵌纹理虚拟路径
+pub fn is_embedded(path: &str) -> bool {
+    path.starts_with(SCHEME)
+}
+
+/// 虚拟路径中的像素哈希（纹理压缩缓存键）
+pub(super) fn embedded_hash(path: &str) -> Option<u64> {
+    EmbeddedPath::parse(path).map(|p| p.hash)
+}
+
+/// 将虚拟路径的源文件替换为当前路径（模型缓存按内容命中时源文件可能已移动或改名）
+pub fn rebase_embedded(path: &str, source: &Path) -> Option<String> {
+    let embedded = EmbeddedPath::parse(path)?;
+    let source = source.to_string_lossy().replace('\\', "/");
+    Some(format!("{}{:016x}:{}:{}", SCHEME, embedded.hash, embedded.index, source))
+}
+
+/// 模型资产持有的内嵌纹理登记；释放时丢弃仍未被取走的像素
+///
+/// Java 侧按像素哈希去重命中时不会加载对应虚拟路径，这部分像素最多保留到模型资产释放。
+#[derive(Default)]
+pub struct EmbeddedTextures {
+    paths: Vec<String>,
+}
+
+impl EmbeddedTextures {
+    /// 内存中尚未取走的像素字节数
+    pub fn pending_bytes(&self) -> usize {
+        if self.paths.is_empty() {
+            return 0;
+        }
+        let pending = PENDING.lock().unwrap_or_else(|e| e.into_inner());
+        self.paths.iter().filter_map(|p| pending.get(p)).map(|t| t.byte_count()).sum()
+    }
+}
+
+impl Drop for EmbeddedTextures {
+    fn drop(&mut self) {
+        if self.paths.is_empty() {
+            return;
+        }
+        let mut pending = PENDING.lock().unwrap_or_else(|e| e.into_inner());
+        for p in &self.paths {
+            pending.remove(p);
+        }
+    }
+}
+
+/// 登记 glTF 导入得到的图片，返回与图片顺序对应的虚拟路径与登记句柄
+pub fn register_gltf_images(source: &Path, images: Vec<gltf::image::Data>) -> (Vec<String>, EmbeddedTextures) {
+    let source = source.to_string_lossy().replace('\\', "/");
+    let mut paths = Vec::with_capacity(images.len());
+    let mut decoded = Vec::with_capacity(images.len());
+
+    for (i, data) in images.into_iter().enumerate() {
+        let hash = content_hash(&data.pixels)
+            ^ ((data.width as u64) << 32 | data.height as u64).rotate_left(17);
+        let path = format!("{}{:016x}:{}:{}", SCHEME, hash, i, source);
+        // 非 8 位格式不在此转换，加载时从源文件按原始编码重新解码
+        let format = data.format;
+        match image_from_gltf(data) {
+            Some(img) => decoded.push((path.clone(), texture_from_image(img))),
+            None => log::debug!("内嵌纹理 {} 格式 {:?} 延迟解码", i, format),
+        }
+        paths.push(path);
+    }
+
+    if !decoded.is_empty() {
+        PENDING.lock().unwrap_or_else(|e| e.into_inner()).extend(decoded);
+    }
+    let registered = EmbeddedTextures { paths: paths.clone() };
+    (paths, registered)
+}
+
+/// 加载内嵌纹理：优先取走内存中已解码的像素，否则从源文件解码该图片
+pub(super) fn load_embedded(path: &str) -> Result<Texture> {
+    if let Some(texture) = take_pending(path) {
+        return Ok(texture);
+    }
+    let embedded = EmbeddedPath::parse(path)
+        .ok_or_else(|| MmdError::Texture(format!("Invalid embedded texture path: {}", path)))?;
+    decode_from_source(Path::new(embedded.source), embedded.index)
+}
+
+/// 丢弃内存中的像素（压缩缓存命中时不再需要）
+pub(super) fn discard_pending(path: &str) {
+    take_pending(path);
+}
+
+fn take_pending(path: &str) -> Option<Texture> {
+    PENDING.lock().unwrap_or_else(|e| e.into_inner()).remove(path)
+}
+
+fn image_from_gltf(data: gltf::image::Data) -> Option<DynamicImage> {
+    use gltf::image::Format;
+    let (w, h, pixels) = (data.width, data.height, data.pixels);
+    match data.format {
+        Format::R8G8B8 => image::RgbImage::from_raw(w, h, pixels).map(DynamicImage::ImageRgb8),
+        Format::R8G8B8A8 => image::RgbaImage::from_raw(w, h, pixels).map(DynamicImage::ImageRgba8),
+        Format::R8 => image::GrayImage::from_raw(w, h, pixels).map(DynamicImage::ImageLuma8),
+        Format::R8G8 => image::GrayAlphaImage::from_raw(w, h, pixels).map(DynamicImage::ImageLumaA8),
+        _ => None,
+    }
+}
+
+/// 从 GLB 二进制块中直接解码单张图片；外部 / data URI 图片退回完整导入
+fn decode_from_source(source: &Path, index: usize) -> Result<Texture> {
+    let bytes = std::fs::read(source)?;
+    let gltf = gltf::Gltf::from_slice(&bytes)
+        .map_err(|e| MmdError::Texture(format!("Failed to parse glTF: {}", e)))?;
+    let image = gltf.document.images().nth(index)
+        .ok_or_else(|| MmdError::Texture(format!("Embedded image {} not found in {}", index, source.display())))?;
+
+    if let gltf::image::Source::View { view, .. } = image.source() {
+        if let (gltf::buffer::Source::Bin, Some(blob)) = (view.buffer().source(), gltf.blob.as_deref()) {
+            let range = view.offset()..view.offset() + view.length();
+            let encoded = blob.get(range)
+                .ok_or_else(|| MmdError::Texture(format!("Embedded image {} out of range", index)))?;
+            let img = image::load_from_memory(encoded)
+                .map_err(|e| MmdError::Texture(format!("Failed to load texture: {}", e)))?;
+            return Ok(texture_from_image(img));
+        }
+    }
+
+    let (_, _, images) = gltf::import(source)
+        .map_err(|e| MmdError::Texture(format!("Failed to import glTF: {}", e)))?;
+    images.into_iter().nth(index)
+        .and_then(image_from_gltf)
+        .map(texture_from_image)
+        .ok_or_else(|| MmdError::Texture(format!("Unsupported embedded image {}", index)))
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn parses_virtual_path_with_drive_letter() {
+        let p = EmbeddedPath::parse("embedded:00000000000000ff:3:C:/models/a.vrm").unwrap();
+        assert_eq!(p.hash, 0xff);
+        assert_eq!(p.index, 3);
+        assert_eq!(p.source, "C:/models/a.vrm");
+        assert!(EmbeddedPath::parse("C:/models/a.png").is_none());
+    }
+}
@@ -9,13 +9,18 @@ use std::path::Path;
 use image::{GenericImageView, DynamicImage};
 
 use crate::{Result, MmdError};
+use super::embedded::{is_embedded, load_embedded};
 use super::Texture;
 
 /// 从文件加载纹理
 /// 与C++版本完全一致：
 /// 1. 垂直翻转图像
 /// 2. 根据原始通道数选择RGB(3字节)或RGBA(4字节)
+/// 3. 内嵌纹理虚拟路径（见 embedded）从内存或源模型文件获取
 pub fn load_texture<P: AsRef<Path>>(path: P) -> Result<Texture> {
+    if let Some(key) = path.as_ref().to_str().filter(|p| is_embedded(p)) {
+        return load_embedded(key);
+    }
     let img = image::open(path.as_ref())
         .map_err(|e| MmdError::Texture(format!("Failed to load texture: {}", e)))?;
     
@@ -38,6 +43,22 @@ pub fn load_texture<P: AsRef<Path>>(path: P) -> Result<Texture> {
     Ok(Texture::new(width, height, data, has_alpha))
 }
 
+/// 将解码后的图片转换为纹理（垂直翻转 + RGB/RGBA 选择，与 load_texture 一致）
+pub(super) fn texture_from_image(img: DynamicImage) -> Texture {
+    let (width, height) = img.dimensions();
+    let has_alpha = has_alpha_channel(&img);
+    
+    let data = if has_alpha {
+        let rgba = img.to_rgba8();
+        image::imageops::flip_vertical(&rgba).into_raw()
+    } else {
+        let rgb = img.to_rgb8();
+        image::imageops::flip_vertical(&rgb).into_raw()
+    };
+    
+    Texture::new(width, height, data, has_alpha)
+}
+
 /// 检查图片是否有透明通道
 /// 与C++一致：comp == 4 时返回true
 fn has_alpha_channel(img: &DynamicImage) -> bool {
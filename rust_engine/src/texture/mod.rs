@@ -1,8 +1,33 @@
 //! 纹理加载和管理
 
 mod loader;
+mod compress;
+mod embedded;
 
 pub use loader::load_texture;
+pub use embedded::{is_embedded, rebase_embedded, register_gltf_images, EmbeddedTextures};
+pub use compress::load_texture_compressed;
+pub(crate) use compress::is_stale_cache_file;
+
+/// 纹理像素格式（数值与 Java 侧 MMDTextureManager 约定一致）
+#[derive(Clone, Copy, Debug, PartialEq, Eq)]
+pub enum TextureFormat {
+    /// 未压缩 RGB8 / RGBA8（由 has_alpha 决定），只有一个 Mip 层级
+    Raw = 0,
+    /// BC1（DXT1），不透明纹理
+    Bc1 = 1,
+    /// BC3（DXT5），带透明通道纹理
+    Bc3 = 3,
+}
+
+/// 单个 Mip 层级在 data 中的位置
+#[derive(Clone, Copy, Debug)]
+pub struct MipLevel {
+    pub width: u32,
+    pub height: u32,
+    pub offset: usize,
+    pub size: usize,
+}
 
 /// 纹理数据
 #[derive(Clone)]
@@ -11,11 +36,15 @@ pub struct Texture {
     pub height: u32,
     pub data: Vec<u8>,
     pub has_alpha: bool,
+    pub format: TextureFormat,
+    /// Mip 链（层级 0 为原始尺寸），各层级数据按顺序紧密排列在 data 中
+    pub mips: Vec<MipLevel>,
 }
 
 impl Texture {
     pub fn new(width: u32, height: u32, data: Vec<u8>, has_alpha: bool) -> Self {
-        Self { width, height, data, has_alpha }
+        let mips = vec![MipLevel { width, height, offset: 0, size: data.len() }];
+        Self { width, height, data, has_alpha, format: TextureFormat::Raw, mips }
     }
     
     /// 获取纹理字节数